@@ -47,6 +47,8 @@ public final class AssetManager implements ProjectChangeListener {
     byte [] fileContent;
     boolean loaded;         // true if already loaded to the repl (phone)
     boolean transferred;           // true if asset received on phone
+    double received;        // bytes of the asset the phone has received so far
+    double total;           // size of the asset, or 0 if not known yet
   }
 
   private HashMap<String, AssetInfo> assets = null;
@@ -269,6 +271,8 @@ public final class AssetManager implements ProjectChangeListener {
     for (AssetInfo a: assets.values()) {
       a.loaded = false;
       a.transferred = false;
+      a.received = 0;
+      a.total = 0;
     }
   }
 
@@ -288,6 +292,7 @@ public final class AssetManager implements ProjectChangeListener {
     // assetsTransferredCallback
     for (AssetInfo a : assets.values()) {
       if (!a.transferred) {     // Something didn't get transferred
+        showTransferProgress(MESSAGES.companionLoadingAsset(a.fileId, percent(a)));
         return true;
       }
     }
@@ -299,6 +304,48 @@ public final class AssetManager implements ProjectChangeListener {
     return  true;
   }
 
+  /**
+   * Called as the Companion downloads an asset from the server, to show how
+   * much of it has arrived.
+   */
+  public static boolean assetProgress(String asset, double received, double total) {
+    if (INSTANCE == null)
+      return false;
+    INSTANCE.assetProgress1(asset, received, total);
+    return true;
+  }
+
+  public void assetProgress1(String asset, double received, double total) {
+    AssetInfo assetInfo = assets == null ? null : assets.get(asset);
+    if (assetInfo == null || assetInfo.transferred) {
+      return;
+    }
+    assetInfo.received = received;
+    assetInfo.total = total > 0 ? total : 0;
+    showTransferProgress(MESSAGES.companionLoadingAsset(asset, percent(assetInfo)));
+  }
+
+  private static int percent(AssetInfo assetInfo) {
+    return assetInfo.total > 0 ? (int) Math.min(100, 100 * assetInfo.received / assetInfo.total)
+        : 0;
+  }
+
+  /**
+   * Shows how much of the assets the Companion has received. The first half of
+   * the bar is taken by sending the requests for them.
+   */
+  private void showTransferProgress(String message) {
+    double done = 0;
+    for (AssetInfo a : assets.values()) {
+      if (a.transferred) {
+        done += 1;
+      } else if (a.total > 0) {
+        done += Math.min(1, a.received / a.total);
+      }
+    }
+    ConnectProgressBar.setProgress((int) (50 + 50 * done / assets.size()), message);
+  }
+
   public static JsArrayString getExtensionsToLoad() {
     JsArrayString result = JsArrayString.createArray().cast();
     if (INSTANCE != null) {
@@ -343,6 +390,8 @@ public final class AssetManager implements ProjectChangeListener {
       $entry(@com.google.appinventor.client.AssetManager::reset(Ljava/lang/String;));
     $wnd.AssetManager_markAssetTransferred =
       $entry(@com.google.appinventor.client.AssetManager::markAssetTransferred(Ljava/lang/String;));
+    $wnd.AssetManager_assetProgress =
+      $entry(@com.google.appinventor.client.AssetManager::assetProgress(Ljava/lang/String;DD));
     $wnd.AssetManager_getExtensions =
       $entry(@com.google.appinventor.client.AssetManager::getExtensionsToLoad());
   }-*/;
@@ -59,7 +59,8 @@ public class DesignToolbar extends Toolbar {
   /*
    * A Screen groups together the form editor and blocks editor for an
    * application screen. Name is the name of the screen (form) displayed
-   * in the screens pull-down.
+   * in the screens pull-down. The editors are null if the screen has not
+   * been loaded (see YaProjectEditor.loadScreen).
    */
   public static class Screen {
     public final String screenName;
@@ -93,11 +94,16 @@ public class DesignToolbar extends Toolbar {
     }
 
     // Returns true if we added the screen (it didn't previously exist), false otherwise.
+    // If the screen exists but its editors have been created or disposed of, they are replaced.
     public boolean addScreen(String name, FileEditor formEditor, FileEditor blocksEditor) {
-      if (!screens.containsKey(name)) {
+      Screen screen = screens.get(name);
+      if (screen == null) {
         screens.put(name, new Screen(name, formEditor, blocksEditor));
         return true;
       } else {
+        if (screen.formEditor != formEditor || screen.blocksEditor != blocksEditor) {
+          screens.put(name, new Screen(name, formEditor, blocksEditor));
+        }
         return false;
       }
     }
@@ -297,7 +303,7 @@ public class DesignToolbar extends Toolbar {
       });
   }
 
-  private void doSwitchScreen1(long projectId, String screenName, View view) {
+  private void doSwitchScreen1(final long projectId, String screenName, final View view) {
     if (!projectMap.containsKey(projectId)) {
       OdeLog.wlog("DesignToolbar: no project with id " + projectId
           + ". Ignoring SwitchScreenAction.execute().");
@@ -325,8 +331,21 @@ public class DesignToolbar extends Toolbar {
         return;
       }
     }
-    currentView = view;
     Screen screen = currentProject.screens.get(newScreenName);
+    if (screen.formEditor == null) {
+      // The screen has not been loaded yet. Switch to it once it has.
+      final String loadScreenName = newScreenName;
+      YaProjectEditor yaProjectEditor = (YaProjectEditor) Ode.getInstance().getEditorManager()
+          .getOpenProjectEditor(projectId);
+      yaProjectEditor.loadScreen(loadScreenName, new Command() {
+        @Override
+        public void execute() {
+          doSwitchScreen(projectId, loadScreenName, view);
+        }
+      });
+      return;
+    }
+    currentView = view;
     ProjectEditor projectEditor = screen.formEditor.getProjectEditor();
     currentProject.setCurrentScreen(newScreenName);
     setDropDownButtonCaption(WIDGET_NAME_SCREENS_DROPDOWN, newScreenName);
@@ -343,6 +362,7 @@ public class DesignToolbar extends Toolbar {
     // Inform the Blockly Panel which project/screen (aka form) we are working on
     BlocklyPanel.setCurrentForm(projectId + "_" + newScreenName);
     screen.blocksEditor.makeActiveWorkspace();
+    ((YaProjectEditor) projectEditor).onScreenSelected(newScreenName);
   }
 
   private class SwitchToBlocksEditorAction implements Command {
@@ -1037,6 +1037,24 @@ public interface OdeMessages extends Messages, AutogeneratedOdeMessages {
   @Description("Text for accelerometer sensitivity choice 'strong'")
   String strongAccelerometerSensitivity();
 
+  //Used in editor/youngandroid/properties/YoungAndroidSensorSamplingModeChoicePropertyEditor.java
+
+  @DefaultMessage("every sample")
+  @Description("Text for sensor sampling mode choice 'every sample'")
+  String allSensorSamplingMode();
+
+  @DefaultMessage("latest only")
+  @Description("Text for sensor sampling mode choice 'latest only'")
+  String latestSensorSamplingMode();
+
+  @DefaultMessage("low-pass")
+  @Description("Text for sensor sampling mode choice 'low-pass'")
+  String lowPassSensorSamplingMode();
+
+  @DefaultMessage("decimate")
+  @Description("Text for sensor sampling mode choice 'decimate'")
+  String decimateSensorSamplingMode();
+
   // Used in editor/youngandroid/properties/YoungAndroidSizingChoicePropertyEditor.java
 
   @DefaultMessage("Fixed")
@@ -2178,6 +2196,10 @@ public interface OdeMessages extends Messages, AutogeneratedOdeMessages {
   @Description("Message to display when sending an asset to the companion")
   String sendingAssetToCompanion(String assetPath);
 
+  @DefaultMessage("Companion is downloading {0} ({1}%)...")
+  @Description("Message to display while the companion downloads an asset from the server")
+  String companionLoadingAsset(String assetPath, int percent);
+
   // This error message is displayed as HTML
   @DefaultMessage("App Inventor is unable to compile this project.  " +
       "<br /> The compiler error output was <br /> {0}.")
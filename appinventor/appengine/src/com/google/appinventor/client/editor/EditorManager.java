@@ -12,6 +12,7 @@ import com.google.appinventor.client.ErrorReporter;
 import com.google.appinventor.client.Ode;
 import com.google.appinventor.client.OdeAsyncCallback;
 import com.google.appinventor.client.editor.youngandroid.YaBlocksEditor;
+import com.google.appinventor.client.editor.youngandroid.YaProjectEditor;
 import com.google.appinventor.client.editor.youngandroid.YailGenerationException;
 import com.google.appinventor.client.explorer.project.Project;
 import com.google.appinventor.client.output.OdeLog;
@@ -197,6 +198,33 @@ public final class EditorManager {
     scheduleAutoSaveTimer();
   }
 
+  /**
+   * Checks whether the given file editor has changes waiting to be auto-saved.
+   *
+   * @param fileEditor the file editor
+   * @return true if the file editor will be saved by the next auto-save
+   */
+  public boolean isAutoSaveScheduled(FileEditor fileEditor) {
+    return dirtyFileEditors.contains(fileEditor);
+  }
+
+  /**
+   * Makes the next yail generation for a project include every screen, rather
+   * than only the screens that changed since their yail was last saved.
+   *
+   * @param projectId the project ID
+   */
+  public void forgetSavedYail(long projectId) {
+    ProjectEditor projectEditor = openProjectEditors.get(projectId);
+    if (projectEditor != null) {
+      for (FileEditor fileEditor : projectEditor.getOpenFileEditors()) {
+        if (fileEditor instanceof YaBlocksEditor) {
+          ((YaBlocksEditor) fileEditor).forgetSavedYail();
+        }
+      }
+    }
+  }
+
   /**
    * Check whether there is an open project editor.
    *
@@ -308,7 +336,34 @@ public final class EditorManager {
   public void generateYailForBlocksEditors(final Command successCommand, 
       final Command failureCommand) {
     List<FileDescriptorWithContent> yailFiles =  new ArrayList<FileDescriptorWithContent>();
+    final List<YaBlocksEditor> yailEditors = new ArrayList<YaBlocksEditor>();
     long currentProjectId = Ode.getInstance().getCurrentYoungAndroidProjectId();
+    ProjectEditor currentProjectEditor = openProjectEditors.get(currentProjectId);
+    if (currentProjectEditor instanceof YaProjectEditor
+        && !((YaProjectEditor) currentProjectEditor).allScreensLoaded()) {
+      // Screens are loaded when they are first selected, but yail is needed for all of them.
+      // Loading may upgrade some of their files, so save those first.
+      ((YaProjectEditor) currentProjectEditor).loadAllScreens(new Command() {
+        @Override
+        public void execute() {
+          saveDirtyEditors(new Command() {
+            @Override
+            public void execute() {
+              generateYailForBlocksEditors(successCommand, failureCommand);
+            }
+          });
+        }
+      }, new Command() {
+        @Override
+        public void execute() {
+          // The screen that failed to load has reported the error
+          if (failureCommand != null) {
+            failureCommand.execute();
+          }
+        }
+      });
+      return;
+    }
     for (long projectId : openProjectEditors.keySet()) {
       if (projectId == currentProjectId) {
         // Generate yail for each blocks editor in this project and add it to the list of 
@@ -319,7 +374,11 @@ public final class EditorManager {
           if (fileEditor instanceof YaBlocksEditor) {
             YaBlocksEditor yaBlocksEditor = (YaBlocksEditor) fileEditor;
             try {
-              yailFiles.add(yaBlocksEditor.getYail());
+              FileDescriptorWithContent yailFile = yaBlocksEditor.getYail();
+              if (yailFile != null) {
+                yailFiles.add(yailFile);
+                yailEditors.add(yaBlocksEditor);
+              }
             } catch (YailGenerationException e) {
               ErrorReporter.reportInfo(MESSAGES.yailGenerationError(e.getFormName(), 
                   e.getMessage()));
@@ -333,12 +392,22 @@ public final class EditorManager {
         break;
       }
     }
-   
+
+    if (yailFiles.isEmpty()) {
+      // The yail saved for every screen is up to date
+      if (successCommand != null) {
+        successCommand.execute();
+      }
+      return;
+    }
     Ode.getInstance().getProjectService().save(Ode.getInstance().getSessionId(),
         yailFiles,
         new OdeAsyncCallback<Long>(MESSAGES.saveErrorMultipleFiles()) {
       @Override
       public void onSuccess(Long date) {
+        for (YaBlocksEditor yaBlocksEditor : yailEditors) {
+          yaBlocksEditor.onYailSaved();
+        }
         if (successCommand != null) {
           successCommand.execute();
         }
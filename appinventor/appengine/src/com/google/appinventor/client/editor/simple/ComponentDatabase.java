@@ -7,7 +7,6 @@
 package com.google.appinventor.client.editor.simple;
 
 import com.google.appinventor.client.explorer.project.ComponentDatabaseChangeListener;
-import com.google.appinventor.client.properties.json.ClientJsonParser;
 import com.google.appinventor.shared.properties.json.JSONArray;
 import com.google.appinventor.shared.properties.json.JSONObject;
 import com.google.appinventor.shared.properties.json.JSONValue;
@@ -29,11 +28,12 @@ class ComponentDatabase implements ComponentDatabaseInterface {
 
 
 
-  // Maps component names to component descriptors
+  // Maps component names to component descriptors. Internal components map
+  // to null until they are first looked up.
   private final Map<String, ComponentDefinition> components;
 
-  // Components in JSON String generated from internal components
-  private final String internalComponentsJSONString;
+  // Internal components, possibly shared with other databases
+  private final ComponentIndex internalComponents;
   // Components in JSON String generated from components
   private String componentsJSONString;
 
@@ -47,15 +47,25 @@ class ComponentDatabase implements ComponentDatabaseInterface {
    *          a JSONArray of components
    */
   ComponentDatabase(JSONArray array) {
+    this(new ComponentIndex(array));
+  }
+
+  /**
+   * Creates a new component database whose internal components are those
+   * in the given index. Components are only parsed when they are first
+   * looked up.
+   *
+   * @param internalComponents
+   *          an index of components
+   */
+  ComponentDatabase(ComponentIndex internalComponents) {
+    this.internalComponents = internalComponents;
     components = new HashMap<String, ComponentDefinition>();
-    List<String> newComponents = new ArrayList<String>();
-    for (JSONValue component : array.getElements()) {
-      if (initComponent(component.asObject())) {
-        newComponents.add(component.asObject().get("name").asString().getString());
-      }
+    List<String> newComponents = internalComponents.getComponentNames();
+    for (String componentName : newComponents) {
+      components.put(componentName, null);
     }
-    internalComponentsJSONString = generateComponentsJSON();
-    componentsJSONString = internalComponentsJSONString;
+    componentsJSONString = generateComponentsJSON();
     fireComponentsAdded(newComponents);
   }
 
@@ -92,7 +102,8 @@ class ComponentDatabase implements ComponentDatabaseInterface {
     if (!fireBeforeComponentsRemoved(removedComponents)) {
       throw new IllegalStateException("Failed to remove Component!");
     }
-    if (components.remove(componentName) != null) {
+    if (components.containsKey(componentName)) {
+      components.remove(componentName);
       componentsJSONString = generateComponentsJSON();
       fireComponentsRemoved(removedComponentsMap);
       return true;
@@ -104,8 +115,12 @@ class ComponentDatabase implements ComponentDatabaseInterface {
    */
   public void resetDatabase() {
     components.clear();
-    componentsJSONString = "";
-    addComponents(new ClientJsonParser().parse(internalComponentsJSONString).asArray());
+    List<String> newComponents = internalComponents.getComponentNames();
+    for (String componentName : newComponents) {
+      components.put(componentName, null);
+    }
+    componentsJSONString = generateComponentsJSON();
+    fireComponentsAdded(newComponents);
     fireResetDatabase();
   }
 
@@ -117,56 +132,59 @@ class ComponentDatabase implements ComponentDatabaseInterface {
   public ComponentDefinition getComponentDefinition(String componentName) {
     ComponentDefinition component = components.get(componentName);
     if (component == null) {
-      throw new ComponentNotFoundException(componentName);
+      if (!components.containsKey(componentName)) {
+        throw new ComponentNotFoundException(componentName);
+      }
+      // A built-in component that has not been looked up yet
+      component = internalComponents.getComponentDefinition(componentName);
+      components.put(componentName, component);
     }
-
     return component;
   }
 
-  @Override
-  public int getComponentVersion(String componentName) {
+  /*
+   * Returns a descriptor of a component for looking up the fields that the palette shows. A
+   * built-in component that has not been looked up yet is not parsed for this.
+   */
+  private ComponentDefinition getComponentSummary(String componentName) {
     ComponentDefinition component = components.get(componentName);
     if (component == null) {
-      throw new ComponentNotFoundException(componentName);
+      if (!components.containsKey(componentName)) {
+        throw new ComponentNotFoundException(componentName);
+      }
+      return internalComponents.getComponentSummary(componentName);
     }
+    return component;
+  }
 
+  @Override
+  public int getComponentVersion(String componentName) {
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getVersion();
   }
 
   @Override
   public String getComponentVersionName(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getVersionName();
   }
 
   @Override
   public String getComponentBuildDate(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getDateBuilt();
   }
 
   @Override
   public String getComponentType(String componentName){
-    ComponentDefinition component = components.get(componentName);
-    if(component == null){
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getType();
   }
 
   @Override
   public String getComponentName(String componentType) {
     for (String componentName : components.keySet()) {
-      ComponentDefinition component = components.get(componentName);
+      ComponentDefinition component = getComponentSummary(componentName);
       if (component.getType() == componentType) {
         return componentName;
       }
@@ -176,139 +194,85 @@ class ComponentDatabase implements ComponentDatabaseInterface {
 
   @Override
   public boolean getComponentExternal(String componentName){
-    ComponentDefinition component = components.get(componentName);
-    if(component == null){
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.isExternal();
   }
 
   @Override
   public String getCategoryString(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getCategoryString();
   }
 
   @Override
   public String getCategoryDocUrlString(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getCategoryDocUrlString();
   }
 
   @Override
   public String getHelpString(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getHelpString();
   }
 
   @Override
   public String getHelpUrl(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getHelpUrl();
   }
 
   @Override
   public boolean getShowOnPalette(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.isShowOnPalette();
   }
 
   @Override
   public boolean getNonVisible(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.isNonVisible();
   }
 
   @Override
   public String getIconName(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
+    ComponentDefinition component = getComponentSummary(componentName);
     return component.getIconName();
   }
 
   @Override
   public List<PropertyDefinition> getPropertyDefinitions(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentDefinition(componentName);
     return component.getProperties();
   }
 
   @Override
   public List<BlockPropertyDefinition> getBlockPropertyDefinitions(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentDefinition(componentName);
     return component.getBlockProperties();
   }
 
   @Override
   public List<EventDefinition> getEventDefinitions(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentDefinition(componentName);
     return component.getEvents();
   }
 
   @Override
   public List<MethodDefinition> getMethodDefinitions(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentDefinition(componentName);
     return component.getMethods();
   }
 
   @Override
   public Map<String, String> getPropertyTypesByName(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentDefinition(componentName);
     return component.getPropertiesTypesByName();
   }
 
   @Override
   public String getTypeDescription(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      throw new ComponentNotFoundException(componentName);
-    }
-
+    ComponentDefinition component = getComponentDefinition(componentName);
     return component.getTypeDescription();
   }
 
@@ -321,13 +285,43 @@ class ComponentDatabase implements ComponentDatabaseInterface {
    * it in the components map.
    */
   private boolean initComponent(JSONObject componentNode) {
-    Map<String, JSONValue> properties = componentNode.getProperties();
-    String name = properties.get("name").asString().getString();
-    if(components.containsKey(name)) {
+    ComponentDefinition component = createComponentDefinition(componentNode,
+        componentNode.toJson());
+    if(components.containsKey(component.getName())) {
       // This must be a component upgrade! We remove existing entry
-      components.remove(name);
+      components.remove(component.getName());
     }
-    ComponentDefinition component = new ComponentDefinition(name,
+    components.put(component.getName(), component);
+    return true;
+  }
+
+  /*
+   * Creates a component descriptor from the contents of the JSON file.
+   */
+  static ComponentDefinition createComponentDefinition(JSONObject componentNode,
+      String typeDescription) {
+    ComponentDefinition component = createComponentSummary(componentNode, typeDescription);
+    Map<String, JSONValue> properties = componentNode.getProperties();
+    findComponentProperties(component, properties.get("properties").asArray());
+    findComponentBlockProperties(component, properties.get("blockProperties").asArray());
+    findComponentEvents(component, properties.get("events").asArray());
+    findComponentMethods(component, properties.get("methods").asArray());
+    return component;
+  }
+
+  /*
+   * Creates a component descriptor without properties, events or methods from the fields that
+   * the palette shows, as written to the component index.
+   */
+  static ComponentDefinition createComponentSummary(JSONObject summaryNode) {
+    return createComponentSummary(summaryNode, null);
+  }
+
+  private static ComponentDefinition createComponentSummary(JSONObject componentNode,
+      String typeDescription) {
+    Map<String, JSONValue> properties = componentNode.getProperties();
+    String name = properties.get("name").asString().getString();
+    return new ComponentDefinition(name,
         Integer.parseInt(properties.get("version").asString().getString()),
         optString(properties.get("versionName"), ""),
         optString(properties.get("dateBuilt"), ""),
@@ -338,13 +332,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
         properties.containsKey("helpUrl") ? properties.get("helpUrl").asString().getString() : "",
         Boolean.valueOf(properties.get("showOnPalette").asString().getString()),
         Boolean.valueOf(properties.get("nonVisible").asString().getString()),
-        properties.get("iconName").asString().getString(), componentNode.toJson());
-    findComponentProperties(component, properties.get("properties").asArray());
-    findComponentBlockProperties(component, properties.get("blockProperties").asArray());
-    findComponentEvents(component, properties.get("events").asArray());
-    findComponentMethods(component, properties.get("methods").asArray());
-    components.put(component.getName(), component);
-    return true;
+        properties.get("iconName").asString().getString(), typeDescription);
   }
 
   /**
@@ -354,7 +342,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
    * @return A non-null String containing either the String version of {@code value} or
    * {@code defaultValue}
    */
-  private String optString(JSONValue value, String defaultValue) {
+  private static String optString(JSONValue value, String defaultValue) {
     if (value == null) {
       return defaultValue;
     }
@@ -364,7 +352,8 @@ class ComponentDatabase implements ComponentDatabaseInterface {
   /*
    * Enters property information into the component descriptor.
    */
-  private void findComponentProperties(ComponentDefinition component, JSONArray propertiesArray) {
+  private static void findComponentProperties(ComponentDefinition component,
+      JSONArray propertiesArray) {
     for (JSONValue propertyValue : propertiesArray.getElements()) {
       Map<String, JSONValue> properties = propertyValue.asObject().getProperties();
 
@@ -387,7 +376,8 @@ class ComponentDatabase implements ComponentDatabaseInterface {
   /*
    * Enters block property information into the component descriptor.
    */
-  private void findComponentBlockProperties(ComponentDefinition component, JSONArray blockPropertiesArray) {
+  private static void findComponentBlockProperties(ComponentDefinition component,
+      JSONArray blockPropertiesArray) {
     for (JSONValue blockPropertyValue : blockPropertiesArray.getElements()) {
       Map<String, JSONValue> blockProperties = blockPropertyValue.asObject().getProperties();
       component.add(new BlockPropertyDefinition(blockProperties.get("name").asString().getString(),
@@ -399,7 +389,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
   /*
    * Enters event information into the component descriptor.
    */
-  private void findComponentEvents(ComponentDefinition component, JSONArray eventsArray) {
+  private static void findComponentEvents(ComponentDefinition component, JSONArray eventsArray) {
     for (JSONValue eventValue : eventsArray.getElements()) {
       Map<String, JSONValue> event = eventValue.asObject().getProperties();
 
@@ -423,7 +413,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
   /*
    * Enters method information into the component descriptor.
    */
-  private void findComponentMethods(ComponentDefinition component, JSONArray methodsArray) {
+  private static void findComponentMethods(ComponentDefinition component, JSONArray methodsArray) {
     for (JSONValue blockPropertyValue : methodsArray.getElements()) {
       Map<String, JSONValue> method = blockPropertyValue.asObject().getProperties();
 
@@ -449,7 +439,10 @@ class ComponentDatabase implements ComponentDatabaseInterface {
     sb.append("[");
     String separator = "";
     for(Map.Entry<String, ComponentDefinition> comp : components.entrySet()){
-      sb.append(separator).append(comp.getValue().getTypeDescription());
+      // Internal components that have not been parsed yet use their JSON as is
+      sb.append(separator).append(comp.getValue() == null
+          ? internalComponents.getTypeDescription(comp.getKey())
+          : comp.getValue().getTypeDescription());
       separator=",";
     }
     sb.append("]");
@@ -458,12 +451,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
 
   @Override
   public boolean isComponent(String componentName) {
-    ComponentDefinition component = components.get(componentName);
-    if (component == null) {
-      return false;
-    }
-
-    return true;
+    return components.containsKey(componentName);
   }
 
   public void addComponentDatabaseListener(ComponentDatabaseChangeListener listener) {
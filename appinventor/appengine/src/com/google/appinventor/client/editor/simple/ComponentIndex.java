@@ -0,0 +1,167 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.client.editor.simple;
+
+import com.google.appinventor.shared.properties.json.JSONArray;
+import com.google.appinventor.shared.properties.json.JSONParser;
+import com.google.appinventor.shared.properties.json.JSONValue;
+import com.google.appinventor.shared.simple.ComponentDatabaseInterface.ComponentDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The built-in component descriptions, kept as one JSON chunk per
+ * component. A chunk is only parsed the first time its component is
+ * looked up, and the parsed definition is kept, so the component
+ * databases of all open projects share a single copy of each.
+ *
+ * <p>The index is written by the build next to simple_components.json
+ * (see ComponentDescriptorGenerator). It has one line per component
+ * giving its name, the start and end offsets of its chunk and a small
+ * JSON object with the fields that the palette shows, separated by tabs.
+ * The palette can therefore be built without parsing any chunk.
+ *
+ */
+final class ComponentIndex {
+
+  private final JSONParser parser;
+  private final String source;
+
+  // Component names, in the order they appear in the source
+  private final List<String> names = new ArrayList<String>();
+
+  // Maps component names to {start, end} of their chunk in source
+  private final Map<String, int[]> chunks = new HashMap<String, int[]>();
+
+  // Maps component names to the JSON text of the fields the palette shows
+  private final Map<String, String> summaries = new HashMap<String, String>();
+
+  // Maps component names to component descriptors that have been parsed
+  private final Map<String, ComponentDefinition> definitions =
+      new HashMap<String, ComponentDefinition>();
+
+  // Maps component names to descriptors parsed from their summaries, which
+  // have no properties, events or methods
+  private final Map<String, ComponentDefinition> summaryDefinitions =
+      new HashMap<String, ComponentDefinition>();
+
+  /**
+   * Creates an index over the given component descriptions.
+   *
+   * @param parser  the JSON parser used to parse chunks on demand
+   * @param source  the contents of simple_components.json
+   * @param index  the contents of simple_components_index.txt
+   */
+  ComponentIndex(JSONParser parser, String source, String index) {
+    this.parser = parser;
+    this.source = source;
+    for (String line : index.split("\n")) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      String[] fields = line.split("\t");
+      if (fields.length != 4) {
+        throw new IllegalStateException("Bad line in component index: " + line);
+      }
+      int start = Integer.parseInt(fields[1]);
+      int end = Integer.parseInt(fields[2]);
+      if (end > source.length() || source.charAt(start) != '{') {
+        throw new IllegalStateException("Component index does not match components: " + line);
+      }
+      names.add(fields[0]);
+      chunks.put(fields[0], new int[] { start, end });
+      summaries.put(fields[0], fields[3]);
+    }
+  }
+
+  /**
+   * Creates an index holding components that have already been parsed.
+   *
+   * @param array  a JSONArray of components
+   */
+  ComponentIndex(JSONArray array) {
+    this.parser = null;
+    this.source = null;
+    for (JSONValue component : array.getElements()) {
+      ComponentDefinition definition = ComponentDatabase.createComponentDefinition(
+          component.asObject(), component.toJson());
+      if (!definitions.containsKey(definition.getName())) {
+        names.add(definition.getName());
+      }
+      definitions.put(definition.getName(), definition);
+    }
+  }
+
+  /**
+   * Returns the names of the components in the index.
+   */
+  List<String> getComponentNames() {
+    return Collections.unmodifiableList(names);
+  }
+
+  /**
+   * Returns the JSON description of the named component, without parsing it.
+   */
+  String getTypeDescription(String componentName) {
+    int[] chunk = chunks.get(componentName);
+    if (chunk != null) {
+      return source.substring(chunk[0], chunk[1]);
+    }
+    return getComponentDefinition(componentName).getTypeDescription();
+  }
+
+  /**
+   * Returns a descriptor of the named component for looking up the fields
+   * that the palette shows: its type, version, category, help, icon and
+   * whether it is visible and shown on the palette. The component's chunk
+   * is not parsed, so the descriptor has no properties, events or methods.
+   */
+  ComponentDefinition getComponentSummary(String componentName) {
+    ComponentDefinition definition = definitions.get(componentName);
+    if (definition == null) {
+      definition = summaryDefinitions.get(componentName);
+    }
+    if (definition == null) {
+      String summary = summaries.get(componentName);
+      if (summary == null) {
+        return getComponentDefinition(componentName);
+      }
+      definition = ComponentDatabase.createComponentSummary(parser.parse(summary).asObject());
+      summaryDefinitions.put(componentName, definition);
+    }
+    return definition;
+  }
+
+  /**
+   * Returns whether the chunk of the named component has been parsed.
+   */
+  boolean isParsed(String componentName) {
+    return definitions.containsKey(componentName);
+  }
+
+  /**
+   * Returns the descriptor of the named component, parsing it if this is
+   * the first time it has been asked for.
+   */
+  ComponentDefinition getComponentDefinition(String componentName) {
+    ComponentDefinition definition = definitions.get(componentName);
+    if (definition == null) {
+      int[] chunk = chunks.get(componentName);
+      if (chunk == null) {
+        throw new ComponentNotFoundException(componentName);
+      }
+      String typeDescription = source.substring(chunk[0], chunk[1]);
+      definition = ComponentDatabase.createComponentDefinition(
+          parser.parse(typeDescription).asObject(), typeDescription);
+      definitions.put(componentName, definition);
+    }
+    return definition;
+  }
+}
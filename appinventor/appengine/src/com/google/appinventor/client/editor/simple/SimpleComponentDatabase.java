@@ -56,12 +56,26 @@ public final class SimpleComponentDatabase extends ComponentDatabase {
   public interface ComponentResource extends ClientBundle {
     @Source("com/google/appinventor/simple_components.json")
     TextResource getSimpleComponents();
+
+    @Source("com/google/appinventor/simple_components_index.txt")
+    TextResource getSimpleComponentsIndex();
   }
 
   private static final ComponentResource componentResources = GWT.create(ComponentResource.class);
 
+  // The standard components, shared by the databases of all projects
+  private static ComponentIndex simpleComponents;
+
+  private static ComponentIndex getSimpleComponents() {
+    if (simpleComponents == null) {
+      simpleComponents = new ComponentIndex(new ClientJsonParser(),
+          componentResources.getSimpleComponents().getText(),
+          componentResources.getSimpleComponentsIndex().getText());
+    }
+    return simpleComponents;
+  }
+
   private SimpleComponentDatabase() {
-    super(new ClientJsonParser().parse(
-        componentResources.getSimpleComponents().getText()).asArray());
+    super(getSimpleComponents());
   }
 }
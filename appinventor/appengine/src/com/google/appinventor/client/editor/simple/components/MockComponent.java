@@ -307,6 +307,10 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
   // form)
   private MockContainer container;
 
+  // The preferred size last measured, or -1 if it has to be measured again
+  private int cachedPreferredWidth = -1;
+  private int cachedPreferredHeight = -1;
+
   private MouseListenerCollection mouseListeners = new MouseListenerCollection();
   private HandlerManager handlers;
 
@@ -728,6 +732,7 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
    */
   protected final void setContainer(MockContainer container) {
     this.container = container;
+    invalidateLayout();
   }
 
   /**
@@ -985,6 +990,50 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
     return MockComponentsUtil.getPreferredHeight(this);
   }
 
+  /**
+   * Returns the preferred width of the component, measuring it only if it has
+   * changed since it was last measured.
+   */
+  final int getCachedPreferredWidth() {
+    if (!isAttached()) {
+      return getPreferredWidth();  // Sizes measured while detached are not worth keeping
+    }
+    if (cachedPreferredWidth < 0) {
+      cachedPreferredWidth = getPreferredWidth();
+    }
+    return cachedPreferredWidth;
+  }
+
+  /**
+   * Returns the preferred height of the component, measuring it only if it has
+   * changed since it was last measured.
+   */
+  final int getCachedPreferredHeight() {
+    if (!isAttached()) {
+      return getPreferredHeight();
+    }
+    if (cachedPreferredHeight < 0) {
+      cachedPreferredHeight = getPreferredHeight();
+    }
+    return cachedPreferredHeight;
+  }
+
+  /**
+   * Records that the size of this component may have changed. Its preferred
+   * size will be measured again, and it and the containers holding it will be
+   * laid out again on the next refresh of the form.
+   */
+  final void invalidateLayout() {
+    cachedPreferredWidth = -1;
+    cachedPreferredHeight = -1;
+    if (this instanceof MockContainer) {
+      ((MockContainer) this).setLayoutDirty();
+    }
+    for (MockContainer parent = container; parent != null; parent = parent.getContainer()) {
+      parent.setLayoutDirty();
+    }
+  }
+
   /*
    * Returns true if this component should be shown in the designer.
    */
@@ -1031,12 +1080,13 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
    *
    */
   final void refreshForm(boolean force) {
+    invalidateLayout();
     if (isAttached()) {
       if (getContainer() != null || isForm()) {
         if (force) {
           getForm().doRefresh();
         } else {
-          getForm().refresh();
+          getForm().refreshInvalidated();
         }
       }
     }
@@ -1049,6 +1099,9 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
     if (propertyName.equals(PROPERTY_NAME_NAME)) {
       setTitle(newValue);
     } else if (getContainer() != null || isForm()) {
+      // Most properties change how the component looks, so measure it again when the form is
+      // next laid out.
+      invalidateLayout();
       /* If we've already placed the component onto a Form (and therefore
        * into a container) then call fireComponentPropertyChanged().
        * It's not really an instantiated component until its been added to
@@ -1084,12 +1137,12 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
     return new LayoutInfo(layoutInfoMap, this) {
       @Override
       int calculateAutomaticWidth() {
-        return getPreferredWidth();
+        return getCachedPreferredWidth();
       }
 
       @Override
       int calculateAutomaticHeight() {
-        return getPreferredHeight();
+        return getCachedPreferredHeight();
       }
     };
   }
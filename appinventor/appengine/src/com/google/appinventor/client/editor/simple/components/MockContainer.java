@@ -44,6 +44,13 @@ public abstract class MockContainer extends MockVisibleComponent implements Drop
    */
   protected final AbsolutePanel rootPanel;
 
+  // Whether something in this container has changed since its children were last laid out
+  private boolean layoutDirty = true;
+
+  // The size this container had when its children were last laid out
+  private int laidOutWidth = -1;
+  private int laidOutHeight = -1;
+
   /**
    * Creates a new component container.
    * <p>
@@ -194,6 +201,7 @@ public abstract class MockContainer extends MockVisibleComponent implements Drop
     // Removal of components with a visible representation requires a re-layout of the container
     if (component.isVisibleComponent()) {
       rootPanel.remove(component);
+      invalidateLayout();  // A moved component is laid out when it is added to its new container
       if (permanentlyDeleted) {
         refreshForm();
       }
@@ -213,6 +221,40 @@ public abstract class MockContainer extends MockVisibleComponent implements Drop
     return rootPanel;
   }
 
+  /**
+   * Records that a component in this container has changed, so its children
+   * need to be measured and laid out again.
+   */
+  final void setLayoutDirty() {
+    layoutDirty = true;
+  }
+
+  /**
+   * Returns whether a component in this container has changed since its
+   * children were last laid out.
+   */
+  final boolean isLayoutDirty() {
+    return layoutDirty;
+  }
+
+  /**
+   * Lays out the children of this container, unless nothing in it has changed
+   * and it is the same size as when they were last laid out.
+   * <p>
+   * This method should only be called by layout managers and the form.
+   *
+   * @param layoutInfo  the layout info for this container
+   */
+  final void layoutChildren(LayoutInfo layoutInfo) {
+    if (!layoutDirty && layoutInfo.width == laidOutWidth && layoutInfo.height == laidOutHeight) {
+      return;
+    }
+    layout.layoutChildren(layoutInfo);
+    laidOutWidth = layoutInfo.width;
+    laidOutHeight = layoutInfo.height;
+    layoutDirty = false;
+  }
+
   /**
    * Sets the size and position of the child component within the container.
    * Sizes and positions are given in pixels.
@@ -735,6 +735,16 @@ public final class MockForm extends MockContainer {
   private Timer refreshTimer = null;
   public final void refresh() {
     Ode.CLog("MockForm: refresh() called.");
+    invalidateAllLayouts(this);
+    refreshInvalidated();
+  }
+
+  /*
+   * Refresh only the components whose layout has been invalidated, and the
+   * containers holding them. Called by MockComponent when one of its
+   * properties changes.
+   */
+  final void refreshInvalidated() {
     if (refreshTimer != null) return;
     refreshTimer = new Timer() {
       @Override
@@ -746,22 +756,49 @@ public final class MockForm extends MockContainer {
     refreshTimer.schedule(0);
   }
 
+  /*
+   * While a project is loading, its components are added and their properties
+   * set one at a time. Layout is suspended until they have all been added, as
+   * the form would otherwise be laid out again after each of them.
+   */
+  private boolean layoutSuspended = false;
+  private boolean refreshWhileSuspended = false;
+
+  public final void suspendLayout() {
+    layoutSuspended = true;
+  }
+
+  public final void resumeLayout() {
+    layoutSuspended = false;
+    if (refreshWhileSuspended) {
+      refreshWhileSuspended = false;
+      refreshInvalidated();
+    }
+  }
+
   /*
    * Do the actual refresh.
    *
    * This method is public because it is called directly from MockComponent for refreshes
    * which bypass throttling.
    *
+   * Only containers that hold a component whose layout has been invalidated, or
+   * whose size has changed, are laid out again, and only invalidated components
+   * are measured again.
    */
 
   public final void doRefresh() {
+    if (layoutSuspended) {
+      refreshWhileSuspended = true;
+      return;
+    }
     Ode.CLog("MockForm: doRefresh() called");
     Map<MockComponent, LayoutInfo> layoutInfoMap = new HashMap<MockComponent, LayoutInfo>();
 
     collectLayoutInfos(layoutInfoMap, this);
 
     LayoutInfo formLayoutInfo = layoutInfoMap.get(this);
-    layout.layoutChildren(formLayoutInfo);
+    layoutChildren(formLayoutInfo);
     rootPanel.setPixelSize(formLayoutInfo.width,
         Math.max(formLayoutInfo.height, usableScreenHeight));
 
@@ -789,7 +826,13 @@ public final class MockForm extends MockContainer {
 
     // If this component is a container, collect the LayoutInfos of its children.
     if (component instanceof MockContainer) {
-      if (!layoutInfo.visibleChildren.isEmpty()) {
+      if (!((MockContainer) component).isLayoutDirty()) {
+        // Nothing in the container has changed, so the sizes of its children are already known
+        // and are not measured again.
+        for (MockComponent child : layoutInfo.visibleChildren) {
+          collectLayoutInfos(layoutInfoMap, child);
+        }
+      } else if (!layoutInfo.visibleChildren.isEmpty()) {
         // We resize the container to be very large so that we get accurate
         // results when we ask for a child's size using getOffsetWidth/getOffsetHeight.
         // If the container is its normal size (or perhaps the default empty
@@ -812,14 +855,27 @@ public final class MockForm extends MockContainer {
       }
 
       // Hide children that should be hidden.
-      for (MockComponent child : component.getHiddenVisibleChildren()) {
-        child.setVisible(false);
+      if (((MockContainer) component).isLayoutDirty()) {
+        for (MockComponent child : component.getHiddenVisibleChildren()) {
+          child.setVisible(false);
+        }
       }
     }
 
     layoutInfo.gatherDimensions();
   }
 
+  /*
+   * Invalidates the layout of the given component and, recursively, all of its
+   * children, so that they are all measured and laid out again.
+   */
+  private static void invalidateAllLayouts(MockComponent component) {
+    component.invalidateLayout();
+    for (MockComponent child : component.getChildren()) {
+      invalidateAllLayouts(child);
+    }
+  }
+
   /**
    * Adds an {@link FormChangeListener} to the listener set if it isn't already in there.
    *
@@ -361,7 +361,7 @@ abstract class MockHVLayoutBase extends MockLayout {
 
       // If the child is a container call layoutChildren for it.
       if (child instanceof MockContainer) {
-        ((MockContainer) child).getLayout().layoutChildren(childLayoutInfo);
+        ((MockContainer) child).layoutChildren(childLayoutInfo);
       }
     }
 
@@ -553,7 +553,7 @@ abstract class MockHVLayoutBase extends MockLayout {
 
       // If the child is a container then call layoutChildren for it.
       if (child instanceof MockContainer) {
-        ((MockContainer) child).getLayout().layoutChildren(childLayoutInfo);
+        ((MockContainer) child).layoutChildren(childLayoutInfo);
       }
     }
 
@@ -380,7 +380,7 @@ final class MockTableLayout extends MockLayout {
           LayoutInfo childLayoutInfo = tableLayoutInfo.layoutInfoMap.get(cellChild);
           // If the cell child is a container call layoutChildren for it.
           if (cellChild instanceof MockContainer) {
-            ((MockContainer) cellChild).getLayout().layoutChildren(childLayoutInfo);
+            ((MockContainer) cellChild).layoutChildren(childLayoutInfo);
           }
           int childHeightWithBorder = childLayoutInfo.height + BORDER_SIZE;
           int y = centerY - (childHeightWithBorder / 2);
@@ -9,6 +9,7 @@ import com.google.appinventor.client.Ode;
 import com.google.appinventor.client.editor.simple.SimpleComponentDatabase;
 import com.google.appinventor.client.editor.youngandroid.YaProjectEditor;
 import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Window;
 
 import static com.google.appinventor.client.Ode.MESSAGES;
@@ -30,10 +31,16 @@ public class ComponentRemoveWidget extends AbstractPaletteItemWidget {
   protected void handleClick() {
     if (Window.confirm(MESSAGES.reallyRemoveComponent())) {
       long projectId = ode.getCurrentYoungAndroidProjectId();
-      YaProjectEditor projectEditor = (YaProjectEditor) ode.getEditorManager().getOpenProjectEditor(projectId);
-      SimpleComponentDatabase componentDatabase = SimpleComponentDatabase.getInstance();
-      componentDatabase.addComponentDatabaseListener(projectEditor);
-      componentDatabase.removeComponent(scd.getName());
+      final YaProjectEditor projectEditor = (YaProjectEditor) ode.getEditorManager().getOpenProjectEditor(projectId);
+      final SimpleComponentDatabase componentDatabase = SimpleComponentDatabase.getInstance();
+      // Every screen has to be loaded so that components of the removed type can be deleted
+      projectEditor.loadAllScreens(new Command() {
+        @Override
+        public void execute() {
+          componentDatabase.addComponentDatabaseListener(projectEditor);
+          componentDatabase.removeComponent(scd.getName());
+        }
+      });
     }
   }
 }
@@ -657,6 +657,18 @@ public class BlocklyPanel extends HTMLPanel {
     Blockly.ai_inject(el, this.@com.google.appinventor.client.editor.youngandroid.BlocklyPanel::workspace);
   }-*/;
 
+  /**
+   * Dispose of the workspace associated with the BlocklyPanel. The panel cannot be used
+   * afterward.
+   */
+  native void dispose()/*-{
+    var workspace = this.@com.google.appinventor.client.editor.youngandroid.BlocklyPanel::workspace;
+    if (workspace) {
+      workspace.dispose();
+      this.@com.google.appinventor.client.editor.youngandroid.BlocklyPanel::workspace = null;
+    }
+  }-*/;
+
   /**
    * Make the workspace associated with the BlocklyPanel the main workspace.
    */
@@ -35,6 +35,7 @@ import com.google.gwt.core.client.Callback;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.logical.shared.ResizeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.TreeItem;
@@ -108,6 +109,14 @@ public final class YaBlocksEditor extends FileEditor
   // The form editor associated with this blocks editor
   private YaFormEditor myFormEditor;
 
+  // Registration of our window resize handler, removed in disposeWorkspace
+  private final HandlerRegistration resizeHandlerRegistration;
+
+  // The form and blocks that the saved yail was generated from, and those of the yail
+  // returned by getYail that is being saved. Used to skip generating unchanged yail.
+  private String savedYailSource;
+  private String pendingYailSource;
+
   YaBlocksEditor(YaProjectEditor projectEditor, YoungAndroidBlocksNode blocksNode) {
     super(projectEditor, blocksNode);
 
@@ -124,7 +133,7 @@ public final class YaBlocksEditor extends FileEditor
     // New layouts don't need all this messing; see comments on selected answer at:
     // http://stackoverflow.com/questions/86901/creating-a-fluid-panel-in-gwt-to-fill-the-page
     blocksArea.setHeight(Window.getClientHeight() - VIEWER_WINDOW_OFFSET + "px");
-    Window.addResizeHandler(new ResizeHandler() {
+    resizeHandlerRegistration = Window.addResizeHandler(new ResizeHandler() {
      public void onResize(ResizeEvent event) {
        int height = event.getHeight();
        blocksArea.setHeight(height - VIEWER_WINDOW_OFFSET + "px");
@@ -161,8 +170,28 @@ public final class YaBlocksEditor extends FileEditor
 
   @Override
   public void loadFile(final Command afterFileLoaded) {
+    loadFile(afterFileLoaded, null);
+  }
+
+  /**
+   * Loads the content of the file into the editor.
+   *
+   * @param afterFileLoaded  optional command to be executed after the file has
+   *                         been loaded
+   * @param afterLoadFailed  optional command to be executed instead if the
+   *                         file cannot be loaded; the error has already been
+   *                         reported
+   */
+  public void loadFile(final Command afterFileLoaded, final Command afterLoadFailed) {
     final long projectId = getProjectId();
     final String fileId = getFileId();
+    // The project editor may already have the content, if it fetched it ahead of time or
+    // this screen was loaded before.
+    String source = ((YaProjectEditor) projectEditor).takeScreenSource(fileId);
+    if (source != null) {
+      onContentLoaded(source, afterFileLoaded);
+      return;
+    }
     OdeAsyncCallback<ChecksumedLoadFile> callback = new OdeAsyncCallback<ChecksumedLoadFile>(MESSAGES.loadError()) {
       @Override
       public void onSuccess(ChecksumedLoadFile result) {
@@ -173,19 +202,7 @@ public final class YaBlocksEditor extends FileEditor
           this.onFailure(e);
           return;
         }
-        String formJson = myFormEditor.preUpgradeJsonString(); // [lyn, 2014/10/27] added formJson for upgrading
-        try {
-          blocksArea.loadBlocksContent(formJson, blkFileContent);
-          blocksArea.addChangeListener(YaBlocksEditor.this);
-        } catch(LoadBlocksException e) {
-          setBlocksDamaged(fullFormName);
-          ErrorReporter.reportError(MESSAGES.blocksNotSaved(fullFormName));
-        }
-        loadComplete = true;
-        selectedDrawer = null;
-        if (afterFileLoaded != null) {
-          afterFileLoaded.execute();
-        }
+        onContentLoaded(blkFileContent, afterFileLoaded);
       }
       @Override
       public void onFailure(Throwable caught) {
@@ -193,11 +210,30 @@ public final class YaBlocksEditor extends FileEditor
           Ode.getInstance().recordCorruptProject(projectId, fileId, caught.getMessage());
         }
         super.onFailure(caught);
+        if (afterLoadFailed != null) {
+          afterLoadFailed.execute();
+        }
       }
     };
     Ode.getInstance().getProjectService().load2(projectId, fileId, callback);
   }
 
+  private void onContentLoaded(String blkFileContent, Command afterFileLoaded) {
+    String formJson = myFormEditor.preUpgradeJsonString(); // [lyn, 2014/10/27] added formJson for upgrading
+    try {
+      blocksArea.loadBlocksContent(formJson, blkFileContent);
+      blocksArea.addChangeListener(YaBlocksEditor.this);
+    } catch(LoadBlocksException e) {
+      setBlocksDamaged(fullFormName);
+      ErrorReporter.reportError(MESSAGES.blocksNotSaved(fullFormName));
+    }
+    loadComplete = true;
+    selectedDrawer = null;
+    if (afterFileLoaded != null) {
+      afterFileLoaded.execute();
+    }
+  }
+
   @Override
   public String getTabText() {
     return MESSAGES.blocksEditorTabName(blocksNode.getFormName());
@@ -269,6 +305,16 @@ public final class YaBlocksEditor extends FileEditor
     formToBlocksEditor.remove(fullFormName);
   }
 
+  /**
+   * Disposes of the Blockly workspace when the screen is unloaded to save memory. Called after
+   * the editor has been closed; the editor cannot be used afterward.
+   */
+  void disposeWorkspace() {
+    resizeHandlerRegistration.removeHandler();
+    blocksArea.removeChangeListener(this);
+    blocksArea.dispose();
+  }
+
   public static void toggleWarning() {
     BlocklyPanel.switchWarningVisibility();
     for(YaBlocksEditor editor : formToBlocksEditor.values()){
@@ -342,8 +388,12 @@ public final class YaBlocksEditor extends FileEditor
   }
 
   public Set<String> getBlockTypeSet() {
+    return getBlockTypeSet(blocksArea.getBlocksContent());
+  }
+
+  // Returns the types of the blocks in the given blocks file content.
+  static Set<String> getBlockTypeSet(String xmlString) {
     Set<String> blockTypes = new HashSet<String>();
-    String xmlString = blocksArea.getBlocksContent();
     Document blockDoc = XMLParser.parse(xmlString);
     NodeList blockElements = blockDoc.getElementsByTagName("block");
     for (int i = 0; i < blockElements.getLength(); ++i) {
@@ -359,7 +409,12 @@ public final class YaBlocksEditor extends FileEditor
   // for separate screens, creating the set of component blocks used through the entire project.
   // TODO: Examine refactor with XPATH
   public HashMap<String, Set<String>> getComponentBlockTypeSet(HashMap<String, Set<String>> componentBlocks) {
-    String xmlString = blocksArea.getBlocksContent();
+    return getComponentBlockTypeSet(blocksArea.getBlocksContent(), componentBlocks);
+  }
+
+  // As above, for the given blocks file content.
+  static HashMap<String, Set<String>> getComponentBlockTypeSet(String xmlString,
+      HashMap<String, Set<String>> componentBlocks) {
     Document blockDoc = XMLParser.parse(xmlString);
     NodeList blockElements = blockDoc.getElementsByTagName("block");
     for (int i = 0; i < blockElements.getLength(); ++i) {
@@ -391,10 +446,38 @@ public final class YaBlocksEditor extends FileEditor
     return componentBlocks;
   }
 
+  /**
+   * Generates the yail for this screen.
+   *
+   * @return the yail file, or null if the form and blocks have not changed
+   *         since its yail was last saved
+   */
   public FileDescriptorWithContent getYail() throws YailGenerationException {
-    return new FileDescriptorWithContent(getProjectId(), yailFileName(),
-        blocksArea.getYail(myFormEditor.encodeFormAsJsonString(true),
-            packageNameFromPath(getFileId())));
+    String formJson = myFormEditor.encodeFormAsJsonString(true);
+    String yailSource = formJson + blocksArea.getBlocksContent();
+    if (yailSource.equals(savedYailSource)) {
+      return null;
+    }
+    FileDescriptorWithContent yail = new FileDescriptorWithContent(getProjectId(), yailFileName(),
+        blocksArea.getYail(formJson, packageNameFromPath(getFileId())));
+    pendingYailSource = yailSource;
+    return yail;
+  }
+
+  /**
+   * Called once the yail returned by the last call to {@link #getYail()} has
+   * been saved.
+   */
+  public void onYailSaved() {
+    savedYailSource = pendingYailSource;
+  }
+
+  /**
+   * Makes the next call to {@link #getYail()} generate the yail even if the
+   * form and blocks have not changed.
+   */
+  public void forgetSavedYail() {
+    savedYailSource = null;
   }
 
   /**
@@ -74,22 +74,6 @@ import java.util.Set;
  */
 public final class YaFormEditor extends SimpleEditor implements FormChangeListener, ComponentDatabaseChangeListener {
 
-  private static class FileContentHolder {
-    private String content;
-
-    FileContentHolder(String content) {
-      this.content = content;
-    }
-
-    void setFileContent(String content) {
-      this.content = content;
-    }
-
-    String getFileContent() {
-      return content;
-    }
-  }
-
   private static final String ERROR_EXISTING_UUID = "Component with UUID \"%1$s\" already exists.";
   private static final String ERROR_NONEXISTENT_UUID = "No component exists with UUID \"%1$s\".";
 
@@ -191,8 +175,28 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
 
   @Override
   public void loadFile(final Command afterFileLoaded) {
+    loadFile(afterFileLoaded, null);
+  }
+
+  /**
+   * Loads the content of the file into the editor.
+   *
+   * @param afterFileLoaded  optional command to be executed after the file has
+   *                         been loaded
+   * @param afterLoadFailed  optional command to be executed instead if the
+   *                         file cannot be loaded; the error has already been
+   *                         reported
+   */
+  public void loadFile(final Command afterFileLoaded, final Command afterLoadFailed) {
     final long projectId = getProjectId();
     final String fileId = getFileId();
+    // The project editor may already have the content, if it fetched it ahead of time or
+    // this screen was loaded before.
+    String source = ((YaProjectEditor) projectEditor).takeScreenSource(fileId);
+    if (source != null) {
+      onContentLoaded(source, afterFileLoaded, afterLoadFailed);
+      return;
+    }
     OdeAsyncCallback<ChecksumedLoadFile> callback = new OdeAsyncCallback<ChecksumedLoadFile>(MESSAGES.loadError()) {
       @Override
       public void onSuccess(ChecksumedLoadFile result) {
@@ -203,20 +207,7 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
           this.onFailure(e);
           return;
         }
-        final FileContentHolder fileContentHolder = new FileContentHolder(contents);
-        upgradeFile(fileContentHolder, new Command() {
-          @Override
-          public void execute() {
-            try {
-              onFileLoaded(fileContentHolder.getFileContent());
-            } catch(IllegalArgumentException e) {
-              return;
-            }
-            if (afterFileLoaded != null) {
-              afterFileLoaded.execute();
-            }
-          }
-        });
+        onContentLoaded(contents, afterFileLoaded, afterLoadFailed);
       }
       @Override
       public void onFailure(Throwable caught) {
@@ -224,11 +215,38 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
           Ode.getInstance().recordCorruptProject(projectId, fileId, caught.getMessage());
         }
         super.onFailure(caught);
+        if (afterLoadFailed != null) {
+          afterLoadFailed.execute();
+        }
       }
     };
     Ode.getInstance().getProjectService().load2(projectId, fileId, callback);
   }
 
+  private void onContentLoaded(String contents, final Command afterFileLoaded,
+      final Command afterLoadFailed) {
+    // The blocks editor needs the component versions from before the upgrade, but only
+    // parses them if the blocks need upgrading too, so keep the text as it was loaded.
+    preUpgradeJsonString = YoungAndroidSourceAnalyzer.getPropertiesJson(contents);
+    final JSONObject propertiesObject = JSON_PARSER.parse(preUpgradeJsonString).asObject();
+    upgradeFile(propertiesObject, new Command() {
+      @Override
+      public void execute() {
+        try {
+          onFileLoaded(propertiesObject);
+        } catch(IllegalArgumentException e) {
+          if (afterLoadFailed != null) {
+            afterLoadFailed.execute();
+          }
+          return;
+        }
+        if (afterFileLoaded != null) {
+          afterFileLoaded.execute();
+        }
+      }
+    });
+  }
+
   @Override
   public String getTabText() {
     return formNode.getFormName();
@@ -397,23 +415,20 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
   // private methods
 
   /*
-   * Upgrades the given file content, saves the upgraded content back to the
+   * Upgrades the given form properties, saves the upgraded content back to the
    * ODE server, and calls the afterUpgradeComplete command after the save
    * operation succeeds.
    *
    * If no upgrade is necessary, the afterSavingFiles command is called
    * immediately.
    *
-   * @param fileContentHolder  holds the file content
+   * @param propertiesObject  the parsed file content, which is upgraded in place
    * @param afterUpgradeComplete  optional command to be executed after the
    *                              file has upgraded and saved back to the ODE
    *                              server
    */
-  private void upgradeFile(FileContentHolder fileContentHolder,
+  private void upgradeFile(JSONObject propertiesObject,
       final Command afterUpgradeComplete) {
-    JSONObject propertiesObject = YoungAndroidSourceAnalyzer.parseSourceFile(
-        fileContentHolder.getFileContent(), JSON_PARSER);
-
     // BEGIN PROJECT TAGGING CODE
 
     // |-------------------------------------------------------------------|
@@ -474,10 +489,8 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
 
     // END OF PROJECT TAGGING CODE
 
-    preUpgradeJsonString =  propertiesObject.toJson(); // [lyn, [2014/10/13] remember pre-upgrade component versions.
     if (YoungAndroidFormUpgrader.upgradeSourceProperties(propertiesObject.getProperties())) {
       String upgradedContent = YoungAndroidSourceAnalyzer.generateSourceFile(propertiesObject);
-      fileContentHolder.setFileContent(upgradedContent);
       Ode ode = Ode.getInstance();
       if (ode.isReadOnly()) {   // Do not attempt to save out the project if we are in readonly mode
         if (afterUpgradeComplete != null) {
@@ -505,9 +518,7 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
     }
   }
 
-  private void onFileLoaded(String content) {
-    JSONObject propertiesObject = YoungAndroidSourceAnalyzer.parseSourceFile(
-        content, JSON_PARSER);
+  private void onFileLoaded(JSONObject propertiesObject) {
     try {
       form = createMockForm(propertiesObject.getProperties().get("Properties").asObject());
     } catch(ComponentNotFoundException e) {
@@ -517,6 +528,7 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
           getProjectRootNode().getName()));
       throw e;
     }
+    form.resumeLayout();
 
     // Initialize the nonVisibleComponentsPanel and visibleComponentsPanel.
     nonVisibleComponentsPanel.setForm(form);
@@ -593,8 +605,10 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
     if (componentType.equals(MockForm.TYPE)) {
       Preconditions.checkArgument(parent == null);
 
-      // Instantiate new root component
+      // Instantiate new root component. It is not laid out until all of its components have
+      // been added; see onFileLoaded.
       mockComponent = new MockForm(this);
+      ((MockForm) mockComponent).suspendLayout();
     } else {
       mockComponent = SimpleComponentDescriptor.createMockComponent(componentType,
           COMPONENT_DATABASE.getComponentType(componentType), this);
@@ -44,6 +44,7 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.json.client.JSONException;
 import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
 import java.util.ArrayList;
@@ -71,11 +72,39 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   // a YaFormEditor for editing the UI, and a YaBlocksEditor for editing the 
   // blocks representation of the program logic. Some day it may also have an 
   // editor for the textual representation of the program logic.
+  // The editors of a screen are only created when the screen is first selected,
+  // and may be disposed of again when the screen has not been used for a while
+  // (see unloadInactiveScreens).
   private class EditorSet {
+    YoungAndroidFormNode formNode = null;
+    YoungAndroidBlocksNode blocksNode = null;
     YaFormEditor formEditor = null;
     YaBlocksEditor blocksEditor = null;
+    // Commands to execute once the screen has loaded, or null if it is not loading
+    List<Command> afterLoading = null;
+    // Commands to execute instead if the screen fails to load
+    List<Command> afterLoadFailed = null;
+    // Set when the screen's files should be saved as soon as they are loaded
+    boolean saveWhenLoaded = false;
+    // When the screen was last selected, used to pick screens to unload
+    int lastSelected = 0;
+
+    boolean hasEditors() {
+      return formEditor != null && blocksEditor != null;
+    }
+
+    boolean isLoaded() {
+      return hasEditors() && afterLoading == null;
+    }
   }
 
+  // Number of screens whose editors are kept. When more are loaded, those
+  // unused the longest are unloaded, keeping only their file contents.
+  private static final int MAX_LOADED_SCREENS = 8;
+
+  // Delay between background fetches of screens' files (in milliseconds)
+  private static final int PREFETCH_DELAY = 250;
+
   // Maps form name -> editors for this form
   private final HashMap<String, EditorSet> editorMap = Maps.newHashMap();
   
@@ -87,6 +116,20 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   private final Map<String, String> extensionToNodeName = new HashMap<>();
   private final Map<String, Set<String>> extensionsInNode = new HashMap<>();
 
+  // Contents of the files of screens without editors, either fetched in the
+  // background or kept when the screen was unloaded. Maps file id -> content.
+  private final Map<String, String> screenSources = new HashMap<String, String>();
+
+  // True while a screen's files are being fetched in the background
+  private boolean prefetching = false;
+
+  // Screens whose files could not be fetched in the background. They are skipped by later
+  // background fetches, but still fetched when they are loaded or by fetchScreenSources.
+  private final Set<String> prefetchFailures = new HashSet<String>();
+
+  // Incremented each time a screen is selected
+  private int selectionCount = 0;
+
   // Number of external component descriptors loaded since there is no longer a 1-1 correspondence
   private volatile int numExternalComponentsLoaded = 0;
 
@@ -99,15 +142,8 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   // Database of component type descriptions
   private final SimpleComponentDatabase COMPONENT_DATABASE;
 
-  // State variables to help determine whether we are ready to show Screen1  
-  // Automatically select the Screen1 form editor when we have finished loading
-  // both the form and blocks editors for Screen1 and we have added the 
-  // screen to the DesignToolbar. Since the loading happens asynchronously,
-  // there are multiple points when we may be ready to show the screen, and
-  // we shouldn't try to show it before everything is ready.
+  // Other screens are not loaded until the Screen1 form has loaded
   private boolean screen1FormLoaded = false;
-  private boolean screen1BlocksLoaded = false;
-  private boolean screen1Added = false;
   
   /**
    * Returns a project editor factory for {@code YaProjectEditor}s.
@@ -143,15 +179,12 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
             pos = -pos - 1;
           }
           insertFileEditor(newBlocksEditor, pos);
-          if (isScreen1(formName)) {
-            screen1BlocksLoaded = true;
-            if (readyToShowScreen1()) {
-              OdeLog.log("YaProjectEditor.addBlocksEditor.loadFile.execute: switching to screen "
-                  + formName + " for project " + newBlocksEditor.getProjectId());
-              Ode.getInstance().getDesignToolbar().switchToScreen(newBlocksEditor.getProjectId(),
-                  formName, DesignToolbar.View.FORM);
-            }
-          }
+          onScreenLoaded(formName);
+        }
+      }, new Command() {
+        @Override
+        public void execute() {
+          onScreenLoadFailed(formName);
         }
       });
 
@@ -175,40 +208,507 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   // blocks are loaded!
 
   private void loadProject() {
-    // add form editors first, then blocks editors because the blocks editors
-    // need access to their corresponding form editors to set up properly
     for (ProjectNode source : projectRootNode.getAllSourceNodes()) {
       if (source instanceof YoungAndroidFormNode) {
-        addFormEditor((YoungAndroidFormNode) source);
-      } 
-    }
-    for (ProjectNode source : projectRootNode.getAllSourceNodes()) {
-      if (source instanceof YoungAndroidBlocksNode) {
-        addBlocksEditor((YoungAndroidBlocksNode) source);
+        YoungAndroidFormNode formNode = (YoungAndroidFormNode) source;
+        getEditorSet(formNode.getFormName()).formNode = formNode;
+      } else if (source instanceof YoungAndroidBlocksNode) {
+        YoungAndroidBlocksNode blocksNode = (YoungAndroidBlocksNode) source;
+        getEditorSet(blocksNode.getFormName()).blocksNode = blocksNode;
       }
     }
-    // Add the screens to the design toolbar, along with their associated editors
+    // Add the screens to the design toolbar. They have no editors until they are loaded, which
+    // for screens other than Screen1 happens when they are first selected.
     DesignToolbar designToolbar = Ode.getInstance().getDesignToolbar();
     for (String formName : editorMap.keySet()) {
       EditorSet editors = editorMap.get(formName);
-      if (editors.formEditor != null && editors.blocksEditor != null) {
-        designToolbar.addScreen(projectRootNode.getProjectId(), formName, editors.formEditor, 
-            editors.blocksEditor);
-        if (isScreen1(formName)) {
-          screen1Added = true;
-          if (readyToShowScreen1()) {  // probably not yet but who knows?
-            OdeLog.log("YaProjectEditor.loadProject: switching to screen " + formName 
-                + " for project " + projectRootNode.getProjectId());
-            Ode.getInstance().getDesignToolbar().switchToScreen(projectRootNode.getProjectId(), 
-                formName, DesignToolbar.View.FORM);
+      if (editors.formNode != null && editors.blocksNode != null) {
+        designToolbar.addScreen(projectId, formName, null, null);
+      } else if (editors.formNode == null) {
+        OdeLog.wlog("Missing form for " + formName);
+      } else {
+        OdeLog.wlog("Missing blocks for " + formName);
+      }
+    }
+    loadScreen(YoungAndroidSourceNode.SCREEN1_FORM_NAME, new Command() {
+      @Override
+      public void execute() {
+        OdeLog.log("YaProjectEditor.loadProject: switching to Screen1 for project " + projectId);
+        Ode.getInstance().getDesignToolbar().switchToScreen(projectId,
+            YoungAndroidSourceNode.SCREEN1_FORM_NAME, DesignToolbar.View.FORM);
+        prefetchScreens();
+      }
+    });
+  }
+
+  /**
+   * Creates the editors for a screen and loads its form and blocks, unless that has been done
+   * already.
+   *
+   * @param formName  the name of the screen
+   * @param afterLoading  optional command to be executed once the screen has loaded
+   */
+  public void loadScreen(String formName, Command afterLoading) {
+    loadScreen(formName, afterLoading, null);
+  }
+
+  /**
+   * Creates the editors for a screen and loads its form and blocks, unless that has been done
+   * already.
+   *
+   * @param formName  the name of the screen
+   * @param afterLoading  optional command to be executed once the screen has loaded
+   * @param afterLoadFailed  optional command to be executed instead if the screen cannot be
+   *                         loaded; the error has already been reported
+   */
+  public void loadScreen(String formName, Command afterLoading, Command afterLoadFailed) {
+    EditorSet editors = editorMap.get(formName);
+    if (editors == null || editors.formNode == null || editors.blocksNode == null) {
+      OdeLog.wlog("YaProjectEditor: can't load missing screen " + formName);
+      if (afterLoadFailed != null) {
+        afterLoadFailed.execute();
+      }
+      return;
+    }
+    if (editors.isLoaded()) {
+      if (afterLoading != null) {
+        afterLoading.execute();
+      }
+      return;
+    }
+    if (editors.afterLoading == null) {
+      OdeLog.log("YaProjectEditor: loading screen " + formName + " for project " + projectId);
+      editors.afterLoading = new ArrayList<Command>();
+      editors.afterLoadFailed = new ArrayList<Command>();
+      // add the form editor first, then the blocks editor because the blocks editor
+      // needs access to its corresponding form editor to set up properly
+      addFormEditor(editors.formNode);
+      addBlocksEditor(editors.blocksNode);
+    }
+    if (afterLoading != null) {
+      editors.afterLoading.add(afterLoading);
+    }
+    if (afterLoadFailed != null) {
+      editors.afterLoadFailed.add(afterLoadFailed);
+    }
+  }
+
+  /**
+   * Loads every screen of the project that has not been loaded, for work that needs all of them.
+   *
+   * @param afterLoading  command to be executed once all screens have loaded
+   */
+  public void loadAllScreens(Command afterLoading) {
+    loadAllScreens(afterLoading, null);
+  }
+
+  /**
+   * Loads every screen of the project that has not been loaded, for work that needs all of them.
+   *
+   * @param afterLoading  command to be executed once all screens have loaded
+   * @param afterLoadFailed  optional command to be executed instead, once, if any screen cannot
+   *                         be loaded
+   */
+  public void loadAllScreens(final Command afterLoading, final Command afterLoadFailed) {
+    final List<String> formNames = new ArrayList<String>();
+    for (String formName : editorMap.keySet()) {
+      EditorSet editors = editorMap.get(formName);
+      if (!editors.isLoaded() && editors.formNode != null && editors.blocksNode != null) {
+        formNames.add(formName);
+      }
+    }
+    if (formNames.isEmpty()) {
+      afterLoading.execute();
+      return;
+    }
+    final ScreensLoading loading = new ScreensLoading();
+    Command afterScreenLoaded = new Command() {
+      @Override
+      public void execute() {
+        if (!loading.failed && ++loading.completed == formNames.size()) {
+          afterLoading.execute();
+        }
+      }
+    };
+    Command afterScreenLoadFailed = new Command() {
+      @Override
+      public void execute() {
+        if (!loading.failed) {
+          loading.failed = true;
+          if (afterLoadFailed != null) {
+            afterLoadFailed.execute();
           }
         }
-      } else if (editors.formEditor == null) {
-        OdeLog.wlog("Missing form editor for " + formName);
-      } else {
-        OdeLog.wlog("Missing blocks editor for " + formName);
       }
+    };
+    for (String formName : formNames) {
+      loadScreen(formName, afterScreenLoaded, afterScreenLoadFailed);
+    }
+  }
+
+  /**
+   * Returns true if every screen of the project has been loaded.
+   */
+  public boolean allScreensLoaded() {
+    for (EditorSet editors : editorMap.values()) {
+      if (!editors.isLoaded() && editors.formNode != null && editors.blocksNode != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Fetches the files of every screen that has not been loaded, unless they have been fetched
+   * already, and waits for screens that are loading. Afterwards the methods that look at every
+   * screen, such as {@link #getComponentInstances()}, see all of them.
+   *
+   * @param afterFetching  command to be executed once the files of all screens are available
+   * @param afterFetchFailed  optional command to be executed instead, once, if any file cannot
+   *                          be fetched; the error has already been reported
+   */
+  public void fetchScreenSources(final Command afterFetching, final Command afterFetchFailed) {
+    final List<String> loadingFormNames = new ArrayList<String>();
+    final Map<ProjectNode, EditorSet> missingFiles = new HashMap<ProjectNode, EditorSet>();
+    for (String formName : editorMap.keySet()) {
+      EditorSet editors = editorMap.get(formName);
+      if (editors.formNode == null || editors.blocksNode == null || editors.isLoaded()) {
+        continue;
+      }
+      if (editors.afterLoading != null) {
+        loadingFormNames.add(formName);
+      } else if (!editors.hasEditors()) {
+        for (ProjectNode node : new ProjectNode[] { editors.formNode, editors.blocksNode }) {
+          if (!screenSources.containsKey(node.getFileId())) {
+            missingFiles.put(node, editors);
+          }
+        }
+      }
+    }
+    final int count = loadingFormNames.size() + missingFiles.size();
+    if (count == 0) {
+      afterFetching.execute();
+      return;
+    }
+    final ScreensLoading fetching = new ScreensLoading();
+    Command afterOneFetched = new Command() {
+      @Override
+      public void execute() {
+        if (!fetching.failed && ++fetching.completed == count) {
+          afterFetching.execute();
+        }
+      }
+    };
+    final Command afterOneFailed = new Command() {
+      @Override
+      public void execute() {
+        if (!fetching.failed) {
+          fetching.failed = true;
+          if (afterFetchFailed != null) {
+            afterFetchFailed.execute();
+          }
+        }
+      }
+    };
+    for (String formName : loadingFormNames) {
+      loadScreen(formName, afterOneFetched, afterOneFailed);
+    }
+    for (Map.Entry<ProjectNode, EditorSet> entry : missingFiles.entrySet()) {
+      prefetchFile(entry.getValue(), entry.getKey(), afterOneFetched, new Command() {
+        @Override
+        public void execute() {
+          if (!fetching.failed) {
+            ErrorReporter.reportError(MESSAGES.loadError());
+          }
+          afterOneFailed.execute();
+        }
+      });
+    }
+  }
+
+  /**
+   * Called by the DesignToolbar when a screen of this project is selected. If more than
+   * MAX_LOADED_SCREENS screens are loaded, unloads the ones unused the longest.
+   *
+   * @param formName  the name of the selected screen
+   */
+  public void onScreenSelected(final String formName) {
+    EditorSet editors = editorMap.get(formName);
+    if (editors != null) {
+      editors.lastSelected = ++selectionCount;
     }
+    Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
+      @Override
+      public void execute() {
+        unloadInactiveScreens(formName);
+      }
+    });
+  }
+
+  /**
+   * Returns the content of a screen's file that was fetched ahead of time or kept when the screen
+   * was unloaded, or null if there is none. The content is only returned once, as the editor
+   * loading it takes over from then on.
+   *
+   * @param fileId  the file ID of the form or blocks file
+   */
+  String takeScreenSource(String fileId) {
+    return screenSources.remove(fileId);
+  }
+
+  private EditorSet getEditorSet(String formName) {
+    EditorSet editors = editorMap.get(formName);
+    if (editors == null) {
+      editors = new EditorSet();
+      editorMap.put(formName, editors);
+    }
+    return editors;
+  }
+
+  // Progress of loadAllScreens and fetchScreenSources
+  private static class ScreensLoading {
+    int completed = 0;
+    boolean failed = false;
+  }
+
+  // Called once both editors of a screen have loaded their files.
+  private void onScreenLoaded(String formName) {
+    EditorSet editors = editorMap.get(formName);
+    List<Command> commands = editors.afterLoading;
+    editors.afterLoading = null;
+    editors.afterLoadFailed = null;
+    Ode.getInstance().getDesignToolbar().addScreen(projectId, formName, editors.formEditor,
+        editors.blocksEditor);
+    if (editors.saveWhenLoaded) {
+      editors.saveWhenLoaded = false;
+      EditorManager manager = Ode.getInstance().getEditorManager();
+      manager.scheduleAutoSave(editors.formEditor);
+      manager.scheduleAutoSave(editors.blocksEditor);
+    }
+    if (commands != null) {
+      for (Command command : commands) {
+        command.execute();
+      }
+    }
+  }
+
+  /*
+   * Called if either editor of a screen fails to load its file. The editors are discarded, so
+   * that the screen is loaded afresh when it is next selected.
+   */
+  private void onScreenLoadFailed(String formName) {
+    EditorSet editors = editorMap.get(formName);
+    if (editors == null || editors.afterLoading == null) {
+      return;
+    }
+    OdeLog.wlog("YaProjectEditor: failed to load screen " + formName + " for project "
+        + projectId);
+    List<Command> commands = editors.afterLoadFailed;
+    editors.afterLoading = null;
+    editors.afterLoadFailed = null;
+    List<String> openFileIds = new ArrayList<String>();
+    for (FileEditor fileEditor : new FileEditor[] { editors.formEditor, editors.blocksEditor }) {
+      if (fileEditor != null && getFileEditor(fileEditor.getFileId()) == fileEditor) {
+        openFileIds.add(fileEditor.getFileId());
+      }
+    }
+    if (!openFileIds.isEmpty()) {
+      Ode.getInstance().getEditorManager().closeFileEditors(projectId,
+          openFileIds.toArray(new String[openFileIds.size()]));
+    }
+    if (editors.blocksEditor != null) {
+      editors.blocksEditor.disposeWorkspace();
+    }
+    editors.formEditor = null;
+    editors.blocksEditor = null;
+    Ode.getInstance().getDesignToolbar().addScreen(projectId, formName, null, null);
+    for (Command command : commands) {
+      command.execute();
+    }
+  }
+
+  /*
+   * Fetches the files of screens that have not been loaded, one screen at a time, so that
+   * switching to one of them later does not have to wait for the server. A screen whose files
+   * cannot be fetched is skipped.
+   */
+  private void prefetchScreens() {
+    if (prefetching) {
+      return;
+    }
+    List<String> formNames = new ArrayList<String>(editorMap.keySet());
+    Collections.sort(formNames);
+    for (final String formName : formNames) {
+      final EditorSet editors = editorMap.get(formName);
+      if (editors.hasEditors() || editors.afterLoading != null || editors.formNode == null
+          || editors.blocksNode == null || prefetchFailures.contains(formName)) {
+        continue;
+      }
+      if (!screenSources.containsKey(editors.formNode.getFileId())
+          || !screenSources.containsKey(editors.blocksNode.getFileId())) {
+        prefetching = true;
+        final Command next = new Command() {
+          @Override
+          public void execute() {
+            prefetching = false;
+            new Timer() {
+              @Override
+              public void run() {
+                prefetchScreens();
+              }
+            }.schedule(PREFETCH_DELAY);
+          }
+        };
+        final Command skip = new Command() {
+          @Override
+          public void execute() {
+            OdeLog.wlog("YaProjectEditor: failed to prefetch screen " + formName);
+            prefetchFailures.add(formName);
+            next.execute();
+          }
+        };
+        prefetchFile(editors, editors.formNode, new Command() {
+          @Override
+          public void execute() {
+            prefetchFile(editors, editors.blocksNode, next, skip);
+          }
+        }, skip);
+        return;
+      }
+    }
+  }
+
+  /*
+   * Fetches a file of a screen without editors and keeps its content, then executes next, or
+   * failed if the file cannot be fetched.
+   */
+  private void prefetchFile(final EditorSet editors, ProjectNode node, final Command next,
+      final Command failed) {
+    final String fileId = node.getFileId();
+    if (screenSources.containsKey(fileId)) {
+      next.execute();
+      return;
+    }
+    Ode.getInstance().getProjectService().load2(projectId, fileId,
+        new AsyncCallback<ChecksumedLoadFile>() {
+          @Override
+          public void onSuccess(ChecksumedLoadFile result) {
+            // If the screen was loaded in the meantime its editors have the newest content, and if
+            // it was loaded and unloaded again, the content it kept is newer than this.
+            if (!editors.hasEditors() && editorMap.containsValue(editors)
+                && !screenSources.containsKey(fileId)) {
+              try {
+                screenSources.put(fileId, result.getContent());
+              } catch (ChecksumedFileException e) {
+                // The editor records the corrupt file if the screen is loaded.
+                OdeLog.wlog("YaProjectEditor: corrupt file " + fileId);
+                failed.execute();
+                return;
+              }
+            }
+            next.execute();
+          }
+
+          @Override
+          public void onFailure(Throwable caught) {
+            OdeLog.wlog("YaProjectEditor: failed to fetch " + fileId);
+            failed.execute();
+          }
+        });
+  }
+
+  /*
+   * Unloads the loaded screens unused the longest until no more than MAX_LOADED_SCREENS remain.
+   * Screen1, the selected screen and screens with changes still waiting to be saved are kept.
+   */
+  private void unloadInactiveScreens(String selectedFormName) {
+    int loadedScreens = 0;
+    for (EditorSet editors : editorMap.values()) {
+      if (editors.hasEditors()) {
+        loadedScreens++;
+      }
+    }
+    EditorManager manager = Ode.getInstance().getEditorManager();
+    while (loadedScreens > MAX_LOADED_SCREENS) {
+      String leastRecentlySelected = null;
+      for (String formName : editorMap.keySet()) {
+        EditorSet editors = editorMap.get(formName);
+        if (!editors.isLoaded() || isScreen1(formName) || formName.equals(selectedFormName)
+            || manager.isAutoSaveScheduled(editors.formEditor)
+            || manager.isAutoSaveScheduled(editors.blocksEditor)
+            || editors.formEditor.isDamaged() || editors.blocksEditor.isDamaged()) {
+          continue;
+        }
+        if (leastRecentlySelected == null
+            || editors.lastSelected < editorMap.get(leastRecentlySelected).lastSelected) {
+          leastRecentlySelected = formName;
+        }
+      }
+      if (leastRecentlySelected == null) {
+        return;  // Try again the next time a screen is selected
+      }
+      unloadScreen(leastRecentlySelected);
+      loadedScreens--;
+    }
+  }
+
+  /*
+   * Keeps the content of a screen's files and disposes of its editors, including its blocks
+   * workspace. The screen is loaded again from that content when it is next selected.
+   */
+  private void unloadScreen(String formName) {
+    OdeLog.log("YaProjectEditor: unloading screen " + formName + " for project " + projectId);
+    EditorSet editors = editorMap.get(formName);
+    YaFormEditor formEditor = editors.formEditor;
+    YaBlocksEditor blocksEditor = editors.blocksEditor;
+    screenSources.put(formEditor.getFileId(), formEditor.getRawFileContent());
+    screenSources.put(blocksEditor.getFileId(), blocksEditor.getRawFileContent());
+    Ode.getInstance().getEditorManager().closeFileEditors(projectId,
+        new String[] { formEditor.getFileId(), blocksEditor.getFileId() });
+    blocksEditor.disposeWorkspace();
+    editors.formEditor = null;
+    editors.blocksEditor = null;
+    Ode.getInstance().getDesignToolbar().addScreen(projectId, formName, null, null);
+  }
+
+  /*
+   * Returns the top level component of a screen without editors, parsed from the content of its
+   * form file, or null if the content has not been fetched.
+   */
+  private JSONObject parseScreenSource(EditorSet editors) {
+    if (editors.formNode == null) {
+      return null;
+    }
+    String source = screenSources.get(editors.formNode.getFileId());
+    if (source == null) {
+      return null;
+    }
+    return YoungAndroidSourceAnalyzer.parseSourceFile(source, new ClientJsonParser())
+        .get("Properties").asObject();
+  }
+
+  private static void collectComponents(JSONObject component, List<String> names,
+      Set<String> types) {
+    names.add(component.get("$Name").asString().getString());
+    types.add(component.get("$Type").asString().getString());
+    JSONValue children = component.get("$Components");
+    if (children != null) {
+      for (JSONValue child : children.asArray().getElements()) {
+        collectComponents(child.asObject(), names, types);
+      }
+    }
+  }
+
+  /*
+   * Returns the content of a screen's blocks file if the screen has no editors and the content
+   * has been fetched, otherwise null.
+   */
+  private String getBlocksSource(EditorSet editors) {
+    if (editors.blocksNode == null) {
+      return null;
+    }
+    String source = screenSources.get(editors.blocksNode.getFileId());
+    return source == null || source.isEmpty() ? null : source;
   }
   
   @Override
@@ -253,7 +753,9 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     OdeLog.log("YaProjectEditor: got onUnload");
     super.onUnload();
     for (EditorSet editors : editorMap.values()) {
-      editors.blocksEditor.prepareForUnload();
+      if (editors.blocksEditor != null) {
+        editors.blocksEditor.prepareForUnload();
+      }
     }
   }
 
@@ -267,22 +769,26 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   public void onProjectNodeAdded(Project project, ProjectNode node) {
     String formName = null;
     if (node instanceof YoungAndroidFormNode) {
-      if (getFileEditor(node.getFileId()) == null) {
-        addFormEditor((YoungAndroidFormNode) node);
-        formName = ((YoungAndroidFormNode) node).getFormName();
+      YoungAndroidFormNode formNode = (YoungAndroidFormNode) node;
+      EditorSet editors = getEditorSet(formNode.getFormName());
+      if (editors.formNode == null) {
+        editors.formNode = formNode;
+        formName = formNode.getFormName();
       }
     } else if (node instanceof YoungAndroidBlocksNode) {
-      if (getFileEditor(node.getFileId()) == null) {
-        addBlocksEditor((YoungAndroidBlocksNode) node);
-        formName = ((YoungAndroidBlocksNode) node).getFormName();
+      YoungAndroidBlocksNode blocksNode = (YoungAndroidBlocksNode) node;
+      EditorSet editors = getEditorSet(blocksNode.getFormName());
+      if (editors.blocksNode == null) {
+        editors.blocksNode = blocksNode;
+        formName = blocksNode.getFormName();
       }
     }
     if (formName != null) {
-      // see if we have both editors yet
+      // see if we have both files yet. A new screen is likely to be selected next, so load it now.
       EditorSet editors = editorMap.get(formName);
-      if (editors.formEditor != null && editors.blocksEditor != null) {
-        Ode.getInstance().getDesignToolbar().addScreen(node.getProjectId(), formName, 
-            editors.formEditor, editors.blocksEditor);
+      if (editors.formNode != null && editors.blocksNode != null) {
+        Ode.getInstance().getDesignToolbar().addScreen(node.getProjectId(), formName, null, null);
+        loadScreen(formName, null);
       }
     }
   }
@@ -296,6 +802,7 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     OdeLog.log("YaProjectEditor: got onProjectNodeRemoved for project "
             + project.getProjectId() + ", node " + node.getFileId());
     String formName = null;
+    screenSources.remove(node.getFileId());
     if (node instanceof YoungAndroidFormNode) {
       formName = ((YoungAndroidFormNode) node).getFormName();
       removeFormEditor(formName);
@@ -328,6 +835,10 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   }
 
   /**
+   * Returns the names of the components of a screen. For a screen that has not been loaded these
+   * come from its form file if that has been fetched, and are otherwise left out. Call
+   * {@link #fetchScreenSources} first to be sure that no screen is left out.
+   *
    * @return a list of component instance names
    */
   public List<String> getComponentInstances(String formName) {
@@ -336,10 +847,21 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     if (editorSet == null) {
       return components;
     }
-    components.addAll(editorSet.formEditor.getComponents().keySet());
+    if (editorSet.formEditor != null) {
+      components.addAll(editorSet.formEditor.getComponents().keySet());
+    } else {
+      JSONObject form = parseScreenSource(editorSet);
+      if (form != null) {
+        collectComponents(form, components, new HashSet<String>());
+      }
+    }
     return  components;
   }
 
+  /**
+   * Returns the names of the components of every screen. Call {@link #fetchScreenSources} first
+   * to be sure that no screen is left out.
+   */
   public List<String> getComponentInstances() {
     List<String> components = new ArrayList<String>();
     for (String formName : editorMap.keySet()) {
@@ -354,12 +876,23 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     if (editorSet == null) {
       return types;
     }
+    if (editorSet.formEditor == null) {
+      JSONObject form = parseScreenSource(editorSet);
+      if (form != null) {
+        collectComponents(form, new ArrayList<String>(), types);
+      }
+      return types;
+    }
     for(MockComponent m : editorSet.formEditor.getComponents().values()) {
       types.add(m.getType());
     }
     return types;
   }
 
+  /**
+   * Returns the types of the components of every screen. Call {@link #fetchScreenSources} first
+   * to be sure that no screen is left out.
+   */
   public Set<String> getUniqueComponentTypes() {
     Set<String> types = new HashSet<String>();
     for (String formName : editorMap.keySet()) {
@@ -368,20 +901,34 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     return types;
   }
 
+  /**
+   * Returns the types of the built-in blocks of every screen. Call {@link #fetchScreenSources}
+   * first to be sure that no screen is left out.
+   */
   public Set<String> getUniqueBuiltInBlockTypes() {
     Set<String> types = new HashSet<String>();
     for (EditorSet ed : editorMap.values()) {
-      types.addAll(ed.blocksEditor.getBlockTypeSet());
+      if (ed.blocksEditor != null) {
+        types.addAll(ed.blocksEditor.getBlockTypeSet());
+      } else if (getBlocksSource(ed) != null) {
+        types.addAll(YaBlocksEditor.getBlockTypeSet(getBlocksSource(ed)));
+      }
     }
     return types;
   }
 
   // Returns a hash of component names with the set of all component blocks (events, methods,
-  // and properties) in use for all screens in the current project
+  // and properties) in use for all screens in the current project. Call fetchScreenSources
+  // first to be sure that no screen is left out.
   public HashMap<String, Set<String>> getUniqueComponentBlockTypes() {
     HashMap<String, Set<String>> componentBlocks = new HashMap<String, Set<String>>();
     for (EditorSet ed : editorMap.values()) {
-      componentBlocks = ed.blocksEditor.getComponentBlockTypeSet(componentBlocks);
+      if (ed.blocksEditor != null) {
+        componentBlocks = ed.blocksEditor.getComponentBlockTypeSet(componentBlocks);
+      } else if (getBlocksSource(ed) != null) {
+        componentBlocks = YaBlocksEditor.getComponentBlockTypeSet(getBlocksSource(ed),
+            componentBlocks);
+      }
     }
     return componentBlocks;
   }
@@ -438,14 +985,7 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     final YaFormEditor newFormEditor = new YaFormEditor(this, formNode);
     final String formName = formNode.getFormName();
     OdeLog.log("Adding form editor for " + formName);
-    if (editorMap.containsKey(formName)) {
-      // This happens if the blocks editor was already added.
-      editorMap.get(formName).formEditor = newFormEditor;
-    } else {
-      EditorSet editors = new EditorSet();
-      editors.formEditor = newFormEditor;
-      editorMap.put(formName, editors);
-    }
+    getEditorSet(formName).formEditor = newFormEditor;
     final Command afterLoadCommand = new Command() {
       @Override
       public void execute() {
@@ -457,16 +997,16 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
         insertFileEditor(newFormEditor, pos);
         if (isScreen1(formName)) {
           screen1FormLoaded = true;
-          if (readyToShowScreen1()) {
-            OdeLog.log("YaProjectEditor.addFormEditor.loadFile.execute: switching to screen "
-                + formName + " for project " + newFormEditor.getProjectId());
-            Ode.getInstance().getDesignToolbar().switchToScreen(newFormEditor.getProjectId(),
-                formName, DesignToolbar.View.FORM);
-          }
         }
         loadBlocksEditor(formName);
       }
     };
+    final Command afterLoadFailed = new Command() {
+      @Override
+      public void execute() {
+        onScreenLoadFailed(formName);
+      }
+    };
     if (!isScreen1(formName) && !screen1FormLoaded) {
       // Defer loading other screens until Screen1 is loaded. Otherwise we can end up in an
       // inconsistent state during project upgrades with Screen1-only properties.
@@ -474,7 +1014,7 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
         @Override
         public boolean execute() {
           if (screen1FormLoaded) {
-            newFormEditor.loadFile(afterLoadCommand);
+            newFormEditor.loadFile(afterLoadCommand, afterLoadFailed);
             return false;
           } else {
             return true;
@@ -482,14 +1022,10 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
         }
       }, 100);
     } else {
-      newFormEditor.loadFile(afterLoadCommand);
+      newFormEditor.loadFile(afterLoadCommand, afterLoadFailed);
     }
   }
     
-  private boolean readyToShowScreen1() {
-    return screen1FormLoaded && screen1BlocksLoaded && screen1Added;
-  }
-
   private boolean readyToLoadProject() {
     return externalComponentsLoaded;
   }
@@ -498,22 +1034,16 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     final YaBlocksEditor newBlocksEditor = new YaBlocksEditor(this, blocksNode);
     final String formName = blocksNode.getFormName();
     OdeLog.log("Adding blocks editor for " + formName);
-    if (editorMap.containsKey(formName)) {
-      // This happens if the form editor was already added.
-      editorMap.get(formName).blocksEditor = newBlocksEditor;
-    } else {
-      EditorSet editors = new EditorSet();
-      editors.blocksEditor = newBlocksEditor;
-      editorMap.put(formName, editors);
-    }
+    getEditorSet(formName).blocksEditor = newBlocksEditor;
   }
   
   private void removeFormEditor(String formName) {
     if (editorMap.containsKey(formName)) {
       EditorSet editors = editorMap.get(formName);
-      if (editors.blocksEditor == null) {
+      if (editors.blocksNode == null) {
         editorMap.remove(formName);
       } else {
+        editors.formNode = null;
         editors.formEditor = null;
       }
     }
@@ -522,9 +1052,10 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   private void removeBlocksEditor(String formName) {
     if (editorMap.containsKey(formName)) {
       EditorSet editors = editorMap.get(formName);
-      if (editors.formEditor == null) {
+      if (editors.formNode == null) {
         editorMap.remove(formName);
       } else {
+        editors.blocksNode = null;
         editors.blocksEditor = null;
       }
     }    
@@ -742,8 +1273,10 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     }
     for (String formName : editorMap.keySet()) {
       EditorSet editors = editorMap.get(formName);
-      editors.formEditor.onComponentTypeAdded(componentTypes);
-      editors.blocksEditor.onComponentTypeAdded(componentTypes);
+      if (editors.hasEditors()) {
+        editors.formEditor.onComponentTypeAdded(componentTypes);
+        editors.blocksEditor.onComponentTypeAdded(componentTypes);
+      }
     }
     // Change of extensions...
     YaBlocksEditor.resendAssetsAndExtensions();
@@ -768,10 +1301,14 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     for (ComponentDatabaseChangeListener cdbChangeListener : componentDatabaseChangeListeners) {
       result = result & cdbChangeListener.beforeComponentTypeRemoved(componentTypes);
     }
+    // Screens without editors are loaded before extensions are removed (see
+    // ComponentRemoveWidget), so there are none here unless loading failed.
     for (String formName : editorMap.keySet()) {
       EditorSet editors = editorMap.get(formName);
-      result = result & editors.formEditor.beforeComponentTypeRemoved(componentTypes);
-      result = result & editors.blocksEditor.beforeComponentTypeRemoved(componentTypes);
+      if (editors.hasEditors()) {
+        result = result & editors.formEditor.beforeComponentTypeRemoved(componentTypes);
+        result = result & editors.blocksEditor.beforeComponentTypeRemoved(componentTypes);
+      }
     }
     return result;
   }
@@ -784,8 +1321,10 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     }
     for (String formName : editorMap.keySet()) {
       EditorSet editors = editorMap.get(formName);
-      editors.formEditor.onComponentTypeRemoved(componentTypes);
-      editors.blocksEditor.onComponentTypeRemoved(componentTypes);
+      if (editors.hasEditors()) {
+        editors.formEditor.onComponentTypeRemoved(componentTypes);
+        editors.blocksEditor.onComponentTypeRemoved(componentTypes);
+      }
     }
     removeComponent(componentTypes);
   }
@@ -798,8 +1337,10 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     }
     for (String formName : editorMap.keySet()) {
       EditorSet editors = editorMap.get(formName);
-      editors.formEditor.onResetDatabase();
-      editors.blocksEditor.onResetDatabase();
+      if (editors.hasEditors()) {
+        editors.formEditor.onResetDatabase();
+        editors.blocksEditor.onResetDatabase();
+      }
     }
   }
 
@@ -811,8 +1352,12 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
     for (EditorSet editors : editorMap.values()) {
       // It would be more efficient to check if the editors use the component in question,
       // but we are conservative and save everything, for now.
-      manager.scheduleAutoSave(editors.formEditor);
-      manager.scheduleAutoSave(editors.blocksEditor);
+      if (editors.isLoaded()) {
+        manager.scheduleAutoSave(editors.formEditor);
+        manager.scheduleAutoSave(editors.blocksEditor);
+      } else {
+        editors.saveWhenLoaded = true;
+      }
     }
   }
 }
@@ -0,0 +1,30 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+package com.google.appinventor.client.editor.youngandroid.properties;
+
+import static com.google.appinventor.client.Ode.MESSAGES;
+import com.google.appinventor.client.widgets.properties.ChoicePropertyEditor;
+import com.google.appinventor.components.common.ComponentConstants;
+
+/**
+ * Property editor for the sampling mode of motion sensors.
+ *
+ */
+public class YoungAndroidSensorSamplingModeChoicePropertyEditor extends ChoicePropertyEditor {
+
+  // Sensor sampling mode choices
+  private static final Choice[] modes = new Choice[] {
+    new Choice(MESSAGES.allSensorSamplingMode(), ComponentConstants.SENSOR_SAMPLING_ALL + ""),
+    new Choice(MESSAGES.latestSensorSamplingMode(), ComponentConstants.SENSOR_SAMPLING_LATEST + ""),
+    new Choice(MESSAGES.lowPassSensorSamplingMode(),
+        ComponentConstants.SENSOR_SAMPLING_LOW_PASS + ""),
+    new Choice(MESSAGES.decimateSensorSamplingMode(),
+        ComponentConstants.SENSOR_SAMPLING_DECIMATE + "")
+  };
+
+  public YoungAndroidSensorSamplingModeChoicePropertyEditor() {
+    super(modes);
+  }
+}
@@ -96,6 +96,8 @@ public class BuildCommand extends ChainableCommand {
               ErrorReporter.reportInfo(MESSAGES.buildServerDifferentVersion());
               break;
             default:
+              // The saved yail may be what is wrong, so generate all of it for the next build.
+              ode.getEditorManager().forgetSavedYail(node.getProjectId());
               String errorMsg = result.getError();
               // This is not an internal App Inventor bug. The error is reported as info so that
               // the red background is not shown.
@@ -98,9 +98,13 @@ public class SubsetJSONPropertyEditor  extends PropertyEditor
     items.add(new DropDownButton.DropDownItem("Subset Property Editor", "Match Project", new Command() {
       @Override
       public void execute() {
-        matchProject();
-        property.setValue(createJSONString());
-        updateValue();
+        matchProject(new Command() {
+          @Override
+          public void execute() {
+            property.setValue(createJSONString());
+            updateValue();
+          }
+        });
       }}));
     items.add(new DropDownButton.DropDownItem("Subset Property Editor", MESSAGES.fileUploadWizardCaption(), new Command() {
       @Override
@@ -167,7 +171,7 @@ public class SubsetJSONPropertyEditor  extends PropertyEditor
       initializeButton.addClickHandler(new ClickHandler() {
         @Override
         public void onClick(ClickEvent event) {
-          matchProject();
+          matchProject(null);
         }
       });
       Button cancelButton = new Button(MESSAGES.cancelButton());
@@ -409,9 +413,23 @@ public class SubsetJSONPropertyEditor  extends PropertyEditor
     }
   }
 
-  private void matchProject() {
+  // Selects the components and blocks used by the project, once the files of all of its screens
+  // are available, then executes afterMatching if it is not null.
+  private void matchProject(final Command afterMatching) {
     long projID = Ode.getInstance().getCurrentYoungAndroidProjectId();
-    YaProjectEditor projEditor = (YaProjectEditor)Ode.getInstance().getEditorManager().getOpenProjectEditor(projID);
+    final YaProjectEditor projEditor = (YaProjectEditor)Ode.getInstance().getEditorManager().getOpenProjectEditor(projID);
+    projEditor.fetchScreenSources(new Command() {
+      @Override
+      public void execute() {
+        matchProject(projEditor);
+        if (afterMatching != null) {
+          afterMatching.execute();
+        }
+      }
+    }, null);
+  }
+
+  private void matchProject(YaProjectEditor projEditor) {
     Set<String> componentTypes = projEditor.getUniqueComponentTypes();
     HashMap<String, Set<String>> componentBlockTypes = projEditor.getUniqueComponentBlockTypes();
     for (int i = 0; i < componentTree.getItemCount(); ++i) {
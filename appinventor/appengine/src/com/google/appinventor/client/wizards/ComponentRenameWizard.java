@@ -98,18 +98,22 @@ public class ComponentRenameWizard extends Wizard{
         initFinishCommand(new Command() {
             @Override
             public void execute() {
-                String newName = renameTextBox.getText();
+                final String newName = renameTextBox.getText();
 
-                if (TextValidators.checkNewComponentName(newName)) {
-                    ode.getComponentService().renameImportedComponent(defaultTypeName, newName, destinationProjectId, new RenameComponentCallback());
-
-                } else {
-                    show();
-                    center();
-                    renameTextBox.setFocus(true);
-                    renameTextBox.selectAll();
-                    return;
-                }
+                TextValidators.checkNewComponentName(newName, new Command() {
+                    @Override
+                    public void execute() {
+                        ode.getComponentService().renameImportedComponent(defaultTypeName, newName, destinationProjectId, new RenameComponentCallback());
+                    }
+                }, new Command() {
+                    @Override
+                    public void execute() {
+                        show();
+                        center();
+                        renameTextBox.setFocus(true);
+                        renameTextBox.selectAll();
+                    }
+                });
             }
         });
         // Create cancel command (delete component files)
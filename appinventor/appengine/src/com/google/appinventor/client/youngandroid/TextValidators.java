@@ -12,6 +12,7 @@ import static com.google.appinventor.client.Ode.MESSAGES;
 import com.google.appinventor.client.editor.simple.SimpleComponentDatabase;
 import com.google.appinventor.client.editor.youngandroid.YaProjectEditor;
 import com.google.gwt.http.client.URL;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Window;
 
 import java.util.Arrays;
@@ -70,20 +71,46 @@ public final class TextValidators {
     return true;
   }
 
-  public static boolean checkNewComponentName(String componentName) {
+  /**
+   * Checks a new component name, alerting the user if it cannot be used. The name must not be
+   * used by a component of any screen of the current project, so the files of screens that have
+   * not been loaded are fetched first.
+   *
+   * @param componentName the proposed name
+   * @param ifValid command to be executed if the name can be used
+   * @param ifInvalid command to be executed if it cannot, or if the check cannot be made
+   */
+  public static void checkNewComponentName(final String componentName, final Command ifValid,
+      final Command ifInvalid) {
 
     // Check that it meets the formatting requirements.
     if (!TextValidators.isValidComponentIdentifier(componentName)) {
       Window.alert(MESSAGES.malformedComponentNameError());
-      return false;
+      ifInvalid.execute();
+      return;
     }
 
-    long projectId = Ode.getInstance().getCurrentYoungAndroidProjectId();
+    final long projectId = Ode.getInstance().getCurrentYoungAndroidProjectId();
     if ( projectId == 0) { // Check we have a current Project
-      return false;
+      ifInvalid.execute();
+      return;
     }
 
-    YaProjectEditor editor = (YaProjectEditor) Ode.getInstance().getEditorManager().getOpenProjectEditor(projectId);
+    final YaProjectEditor editor = (YaProjectEditor) Ode.getInstance().getEditorManager().getOpenProjectEditor(projectId);
+    editor.fetchScreenSources(new Command() {
+      @Override
+      public void execute() {
+        if (checkNewComponentName(componentName, projectId, editor)) {
+          ifValid.execute();
+        } else {
+          ifInvalid.execute();
+        }
+      }
+    }, ifInvalid);
+  }
+
+  private static boolean checkNewComponentName(String componentName, long projectId,
+      YaProjectEditor editor) {
 
     // Check that it's unique.
     final List<String> names = editor.getComponentInstances();
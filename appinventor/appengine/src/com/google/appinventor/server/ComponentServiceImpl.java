@@ -18,8 +18,6 @@ import com.google.appinventor.shared.rpc.project.ProjectNode;
 
 import com.google.common.io.ByteStreams;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -134,12 +132,17 @@ public class ComponentServiceImpl extends OdeRemoteServiceServlet
   @Override
   public void deleteImportedComponent(String fullyQualifiedName, long projectId) {
     String directory = "assets/external_comps/" + fullyQualifiedName + "/";
+    List<String> files = new ArrayList<>();
     for (String fileId : storageIo.getProjectSourceFiles(userInfoProvider.getUserId(), projectId)) {
       if (fileId.startsWith(directory)) {
         storageIo.deleteFile(userInfoProvider.getUserId(), projectId, fileId);
-        storageIo.removeSourceFilesFromProject(userInfoProvider.getUserId(), projectId, false, fileId);
+        files.add(fileId);
       }
     }
+    if (!files.isEmpty()) {
+      storageIo.removeSourceFilesFromProject(userInfoProvider.getUserId(), projectId, false,
+          files.toArray(new String[files.size()]));
+    }
   }
 
   private Map<String, byte[]> extractContents(InputStream inputStream)
@@ -151,9 +154,7 @@ public class ComponentServiceImpl extends OdeRemoteServiceServlet
     ZipEntry entry;
     while ((entry = zip.getNextEntry()) != null) {
       if (entry.isDirectory())  continue;
-      ByteArrayOutputStream contentStream = new ByteArrayOutputStream();
-      ByteStreams.copy(zip, contentStream);
-      contents.put(entry.getName(), contentStream.toByteArray());
+      contents.put(entry.getName(), ByteStreams.toByteArray(zip));
     }
     zip.close();
 
@@ -217,26 +218,33 @@ public class ComponentServiceImpl extends OdeRemoteServiceServlet
       }
     }
 
-    // Write new extension files
+    // Write new extension files, adding them to the project all at once
     List<ProjectNode> compNodes = new ArrayList<>();
+    Map<String, byte[]> files = new HashMap<>();
     for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
       String dest = basepath + entry.getKey();
       FileNode fileNode = new YoungAndroidComponentNode(StorageUtil.basename(entry.getKey()), dest);
-      fileImporter.importFile(userId, projectId, dest, new ByteArrayInputStream(entry.getValue()));
+      files.put(dest, entry.getValue());
       compNodes.add(fileNode);
     }
+    fileImporter.importFiles(userId, projectId, files);
 
     // Delete old extension files
     // NB: If an exception kills us here the project will be in an inconsistent state since Google
     // doesn't guarantee atomicity of writes to both the data store and cloud store.
+    List<String> oldFiles = new ArrayList<>();
     for (String extension : oldTypes) {
       for (String file : existingExtensions.get(extension)) {
         if (!contents.containsKey(file.replace(basepath, ""))) {  // don't delete new files
           storageIo.deleteFile(userId, projectId, file);
-          storageIo.removeSourceFilesFromProject(userId, projectId, false, file);
+          oldFiles.add(file);
         }
       }
     }
+    if (!oldFiles.isEmpty()) {
+      storageIo.removeSourceFilesFromProject(userId, projectId, false,
+          oldFiles.toArray(new String[oldFiles.size()]));
+    }
 
     // Extract type map to send to clients
     Map<String, String> types = new TreeMap<>();
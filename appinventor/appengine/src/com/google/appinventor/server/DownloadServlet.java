@@ -16,6 +16,8 @@ import com.google.appinventor.shared.rpc.project.ProjectSourceZip;
 import com.google.appinventor.shared.rpc.project.RawFile;
 import com.google.appinventor.shared.storage.StorageUtil;
 
+import org.apache.commons.codec.digest.DigestUtils;
+
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -95,6 +97,7 @@ public class DownloadServlet extends OdeServlet {
     resp.setContentType(CONTENT_TYPE);
 
     RawFile downloadableFile;
+    boolean conditional = false;  // true if the client may already have the file
 
     String userId = null;
 
@@ -199,6 +202,7 @@ public class DownloadServlet extends OdeServlet {
         String filePath = (uriComponents.length > FILE_PATH_INDEX) ?
             uriComponents[FILE_PATH_INDEX] : null;
         downloadableFile = fileExporter.exportFile(userId, projectId, filePath);
+        conditional = true;
 
       } else if (downloadKind.equals(ServerLayout.DOWNLOAD_USERFILE)) {
         // Download a specific user file, such as android.keystore
@@ -220,6 +224,17 @@ public class DownloadServlet extends OdeServlet {
     String fileName = downloadableFile.getFileName();
     byte[] content = downloadableFile.getContent();
 
+    if (conditional) {
+      // The Companion sends the hash of the copy it has, so that an unchanged
+      // asset is not sent again each time it connects.
+      String etag = "\"" + DigestUtils.sha1Hex(content) + "\"";
+      resp.setHeader("ETag", etag);
+      if (etag.equals(req.getHeader("If-None-Match"))) {
+        resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+    }
+
     // Set http response information
     resp.setStatus(HttpServletResponse.SC_OK);
     resp.setHeader("content-disposition", "attachment; filename=\"" + fileName + "\"");
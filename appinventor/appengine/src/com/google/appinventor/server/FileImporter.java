@@ -13,6 +13,7 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -69,6 +70,21 @@ public interface FileImporter {
   long importFile(String userId, long projectId, String fileName, InputStream uploadedFileStream)
       throws FileImporterException, IOException;
 
+  /**
+   * Adds several files to the project on the server and imports their content.
+   * The sizes of all of the files are checked before any of them is stored, and
+   * the new files are added to the project in a single update.
+   *
+   * @param userId the userId
+   * @param projectId project id
+   * @param files a map from file names to file content
+   * @return the modification time for the project
+   * @throws FileImporterException if any of the files is too large
+   * @throws IOException if any file operation fails
+   */
+  long importFiles(String userId, long projectId, Map<String, byte[]> files)
+      throws FileImporterException, IOException;
+
   /**
    * Adds the user file on the server and imports its content.
    *
@@ -8,6 +8,7 @@ package com.google.appinventor.server;
 
 import com.google.appinventor.common.utils.StringUtils;
 import com.google.appinventor.server.flags.Flag;
+import com.google.appinventor.server.project.youngandroid.FormVersionUpgrader;
 import com.google.appinventor.server.project.youngandroid.YoungAndroidProjectService;
 import com.google.appinventor.server.storage.StorageIo;
 import com.google.appinventor.server.storage.StorageIoInstanceHolder;
@@ -18,6 +19,7 @@ import com.google.appinventor.shared.rpc.project.TextFile;
 import com.google.appinventor.shared.rpc.project.UserProject;
 import com.google.appinventor.shared.rpc.project.youngandroid.YoungAndroidProjectNode;
 import com.google.appinventor.shared.storage.StorageUtil;
+import com.google.appinventor.shared.youngandroid.YoungAndroidSourceAnalyzer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
@@ -29,7 +31,10 @@ import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -132,7 +137,17 @@ public final class FileImporterImpl implements FileImporter {
             ByteArrayOutputStream contentStream = new ByteArrayOutputStream();
             ByteStreams.copy(zin, contentStream);
 
-            project.addRawFile(new RawFile(fileName, contentStream.toByteArray()));
+            byte[] content = contentStream.toByteArray();
+            if (fileName.endsWith(YoungAndroidSourceAnalyzer.FORM_PROPERTIES_EXTENSION)) {
+              // Bring the form's version up to date now rather than each time it is opened.
+              String upgraded = FormVersionUpgrader.getInstance().upgrade(
+                  new String(content, StorageUtil.DEFAULT_CHARSET));
+              if (upgraded != null) {
+                content = upgraded.getBytes(StorageUtil.DEFAULT_CHARSET);
+              }
+            }
+
+            project.addRawFile(new RawFile(fileName, content));
           }
         }
       }
@@ -192,6 +207,37 @@ public final class FileImporterImpl implements FileImporter {
     return storageIo.uploadRawFileForce(projectId, fileName, userId, content);
   }
 
+  @Override
+  public long importFiles(String userId, long projectId, Map<String, byte[]> files)
+      throws FileImporterException, IOException {
+    int maxAssetSizeBytes = (int) (maxAssetSizeMegs.get() * 1024 * 1024);
+    int maxSizeBytes = Math.min(maxAssetSizeBytes, storageIo.getMaxJobSizeBytes());
+    for (byte[] content : files.values()) {
+      if (content.length > maxSizeBytes) {
+        throw new FileImporterException(UploadResponse.Status.FILE_TOO_LARGE);
+      }
+    }
+
+    // If a file already exists, we will overwrite the content.
+    Set<String> sourceFiles =
+        new HashSet<String>(storageIo.getProjectSourceFiles(userId, projectId));
+    List<String> newFiles = new ArrayList<String>();
+    for (String fileName : files.keySet()) {
+      if (!sourceFiles.contains(fileName)) {
+        newFiles.add(fileName);
+      }
+    }
+    if (!newFiles.isEmpty()) {
+      storageIo.addSourceFilesToProject(userId, projectId, false,
+          newFiles.toArray(new String[newFiles.size()]));
+    }
+    long modDate = 0;
+    for (Map.Entry<String, byte[]> file : files.entrySet()) {
+      modDate = storageIo.uploadRawFileForce(projectId, file.getKey(), userId, file.getValue());
+    }
+    return modDate;
+  }
+
   @Override
   public void importUserFile(String userId, String fileName, InputStream uploadedFileStream)
       throws IOException {
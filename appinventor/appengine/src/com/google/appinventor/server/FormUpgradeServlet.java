@@ -0,0 +1,80 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server;
+
+import com.google.appinventor.server.project.youngandroid.FormVersionUpgrader;
+import com.google.appinventor.server.storage.StorageIo;
+import com.google.appinventor.server.storage.StorageIoInstanceHolder;
+import com.google.appinventor.shared.storage.StorageUtil;
+import com.google.appinventor.shared.youngandroid.YoungAndroidSourceAnalyzer;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * FormUpgradeServlet -- Bring the versions of a user's stored forms up
+ * to date
+ *
+ * Like BlobUpgradeServlet, this Servlet is meant to be called from the
+ * task queue manager, one task per user, and is restricted to admin
+ * users. storageIo.checkFormUpgrade() adds the task when a user whose
+ * forms were last upgraded by an older version logs in. For each form
+ * of each of the user's projects it calls FormVersionUpgrader, and
+ * saves the forms that it upgrades, so that opening them later does not
+ * need an upgrade in the browser. Forms with components that need
+ * upgrading are left alone, and so are forms that the user saves while
+ * we are upgrading them.
+ *
+ */
+public class FormUpgradeServlet extends OdeServlet {
+  // Logging support
+  private static final Logger LOG = Logger.getLogger(FormUpgradeServlet.class.getName());
+  private final StorageIo storageIo = StorageIoInstanceHolder.INSTANCE;
+
+  @Override
+  public void doPost(HttpServletRequest req, HttpServletResponse resp)
+      throws IOException {
+
+    String userId = req.getParameter("user");
+    if (userId == null) {
+      resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing user");
+      return;
+    }
+    LOG.info("Got Request to Upgrade Forms: " + userId);
+    FormVersionUpgrader upgrader = FormVersionUpgrader.getInstance();
+    int upgraded = 0;
+    boolean anyFailed = false;
+    for (long projectId : storageIo.getProjects(userId)) {
+      for (String fileId : storageIo.getProjectSourceFiles(userId, projectId)) {
+        if (!fileId.endsWith(YoungAndroidSourceAnalyzer.FORM_PROPERTIES_EXTENSION)) {
+          continue;
+        }
+        try {
+          String oldContent = storageIo.downloadFile(userId, projectId, fileId,
+              StorageUtil.DEFAULT_CHARSET);
+          String content = upgrader.upgrade(oldContent);
+          // If the user saved the form since we read it, their version wins
+          if (content != null && storageIo.uploadFileIfUnchanged(projectId, fileId, userId,
+              oldContent, content, StorageUtil.DEFAULT_CHARSET)) {
+            upgraded++;
+          }
+        } catch (RuntimeException e) {
+          // Leave this form for the client to upgrade and carry on with the others
+          LOG.log(Level.WARNING, "Unable to upgrade " + fileId + " of project " + projectId, e);
+          anyFailed = true;
+        }
+      }
+    }
+    LOG.info("Upgraded " + upgraded + " forms for " + userId);
+    if (!anyFailed) {           // Otherwise try again the next time the user logs in
+      storageIo.setFormsUpgraded(userId);
+    }
+  }
+}
@@ -70,6 +70,8 @@ public class UserInfoServiceImpl extends OdeRemoteServiceServlet implements User
 
     // Check to see if we need to upgrade this user's project to GCS
     storageIo.checkUpgrade(userInfoProvider.getUserId());
+    // and whether their forms need to be brought up to date
+    storageIo.checkFormUpgrade(userInfoProvider.getUserId());
     return config;
   }
 
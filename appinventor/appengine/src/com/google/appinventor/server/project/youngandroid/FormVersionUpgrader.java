@@ -0,0 +1,173 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server.project.youngandroid;
+
+import com.google.appinventor.components.common.YaVersion;
+import com.google.appinventor.server.properties.json.ServerJsonParser;
+import com.google.appinventor.shared.properties.json.JSONArray;
+import com.google.appinventor.shared.properties.json.JSONObject;
+import com.google.appinventor.shared.properties.json.JSONParser;
+import com.google.appinventor.shared.properties.json.JSONString;
+import com.google.appinventor.shared.properties.json.JSONValue;
+import com.google.appinventor.shared.youngandroid.YoungAndroidSourceAnalyzer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.CharStreams;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Brings the YaVersion of stored form (.scm) files up to date, so that
+ * the client does not have to upgrade them when they are loaded.
+ *
+ * <p>Only forms in which every component is already at its current
+ * version are changed. Upgrading a component also means upgrading its
+ * blocks, which the blocks editor does in the browser using the
+ * component versions it finds in the form before the form is upgraded.
+ * Those forms are left for YoungAndroidFormUpgrader on the client.
+ *
+ * <p>Apart from the version number, an upgraded form is left exactly as
+ * it was stored, so upgrading a form twice does nothing.
+ *
+ */
+public final class FormVersionUpgrader {
+  private static final Logger LOG = Logger.getLogger(FormVersionUpgrader.class.getName());
+
+  private static final String COMPONENTS_RESOURCE =
+      "/com/google/appinventor/simple_components.json";
+
+  private static final JSONParser JSON_PARSER = new ServerJsonParser();
+
+  private static FormVersionUpgrader instance;
+
+  // Maps built-in component types to their current versions
+  private final Map<String, Integer> componentVersions;
+
+  private final int yaVersion;
+
+  @VisibleForTesting
+  FormVersionUpgrader(Map<String, Integer> componentVersions, int yaVersion) {
+    this.componentVersions = componentVersions;
+    this.yaVersion = yaVersion;
+  }
+
+  /**
+   * Returns the upgrader for the built-in components of this server. If
+   * their versions cannot be read, the upgrader leaves every form alone.
+   */
+  public static synchronized FormVersionUpgrader getInstance() {
+    if (instance == null) {
+      Map<String, Integer> componentVersions;
+      try {
+        componentVersions = readComponentVersions();
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Unable to read component versions", e);
+        componentVersions = new HashMap<String, Integer>();
+      }
+      instance = new FormVersionUpgrader(componentVersions, YaVersion.YOUNG_ANDROID_VERSION);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the given form file with its YaVersion brought up to date, or
+   * null if it is already up to date or has to be upgraded by the client.
+   *
+   * @param source  the contents of a .scm file
+   * @return the upgraded contents, or null
+   */
+  public String upgrade(String source) {
+    Map<String, JSONValue> properties;
+    try {
+      properties = YoungAndroidSourceAnalyzer.parseSourceFile(source, JSON_PARSER)
+          .getProperties();
+    } catch (IllegalArgumentException e) {
+      return null;                // Not a form we understand; the client will report it
+    }
+    String srcYaVersion = getString(properties, "YaVersion");
+    int src;
+    try {
+      src = Integer.parseInt(srcYaVersion);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    // Versions before 26 stored some property values quoted, which needs the client.
+    if (src < 26 || src >= yaVersion) {
+      return null;
+    }
+    if (!isCurrent(properties.get("Properties"))) {
+      return null;
+    }
+    String oldVersion = "\"YaVersion\":\"" + srcYaVersion + "\"";
+    int start = source.indexOf(oldVersion);
+    if (start == -1 || start != source.lastIndexOf(oldVersion)) {
+      return null;
+    }
+    return source.substring(0, start) + "\"YaVersion\":\"" + yaVersion + "\""
+        + source.substring(start + oldVersion.length());
+  }
+
+  /*
+   * Returns true if the given component and all of the components nested
+   * in it are built-in components at their current versions.
+   */
+  private boolean isCurrent(JSONValue component) {
+    if (!(component instanceof JSONObject)) {
+      return false;
+    }
+    Map<String, JSONValue> properties = component.asObject().getProperties();
+    Integer sysVersion = componentVersions.get(getString(properties, "$Type"));
+    if (sysVersion == null || !sysVersion.toString().equals(getString(properties, "$Version"))) {
+      return false;
+    }
+    JSONValue components = properties.get("$Components");
+    if (components != null) {
+      if (!(components instanceof JSONArray)) {
+        return false;
+      }
+      for (JSONValue nested : components.asArray().getElements()) {
+        if (!isCurrent(nested)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static String getString(Map<String, JSONValue> properties, String name) {
+    JSONValue value = properties.get(name);
+    return value instanceof JSONString ? value.asString().getString() : null;
+  }
+
+  private static Map<String, Integer> readComponentVersions() throws IOException {
+    InputStream in = FormVersionUpgrader.class.getResourceAsStream(COMPONENTS_RESOURCE);
+    if (in == null) {
+      throw new IOException("Missing " + COMPONENTS_RESOURCE);
+    }
+    Map<String, Integer> versions = new HashMap<String, Integer>();
+    try {
+      org.json.JSONArray components =
+          new org.json.JSONArray(CharStreams.toString(new InputStreamReader(in, "UTF-8")));
+      for (int i = 0; i < components.length(); i++) {
+        org.json.JSONObject component = components.getJSONObject(i);
+        versions.put(component.getString("name"), Integer.parseInt(component.getString("version")));
+      }
+    } catch (JSONException e) {
+      throw new IOException("Unable to read " + COMPONENTS_RESOURCE, e);
+    } finally {
+      in.close();
+    }
+    LOG.info("Read the versions of " + versions.size() + " components");
+    return versions;
+  }
+}
@@ -22,6 +22,7 @@ import com.google.appinventor.server.project.utils.Security;
 import com.google.appinventor.server.properties.json.ServerJsonParser;
 import com.google.appinventor.server.storage.StorageIo;
 import com.google.appinventor.shared.properties.json.JSONParser;
+import com.google.appinventor.shared.rpc.BlocksTruncatedException;
 import com.google.appinventor.shared.rpc.RpcResult;
 import com.google.appinventor.shared.rpc.ServerLayout;
 import com.google.appinventor.shared.rpc.project.NewProjectParameters;
@@ -49,9 +50,11 @@ import com.google.appinventor.shared.settings.SettingsConstants;
 import com.google.appinventor.shared.storage.StorageUtil;
 import com.google.appinventor.shared.youngandroid.YoungAndroidSourceAnalyzer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import com.google.common.io.CharStreams;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -67,6 +70,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -108,6 +112,11 @@ public final class YoungAndroidProjectService extends CommonProjectService {
 
   private static final JSONParser JSON_PARSER = new ServerJsonParser();
 
+  // A saved yail file starts with a comment holding a hash of the form and blocks files
+  // it was generated from, so that the server can tell when it is out of date.
+  private static final String YAIL_SOURCE_HASH_PREFIX = "#|\n$SourceHash ";
+  private static final String YAIL_SOURCE_HASH_SUFFIX = "\n|#\n";
+
   // Build folder path
   private static final String BUILD_FOLDER = "build";
 
@@ -616,6 +625,80 @@ public final class YoungAndroidProjectService extends CommonProjectService {
     }
   }
 
+  @Override
+  public long save2(String userId, long projectId, String fileId, boolean force, String content)
+      throws BlocksTruncatedException {
+    if (fileId.endsWith(YAIL_FILE_EXTENSION) && !content.isEmpty()) {
+      // The client saves the form and blocks files before it generates the yail for them
+      String qualifiedFormName = YoungAndroidSourceNode.getQualifiedName(fileId);
+      content = addYailSourceHash(getSourceHash(userId, projectId, qualifiedFormName), content);
+    }
+    return super.save2(userId, projectId, fileId, force, content);
+  }
+
+  /**
+   * Returns the qualified names of the screens whose saved yail was generated
+   * from other form or blocks files than the ones now stored. Screens whose
+   * yail was saved before the server recorded its sources are not included.
+   *
+   * @param userId the user id
+   * @param projectId  project ID
+   * @return the names of the screens whose yail needs generating again
+   */
+  public List<String> getOutOfDateYailScreens(String userId, long projectId) {
+    List<String> screens = new ArrayList<String>();
+    List<String> sourceFiles = storageIo.getProjectSourceFiles(userId, projectId);
+    for (String fileId : sourceFiles) {
+      if (!fileId.endsWith(YAIL_FILE_EXTENSION)) {
+        continue;
+      }
+      String qualifiedFormName = YoungAndroidSourceNode.getQualifiedName(fileId);
+      if (!sourceFiles.contains(YoungAndroidFormNode.getFormFileId(qualifiedFormName))
+          || !sourceFiles.contains(YoungAndroidBlocksNode.getBlocklyFileId(qualifiedFormName))) {
+        continue;
+      }
+      String sourceHash = getYailSourceHash(
+          storageIo.downloadFile(userId, projectId, fileId, StorageUtil.DEFAULT_CHARSET));
+      if (sourceHash != null
+          && !sourceHash.equals(getSourceHash(userId, projectId, qualifiedFormName))) {
+        screens.add(qualifiedFormName);
+      }
+    }
+    return screens;
+  }
+
+  private String getSourceHash(String userId, long projectId, String qualifiedFormName) {
+    return computeSourceHash(
+        storageIo.downloadFile(userId, projectId,
+            YoungAndroidFormNode.getFormFileId(qualifiedFormName), StorageUtil.DEFAULT_CHARSET),
+        storageIo.downloadFile(userId, projectId,
+            YoungAndroidBlocksNode.getBlocklyFileId(qualifiedFormName),
+            StorageUtil.DEFAULT_CHARSET));
+  }
+
+  @VisibleForTesting
+  static String computeSourceHash(String formSource, String blocksSource) {
+    return DigestUtils.sha1Hex(formSource + '\0' + blocksSource);
+  }
+
+  @VisibleForTesting
+  static String addYailSourceHash(String sourceHash, String yail) {
+    return YAIL_SOURCE_HASH_PREFIX + sourceHash + YAIL_SOURCE_HASH_SUFFIX + yail;
+  }
+
+  /*
+   * Returns the source hash recorded at the start of the given yail, or null
+   * if there is none.
+   */
+  @VisibleForTesting
+  static String getYailSourceHash(String yail) {
+    if (!yail.startsWith(YAIL_SOURCE_HASH_PREFIX)) {
+      return null;
+    }
+    int end = yail.indexOf(YAIL_SOURCE_HASH_SUFFIX, YAIL_SOURCE_HASH_PREFIX.length());
+    return end == -1 ? null : yail.substring(YAIL_SOURCE_HASH_PREFIX.length(), end);
+  }
+
   @Override
   public long deleteFile(String userId, long projectId, String fileId) {
     if (fileId.endsWith(FORM_PROPERTIES_EXTENSION) ||
@@ -661,6 +744,21 @@ public final class YoungAndroidProjectService extends CommonProjectService {
     String projectName = storageIo.getProjectName(userId, projectId);
     String outputFileDir = BUILD_FOLDER + '/' + target;
 
+    // The client only generates yail for screens that changed since it last saved their yail,
+    // so refuse to build yail whose sources were changed some other way, such as in another
+    // session. The client generates the yail of every screen for the next build.
+    List<String> outOfDateScreens = getOutOfDateYailScreens(userId, projectId);
+    if (!outOfDateScreens.isEmpty()) {
+      LOG.warning("Not building project " + projectId + " with out of date yail for "
+          + outOfDateScreens);
+      List<String> screenNames = new ArrayList<String>();
+      for (String qualifiedFormName : outOfDateScreens) {
+        screenNames.add(qualifiedFormName.substring(qualifiedFormName.lastIndexOf('.') + 1));
+      }
+      return new RpcResult(false, "", "The code saved for " + Joiner.on(", ").join(screenNames)
+          + " does not match its designer and blocks. Please build again.");
+    }
+
     // Store the userId and projectId based on the nonce
 
     storageIo.storeNonce(nonce, userId, projectId);
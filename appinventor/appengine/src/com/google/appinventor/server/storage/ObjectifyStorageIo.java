@@ -21,6 +21,7 @@ import com.google.appengine.api.taskqueue.Queue;
 import com.google.appengine.api.taskqueue.QueueFactory;
 import com.google.appengine.api.taskqueue.TaskOptions;
 import com.google.apphosting.api.ApiProxy;
+import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.server.CrashReport;
 import com.google.appinventor.server.FileExporter;
 import com.google.appinventor.server.Server;
@@ -1509,6 +1510,52 @@ public class ObjectifyStorageIo implements  StorageIo {
     }
   }
 
+  @Override
+  public boolean uploadFileIfUnchanged(final long projectId, final String fileName,
+      final String userId, final String oldContent, final String content, final String encoding) {
+    final byte[] oldBytes;
+    final byte[] newBytes;
+    try {
+      oldBytes = oldContent.getBytes(encoding);
+      newBytes = content.getBytes(encoding);
+    } catch (UnsupportedEncodingException e) {
+      throw CrashReport.createAndLogError(LOG, null, "Unsupported file content encoding,"
+          + collectProjectErrorInfo(null, projectId, fileName), e);
+    }
+    final Key<FileData> key = projectFileKey(projectKey(projectId), fileName);
+    final Result<Boolean> written = new Result<Boolean>();
+    try {
+      runJobWithRetries(new JobRetryHelper() {
+        @Override
+        public void run(Objectify datastore) {
+          written.t = false;
+          // Read the datastore rather than memcache, so that the comparison and
+          // the write are in the same transaction.
+          FileData fd = datastore.find(key);
+          Preconditions.checkState(fd != null);
+          if (fd.userId != null && !fd.userId.equals("") && !fd.userId.equals(userId)) {
+            throw CrashReport.createAndLogError(LOG, null,
+              collectUserProjectErrorInfo(userId, projectId),
+              new UnauthorizedAccessException(userId, projectId, null));
+          }
+          if (fd.isBlob || isTrue(fd.isGCS) || !Arrays.equals(fd.content, oldBytes)) {
+            return;             // Changed since it was read, or not kept in the datastore
+          }
+          fd.content = newBytes;
+          datastore.put(fd);
+          written.t = true;
+        }
+      }, true);
+    } catch (ObjectifyException e) {
+      throw CrashReport.createAndLogError(LOG, null,
+          collectProjectErrorInfo(userId, projectId, fileName), e);
+    }
+    if (written.t) {
+      memcache.delete(key.getString()); // The next read gets the new content
+    }
+    return written.t;
+  }
+
   private long updateProjectModDate(Objectify datastore, long projectId, boolean doingConversion) {
     long modDate = System.currentTimeMillis();
     ProjectData pd = datastore.find(projectKey(projectId));
@@ -2705,6 +2752,36 @@ public class ObjectifyStorageIo implements  StorageIo {
     return;
   }
 
+  // See if this person's forms were last brought up to date by an older
+  // version of App Inventor and if so add a task to the task queue to
+  // upgrade them
+  public void checkFormUpgrade(String userId) {
+    Objectify datastore = ObjectifyService.begin();
+    UserData userData = datastore.find(userKey(userId));
+    if (userData == null || userData.formsVersion >= YaVersion.YOUNG_ANDROID_VERSION)
+      return;                   // All done.
+    Queue queue = QueueFactory.getQueue("formupgrade");
+    queue.add(TaskOptions.Builder.withUrl("/upgradeforms").param("user", userId)
+      .etaMillis(System.currentTimeMillis() + 60000));
+  }
+
+  public void setFormsUpgraded(final String userId) {
+    try {
+      runJobWithRetries(new JobRetryHelper() {
+        @Override
+        public void run(Objectify datastore) {
+          UserData userData = datastore.find(userKey(userId));
+          if (userData != null) {
+            userData.formsVersion = YaVersion.YOUNG_ANDROID_VERSION;
+            datastore.put(userData);
+          }
+        }
+      }, true);
+    } catch (ObjectifyException e) {
+      throw CrashReport.createAndLogError(LOG, null, collectUserErrorInfo(userId), e);
+    }
+  }
+
   public void doUpgrade(String userId) {
     if (!conversionEnabled)     // Unless conversion is enabled...
       return;                   // shouldn't really ever happen but...
@@ -467,6 +467,22 @@ public interface StorageIo {
    */
   long uploadFileForce(long projectId, String fileId, String userId, String content, String encoding);
 
+  /**
+   * Uploads a file, but only if its stored content is still oldContent. This
+   * is for changes made offline, which must not overwrite a version of the
+   * file that the user saved after it was read. The project's modification
+   * date is left alone.
+   * @param projectId  project ID
+   * @param fileId  file ID
+   * @param userId the user who owns the file
+   * @param oldContent  the file content that the new content was made from
+   * @param content  file content
+   * @param encoding encoding of content
+   * @return true if the file was written, false if its content had changed
+   */
+  boolean uploadFileIfUnchanged(long projectId, String fileId, String userId, String oldContent,
+      String content, String encoding);
+
   /**
    * Uploads a file.
    * @param projectId  project ID
@@ -644,6 +660,13 @@ public interface StorageIo {
   // Called by the task queue to actually upgrade user's projects
   void doUpgrade(String userId);
 
+  // Check to see if the user's forms were last upgraded by an older version
+  // of App Inventor; if so, add task to task queue
+  void checkFormUpgrade(String userId);
+
+  // Called by the task queue once all of the user's forms are up to date
+  void setFormsUpgraded(String userId);
+
   // Retrieve the current Splash Screen Version
   SplashConfig getSplashConfig();
 
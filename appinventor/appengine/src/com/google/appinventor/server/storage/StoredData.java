@@ -62,6 +62,9 @@ public class StoredData {
     // Path to template project passed as GET parameter
     String templatePath;
     boolean upgradedGCS;
+    // The YOUNG_ANDROID_VERSION that FormUpgradeServlet last brought the
+    // user's stored forms up to
+    int formsVersion;
   }
 
   // Project properties
@@ -27,6 +27,8 @@ public class ComponentDatabaseTest extends TestCase {
 
   private static final String COMPONENT_DESCRIPTOR_FILE =
       "/build/components/simple_components.json";
+  private static final String COMPONENT_INDEX_FILE =
+      "/build/components/simple_components_index.txt";
 
   /**
    * Checks whether the component database was correctly initialized.
@@ -53,6 +55,75 @@ public class ComponentDatabaseTest extends TestCase {
     assertEquals("string", find(properties, "Hint").getEditorType());
   }
 
+  /**
+   * Checks that components loaded through the index match those parsed in full.
+   */
+  public void testComponentIndex() throws IOException {
+    String componentDescriptorSource = Files.toString(
+        new File(TestUtils.APP_INVENTOR_ROOT_DIR + COMPONENT_DESCRIPTOR_FILE),
+        Charset.forName("UTF8"));
+    String componentIndexSource = Files.toString(
+        new File(TestUtils.APP_INVENTOR_ROOT_DIR + COMPONENT_INDEX_FILE),
+        Charset.forName("UTF8"));
+
+    ComponentDatabase parsed = new ComponentDatabase(
+        new ServerJsonParser().parse(componentDescriptorSource).asArray());
+    ComponentIndex index = new ComponentIndex(new ServerJsonParser(),
+        componentDescriptorSource, componentIndexSource);
+    ComponentDatabase indexed = new ComponentDatabase(index);
+    assertEquals(parsed.getComponentNames(), indexed.getComponentNames());
+
+    List<PropertyDefinition> properties = indexed.getPropertyDefinitions("TextBox");
+    assertEquals(parsed.getPropertyDefinitions("TextBox").size(), properties.size());
+    assertEquals("non_negative_float", find(properties, "FontSize").getEditorType());
+    assertEquals(parsed.getMethodDefinitions("TextBox").size(),
+        indexed.getMethodDefinitions("TextBox").size());
+
+    // Databases sharing an index share the definitions parsed from it
+    ComponentDatabase other = new ComponentDatabase(index);
+    assertSame(indexed.getComponentDefinition("TextBox"), other.getComponentDefinition("TextBox"));
+
+    // Resetting restores the internal components without parsing them again
+    other.removeComponent("Button");
+    assertFalse(other.isComponent("Button"));
+    other.resetDatabase();
+    assertTrue(other.isComponent("Button"));
+    assertSame(indexed.getComponentDefinition("TextBox"), other.getComponentDefinition("TextBox"));
+  }
+
+  /**
+   * Checks that the fields the palette shows come from the index, without parsing components.
+   */
+  public void testPaletteFieldsFromIndex() throws IOException {
+    String componentDescriptorSource = Files.toString(
+        new File(TestUtils.APP_INVENTOR_ROOT_DIR + COMPONENT_DESCRIPTOR_FILE),
+        Charset.forName("UTF8"));
+    String componentIndexSource = Files.toString(
+        new File(TestUtils.APP_INVENTOR_ROOT_DIR + COMPONENT_INDEX_FILE),
+        Charset.forName("UTF8"));
+
+    ComponentDatabase parsed = new ComponentDatabase(
+        new ServerJsonParser().parse(componentDescriptorSource).asArray());
+    ComponentIndex index = new ComponentIndex(new ServerJsonParser(),
+        componentDescriptorSource, componentIndexSource);
+    ComponentDatabase indexed = new ComponentDatabase(index);
+    for (String name : parsed.getComponentNames()) {
+      assertEquals(parsed.getComponentType(name), indexed.getComponentType(name));
+      assertEquals(parsed.getComponentVersion(name), indexed.getComponentVersion(name));
+      assertEquals(parsed.getComponentVersionName(name), indexed.getComponentVersionName(name));
+      assertEquals(parsed.getComponentBuildDate(name), indexed.getComponentBuildDate(name));
+      assertEquals(parsed.getComponentExternal(name), indexed.getComponentExternal(name));
+      assertEquals(parsed.getCategoryString(name), indexed.getCategoryString(name));
+      assertEquals(parsed.getCategoryDocUrlString(name), indexed.getCategoryDocUrlString(name));
+      assertEquals(parsed.getHelpString(name), indexed.getHelpString(name));
+      assertEquals(parsed.getHelpUrl(name), indexed.getHelpUrl(name));
+      assertEquals(parsed.getShowOnPalette(name), indexed.getShowOnPalette(name));
+      assertEquals(parsed.getNonVisible(name), indexed.getNonVisible(name));
+      assertEquals(parsed.getIconName(name), indexed.getIconName(name));
+      assertFalse(name, index.isParsed(name));
+    }
+  }
+
   /*
    * Finds the property definition for the property with the given name.
    */
@@ -20,6 +20,8 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import java.io.IOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.fail;
 import static org.easymock.EasyMock.expect;
@@ -42,6 +44,7 @@ public class DownloadServletTest {
   private static final String DUMMY_ZIP_FILENAME = "filename123.aia";
   private static final String DUMMY_ZIP_FILENAME_WITH_TITLE = "MyProjectTitle123.aia";
   private static final String DOWNLOAD_URL = "http://localhost/baseUrl/download/";
+  private static final String EMPTY_SHA1 = "da39a3ee5e6b4b0d3255bfef95601890afd80709";
 
   private ProjectSourceZip dummyZip;
   private ProjectSourceZip dummyZipWithTitle;
@@ -204,6 +207,37 @@ public class DownloadServletTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testDownloadFileSetsETag() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest(DOWNLOAD_URL +
+        "file/1234/" + FORM1_QUALIFIED_NAME);
+    expect(exporterMock.exportFile(USER_ID, PROJECT_ID, FORM1_QUALIFIED_NAME))
+        .andReturn(dummyFile);
+    PowerMock.replayAll();
+    DownloadServlet download = new DownloadServlet();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    download.doGet(request, response);
+    assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    assertEquals("\"" + EMPTY_SHA1 + "\"", ((List) response.getHeader("ETag")).get(0));
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testDownloadFileNotModified() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest(DOWNLOAD_URL +
+        "file/1234/" + FORM1_QUALIFIED_NAME);
+    request.setHeader("If-None-Match", "\"" + EMPTY_SHA1 + "\"");
+    expect(exporterMock.exportFile(USER_ID, PROJECT_ID, FORM1_QUALIFIED_NAME))
+        .andReturn(dummyFile);
+    PowerMock.replayAll();
+    DownloadServlet download = new DownloadServlet();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    download.doGet(request, response);
+    assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+    assertEquals(null, response.getHeader("content-disposition"));
+    PowerMock.verifyAll();
+  }
+
   @Test
   public void testDownloadFileWithNonExistingProject() throws IOException {
     IllegalArgumentException expectedException = new IllegalArgumentException();
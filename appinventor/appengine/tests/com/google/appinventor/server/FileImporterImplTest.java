@@ -17,7 +17,10 @@ import junitx.framework.ListAssert;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Test FileImporterImpl.
@@ -198,4 +201,20 @@ public class FileImporterImplTest extends LocalDatastoreTestCase {
     }
   }
 
+  public void testImportFiles() throws Exception {
+    long projectId = importProjectArchive("Project1.zip", PROJECT_NAME_1).getProjectId();
+    Map<String, byte[]> files = new HashMap<String, byte[]>();
+    files.put("assets/a.txt", "a".getBytes("UTF-8"));
+    files.put("assets/b.txt", "b".getBytes("UTF-8"));
+    fileImporter.importFiles(USER_ID, projectId, files);
+    files.put("assets/a.txt", "new".getBytes("UTF-8"));
+    fileImporter.importFiles(USER_ID, projectId, files);
+
+    List<String> projectSourceFiles = storageIo.getProjectSourceFiles(USER_ID, projectId);
+    assertEquals(1, Collections.frequency(projectSourceFiles, "assets/a.txt"));
+    assertEquals(1, Collections.frequency(projectSourceFiles, "assets/b.txt"));
+    assertEquals("new", new String(
+        storageIo.downloadRawFile(USER_ID, projectId, "assets/a.txt"), "UTF-8"));
+  }
+
 }
@@ -0,0 +1,67 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.server.project.youngandroid;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link FormVersionUpgrader}.
+ *
+ */
+public class FormVersionUpgraderTest extends TestCase {
+  private FormVersionUpgrader upgrader;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Map<String, Integer> versions = new HashMap<String, Integer>();
+    versions.put("Form", 20);
+    versions.put("Button", 6);
+    versions.put("HorizontalArrangement", 3);
+    upgrader = new FormVersionUpgrader(versions, 180);
+  }
+
+  private static String form(String yaVersion, String buttonVersion) {
+    return "#|\n$JSON\n" +
+        "{\"authURL\":[\"localhost\"],\"YaVersion\":\"" + yaVersion + "\",\"Source\":\"Form\"," +
+        "\"Properties\":{\"$Name\":\"Screen1\",\"$Type\":\"Form\",\"$Version\":\"20\"," +
+        "\"Title\":\"YaVersion\",\"$Components\":[" +
+        "{\"$Name\":\"HorizontalArrangement1\",\"$Type\":\"HorizontalArrangement\"," +
+        "\"$Version\":\"3\",\"$Components\":[" +
+        "{\"$Name\":\"Button1\",\"$Type\":\"Button\",\"$Version\":\"" + buttonVersion + "\"," +
+        "\"Text\":\"OK\"}]}]}}\n|#";
+  }
+
+  public void testOnlyVersionIsUpgraded() {
+    assertEquals(form("180", "6"), upgrader.upgrade(form("170", "6")));
+  }
+
+  public void testCurrentFormIsLeftAlone() {
+    assertNull(upgrader.upgrade(form("180", "6")));
+    assertNull(upgrader.upgrade(form("190", "6")));
+  }
+
+  public void testFormWithOldComponentIsLeftForClient() {
+    assertNull(upgrader.upgrade(form("170", "5")));
+  }
+
+  public void testVeryOldFormIsLeftForClient() {
+    assertNull(upgrader.upgrade(form("25", "6")));
+  }
+
+  public void testFormWithUnknownComponentIsLeftForClient() {
+    String source = form("170", "6").replace("\"Button\"", "\"com.example.Extension\"");
+    assertNull(upgrader.upgrade(source));
+  }
+
+  public void testBadFormIsLeftForClient() {
+    assertNull(upgrader.upgrade("#|\n$JSON\n{\"Source\":\"Form\"}\n|#"));
+    assertNull(upgrader.upgrade("not a form"));
+  }
+}
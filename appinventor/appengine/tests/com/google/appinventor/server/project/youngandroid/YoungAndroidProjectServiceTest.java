@@ -16,4 +16,22 @@ public class YoungAndroidProjectServiceTest extends TestCase {
     YoungAndroidProjectService obj = new YoungAndroidProjectService(null);
     obj.buildErrorMsg("TestException", null, "userID", 0); 
   }
+
+  public void testYailSourceHash() {
+    String yail = "#|\n$Source $Yail\n|#\n\n(define-form appinventor.ai_test.Test.Screen1 Screen1)";
+    String sourceHash = YoungAndroidProjectService.computeSourceHash("form", "blocks");
+    String savedYail = YoungAndroidProjectService.addYailSourceHash(sourceHash, yail);
+    assertTrue(savedYail.endsWith(yail));
+    assertEquals(sourceHash, YoungAndroidProjectService.getYailSourceHash(savedYail));
+    assertNull(YoungAndroidProjectService.getYailSourceHash(yail));
+    assertNull(YoungAndroidProjectService.getYailSourceHash(""));
+  }
+
+  public void testSourceHashDependsOnFormAndBlocks() {
+    String sourceHash = YoungAndroidProjectService.computeSourceHash("form", "blocks");
+    assertEquals(sourceHash, YoungAndroidProjectService.computeSourceHash("form", "blocks"));
+    assertFalse(sourceHash.equals(YoungAndroidProjectService.computeSourceHash("form2", "blocks")));
+    assertFalse(sourceHash.equals(YoungAndroidProjectService.computeSourceHash("form", "blocks2")));
+    assertFalse(sourceHash.equals(YoungAndroidProjectService.computeSourceHash("formb", "locks")));
+  }
 }
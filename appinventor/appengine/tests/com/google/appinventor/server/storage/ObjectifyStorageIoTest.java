@@ -325,6 +325,26 @@ public class ObjectifyStorageIoTest extends LocalDatastoreTestCase {
     assertFalse(storage.getProjectOutputFiles(USER_ID, projectId).contains(FILE_NAME_OUTPUT));
   }
 
+  public void testUploadFileIfUnchanged() throws BlocksTruncatedException {
+    final String USER_ID = "1210";
+    final String USER_EMAIL = "newuser1210@test.com";
+    storage.getUser(USER_ID, USER_EMAIL);
+    long projectId = createProject(USER_ID, PROJECT_NAME, FAKE_PROJECT_TYPE, FORM_QUALIFIED_NAME);
+    storage.addSourceFilesToProject(USER_ID, projectId, false, FILE_NAME1);
+    storage.uploadFile(projectId, FILE_NAME1, USER_ID, FILE_CONTENT1, StorageUtil.DEFAULT_CHARSET);
+
+    // The file was saved again after FILE_CONTENT2 was read from it
+    assertFalse(storage.uploadFileIfUnchanged(projectId, FILE_NAME1, USER_ID, FILE_CONTENT2,
+        FILE_CONTENT2 + "!", StorageUtil.DEFAULT_CHARSET));
+    assertEquals(FILE_CONTENT1, storage.downloadFile(USER_ID, projectId, FILE_NAME1,
+        StorageUtil.DEFAULT_CHARSET));
+
+    assertTrue(storage.uploadFileIfUnchanged(projectId, FILE_NAME1, USER_ID, FILE_CONTENT1,
+        FILE_CONTENT2, StorageUtil.DEFAULT_CHARSET));
+    assertEquals(FILE_CONTENT2, storage.downloadFile(USER_ID, projectId, FILE_NAME1,
+        StorageUtil.DEFAULT_CHARSET));
+  }
+
   public void testAddRemoveUserFile() {
     // Note that neither FILE_NAME1 nor FILE_NAME_OUTPUT should exist
     // at the start of this test
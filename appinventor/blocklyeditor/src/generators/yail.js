@@ -46,6 +46,12 @@ Blockly.Yail.YAIL_CLEAR_FORM = "(clear-current-form)";
 // Companion older then 2.20ai2 which do not have set-form-name defined
 Blockly.Yail.YAIL_SET_FORM_NAME_BEGIN = "(try-catch (let ((attempt (delay (set-form-name \"";
 Blockly.Yail.YAIL_SET_FORM_NAME_END = "\")))) (force attempt)) (exception java.lang.Throwable 'notfound))";
+// Forms that may not be defined by older Companions are wrapped in the same way
+Blockly.Yail.YAIL_IF_DEFINED_BEGIN = "(try-catch (let ((attempt (delay ";
+Blockly.Yail.YAIL_IF_DEFINED_END = "))) (force attempt)) (exception java.lang.Throwable 'notfound))";
+Blockly.Yail.YAIL_REMOVE_EVENT = "(remove-event ";
+Blockly.Yail.YAIL_REMOVE_GENERIC_EVENT = "(remove-generic-event ";
+Blockly.Yail.YAIL_REMOVE_GLOBAL_VAR = "(remove-global-var ";
 Blockly.Yail.YAIL_CLOSE_COMBINATION = ")";
 Blockly.Yail.YAIL_CLOSE_BLOCK = ")\n";
 Blockly.Yail.YAIL_COMMENT_MAJOR = ";;; ";
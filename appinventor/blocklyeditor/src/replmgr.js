@@ -20,6 +20,7 @@ goog.require('goog.json');
 goog.require('goog.Uri.QueryData');
 goog.require('goog.events');
 goog.require('goog.events.EventType');
+goog.require('goog.crypt');
 goog.require('goog.crypt.Hash');
 goog.require('goog.crypt.Sha1');
 goog.require('goog.crypt.Hmac');
@@ -32,6 +33,9 @@ goog.require('AI.Events');
 if (Blockly.ReplMgr === undefined) Blockly.ReplMgr = {};
 Blockly.ReplMgr.yail = null;
 
+// Evaluations on the Companion that take at least this many milliseconds are logged
+Blockly.ReplMgr.SLOW_EVAL_TIME = 100;
+
 top.usewebrtc = false;           // True if we are going to use webRTC instead
                                  // of our builtin webserver. This is now set when
                                  // we hear from the Rendezvous server that we are playing the webrtc game!
@@ -116,6 +120,7 @@ Blockly.ReplMgr.buildYail = function(workspace) {
         phoneState.initialized = true;
         phoneState.blockYail = {};
         phoneState.componentYail = "";
+        phoneState.componentSetters = null;
     }
 
     var nameConverter;
@@ -158,15 +163,27 @@ Blockly.ReplMgr.buildYail = function(workspace) {
         code = code.join('\n');
 
         if (phoneState.componentYail != code) {
-            // We need to send all of the component cruft (sorry)
-            needinitialize = true;
-            phoneState.blockYail = {}; // Sorry, have to send the blocks again.
-            this.putYail(Blockly.Yail.YAIL_CLEAR_FORM);
-            // Tell the Companion the current form name
-            this.putYail(Blockly.Yail.YAIL_SET_FORM_NAME_BEGIN + formName + Blockly.Yail.YAIL_SET_FORM_NAME_END);
-            this.putYail(code);
-            this.putYail(Blockly.Yail.YAIL_INIT_RUNTIME);
+            var setters = this.getComponentSetters(formName, formProperties,
+                                                   workspace.getComponentDatabase());
+            var changedSetters = phoneState.componentSetters &&
+                this.getChangedSetters(phoneState.componentSetters, setters);
+            if (changedSetters) {
+                // Only property values have changed, so we just set them
+                for (var i = 0; i < changedSetters.length; i++) {
+                    this.putYail(changedSetters[i]);
+                }
+            } else {
+                // We need to send all of the component cruft (sorry)
+                needinitialize = true;
+                phoneState.blockYail = {}; // Sorry, have to send the blocks again.
+                this.putYail(Blockly.Yail.YAIL_CLEAR_FORM);
+                // Tell the Companion the current form name
+                this.putYail(Blockly.Yail.YAIL_SET_FORM_NAME_BEGIN + formName + Blockly.Yail.YAIL_SET_FORM_NAME_END);
+                this.putYail(code);
+                this.putYail(Blockly.Yail.YAIL_INIT_RUNTIME);
+            }
             phoneState.componentYail = code;
+            phoneState.componentSetters = setters;
         }
     }
 
@@ -181,9 +198,15 @@ Blockly.ReplMgr.buildYail = function(workspace) {
         this.block.workspace.getWarningHandler().checkAllBlocksForWarningsAndErrors();
     };
 
+    // phoneState.blockYail maps the id of each top-level block sent to
+    // the Companion to the hash of the yail sent and the yail that
+    // removes what it defined.
+    var present = {};
+    var removals = [];
+    var changed = [];
     for (var x = 0; (block = blocks[x]); x++) {
-        if (!block.category || (block.hasError && !block.replError)) { // Don't send blocks with
-            continue;           // Errors, unless they were errors signaled by the repl
+        if (!block.category) {
+            continue;
         }
         if (block.disabled) {   // Don't send disabled blocks
             continue;
@@ -193,12 +216,38 @@ Blockly.ReplMgr.buildYail = function(workspace) {
             block.type != "procedures_defnoreturn" &&
             block.type != "procedures_defreturn")
             continue;
+        present[block.id] = true;
+        if (block.hasError && !block.replError) { // Don't send blocks with Errors, unless
+            continue;           // they were errors signaled by the repl
+        }
         var tempyail = Blockly.Yail.blockToCode(block);
-        if (phoneState.blockYail[block.id] != tempyail) { // Only send changed yail
-            this.putYail(tempyail, block, success, failure);
-            phoneState.blockYail[block.id] = tempyail;
+        var hash = this.hashYail(tempyail);
+        var previous = phoneState.blockYail[block.id];
+        if (!previous || previous.hash != hash) { // Only send changed yail
+            var removal = this.getRemovalYail(block);
+            if (previous && previous.removal != removal) {
+                // The block now defines something else, so remove what it used to define
+                removals.push(previous.removal);
+            }
+            changed.push({'block' : block, 'yail' : tempyail});
+            phoneState.blockYail[block.id] = {'hash' : hash, 'removal' : removal};
         }
     }
+    // Remove the definitions of blocks that have been deleted or disabled
+    for (var id in phoneState.blockYail) {
+        if (phoneState.blockYail.hasOwnProperty(id) && !present[id]) {
+            removals.push(phoneState.blockYail[id].removal);
+            delete phoneState.blockYail[id];
+        }
+    }
+    // Removals go first, in case a changed block now defines a name that
+    // another block used to define
+    for (x = 0; x < removals.length; x++) {
+        this.putYail(removals[x]);
+    }
+    for (x = 0; x < changed.length; x++) {
+        this.putYail(changed[x].yail, changed[x].block, success, failure);
+    }
 
     // need to do this after the blocks have been defined
     if (needinitialize) {
@@ -206,6 +255,103 @@ Blockly.ReplMgr.buildYail = function(workspace) {
     }
 };
 
+/**
+ * Hash the yail of a top-level block, so that it is only sent again when it changes.
+ * @param {string} yail
+ * @returns {string} the hash as a hex string
+ */
+Blockly.ReplMgr.hashYail = function(yail) {
+    var hasher = new goog.crypt.Sha1();
+    hasher.update(goog.crypt.stringToUtf8ByteArray(yail));
+    return goog.crypt.byteArrayToHex(hasher.digest());
+};
+
+/**
+ * Build the yail that removes the event handler, global variable or
+ * procedure defined by a top-level block from the Companion. Older
+ * Companions cannot remove definitions, and ignore it.
+ * @param {Blockly.BlockSvg} block
+ * @returns {string}
+ */
+Blockly.ReplMgr.getRemovalYail = function(block) {
+    var code;
+    if (block.blockType == "event") {
+        if (block.isGeneric) {
+            code = Blockly.Yail.YAIL_REMOVE_GENERIC_EVENT + Blockly.Yail.quotifyForREPL(block.typeName);
+        } else {
+            code = Blockly.Yail.YAIL_REMOVE_EVENT +
+                Blockly.Yail.quotifyForREPL(block.getFieldValue("COMPONENT_SELECTOR"));
+        }
+        code += Blockly.Yail.YAIL_SPACER + Blockly.Yail.quotifyForREPL(block.eventName);
+    } else {
+        var tag = block.type == "global_declaration" ? Blockly.Yail.YAIL_GLOBAL_VAR_TAG :
+            Blockly.Yail.YAIL_PROC_TAG;
+        code = Blockly.Yail.YAIL_REMOVE_GLOBAL_VAR +
+            Blockly.Yail.quotifyForREPL(tag + block.getFieldValue('NAME'));
+    }
+    return Blockly.Yail.YAIL_IF_DEFINED_BEGIN + code + Blockly.Yail.YAIL_CLOSE_COMBINATION +
+        Blockly.Yail.YAIL_IF_DEFINED_END;
+};
+
+/**
+ * Collect the property setters of the form and of each of its components,
+ * along with a description of the components and where they are, so that
+ * a change in a property value can be sent without reloading the form.
+ * @param {string} formName
+ * @param {Object} formProperties the JSON describing the form
+ * @param {Blockly.ComponentDatabase} componentDb
+ * @returns {{structure: string, setters: Object}}
+ */
+Blockly.ReplMgr.getComponentSetters = function(formName, formProperties, componentDb) {
+    var structure = [];
+    var setters = {};
+    var visit = function(componentJson, componentName, parentName) {
+        structure.push(componentName + ' ' + componentJson.$Type + ' ' + parentName);
+        var lines = {};
+        Blockly.Yail.getPropertySettersLines(componentJson, componentName, componentDb)
+            .forEach(function(line) {
+                // Key each setter by its "(set-and-coerce-property! 'Name 'Property" prefix
+                lines[line.split(' ', 3).join(' ')] = line;
+            });
+        setters[componentName] = lines;
+        (componentJson.$Components || []).forEach(function(child) {
+            visit(child, child.$Name, componentName);
+        });
+    };
+    visit(formProperties, formName, null);
+    return {'structure' : structure.join('\n'), 'setters' : setters};
+};
+
+/**
+ * Return the setters for the properties whose values have changed, or
+ * null if the form has to be reloaded because components have been
+ * added, removed or moved, or a property has gone back to its default.
+ * @param {{structure: string, setters: Object}} oldSetters
+ * @param {{structure: string, setters: Object}} newSetters
+ * @returns {Array.<string>}
+ */
+Blockly.ReplMgr.getChangedSetters = function(oldSetters, newSetters) {
+    if (oldSetters.structure != newSetters.structure) {
+        return null;
+    }
+    var changed = [];
+    for (var name in newSetters.setters) {
+        var oldLines = oldSetters.setters[name];
+        var newLines = newSetters.setters[name];
+        for (var key in oldLines) {
+            if (!(key in newLines)) {
+                return null;
+            }
+        }
+        for (key in newLines) {
+            if (oldLines[key] != newLines[key]) {
+                changed.push(newLines[key]);
+            }
+        }
+    }
+    return changed;
+};
+
 Blockly.ReplMgr.sendFormData = function(formJson, packageName, workspace) {
     top.ReplState.phoneState.formJson = formJson;
     top.ReplState.phoneState.packageName = packageName;
@@ -427,16 +573,52 @@ Blockly.ReplMgr.putYail = (function() {
                 webrtcisopen = true;
                 top.ConnectProgressBar_setProgress(30, Blockly.Msg.DIALOG_SECURE_ESTABLISHED);
                 console.log('webrtc data connection open!');
-                webrtcdata.onmessage = function(ev) {
-                    console.log("webrtc(onmessage): " + ev.data);
-                    var json = goog.json.parse(ev.data);
+                var handleFrame = function(data) {
+                    console.log("webrtc(onmessage): " + data);
+                    var json = goog.json.parse(data);
                     if (json.status == 'OK') {
+                        if (json.dropped) {
+                            console.log("webrtc(onmessage): Companion dropped " + json.dropped +
+                                        " return values");
+                        }
                         context.processRetvals(json.values);
                     }
                 };
+                if (typeof DecompressionStream == 'undefined') {
+                    webrtcdata.onmessage = function(ev) {
+                        handleFrame(ev.data);
+                    };
+                } else {
+                    // Large frames arrive gzipped. Frames are handled in the order they
+                    // arrive, so the others have to wait while one is decompressed.
+                    var received = Promise.resolve();
+                    var logError = function(err) {
+                        console.log("webrtc(onmessage): " + err);
+                    };
+                    webrtcdata.binaryType = 'arraybuffer';
+                    webrtcdata.onmessage = function(ev) {
+                        if (typeof ev.data == 'string') {
+                            received = received.then(function() {
+                                handleFrame(ev.data);
+                            }).catch(logError);
+                        } else {
+                            received = received.then(function() {
+                                var stream = new Blob([ev.data]).stream()
+                                    .pipeThrough(new DecompressionStream('gzip'));
+                                return new Response(stream).text();
+                            }).then(handleFrame).catch(logError);
+                        }
+                    };
+                }
                 // Ready to actually exchange data
                 webrtcrunning = true;
                 top.webrtcdata = webrtcdata; // For debugging
+                if (typeof DecompressionStream != 'undefined') {
+                    // Older Companions never compress frames, and ignore this
+                    Blockly.ReplMgr.putYail.putAsset(Blockly.Yail.YAIL_IF_DEFINED_BEGIN +
+                        "(com.google.appinventor.components.runtime.util.RetValManager:setCompressFrames #t)" +
+                        Blockly.Yail.YAIL_IF_DEFINED_END);
+                }
                 rs.dialog.hide();            // Take down QR Code dialog
                 RefreshAssets(function() {
                     Blockly.ReplMgr.loadExtensions();
@@ -1019,6 +1201,10 @@ Blockly.ReplMgr.processRetvals = function(responses) {
                 this.resetYail(true);
                 this.pollYail(Blockly.mainWorkspace);
             } else if (r.blockid != "-1" && r.blockid != "-2") {
+                if (r.evalTime >= Blockly.ReplMgr.SLOW_EVAL_TIME) {
+                    console.log("processRetVals: Companion took " + r.evalTime +
+                                " ms to evaluate block " + r.blockid);
+                }
                 block = Blockly.mainWorkspace.getBlockById(r.blockid);
                 if (block === null) {
                     break;      // This happens when we switch screens during a poll
@@ -1052,6 +1238,9 @@ Blockly.ReplMgr.processRetvals = function(responses) {
         case "assetTransferred":
             top.AssetManager_markAssetTransferred(r.value);
             break;
+        case "assetProgress":
+            top.AssetManager_assetProgress(r.value, r.received, r.total);
+            break;
         case "extensionsLoaded":
             rs.state = Blockly.ReplMgr.rsState.CONNECTED;
             Blockly.mainWorkspace.fireChangeListener(new AI.Events.CompanionConnect());
@@ -67,7 +67,6 @@ Blockly.Versioning.log = function log(string) { // Display feedback on upgrade i
  */
 Blockly.Versioning.upgrade = function (preUpgradeFormJsonString, blocksContent, opt_workspace) {
   opt_workspace = opt_workspace || Blockly.mainWorkspace;
-  var preUpgradeFormJsonObject = JSON.parse(preUpgradeFormJsonString);
   var dom = Blockly.Xml.textToDom(blocksContent); // Initial blocks rep is dom for blocksContent
   var didUpgrade = false;
 
@@ -152,6 +151,8 @@ Blockly.Versioning.upgrade = function (preUpgradeFormJsonString, blocksContent,
 
   // --------------------------------------------------------------------------------
   // Upgrade components based on pre-upgrade version numbers
+  // (only parsed here, since most blocks are already up to date)
+  var preUpgradeFormJsonObject = JSON.parse(preUpgradeFormJsonString);
   var preUpgradeComponentVersionDict = Blockly.Versioning.makeComponentVersionDict(preUpgradeFormJsonObject);
   for (var componentType in preUpgradeComponentVersionDict) {
     if (!preUpgradeComponentVersionDict.hasOwnProperty(componentType)) continue;
@@ -1147,7 +1148,11 @@ Blockly.Versioning.AllUpgradeMaps =
     3: "noUpgrade",
 
     // AI2: LegacyMode property was added.
-    4: "noUpgrade"
+    4: "noUpgrade",
+
+    // AI2: The MaximumEventRate, SamplingMode, BatchSamples and DroppedSamples properties were added.
+    // The SamplesReceived event was added.
+    5: "noUpgrade"
 
   }, // End Accelerometer upgraders
 
@@ -1244,7 +1249,10 @@ Blockly.Versioning.AllUpgradeMaps =
 
     // The BluetoothClient.Secure property was added.
     // No blocks need to be modified to upgrade to version 5.
-    5: "noUpgrade"
+    5: "noUpgrade",
+
+    // AI2: StartReceiving and StopReceiving methods, DataReceived event and DroppedBytes, MaximumEventRate and Receiving properties were added.
+    6: "noUpgrade"
 
   }, // End BluetoothClient upgraders
 
@@ -1270,7 +1278,10 @@ Blockly.Versioning.AllUpgradeMaps =
 
     // The BluetoothServer.Secure property was added.
     // No blocks need to be modified to upgrade to version 5.
-    5: "noUpgrade"
+    5: "noUpgrade",
+
+    // AI2: StartReceiving and StopReceiving methods, DataReceived event and DroppedBytes, MaximumEventRate and Receiving properties were added.
+    6: "noUpgrade"
 
   }, // End BluetoothServer upgraders
 
@@ -1421,7 +1432,14 @@ Blockly.Versioning.AllUpgradeMaps =
   "CloudDB": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The CacheSize property was added.
+    2: "noUpgrade",
+
+    // AI2: The AverageBatchSize, MaximumBatchSize, AverageLatency and MaximumLatency
+    // properties were added.
+    3: "noUpgrade"
 
   },
 
@@ -1491,14 +1509,22 @@ Blockly.Versioning.AllUpgradeMaps =
       Blockly.Versioning.changeEventName('FeatureCollection', 'GeoGeoJSON', 'GotFeatures'),
       Blockly.Versioning.changeEventName('FeatureCollection', 'ErrorLoadingFeatureCollection', 'LoadError'),
       Blockly.Versioning.changeEventName('FeatureCollection', 'LoadedFeatureCollection', 'GotFeatures')
-    ]
-  },
+    ],
+
+    // AI2: The LoadProgress event was added.
+    3: "noUpgrade"
+
+  }, // End FeatureCollection upgraders
 
   "File": {
 
     // AI2: The AfterFileSaved event was added.
     // No blocks need to be modified to upgrade to version 2.
-    2: "noUpgrade"
+    2: "noUpgrade",
+
+    // AI2: The ReadCsvRows method was added.
+    // The GotCsvRows event was added.
+    3: "noUpgrade"
 
   }, // End File upgraders
 
@@ -1510,7 +1536,9 @@ Blockly.Versioning.AllUpgradeMaps =
     // AI2 Added AppendValue, RemoveFirst and FirstRemoved
     2: "noUpgrade",
     // AI2 Added ClearTag function, GetTagList and Persist
-    3: "noUpgrade"
+    3: "noUpgrade",
+    // AI2 Added the CacheSize property
+    4: "noUpgrade"
 
   },
 
@@ -1541,7 +1569,11 @@ Blockly.Versioning.AllUpgradeMaps =
   "GyroscopeSensor": {
 
     // This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The MaximumEventRate, SamplingMode, BatchSamples and DroppedSamples properties were added.
+    // The SamplesReceived event was added.
+    2: "noUpgrade"
 
   }, // End GyroscopeSensor upgraders
 
@@ -1881,7 +1913,20 @@ Blockly.Versioning.AllUpgradeMaps =
 
     // AI2:
     // - The ScaleUnits and ShowScale properties were added to Map
-    5: "noUpgrade"
+    5: "noUpgrade",
+
+    // AI2: The LoadProgress event was added.
+    6: "noUpgrade",
+
+    // AI2: The ClusterMarkers property was added.
+    // The ClusterClick event was added.
+    7: "noUpgrade",
+
+    // AI2: The TileCacheSize property was added.
+    // The TileLatency property was added.
+    // The DownloadTiles and CancelDownloads methods were added.
+    // The DownloadProgress and DownloadFinished events were added.
+    8: "noUpgrade"
 
   }, // End Map upgraders
 
@@ -1940,7 +1985,11 @@ Blockly.Versioning.AllUpgradeMaps =
   "NxtColorSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End NxtColorSensor upgraders
 
@@ -1961,28 +2010,44 @@ Blockly.Versioning.AllUpgradeMaps =
   "NxtLightSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End NxtLightSensor upgraders
 
   "NxtSoundSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End NxtSoundSensor upgraders
 
   "NxtTouchSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End NxtTouchSensor upgraders
 
   "NxtUltrasonicSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End NxtUltrasonicSensor upgraders
 
@@ -1996,28 +2061,44 @@ Blockly.Versioning.AllUpgradeMaps =
   "Ev3ColorSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End Ev3ColorSensor upgraders
 
   "Ev3GyroSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End Ev3GyroSensor upgraders
 
   "Ev3TouchSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End Ev3TouchSensor upgraders
 
   "Ev3UltrasonicSensor": {
 
     //This is initial version. Placeholder for future upgrades
-    1: "noUpgrade"
+    1: "noUpgrade",
+
+    // AI2: The PollingInterval property was added.
+    // Sensors are read for events on a background thread.
+    2: "noUpgrade"
 
   }, // End Ev3UltrasonicSensor upgraders
 
@@ -2054,7 +2135,11 @@ Blockly.Versioning.AllUpgradeMaps =
         changeFirstMatchingSocketBlockConnectorLabel(block, "yaw", "azimuth");
       }
     */
-    2: "ai1CantDoUpgrade" // Just indicates we couldn't do upgrade even if we wanted to
+    2: "ai1CantDoUpgrade", // Just indicates we couldn't do upgrade even if we wanted to
+
+    // AI2: The MaximumEventRate, SamplingMode, BatchSamples and DroppedSamples properties were added.
+    // The SamplesReceived event was added.
+    3: "noUpgrade"
 
   }, // End OrientationSensor upgraders
 
@@ -2420,7 +2505,10 @@ Blockly.Versioning.AllUpgradeMaps =
     1: "noUpgrade",
 
     //Added Property: Namespace
-    2: "noUpgrade"
+    2: "noUpgrade",
+
+    // AI2: StoreValues method was added.
+    3: "noUpgrade"
 
   }, // End TinyDB upgraders
 
@@ -2568,7 +2656,10 @@ Blockly.Versioning.AllUpgradeMaps =
     4: "noUpgrade",
       
     // AI2: Added method UriDecode
-    5: "noUpgrade"
+    5: "noUpgrade",
+
+    // AI2: Added method JsonTextDecodeInBackground and event JsonTextDecoded
+    6: "noUpgrade"
 
   }, // End Web upgraders
 
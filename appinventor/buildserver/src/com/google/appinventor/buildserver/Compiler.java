@@ -8,6 +8,7 @@ package com.google.appinventor.buildserver;
 
 import com.google.appinventor.buildserver.util.AARLibraries;
 import com.google.appinventor.buildserver.util.AARLibrary;
+import com.google.appinventor.components.common.ComponentConstants;
 import com.google.appinventor.components.common.ComponentDescriptorConstants;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
@@ -1988,6 +1989,19 @@ public final class Compiler {
           }
         }
       }
+
+      // List the assets, so that the app can resolve asset names without
+      // listing the asset directory at runtime.
+      List<String> assetPaths = new ArrayList<String>();
+      listAssetPaths(mergedAssetDir, "", assetPaths);
+      assetPaths.remove(ComponentConstants.ASSET_MANIFEST);
+      Collections.sort(assetPaths);
+      StringBuilder manifest = new StringBuilder();
+      for (String path : assetPaths) {
+        manifest.append(path).append('\n');
+      }
+      Files.write(manifest.toString(), new File(mergedAssetDir, ComponentConstants.ASSET_MANIFEST),
+          Charsets.UTF_8);
       return true;
     } catch (IOException e) {
       e.printStackTrace();
@@ -1996,6 +2010,20 @@ public final class Compiler {
     }
   }
 
+  private static void listAssetPaths(File dir, String prefix, List<String> paths) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (file.isDirectory()) {
+        listAssetPaths(file, prefix + file.getName() + "/", paths);
+      } else {
+        paths.add(prefix + file.getName());
+      }
+    }
+  }
+
   /**
    * Merge XML resources from different dependencies into a single file that can be passed to AAPT.
    *
@@ -833,6 +833,12 @@
     ;; return *the-null-value* rather than #!void, which would show as a blank in the repl balloon
     *the-null-value*))
 
+(define (delete-global-var-from-current-form-environment name :: gnu.mapping.Symbol)
+  (if (not (eq? *this-form* #!null))
+      (gnu.mapping.Environment:remove (*:.global-var-environment *this-form*) name)
+      ;; The following is really for testing.  In normal situations *this-form* should be non-null
+      (gnu.mapping.Environment:remove *test-global-var-environment* name)))
+
 (define (lookup-global-var-in-current-form-environment name :: gnu.mapping.Symbol #!optional (default-value #f))
   (let ((env (if (not (eq? *this-form* #!null))
                  (*:.global-var-environment *this-form*)
@@ -2703,7 +2709,9 @@ list, use the make-yail-list constructor with no arguments.
 ;;; process-repl-input
 ;;; Takes input from the blocks editor and arranges to run it on
 ;;; the phone's UI thread. The result is then enqueued to be returned
-;;; to the phone via the "send-to-block" function.
+;;; to the phone via the "send-to-block" function, along with the
+;;; number of milliseconds it took to run, so that the blocks editor
+;;; can point out blocks that are slow to evaluate.
 
 (define-syntax process-repl-input
   (syntax-rules ()
@@ -2721,37 +2729,42 @@ list, use the make-yail-list constructor with no arguments.
   (set! *this-is-the-repl* #t)          ;; Should do this somewhere else...
   (*ui-handler*:post
    (runnable (lambda ()
-               (send-to-block blockid
-                (try-catch
-                 (try-catch
-                  (list "OK"
-                        (get-display-representation (force promise)))
-                  (exception PermissionException
-                             (exception:printStackTrace)
-                             (list "NOK"
-                                   (string-append "Failed due to missing permission: "
-                                                  (exception:getPermissionNeeded))))
-                  (exception YailRuntimeError
-                             (android-log (exception:getMessage))
-                             (list "NOK"
-                                   (exception:getMessage))))
-                 (exception java.lang.Throwable
-                            (android-log (exception:getMessage))
-                            (exception:printStackTrace)
-                            (list
-                             "NOK"
-                             (if (instance? exception java.lang.Error)
-                                 (exception:toString)
-                                 (exception:getMessage))))))))))
+               (let* ((start (java.lang.System:currentTimeMillis))
+                      (result
+                       (try-catch
+                        (try-catch
+                         (list "OK"
+                               (get-display-representation (force promise)))
+                         (exception PermissionException
+                                    (exception:printStackTrace)
+                                    (list "NOK"
+                                          (string-append "Failed due to missing permission: "
+                                                         (exception:getPermissionNeeded))))
+                         (exception YailRuntimeError
+                                    (android-log (exception:getMessage))
+                                    (list "NOK"
+                                          (exception:getMessage))))
+                        (exception java.lang.Throwable
+                                   (android-log (exception:getMessage))
+                                   (exception:printStackTrace)
+                                   (list
+                                    "NOK"
+                                    (if (instance? exception java.lang.Error)
+                                        (exception:toString)
+                                        (exception:getMessage)))))))
+                 (send-to-block blockid result
+                                (- (java.lang.System:currentTimeMillis) start)))))))
 
 ;; send-to-block is used for all communication back to the blocks editor
 ;; Calls on report are also generated for code from the blocks compiler
 ;; when a block is being watched.
 ;; send-to-block sends the result of the expression or an error message to the block editor
-(define (send-to-block blockid message)
+(define (send-to-block blockid message #!optional (eval-time -1))
   (let* ((good (car message))
          (value (cadr message)))
-    (com.google.appinventor.components.runtime.util.RetValManager:appendReturnValue blockid good value)
+    (if (< eval-time 0)
+        (com.google.appinventor.components.runtime.util.RetValManager:appendReturnValue blockid good value)
+        (com.google.appinventor.components.runtime.util.RetValManager:appendReturnValue blockid good value eval-time))
     ))
 
 (define (clear-current-form)
@@ -2773,6 +2786,27 @@ list, use the make-yail-list constructor with no arguments.
     (when (not (eq? *this-form* #!null))
       (*:deleteComponent *this-form* component-object))))
 
+;; Used by the repl to remove the handler defined by an event block that
+;; has been deleted or disabled, or that now handles some other event
+(define (remove-event component-name event-name)
+  (delete-from-current-form-environment
+   (string->symbol (string-append component-name "$" event-name)))
+  (when (not (eq? *this-form* #!null))
+    (com.google.appinventor.components.runtime.EventDispatcher:unregisterEventForDelegation
+     (as com.google.appinventor.components.runtime.HandlesEventDispatching *this-form*)
+     component-name
+     event-name)))
+
+;; Used by the repl to remove the handler defined by a generic event block
+(define (remove-generic-event component-type event-name)
+  (delete-from-current-form-environment
+   (string->symbol (string-append "any$" component-type "$" event-name))))
+
+;; Used by the repl to remove a global variable or procedure whose block
+;; has been deleted or disabled
+(define (remove-global-var var-name)
+  (delete-global-var-from-current-form-environment (string->symbol var-name)))
+
 (define (rename-component old-component-name new-component-name)
   (rename-in-current-form-environment
    (string->symbol old-component-name)
@@ -20,6 +20,12 @@ public class ComponentConstants {
    */
   public static final int APP_INVENTOR_MIN_SDK = 7;
 
+  /**
+   * The file, among the assets of a compiled app, that lists the paths of all
+   * of its assets, one per line.
+   */
+  public static final String ASSET_MANIFEST = "AppInventorAssets.txt";
+
   /**
    * Layout constants.
    */
@@ -103,5 +109,13 @@ public class ComponentConstants {
   public static final int RECTANGLE_PREFERRED_WIDTH = 50;
   public static final int RECTANGLE_PREFERRED_HEIGHT = 30;
 
+  /**
+   * Sensor sampling modes
+   */
+  public static final int SENSOR_SAMPLING_ALL = 0;
+  public static final int SENSOR_SAMPLING_LATEST = 1;
+  public static final int SENSOR_SAMPLING_LOW_PASS = 2;
+  public static final int SENSOR_SAMPLING_DECIMATE = 3;
+
 }
 
@@ -223,6 +223,12 @@ public class PropertyTypeConstants {
    */
   public static final String PROPERTY_TYPE_SENSOR_TIME_INTERVAL = "sensor_time_interval";
 
+  /**
+   * How a motion sensor turns samples into events. See
+   * {@link com.google.appinventor.components.runtime.util.SensorPipeline}.
+   */
+  public static final String PROPERTY_TYPE_SENSOR_SAMPLING_MODE = "sensor_sampling_mode";
+
   /**
    * Strings.  This has the same effect as, but is preferred in component
    * definitions to, {@link #PROPERTY_TYPE_TEXT}).
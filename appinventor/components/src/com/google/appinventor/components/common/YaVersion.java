@@ -458,8 +458,43 @@ public class YaVersion {
   // - Added Switch
   // For YOUNG_ANDROiD_VERSION 185:
   // - SPEECHRECOGNIZER_COMPONENT_VERSION was incremented to 2
-
-  public static final int YOUNG_ANDROID_VERSION = 185;
+  // For YOUNG_ANDROID_VERSION 186:
+  // - ACCELEROMETERSENSOR_COMPONENT_VERSION was incremented to 5
+  // - GYROSCOPESENSOR_COMPONENT_VERSION was incremented to 2
+  // - ORIENTATIONSENSOR_COMPONENT_VERSION was incremented to 3
+  // For YOUNG_ANDROID_VERSION 187:
+  // - FILE_COMPONENT_VERSION was incremented to 3
+  // For YOUNG_ANDROID_VERSION 188:
+  // - WEB_COMPONENT_VERSION was incremented to 6
+  // For YOUNG_ANDROID_VERSION 189:
+  // - TINYDB_COMPONENT_VERSION was incremented to 3
+  // For YOUNG_ANDROID_VERSION 190:
+  // - BLUETOOTHCLIENT_COMPONENT_VERSION was incremented to 6
+  // - BLUETOOTHSERVER_COMPONENT_VERSION was incremented to 6
+  // For YOUNG_ANDROID_VERSION 191:
+  // - NXT_COLORSENSOR_COMPONENT_VERSION was incremented to 2
+  // - NXT_LIGHTSENSOR_COMPONENT_VERSION was incremented to 2
+  // - NXT_SOUNDSENSOR_COMPONENT_VERSION was incremented to 2
+  // - NXT_TOUCHSENSOR_COMPONENT_VERSION was incremented to 2
+  // - NXT_ULTRASONICSENSOR_COMPONENT_VERSION was incremented to 2
+  // - EV3_COLORSENSOR_COMPONENT_VERSION was incremented to 2
+  // - EV3_GYROSENSOR_COMPONENT_VERSION was incremented to 2
+  // - EV3_TOUCHSENSOR_COMPONENT_VERSION was incremented to 2
+  // - EV3_ULTRASONICSENSOR_COMPONENT_VERSION was incremented to 2
+  // For YOUNG_ANDROID_VERSION 192:
+  // - FEATURE_COLLECTION_COMPONENT_VERSION was incremented to 3
+  // - MAP_COMPONENT_VERSION was incremented to 6
+  // For YOUNG_ANDROID_VERSION 193:
+  // - MAP_COMPONENT_VERSION was incremented to 7
+  // For YOUNG_ANDROID_VERSION 194:
+  // - MAP_COMPONENT_VERSION was incremented to 8
+  // For YOUNG_ANDROID_VERSION 195:
+  // - CLOUDDB_COMPONENT_VERSION was incremented to 2
+  // - FIREBASE_COMPONENT_VERSION was incremented to 4
+  // For YOUNG_ANDROID_VERSION 196:
+  // - CLOUDDB_COMPONENT_VERSION was incremented to 3
+
+  public static final int YOUNG_ANDROID_VERSION = 196;
 
   // ............................... Blocks Language Version Number ...............................
 
@@ -579,7 +614,10 @@ public class YaVersion {
   // - AccelerometerSensor.Sensitivty property was added.
   //For ACCELEROMETERSENSOR_COMPONENT_VERSION 4:
   // - Added the LegacyMode property.
-  public static final int ACCELEROMETERSENSOR_COMPONENT_VERSION = 4;
+  // For ACCELEROMETERSENSOR_COMPONENT_VERSION 5:
+  // - The MaximumEventRate, SamplingMode, BatchSamples and DroppedSamples properties were added.
+  // - The SamplesReceived event was added.
+  public static final int ACCELEROMETERSENSOR_COMPONENT_VERSION = 5;
 
   // For ACTIVITYSTARTER_COMPONENT_VERSION 2:
   // - The ActivityStarter.DataType, ActivityStarter.ResultType, and ActivityStarter.ResultUri
@@ -620,7 +658,10 @@ public class YaVersion {
   // - The BluetoothClient.DelimiterByte property was added.
   // For BLUETOOTHCLIENT_COMPONENT_VERSION 5:
   // - The BluetoothClient.Secure property was added.
-  public static final int BLUETOOTHCLIENT_COMPONENT_VERSION = 5;
+  // For BLUETOOTHCLIENT_COMPONENT_VERSION 6:
+  // - StartReceiving and StopReceiving methods, DataReceived event and DroppedBytes,
+  //   MaximumEventRate and Receiving properties were added.
+  public static final int BLUETOOTHCLIENT_COMPONENT_VERSION = 6;
 
   // For BLUETOOTHSERVER_COMPONENT_VERSION 2:
   // - The BluetoothServer.Enabled property was added.
@@ -630,7 +671,10 @@ public class YaVersion {
   // - The BluetoothServer.DelimiterByte property was added.
   // For BLUETOOTHSERVER_COMPONENT_VERSION 5:
   // - The BluetoothServer.Secure property was added.
-  public static final int BLUETOOTHSERVER_COMPONENT_VERSION = 5;
+  // For BLUETOOTHSERVER_COMPONENT_VERSION 6:
+  // - StartReceiving and StopReceiving methods, DataReceived event and DroppedBytes,
+  //   MaximumEventRate and Receiving properties were added.
+  public static final int BLUETOOTHSERVER_COMPONENT_VERSION = 6;
 
   // For BUTTON_COMPONENT_VERSION 2:
   // - The Alignment property was renamed to TextAlignment.
@@ -734,11 +778,16 @@ public class YaVersion {
   // - GotGeoJSON event was renamed to GotFeatures
   // - ErrorLoadingFeatureCollection event was removed
   // - LoadedFeatureCollection event was removed
-  public static final int FEATURE_COLLECTION_COMPONENT_VERSION = 2;
+  // For FEATURE_COLLECTION_COMPONENT_VERSION 3:
+  // - The LoadProgress event was added.
+  public static final int FEATURE_COLLECTION_COMPONENT_VERSION = 3;
 
   // For FILE_COMPONENT_VERSION 2:
   // - The AfterFileSaved event was added.
-  public static final int FILE_COMPONENT_VERSION = 2;
+  // For FILE_COMPONENT_VERSION 3:
+  // - The ReadCsvRows method was added.
+  // - The GotCsvRows event was added.
+  public static final int FILE_COMPONENT_VERSION = 3;
 
   // For FORM_COMPONENT_VERSION 2:
   // - The Screen.Scrollable property was added.
@@ -810,7 +859,10 @@ public class YaVersion {
 
   public static final int GAMECLIENT_COMPONENT_VERSION = 1;
 
-  public static final int GYROSCOPESENSOR_COMPONENT_VERSION = 1;
+  // For GYROSCOPESENSOR_COMPONENT_VERSION 2:
+  // - The MaximumEventRate, SamplingMode, BatchSamples and DroppedSamples properties were added.
+  // - The SamplesReceived event was added.
+  public static final int GYROSCOPESENSOR_COMPONENT_VERSION = 2;
 
   // For HORIZONTALARRANGEMENT_COMPONENT_VERSION 2:
   // - The AlignHorizontal property was added
@@ -917,7 +969,17 @@ public class YaVersion {
   // For MAP_COMPONENT_VERSION 5:
   // - Added ShowScale property
   // - Added ScaleUnits property
-  public static final int MAP_COMPONENT_VERSION = 5;
+  // For MAP_COMPONENT_VERSION 6:
+  // - The LoadProgress event was added.
+  // For MAP_COMPONENT_VERSION 7:
+  // - The ClusterMarkers property was added.
+  // - The ClusterClick event was added.
+  // For MAP_COMPONENT_VERSION 8:
+  // - The TileCacheSize property was added.
+  // - The TileLatency property was added.
+  // - The DownloadTiles and CancelDownloads methods were added.
+  // - The DownloadProgress and DownloadFinished events were added.
+  public static final int MAP_COMPONENT_VERSION = 8;
 
   // For MARKER_COMPONENT_VERSION 1:
   // - Initial Marker implementation using OpenStreetMap
@@ -940,29 +1002,56 @@ public class YaVersion {
   // - Added a ShowPasswordDialog method
   public static final int NOTIFIER_COMPONENT_VERSION = 6;
 
-  public static final int NXT_COLORSENSOR_COMPONENT_VERSION = 1;
+  // For NXT_COLORSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int NXT_COLORSENSOR_COMPONENT_VERSION = 2;
 
   public static final int NXT_DIRECT_COMMANDS_COMPONENT_VERSION = 1;
 
   public static final int NXT_DRIVE_COMPONENT_VERSION = 1;
 
-  public static final int NXT_LIGHTSENSOR_COMPONENT_VERSION = 1;
+  // For NXT_LIGHTSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int NXT_LIGHTSENSOR_COMPONENT_VERSION = 2;
 
-  public static final int NXT_SOUNDSENSOR_COMPONENT_VERSION = 1;
+  // For NXT_SOUNDSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int NXT_SOUNDSENSOR_COMPONENT_VERSION = 2;
 
-  public static final int NXT_TOUCHSENSOR_COMPONENT_VERSION = 1;
+  // For NXT_TOUCHSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int NXT_TOUCHSENSOR_COMPONENT_VERSION = 2;
 
-  public static final int NXT_ULTRASONICSENSOR_COMPONENT_VERSION = 1;
+  // For NXT_ULTRASONICSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int NXT_ULTRASONICSENSOR_COMPONENT_VERSION = 2;
 
   public static final int EV3_MOTORS_COMPONENT_VERSION = 1;
 
-  public static final int EV3_COLORSENSOR_COMPONENT_VERSION = 1;
+  // For EV3_COLORSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int EV3_COLORSENSOR_COMPONENT_VERSION = 2;
 
-  public static final int EV3_GYROSENSOR_COMPONENT_VERSION = 1;
+  // For EV3_GYROSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int EV3_GYROSENSOR_COMPONENT_VERSION = 2;
 
-  public static final int EV3_TOUCHSENSOR_COMPONENT_VERSION = 1;
+  // For EV3_TOUCHSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int EV3_TOUCHSENSOR_COMPONENT_VERSION = 2;
 
-  public static final int EV3_ULTRASONICSENSOR_COMPONENT_VERSION = 1;
+  // For EV3_ULTRASONICSENSOR_COMPONENT_VERSION 2:
+  // - The PollingInterval property was added.
+  // - Sensors are read for events on a background thread.
+  public static final int EV3_ULTRASONICSENSOR_COMPONENT_VERSION = 2;
 
   public static final int EV3_SOUND_COMPONENT_VERSION = 1;
 
@@ -973,7 +1062,10 @@ public class YaVersion {
   // For ORIENTATIONSENSOR_COMPONENT_VERSION = 2:
   // - The Yaw property was renamed to Azimuth.
   // - The yaw parameter to OrientationChanged was renamed to azimuth.
-  public static final int ORIENTATIONSENSOR_COMPONENT_VERSION = 2;
+  // For ORIENTATIONSENSOR_COMPONENT_VERSION 3:
+  // - The MaximumEventRate, SamplingMode, BatchSamples and DroppedSamples properties were added.
+  // - The SamplesReceived event was added.
+  public static final int ORIENTATIONSENSOR_COMPONENT_VERSION = 3;
 
   // For PASSWORDTEXTBOX_COMPONENT_VERSION 2:
   // - The Alignment property was renamed to TextAlignment.
@@ -1117,7 +1209,9 @@ public class YaVersion {
 
   // For TINYDB_COMPONENT_VERSION 2:
   // - Added Property: Namespace
-  public static final int TINYDB_COMPONENT_VERSION = 2;
+  // For TINYDB_COMPONENT_VERSION 3:
+  // - StoreValues method was added.
+  public static final int TINYDB_COMPONENT_VERSION = 3;
 
   // For TINYWEBDB_COMPONENT_VERSION 2:
   // - The TinyWebDB.ShowAlert method was removed. Notifier.ShowAlert should be used instead.
@@ -1130,11 +1224,18 @@ public class YaVersion {
   //   with the FirstRemoved event were added
   // For FIREBASE_COMPONENT_VERSION 3:
   // - Added the ClearTag function, GetTagList and Persist
-  public static final int FIREBASE_COMPONENT_VERSION = 3;
+  // For FIREBASE_COMPONENT_VERSION 4:
+  // - The CacheSize property was added.
+  public static final int FIREBASE_COMPONENT_VERSION = 4;
 
   // For CLOUDDB_COMPONENT_VERSION 1:
   // - CloudDB component introduced
-  public static final int CLOUDDB_COMPONENT_VERSION = 1;
+  // For CLOUDDB_COMPONENT_VERSION 2:
+  // - The CacheSize property was added.
+  // For CLOUDDB_COMPONENT_VERSION 3:
+  // - The AverageBatchSize, MaximumBatchSize, AverageLatency and MaximumLatency
+  //   properties were added.
+  public static final int CLOUDDB_COMPONENT_VERSION = 3;
 
   // For TWITTER_COMPONENT_VERSION 2:
   // - The Authorize method and IsAuthorized event handler were added to support
@@ -1199,7 +1300,9 @@ public class YaVersion {
   // - Added method XMLTextDecode
   // For WEB_COMPONENT_VERSION 5:
   // - Added method UriDecode
-  public static final int WEB_COMPONENT_VERSION = 5;
+  // For WEB_COMPONENT_VERSION 6:
+  // - Added method JsonTextDecodeInBackground and event JsonTextDecoded
+  public static final int WEB_COMPONENT_VERSION = 6;
 
   // For WEBVIEWER_COMPONENT_VERSION 2:
   // - The CanGoForward and CanGoBack methods were added
@@ -18,13 +18,13 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
+import com.google.appinventor.components.runtime.util.SensorPipeline;
+import com.google.appinventor.components.runtime.util.YailList;
 
 import android.content.Context;
 import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 
 import android.os.Handler;
@@ -77,8 +77,9 @@ import java.util.Queue;
     nonVisible = true,
     iconName = "images/accelerometersensor.png")
 @SimpleObject
-public class AccelerometerSensor extends AndroidNonvisibleComponent
-    implements OnStopListener, OnResumeListener, SensorComponent, SensorEventListener, Deleteable {
+public class AccelerometerSensor extends SampledSensorBase
+    implements OnStopListener, OnResumeListener, SensorComponent,
+    Deleteable {
 
   // Logging and Debugging
   private final static String LOG_TAG = "AccelerometerSensor";
@@ -100,7 +101,6 @@ public class AccelerometerSensor extends AndroidNonvisibleComponent
   private float yAccel;
   private float zAccel;
 
-  private int accuracy;
   private int sensitivity;
   private volatile int deviceDefaultOrientation;
 
@@ -142,6 +142,8 @@ public class AccelerometerSensor extends AndroidNonvisibleComponent
     sensorManager = (SensorManager) container.$context().getSystemService(Context.SENSOR_SERVICE);
     accelerometerSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
     androidUIHandler = new Handler();
+    pipeline = new SensorPipeline(LOG_TAG, sensorManager, SensorManager.SENSOR_DELAY_GAME, this,
+        accelerometerSensor);
     startListening();
     MinimumInterval(400);
     Sensitivity(Component.ACCELEROMETER_SENSITIVITY_MODERATE);
@@ -308,12 +310,12 @@ public int getDeviceDefaultOrientation() {
         }
       }, 32);                   // Wait 32ms for the UI to settle down
 
-    sensorManager.registerListener(this, accelerometerSensor, SensorManager.SENSOR_DELAY_GAME);
+    pipeline.start();
   }
 
   // Assumes that sensorManager has been initialized, which happens in constructor
   private void stopListening() {
-    sensorManager.unregisterListener(this);
+    pipeline.stop();
   }
 
   /**
@@ -433,11 +435,23 @@ public int getDeviceDefaultOrientation() {
     return legacyMode;
   }
 
-  // SensorListener implementation
+  /**
+   * Indicates that samples were delivered while BatchSamples is true.
+   *
+   * @param samples  a list of samples, each a list of the timestamp in
+   *                 nanoseconds and the X, Y, and Z acceleration
+   */
+  @SimpleEvent(description = "Indicates that acceleration samples were received. " +
+      "Each item of samples is a list of a timestamp in nanoseconds and the X, Y, and Z " +
+      "acceleration. Only raised when BatchSamples is true.")
+  public void SamplesReceived(YailList samples) {
+    EventDispatcher.dispatchEvent(this, "SamplesReceived", samples);
+  }
+
+  // SensorPipeline.Listener implementation
   @Override
-  public void onSensorChanged(SensorEvent sensorEvent) {
+  public void onSample(int channel, float[] values, long timestamp) {
     if (enabled) {
-      final float[] values = sensorEvent.values;
       // make landscapePrimary devices report acceleration as if they were
       // portraitPrimary
       if ((deviceDefaultOrientation == Configuration.ORIENTATION_LANDSCAPE) &&
@@ -449,14 +463,14 @@ public int getDeviceDefaultOrientation() {
         yAccel = values[1];
       }
       zAccel = values[2];
-      accuracy = sensorEvent.accuracy;
+      pipeline.recordBatchSample(timestamp, xAccel, yAccel, zAccel);
       AccelerationChanged(xAccel, yAccel, zAccel);
     }
   }
 
   @Override
-  public void onAccuracyChanged(Sensor sensor, int accuracy) {
-    // TODO(markf): Figure out if we actually need to do something here.
+  public void onBatch(YailList samples) {
+    SamplesReceived(samples);
   }
 
   // OnResumeListener implementation
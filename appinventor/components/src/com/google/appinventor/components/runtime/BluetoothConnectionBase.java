@@ -14,10 +14,12 @@ import com.google.appinventor.components.annotations.SimpleObject;
 import com.google.appinventor.components.annotations.SimpleProperty;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.runtime.util.BluetoothReflection;
+import com.google.appinventor.components.runtime.util.ByteRingBuffer;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.SdkLevel;
 import com.google.appinventor.components.runtime.util.YailList;
 
+import android.os.SystemClock;
 import android.util.Log;
 
 import java.io.BufferedInputStream;
@@ -30,6 +32,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An abstract base class for the BluetoothClient and BluetoothServer
@@ -41,6 +44,9 @@ import java.util.List;
 public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     implements Component, OnDestroyListener, Deleteable {
 
+  // The size of the buffer that holds data received in the background, in bytes.
+  private static final int RECEIVE_BUFFER_SIZE = 64 * 1024;
+
   protected final String logTag;
   private final List<BluetoothConnectionListener> bluetoothConnectionListeners =
       new ArrayList<BluetoothConnectionListener>();
@@ -50,9 +56,12 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
   private byte delimiter;
   protected boolean secure;
 
+  private int maximumEventRate;
+
   private Object connectedBluetoothSocket;
   private InputStream inputStream;
   private OutputStream outputStream;
+  private BackgroundReader backgroundReader;
 
   /**
    * Creates a new BluetoothConnectionBase.
@@ -70,6 +79,7 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     CharacterEncoding("UTF-8");
     DelimiterByte(0);
     Secure(true);
+    MaximumEventRate(20);
   }
 
   /**
@@ -174,6 +184,10 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
    */
   @SimpleFunction(description = "Disconnect from the connected Bluetooth device.")
   public final void Disconnect() {
+    if (backgroundReader != null) {
+      backgroundReader.close();
+      backgroundReader = null;
+    }
     if (connectedBluetoothSocket != null) {
       fireBeforeDisconnectEvent();
       try {
@@ -536,6 +550,15 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
           ErrorMessages.ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE);
       return 0;
     }
+    if (backgroundReader != null) {
+      if (backgroundReader.receiving) {
+        bluetoothError(functionName,
+            ErrorMessages.ERROR_BLUETOOTH_RECEIVING_IN_BACKGROUND);
+        return 0;
+      }
+      // The background reader owns the stream, and holds what it has read.
+      return backgroundReader.buffer.available();
+    }
 
     try {
       return inputStream.available();
@@ -729,6 +752,109 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     return list;
   }
 
+  /**
+   * Starts receiving data in the background. Data is divided into frames,
+   * which are delivered in batches by the DataReceived event.
+   *
+   * @param frameLength the number of bytes in each frame; a negative number
+   *        indicates that each frame ends with the delimiter byte, and 0
+   *        indicates that all the data received is delivered as it arrives
+   * @param asText whether to deliver each frame as text, rather than as a
+   *        list of unsigned byte values
+   */
+  @SimpleFunction(description = "Start receiving data from the connected Bluetooth device in " +
+      "the background, without having to poll for it. The data is divided into frames of " +
+      "frameLength bytes or, if frameLength is less than 0, into frames that end with the " +
+      "delimiter byte, which is removed. If frameLength is 0, the data is delivered as it " +
+      "arrives. Frames are delivered in batches by the DataReceived event, as text if asText " +
+      "is true and otherwise as lists of unsigned byte values. While receiving in the " +
+      "background, the Receive blocks cannot be used.")
+  public void StartReceiving(int frameLength, boolean asText) {
+    if (!IsConnected()) {
+      bluetoothError("StartReceiving",
+          ErrorMessages.ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE);
+      return;
+    }
+    if (backgroundReader == null) {
+      // The reader keeps reading the stream until the connection is closed, so that no data is
+      // lost by stopping and starting again.
+      backgroundReader = new BackgroundReader(inputStream);
+      Thread thread = new Thread(backgroundReader, logTag + " reader");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    backgroundReader.startDelivering(frameLength, asText);
+  }
+
+  /**
+   * Stops receiving data in the background. Data that has not yet been
+   * delivered is kept for the Receive functions or the next StartReceiving.
+   */
+  @SimpleFunction(description = "Stop receiving data in the background. Data that has not " +
+      "yet been delivered by the DataReceived event is kept, and can be read by the Receive " +
+      "blocks or delivered after StartReceiving is called again.")
+  public void StopReceiving() {
+    if (backgroundReader != null) {
+      backgroundReader.receiving = false;
+    }
+  }
+
+  /**
+   * Returns whether data is being received in the background.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "Whether data is being received in the background.")
+  public boolean Receiving() {
+    return backgroundReader != null && backgroundReader.receiving;
+  }
+
+  /**
+   * Returns the number of bytes received in the background that were
+   * discarded because they arrived faster than they could be delivered.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The number of bytes received in the background since StartReceiving was " +
+      "first called that were discarded because they arrived faster than the app handled them.")
+  public long DroppedBytes() {
+    return backgroundReader == null ? 0 : backgroundReader.buffer.getDroppedCount();
+  }
+
+  /**
+   * Returns the maximum number of DataReceived events per second.
+   *
+   * @return  the maximum event rate, or 0 for no limit
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The maximum number of times per second that the DataReceived event is " +
+      "raised. Frames received in between are delivered together by the next event. 0 means " +
+      "no limit.")
+  public int MaximumEventRate() {
+    return maximumEventRate;
+  }
+
+  /**
+   * Specifies the maximum number of DataReceived events per second.
+   *
+   * @param rate  the maximum event rate, or 0 for no limit
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+      defaultValue = "20")
+  @SimpleProperty
+  public void MaximumEventRate(int rate) {
+    maximumEventRate = Math.max(0, rate);
+  }
+
+  /**
+   * Indicates that frames have been received in the background.
+   *
+   * @param frames the frames received since the last event
+   */
+  @SimpleEvent(description = "Indicates that data has been received in the background. " +
+      "frames is a list of the frames received since the event was last raised.")
+  public void DataReceived(YailList frames) {
+    EventDispatcher.dispatchEvent(this, "DataReceived", frames);
+  }
+
   /**
    * Reads a number of bytes from the input stream.
    *
@@ -745,6 +871,14 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
           ErrorMessages.ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE);
       return new byte[0];
     }
+    if (backgroundReader != null) {
+      if (backgroundReader.receiving) {
+        bluetoothError(functionName,
+            ErrorMessages.ERROR_BLUETOOTH_RECEIVING_IN_BACKGROUND);
+        return new byte[0];
+      }
+      return backgroundReader.receive(functionName, numberOfBytes);
+    }
 
     ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 
@@ -793,6 +927,250 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     return buffer.toByteArray();
   }
 
+  /**
+   * Reads the data sent by the connected device on its own thread, into a
+   * buffer that the UI thread divides into frames for the DataReceived event.
+   *
+   * <p>Once started, the reader owns the input stream until the connection
+   * is closed. While it is not delivering frames, the Receive functions take
+   * their data from its buffer, and it stops reading when the buffer is full
+   * rather than dropping data.</p>
+   */
+  private class BackgroundReader implements Runnable {
+    private final InputStream in;
+    private final ByteRingBuffer buffer = new ByteRingBuffer(RECEIVE_BUFFER_SIZE);
+    private final AtomicBoolean deliveryPending = new AtomicBoolean();
+    private volatile long lastDeliveryTime;
+    private volatile boolean closed;
+
+    // Whether frames are being delivered. Only changed on the UI thread.
+    private volatile boolean receiving;
+    private int frameLength;
+    private boolean asText;
+
+    // Set by the reader thread when the stream ends or cannot be read.
+    private volatile int errorNumber;
+    private volatile Object[] errorArgs;
+
+    private final Runnable deliver = new Runnable() {
+      @Override
+      public void run() {
+        // Cleared first, so that data arriving from now on schedules another delivery.
+        deliveryPending.set(false);
+        lastDeliveryTime = SystemClock.uptimeMillis();
+        if (!receiving) {
+          return;             // The data stays in the buffer
+        }
+        List<Object> frames = new ArrayList<Object>();
+        byte[] frame;
+        while ((frame = nextFrame()) != null) {
+          frames.add(asText ? decodeText(frame) : unsignedBytes(frame));
+        }
+        if (!frames.isEmpty()) {
+          DataReceived(YailList.makeList(frames));
+        }
+      }
+    };
+
+    BackgroundReader(InputStream in) {
+      this.in = in;
+    }
+
+    /**
+     * Starts delivering frames, beginning with any data already read.
+     * Called on the UI thread.
+     */
+    void startDelivering(int frameLength, boolean asText) {
+      this.frameLength = frameLength;
+      this.asText = asText;
+      receiving = true;
+      synchronized (this) {
+        notifyAll();          // The reader may be waiting for room in the buffer
+      }
+      if (buffer.available() > 0) {
+        scheduleDelivery();
+      }
+      if (errorNumber != 0) {
+        reportError();
+      }
+    }
+
+    void close() {
+      // The thread may be blocked in read, and stops when the socket is closed.
+      closed = true;
+      receiving = false;
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+
+    @Override
+    public void run() {
+      byte[] chunk = new byte[1024];
+      try {
+        while (waitForRoom(chunk.length)) {
+          int count = in.read(chunk);
+          if (count == -1) {
+            fail(ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM);
+            break;
+          }
+          buffer.write(chunk, 0, count);
+          synchronized (this) {
+            notifyAll();      // Wake a Receive function waiting for data
+          }
+          if (receiving) {
+            scheduleDelivery();
+          }
+        }
+      } catch (IOException e) {
+        if (!closed) {
+          fail(ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
+        }
+      }
+    }
+
+    /*
+     * Waits until there is room in the buffer for the given number of bytes,
+     * or frames are being delivered. Returns false if the reader is closed.
+     */
+    private synchronized boolean waitForRoom(int length) {
+      try {
+        while (!closed && !receiving && buffer.capacity() - buffer.available() < length) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        return false;
+      }
+      return !closed;
+    }
+
+    private void fail(int errorNumber, Object... errorArgs) {
+      synchronized (this) {
+        this.errorArgs = errorArgs;
+        this.errorNumber = errorNumber;
+        notifyAll();
+      }
+      if (receiving) {
+        form.androidUIHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            if (backgroundReader == BackgroundReader.this && receiving) {
+              reportError();
+            }
+          }
+        });
+      }
+    }
+
+    private void reportError() {
+      receiving = false;
+      bluetoothError("StartReceiving", errorNumber, errorArgs);
+    }
+
+    /**
+     * Removes the given number of bytes from the buffer, or if numberOfBytes
+     * is negative the bytes up to and including the next delimiter byte,
+     * waiting for them to be read if necessary. Called on the UI thread in
+     * place of reading the stream while frames are not being delivered.
+     */
+    synchronized byte[] receive(String functionName, int numberOfBytes) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try {
+        while (true) {
+          int index = numberOfBytes < 0 ? buffer.indexOf(delimiter) : -1;
+          int length;
+          if (numberOfBytes >= 0) {
+            length = Math.min(buffer.available(), numberOfBytes - out.size());
+          } else {
+            length = index >= 0 ? index + 1 : buffer.available();
+          }
+          byte[] bytes = new byte[length];
+          buffer.read(bytes, 0, length);
+          out.write(bytes, 0, length);
+          notifyAll();        // Room has been made for the reader
+          if (numberOfBytes >= 0 ? out.size() == numberOfBytes : index >= 0) {
+            break;
+          }
+          if (errorNumber != 0) {
+            bluetoothError(functionName, errorNumber, errorArgs);
+            break;
+          }
+          if (closed) {
+            break;
+          }
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return out.toByteArray();
+    }
+
+    private void scheduleDelivery() {
+      if (deliveryPending.compareAndSet(false, true)) {
+        long delay = 0;
+        int rate = maximumEventRate;
+        if (rate > 0) {
+          delay = Math.max(0, lastDeliveryTime + 1000 / rate - SystemClock.uptimeMillis());
+        }
+        form.androidUIHandler.postDelayed(deliver, delay);
+      }
+    }
+
+    /**
+     * Removes the next complete frame from the buffer, without its
+     * delimiter, or returns null if there is none.
+     */
+    private byte[] nextFrame() {
+      int available = buffer.available();
+      int length;
+      int delimiterLength = 0;
+      if (frameLength > 0) {
+        if (available < frameLength) {
+          return null;
+        }
+        length = frameLength;
+      } else if (frameLength == 0) {
+        if (available == 0) {
+          return null;
+        }
+        length = available;
+      } else {
+        int index = buffer.indexOf(delimiter);
+        if (index >= 0) {
+          length = index;
+          delimiterLength = 1;
+        } else if (available == buffer.capacity()) {
+          // A frame too long for the buffer is delivered in pieces.
+          length = available;
+        } else {
+          return null;
+        }
+      }
+      byte[] frame = new byte[length];
+      buffer.read(frame, 0, length);
+      buffer.skip(delimiterLength);
+      return frame;
+    }
+  }
+
+  private String decodeText(byte[] bytes) {
+    try {
+      return new String(bytes, encoding);
+    } catch (UnsupportedEncodingException e) {
+      Log.w(logTag, "UnsupportedEncodingException: " + e.getMessage());
+      return new String(bytes);
+    }
+  }
+
+  private static List<Integer> unsignedBytes(byte[] bytes) {
+    List<Integer> list = new ArrayList<Integer>(bytes.length);
+    for (byte b : bytes) {
+      list.add(b & 0xFF);
+    }
+    return list;
+  }
+
   // OnDestroyListener implementation
 
   @Override
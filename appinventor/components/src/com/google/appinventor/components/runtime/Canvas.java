@@ -33,6 +33,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PorterDuff;
@@ -126,6 +127,18 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
   // sorted by increasing sprite.Z().
   private final List<Sprite> sprites;
 
+  // Scratch objects reused by the drawing functions and dirty-region
+  // computations so that drawing a stroke or moving a sprite does not
+  // allocate.  These are only touched on the UI thread.
+  private final Paint shapePaint = new Paint();
+  private final Paint pixelPaint = new Paint();
+  private final Path shapePath = new Path();
+  private final RectF shapeBounds = new RectF();
+  private final Matrix textMatrix = new Matrix();
+  private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+  private final Rect dirtyRect = new Rect();
+  private final Rect spriteBounds = new Rect();
+
   // Handle touches and drags
   private final MotionEventParser motionEventParser;
 
@@ -368,6 +381,10 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     // when the Canvas is saved to a file.
     private Bitmap completeCache;
 
+    // The region being redrawn by the current call to onDraw.
+    private final Rect clipBounds = new Rect();
+    private final Rect drawnSpriteBounds = new Rect();
+
     public CanvasView(Context context) {
       super(context);
       bitmap = Bitmap.createBitmap(ComponentConstants.CANVAS_PREFERRED_WIDTH,
@@ -411,8 +428,16 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
 
       // sprites is sorted by Z level, so sprites with low Z values will be
       // drawn first, potentially being hidden by Sprites with higher Z values.
+      // Sprites entirely outside of the invalidated region are skipped.
+      if (!canvas0.getClipBounds(clipBounds)) {
+        drawn = true;
+        return;
+      }
       for (Sprite sprite : sprites) {
-        sprite.onDraw(canvas0);
+        sprite.getDrawnBounds(drawnSpriteBounds);
+        if (Rect.intersects(clipBounds, drawnSpriteBounds)) {
+          sprite.onDraw(canvas0);
+        }
       }
       drawn = true;
     }
@@ -600,7 +625,10 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
       canvas.rotate(-angle, x, y);
       canvas.drawText(text, x, y, paint);
       canvas.restore();
-      invalidate();
+      getTextBounds(text, x, y, shapeBounds);
+      textMatrix.setRotate(-angle, x, y);
+      textMatrix.mapRect(shapeBounds);
+      invalidateDrawingRegion(shapeBounds, 0);
     }
 
     // This intentionally ignores sprites.
@@ -775,6 +803,9 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
    */
   void removeSprite(Sprite sprite) {
     sprites.remove(sprite);
+    if (sprite.lastDrawnBounds != null) {
+      view.invalidate(sprite.lastDrawnBounds);
+    }
   }
 
   /**
@@ -786,7 +817,11 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
   void changeSpriteLayer(Sprite sprite) {
     removeSprite(sprite);
     addSprite(sprite);
-    view.invalidate();
+    if (sprite.initialized) {
+      invalidateSprite(sprite);
+    } else {
+      view.invalidate();
+    }
   }
 
   @Override
@@ -823,10 +858,88 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
    * @param sprite the sprite whose location, size, or appearance has changed
    */
   void registerChange(Sprite sprite) {
-    view.invalidate();
+    invalidateSprite(sprite);
     findSpriteCollisions(sprite);
   }
 
+  // Methods for computing the regions of the view that need to be redrawn
+
+  /**
+   * Invalidates the area the sprite covered when it was last drawn together
+   * with the area it covers now, rather than the whole view.
+   *
+   * @param sprite the sprite whose location, size, or appearance has changed
+   */
+  private void invalidateSprite(Sprite sprite) {
+    sprite.getDrawnBounds(spriteBounds);
+    dirtyRect.set(spriteBounds);
+    if (sprite.lastDrawnBounds == null) {
+      sprite.lastDrawnBounds = new Rect(spriteBounds);
+    } else {
+      dirtyRect.union(sprite.lastDrawnBounds);
+      sprite.lastDrawnBounds.set(spriteBounds);
+    }
+    view.invalidate(dirtyRect);
+  }
+
+  /**
+   * Invalidates the part of the view covered by a primitive that was just
+   * drawn on the drawing layer.
+   *
+   * @param bounds the geometric bounds of the primitive, in device pixels
+   * @param padding the extra distance the paint may reach beyond the bounds,
+   *        such as half of the stroke width
+   */
+  private void invalidateDrawingRegion(RectF bounds, float padding) {
+    // One extra pixel on each side covers rounding and anti-aliasing.
+    padding += 1;
+    dirtyRect.set((int) Math.floor(Math.min(bounds.left, bounds.right) - padding),
+        (int) Math.floor(Math.min(bounds.top, bounds.bottom) - padding),
+        (int) Math.ceil(Math.max(bounds.left, bounds.right) + padding),
+        (int) Math.ceil(Math.max(bounds.top, bounds.bottom) + padding));
+    view.invalidate(dirtyRect);
+  }
+
+  private void invalidateDrawingRegion(float x1, float y1, float x2, float y2, Paint p) {
+    shapeBounds.set(x1, y1, x2, y2);
+    invalidateDrawingRegion(shapeBounds, getStrokePadding(p));
+  }
+
+  /**
+   * Returns how far a stroke drawn with the given paint may reach beyond the
+   * geometric bounds of what it outlines, in x or y.
+   */
+  private static float getStrokePadding(Paint p) {
+    // The corner of a square cap on a diagonal line lies half the stroke width
+    // along the line and half across it, which is up to sqrt(2) times half the
+    // stroke width away in x or y.
+    return (float) (p.getStrokeWidth() * Math.sqrt(2) / 2);
+  }
+
+  /**
+   * Computes the bounds of text drawn with {@link #paint} at the given origin,
+   * taking the current text alignment into account.
+   */
+  private void getTextBounds(String text, float x, float y, RectF outBounds) {
+    float width = paint.measureText(text);
+    float left;
+    switch (paint.getTextAlign()) {
+      case CENTER:
+        left = x - width / 2;
+        break;
+      case RIGHT:
+        left = x - width;
+        break;
+      default:
+        left = x;
+        break;
+    }
+    paint.getFontMetrics(fontMetrics);
+    // Leave room for italic overhang and glyphs that extend past their advance.
+    float slack = paint.getTextSize() / 4;
+    outBounds.set(left - slack, y + fontMetrics.top, left + width + slack, y + fontMetrics.bottom);
+  }
+
 
   // Methods for detecting collisions
 
@@ -1227,7 +1340,7 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     float correctedX = x * $form().deviceDensity();
     float correctedY = y * $form().deviceDensity();
     view.canvas.drawPoint(correctedX, correctedY, paint);
-    view.invalidate();
+    invalidateDrawingRegion(correctedX, correctedY, correctedX, correctedY, paint);
   }
 
  /**
@@ -1243,10 +1356,12 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     float correctedX = centerX * $form().deviceDensity();
     float correctedY = centerY * $form().deviceDensity();
     float correctedR = radius * $form().deviceDensity();
-    Paint p = new Paint(paint);
+    Paint p = shapePaint;
+    p.set(paint);
     p.setStyle(fill ? Paint.Style.FILL : Paint.Style.STROKE);
     view.canvas.drawCircle(correctedX, correctedY, correctedR, p);
-    view.invalidate();
+    invalidateDrawingRegion(correctedX - correctedR, correctedY - correctedR,
+        correctedX + correctedR, correctedY + correctedR, p);
   }
 
   /**
@@ -1264,7 +1379,7 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     float correctedX2 = x2 * $form().deviceDensity();
     float correctedY2 = y2 * $form().deviceDensity();
     view.canvas.drawLine(correctedX1, correctedY1, correctedX2, correctedY2, paint);
-    view.invalidate();
+    invalidateDrawingRegion(correctedX1, correctedY1, correctedX2, correctedY2, paint);
   }
 
   /**
@@ -1291,10 +1406,14 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
       return;
     }
     path.close();
-    Paint p = new Paint(paint);
+    Paint p = shapePaint;
+    p.set(paint);
     p.setStyle(fill ? Paint.Style.FILL : Paint.Style.STROKE);
     view.canvas.drawPath(path, p);
-    view.invalidate();
+    path.computeBounds(shapeBounds, true);
+    // Mitered corners can reach up to half the miter limit times the stroke
+    // width beyond the path itself.
+    invalidateDrawingRegion(shapeBounds, p.getStrokeWidth() * Math.max(1, p.getStrokeMiter()) / 2);
   }
 
   private Path parsePath(float[][] points) throws IllegalArgumentException {
@@ -1303,7 +1422,8 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     }
     float scalingFactor = $form().deviceDensity();
 
-    Path path = new Path();
+    Path path = shapePath;
+    path.reset();
     path.moveTo(points[0][0] * scalingFactor, points[0][1] * scalingFactor);
     for (int i = 1; i < points.length; i++) {
       path.lineTo(points[i][0] * scalingFactor, points[i][1] * scalingFactor);
@@ -1365,13 +1485,19 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
   public void DrawArc(int left, int top, int right, int bottom, 
       float startAngle, float sweepAngle, boolean useCenter, boolean fill) {
     float scalingFactor = $form().deviceDensity();
-    Paint p = new Paint(paint);
+    Paint p = shapePaint;
+    p.set(paint);
     p.setStyle(fill ? Paint.Style.FILL : Paint.Style.STROKE);
-    view.canvas.drawArc(
-      new RectF(scalingFactor * left, scalingFactor * top,
-                scalingFactor * right, scalingFactor * bottom),
-      startAngle, sweepAngle, useCenter, p);
-    view.invalidate();
+    shapeBounds.set(scalingFactor * left, scalingFactor * top,
+        scalingFactor * right, scalingFactor * bottom);
+    view.canvas.drawArc(shapeBounds, startAngle, sweepAngle, useCenter, p);
+    // The oval bounds the arc, so invalidating it is sufficient. The corners
+    // where an outlined sector meets its radii are mitered.
+    float padding = getStrokePadding(p);
+    if (useCenter && !fill) {
+      padding = Math.max(padding, p.getStrokeWidth() * p.getStrokeMiter() / 2);
+    }
+    invalidateDrawingRegion(shapeBounds, padding);
   }
 
   /**
@@ -1390,7 +1516,8 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
     float correctedX = x * fontScalingFactor;
     float correctedY = y * fontScalingFactor;
     view.canvas.drawText(text, correctedX, correctedY, paint);
-    view.invalidate();
+    getTextBounds(text, correctedX, correctedY, shapeBounds);
+    invalidateDrawingRegion(shapeBounds, 0);
   }
 
   /**
@@ -1439,12 +1566,11 @@ public final class Canvas extends AndroidViewComponent implements ComponentConta
   @SimpleFunction(description = "Sets the color of the specified point. "
       + "This differs from DrawPoint by having an argument for color.")
   public void SetBackgroundPixelColor(int x, int y, int color) {
-    Paint pixelPaint = new Paint();
     PaintUtil.changePaint(pixelPaint, color);
     int correctedX = (int) (x * $form().deviceDensity());
     int correctedY = (int) (y * $form().deviceDensity());
     view.canvas.drawPoint(correctedX, correctedY, pixelPaint);
-    view.invalidate();
+    invalidateDrawingRegion(correctedX, correctedY, correctedX, correctedY, pixelPaint);
   }
 
   /**
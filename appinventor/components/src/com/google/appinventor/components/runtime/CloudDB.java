@@ -7,13 +7,11 @@ package com.google.appinventor.components.runtime;
 
 import android.app.Activity;
 
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
-
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 
 import android.os.Handler;
+import android.os.SystemClock;
 
 import android.util.Base64;
 import android.util.Log;
@@ -33,9 +31,11 @@ import com.google.appinventor.components.common.YaVersion;
 
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
 
+import com.google.appinventor.components.runtime.util.CloudDBBatch;
 import com.google.appinventor.components.runtime.util.CloudDBJedisListener;
 import com.google.appinventor.components.runtime.util.FileUtil;
 import com.google.appinventor.components.runtime.util.JsonUtil;
+import com.google.appinventor.components.runtime.util.RemoteValueCache;
 import com.google.appinventor.components.runtime.util.YailList;
 
 import java.io.ByteArrayInputStream;
@@ -49,12 +49,15 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
@@ -64,7 +67,13 @@ import javax.net.ssl.X509TrustManager;
 import org.json.JSONArray;
 import org.json.JSONException;
 
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
@@ -207,7 +216,11 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
   private Handler androidUIHandler;
   private final Activity activity;
 
-  private Jedis INSTANCE = null;
+  // Connections to the Redis server come from a small pool. The listener holds one
+  // while it is subscribed, and the background thread borrows one for each batch
+  // of requests.
+  private static final int POOL_SIZE = 3;
+  private JedisPool pool = null; // Guarded by this.
   private volatile String redisServer = "DEFAULT";
   private volatile int redisPort;
   private volatile boolean useSSL = true;
@@ -221,40 +234,72 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
   private volatile boolean listenerRunning = false;
 
   // To avoid blocking the UI thread, we do most Jedis operations in the background.
-  // Rather then spawning a new thread for each request, we use an ExcutorService with
-  // a single background thread to perform all the Jedis work. Using a single thread
-  // also means that we can share a single Jedis connection and not worry about thread
-  // synchronization.
+  // Rather than making a round trip to the server for each request, requests are
+  // queued, and a single background thread sends all of the queued requests in
+  // one pipeline. Using a single thread means that requests still run in the
+  // order in which they were made.
+
+  private volatile ScheduledExecutorService background =
+      Executors.newSingleThreadScheduledExecutor();
 
-  private volatile ExecutorService background = Executors.newSingleThreadExecutor();
+  // How long the first request of a batch waits for more requests to join it, in
+  // milliseconds. Blocks that store or get several tags make all of their requests
+  // well within this time.
+  private static final long BATCH_WINDOW = 10;
 
   // Store can be called frequenly and quickly in some situations. For example
   // using store inside of a Canvas Drag event (for realtime updating of a remote
   // canvas). Or in a handler for the Accelerometer (gasp!). To make storing as
-  // effecient as possible, we have a queue of pending store requests and we
-  // have a background task that drains this queue as fast as possible and
-  // iterates over the queue until it is drained.
-  private final List<storedValue> storeQueue = Collections.synchronizedList(new ArrayList());
+  // effecient as possible, requests are added to a lock free queue, which any
+  // thread may add to and only the background thread removes from.
+  private final Queue<Request> pendingRequests = new ConcurrentLinkedQueue<Request>();
+  private final AtomicBoolean batchScheduled = new AtomicBoolean(false);
+  private volatile boolean storeScriptLoaded = false;
+
+  // Batch statistics, written on the background thread and read by the
+  // AverageBatchSize, MaximumBatchSize, AverageLatency and MaximumLatency properties.
+  private volatile long batchCount;
+  private volatile long requestCount;
+  private volatile long maxBatchSize;
+  private volatile long totalLatency;
+  private volatile long maxLatency;
 
   private ConnectivityManager cm;
 
-  private static class storedValue {
-    private String tag;
-    private JSONArray  valueList;
-    storedValue(String tag, JSONArray valueList) {
-      this.tag = tag;
-      this.valueList = valueList;
-    }
+  // Values of tags kept on the device, so that reading them again need not go to the
+  // server. Null unless CacheSize is set.
+  private int cacheSize = 0;
+  private volatile RemoteValueCache cache = null;
 
-    public String getTag() {
-      return tag;
-    }
+  private final Runnable sendBatch = new Runnable() {
+      public void run() {
+        sendPendingRequests();
+      }
+    };
 
-    public JSONArray getValueList() {
-      return valueList;
+  /**
+   * A request waiting to be sent to the Redis server.
+   */
+  private abstract static class Request {
+    abstract void addTo(CloudDBBatch<String, JedisCommand> batch);
+
+    /**
+     * Called instead of addTo if the request is dropped because the connection
+     * to the server failed before it was sent.
+     *
+     * @param unfetchedTags the tags whose values will not be fetched, to add to
+     */
+    void drop(List<String> unfetchedTags) {
     }
   }
 
+  /**
+   * A command that is not pipelined with the other requests in its batch.
+   */
+  private interface JedisCommand {
+    void run(Jedis jedis) throws JedisException;
+  }
+
   /**
    * Creates a new CloudDB component.
    * @param container the Form that this component is contained in.
@@ -301,6 +346,7 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
       currentListener = null;
       listenerRunning = false;
     }
+    setCacheListening(false);
   }
 
   /*
@@ -314,6 +360,16 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     if (DEBUG) {
       Log.d(LOG_TAG, "onClear() called");
     }
+    if (DEBUG && batchCount > 0) {
+      Log.d(LOG_TAG, getStats());
+    }
+    RemoteValueCache cache = this.cache;
+    if (cache != null) {
+      cache.saveAccessTimes();
+      if (DEBUG) {
+        Log.d(LOG_TAG, cache.getStats());
+      }
+    }
   }
 
   @Override
@@ -340,13 +396,16 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     }
     Thread t = new Thread() {
         public void run() {
-          Jedis jedis = getJedis(true);
+          Jedis jedis = getJedis();
           if (jedis != null) {
             try {
               currentListener = new CloudDBJedisListener(CloudDB.this);
               jedis.subscribe(currentListener, projectID);
+              setCacheListening(false);
+              jedis.close();    // Return the connection to the pool
             } catch (Exception e) {
               Log.e(LOG_TAG, "Error in listener thread", e);
+              setCacheListening(false);
               try {
                 jedis.close();
               } catch (Exception ee) {
@@ -365,7 +424,7 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
             }
           } else {
             if (DEBUG) {
-              Log.d(LOG_TAG, "Listener: getJedis(true) returned null, retry in 3...");
+              Log.d(LOG_TAG, "Listener: getJedis() returned null, retry in 3...");
             }
             try {
               Thread.sleep(3*1000);
@@ -401,12 +460,14 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
         } else {
           redisServer = defaultRedisServer;
         }
+        resetCache();
         flushJedis(true);           // Re-initialize any existing connections
       }
     } else {
       useDefault = false;
       if (!servername.equals(redisServer)) {
         redisServer = servername;
+        resetCache();
         flushJedis(true);           // Re-initialize any existing connections
       }
     }
@@ -437,6 +498,7 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     defaultRedisServer = server;
     if (useDefault) {
       redisServer = server;
+      resetCache();
     }
   }
 
@@ -445,6 +507,7 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
   public void RedisPort(int port) {
     if (port != redisPort) {
       redisPort = port;
+      resetCache();
       flushJedis(true);
     }
   }
@@ -477,6 +540,7 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
   public void ProjectID(String id) {
     if (!projectID.equals(id)) {
       projectID = id;
+      resetCache();
     }
     if (projectID.equals("")){
       throw new RuntimeException("CloudDB ProjectID property cannot be blank.");
@@ -532,6 +596,82 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     return useSSL;
   }
 
+  /**
+   * Specifies the number of tags whose values are kept on the device.
+   *
+   * @param size the number of tags, or 0 to read every value from the server
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+      defaultValue = "0")
+  @SimpleProperty
+  public void CacheSize(int size) {
+    if (size < 0) {
+      size = 0;
+    }
+    if (size != cacheSize) {
+      cacheSize = size;
+      RemoteValueCache cache = this.cache;
+      if (cache != null && size > 0) {
+        cache.setCapacity(size);
+      } else {
+        resetCache();
+      }
+    }
+  }
+
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The number of tags whose values are kept on the device, so that " +
+          "getting them again does not go to the server. Values are kept up to date with " +
+          "the changes that this CloudDB is told about, and are kept when the app exits. " +
+          "A setting of 0 means that every value is fetched from the server.")
+  public int CacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Returns the average number of requests sent to the server in one batch.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The average number of requests, such as StoreValue and GetValue " +
+          "calls, sent to the server together in one batch. 0 until the first batch is sent.")
+  public double AverageBatchSize() {
+    long batches = batchCount;
+    return batches == 0 ? 0 : (double) requestCount / batches;
+  }
+
+  /**
+   * Returns the largest number of requests sent to the server in one batch.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The largest number of requests sent to the server together in one " +
+          "batch. 0 until the first batch is sent.")
+  public long MaximumBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Returns the average time taken to send a batch of requests and handle the
+   * replies, in milliseconds.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The average time in milliseconds taken to send a batch of requests " +
+          "to the server and handle its replies. 0 until the first batch is sent.")
+  public long AverageLatency() {
+    long batches = batchCount;
+    return batches == 0 ? 0 : totalLatency / batches;
+  }
+
+  /**
+   * Returns the longest time taken to send a batch of requests and handle the
+   * replies, in milliseconds.
+   */
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The longest time in milliseconds taken to send a batch of requests " +
+          "to the server and handle its replies. 0 until the first batch is sent.")
+  public long MaximumLatency() {
+    return maxLatency;
+  }
+
   private static final String SET_SUB_SCRIPT =
     "local key = KEYS[1];" +
     "local value = ARGV[1];" +
@@ -579,120 +719,17 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
       if (DEBUG) {
         Log.d(LOG_TAG,"Device is online...");
       }
-      synchronized(storeQueue) {
-        boolean kickit = false;
-        if (storeQueue.size() == 0) { // Need to kick off the background task
-          if (DEBUG) {
-            Log.d(LOG_TAG, "storeQueue is zero length, kicking background");
+      beginWrite(tag);
+      enqueue(new Request() {
+          void addTo(CloudDBBatch<String, JedisCommand> batch) {
+            batch.store(tag, value);
           }
-          kickit = true;
-        } else {
-          if (DEBUG) {
-            Log.d(LOG_TAG, "storeQueue has " + storeQueue.size() + " entries");
+
+          @Override
+          void drop(List<String> unfetchedTags) {
+            endWrite(tag);
           }
-        }
-        JSONArray valueList = new JSONArray();
-        try {
-          valueList.put(0, value);
-        } catch (JSONException e) {
-          throw new YailRuntimeError("JSON Error putting value.", "value is not convertable");
-        }
-        storedValue work  = new storedValue(tag, valueList);
-        storeQueue.add(work);
-        if (kickit) {
-          background.submit(new Runnable() {
-              public void run() {
-                JSONArray pendingValueList = null;
-                String pendingTag = null;
-                String pendingValue = null;
-                try {
-                  storedValue work;
-                  if (DEBUG) {
-                    Log.d(LOG_TAG, "store background task running.");
-                  }
-                  while (true) {
-                    synchronized(storeQueue) {
-                      if (DEBUG) {
-                        Log.d(LOG_TAG, "store: In background synchronized block");
-                      }
-                      int size = storeQueue.size();
-                      if (size == 0) {
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "store background task exiting.");
-                        }
-                        work = null;
-                      } else {
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "store: storeQueue.size() == " + size);
-                        }
-                        work = storeQueue.remove(0);
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "store: got work.");
-                        }
-                      }
-                    }
-                    if (DEBUG) {
-                      Log.d(LOG_TAG, "store: left synchronized block");
-                    }
-                    if (work == null) {
-                      try {
-                        if (pendingTag != null) {
-                          String jsonValueList = pendingValueList.toString();
-                          if (DEBUG) {
-                            Log.d(LOG_TAG, "Workqueue empty, sending pendingTag, valueListLength = " + pendingValueList.length());
-                          }
-                          jEval(SET_SUB_SCRIPT, SET_SUB_SCRIPT_SHA1, 1, pendingTag, pendingValue, jsonValueList, projectID);
-                        }
-                      } catch (JedisException e) {
-                        CloudDBError(e.getMessage());
-                        flushJedis(true);
-                      }
-                      return;
-                    }
-
-                    String tag = work.getTag();
-                    JSONArray valueList = work.getValueList();
-                    if (tag == null || valueList == null) {
-                      if (DEBUG) {
-                        Log.d(LOG_TAG, "Either tag or value is null!");
-                      }
-                    } else {
-                      if (DEBUG) {
-                        Log.d(LOG_TAG, "Got Work: tag = " + tag + " value = " + valueList.get(0));
-                      }
-                    }
-                    if (pendingTag == null) { // First time through this invocation
-                      pendingTag = tag;
-                      pendingValueList = valueList;
-                      pendingValue = valueList.getString(0);
-                    } else if (pendingTag.equals(tag)) { // work is for the same tag
-                      pendingValue = valueList.getString(0);
-                      pendingValueList.put(pendingValue);
-                    } else {    // Work is for a different tag, send what we have
-                      try {     // and add the new tag,incoming valuelist for the next round
-                        String jsonValueList = pendingValueList.toString();
-                        if (DEBUG) {
-                          Log.d(LOG_TAG, "pendingTag changed sending pendingTag, valueListLength = " + pendingValueList.length());
-                        }
-                        jEval(SET_SUB_SCRIPT, SET_SUB_SCRIPT_SHA1, 1, pendingTag, pendingValue, jsonValueList, projectID);
-                      } catch (JedisException e) {
-                        CloudDBError(e.getMessage());
-                        flushJedis(true);
-                        storeQueue.clear(); // Flush pending changes, we are in
-                        return;             // an error state
-                      }
-                      pendingTag = tag;
-                      pendingValueList = valueList;
-                      pendingValue = valueList.getString(0);
-                    }
-                  }
-                } catch (Exception e) {
-                Log.e(LOG_TAG, "Exception in store worker!", e);
-                }
-              }
-            });
-        }
-      }
+        });
     } else {
       CloudDBError("Cannot store values off-line.");
     }
@@ -715,59 +752,37 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     if (DEBUG) {
       Log.d(LOG_TAG, "getting value ... for tag: " + tag);
     }
-    final AtomicReference<Object> value = new AtomicReference<Object>();
-    Cursor cursor = null;
-    SQLiteDatabase db = null;
+    RemoteValueCache cache = this.cache;
+    final String cachedValue = cache == null ? null : cache.get(tag);
+    if (cachedValue != null) {
+      androidUIHandler.post(new Runnable() {
+          public void run() {
+            GotValue(tag, cachedValue);
+          }
+        });
+      return;
+    }
     NetworkInfo networkInfo = cm.getActiveNetworkInfo();
     boolean isConnected = networkInfo != null && networkInfo.isConnected();
 
     if (isConnected) {
-      // Set value to either the JSON from the CloudDB
-      // or the JSON representation of valueIfTagNotThere
-      background.submit(new Runnable() {
-          public void run() {
-            Jedis jedis = getJedis();
-            try {
-              if (DEBUG) {
-                Log.d(LOG_TAG,"about to call jedis.get()");
-              }
-              String returnValue = jedis.get(projectID + ":" + tag);
-              if (DEBUG) {
-                Log.d(LOG_TAG, "finished call jedis.get()");
-              }
-              if (returnValue != null) {
-                String val = JsonUtil.getJsonRepresentationIfValueFileName(returnValue);
-                if(val != null) value.set(val);
-                else value.set(returnValue);
-              }
-              else {
-                if (DEBUG) {
-                  Log.d(CloudDB.LOG_TAG,"Value retrieved is null");
-                }
-                value.set(JsonUtil.getJsonRepresentation(valueIfTagNotThere));
-              }
-            } catch (JSONException e) {
-              CloudDBError("JSON conversion error for " + tag);
-              return;
-            } catch (NullPointerException e) {
-              CloudDBError("System Error getting tag " + tag);
-              flushJedis(true);
-              return;
-            } catch (JedisException e) {
-              Log.e(LOG_TAG, "Exception in GetValue", e);
-              CloudDBError(e.getMessage());
-              flushJedis(true);
-              return;
-            }
+      // GotValue gets either the JSON from the CloudDB or the JSON
+      // representation of valueIfTagNotThere
+      final String defaultValue;
+      try {
+        defaultValue = JsonUtil.getJsonRepresentation(valueIfTagNotThere);
+      } catch (JSONException e) {
+        CloudDBError("JSON conversion error for " + tag);
+        return;
+      }
+      enqueue(new Request() {
+          void addTo(CloudDBBatch<String, JedisCommand> batch) {
+            batch.fetch(tag, defaultValue);
+          }
 
-            androidUIHandler.post(new Runnable() {
-                public void run() {
-                  // Signal an event to indicate that the value was
-                  // received.  We post this to run in the Application's main
-                  // UI thread.
-                  GotValue(tag, value.get());
-                }
-              });
+          @Override
+          void drop(List<String> unfetchedTags) {
+            unfetchedTags.add(tag);
           }
         });
     } else {
@@ -842,15 +857,9 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
 
     final String key = tag;
 
-    background.submit(new Runnable() {
-        public void run() {
-          Jedis jedis = getJedis();
-          try {
-            FirstRemoved(jEval(POP_FIRST_SCRIPT, POP_FIRST_SCRIPT_SHA1, 1, key, projectID));
-          } catch (JedisException e) {
-            CloudDBError(e.getMessage());
-            flushJedis(true);
-          }
+    enqueueCommand(key, new JedisCommand() {
+        public void run(Jedis jedis) {
+          FirstRemoved(jEval(jedis, POP_FIRST_SCRIPT, POP_FIRST_SCRIPT_SHA1, 1, key, projectID));
         }
       });
   }
@@ -900,15 +909,9 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     final String item = (String) itemObject;
     final String key = tag;
 
-    background.submit(new Runnable() {
-        public void run() {
-          Jedis jedis = getJedis();
-          try {
-            jEval(APPEND_SCRIPT, APPEND_SCRIPT_SHA1, 1, key, item, projectID);
-          } catch(JedisException e) {
-            CloudDBError(e.getMessage());
-            flushJedis(true);
-          }
+    enqueueCommand(key, new JedisCommand() {
+        public void run(Jedis jedis) {
+          jEval(jedis, APPEND_SCRIPT, APPEND_SCRIPT_SHA1, 1, key, item, projectID);
         }
       });
   }
@@ -948,6 +951,17 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     EventDispatcher.dispatchEvent(this, "GotValue", tag, value);
   }
 
+  // Publishes an empty list of values, so that listeners know that the tag has
+  // gone without a DataChanged event being signaled.
+  private static final String CLEAR_SCRIPT =
+      "local key = KEYS[1];" +
+      "local project = ARGV[1];" +
+      "redis.call('del', project .. \":\" .. key);" +
+      "redis.call(\"publish\", project, \"[\" .. cjson.encode(key) .. \",[]]\");" +
+      "return 1;";
+
+  private static final String CLEAR_SCRIPT_SHA1 = "4577dda077f441ea920f2e9fd2a07b97fcef3581";
+
   /**
    * Asks CloudDB to forget (delete or set to "null") a given tag.
    *
@@ -956,15 +970,9 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
   @SimpleFunction(description = "Remove the tag from CloudDB")
   public void ClearTag(final String tag) {
     checkProjectIDNotBlank();
-    background.submit(new Runnable() {
-        public void run() {
-          try {
-            Jedis jedis = getJedis();
-            jedis.del(projectID + ":" + tag);
-          } catch (Exception e) {
-            CloudDBError(e.getMessage());
-            flushJedis(true);
-          }
+    enqueueCommand(tag, new JedisCommand() {
+        public void run(Jedis jedis) {
+          jEval(jedis, CLEAR_SCRIPT, CLEAR_SCRIPT_SHA1, 1, tag, projectID);
         }
       });
   }
@@ -982,18 +990,9 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     NetworkInfo networkInfo = cm.getActiveNetworkInfo();
     boolean isConnected = networkInfo != null && networkInfo.isConnected();
     if (isConnected) {
-      background.submit(new Runnable() {
-          public void run() {
-
-            Jedis jedis = getJedis();
-            Set<String> value = null;
-            try {
-              value = jedis.keys(projectID + ":*");
-            } catch (JedisException e) {
-              CloudDBError(e.getMessage());
-              flushJedis(true);
-              return;
-            }
+      enqueueCommand(new JedisCommand() {
+          public void run(Jedis jedis) {
+            Set<String> value = jedis.keys(projectID + ":*");
             final List<String> listValue = new ArrayList<String>(value);
 
             for(int i = 0; i < listValue.size(); i++){
@@ -1085,79 +1084,88 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     }
   }
 
-  public Jedis getJedis(boolean createNew) {
-    Jedis jedis;
+  /**
+   * Returns a connection to the Redis server from the pool, or null if one could
+   * not be made. The connection must be closed to return it to the pool.
+   */
+  public Jedis getJedis() {
     if (dead) {                 // If we are dead, we are dead!
       return null;
     }
     try {
-      if (DEBUG) {
-        Log.d(LOG_TAG, "getJedis(true): Attempting a new connection (createNew = " +
-          createNew + " redisServer = " + redisServer + " redisPort = " +
-          redisPort + " useSSL = " +
-          useSSL);
-      }
-      if (useSSL) {             // Need to create a TrustManager and trust the Comodo
-                                // Root certificate because it isn't present in older
-                                // Android versions
-        ensureSslSockFactory();
-        jedis = new Jedis(redisServer, redisPort, true, SslSockFactory, null, null);
-      } else {
-        jedis = new Jedis(redisServer, redisPort, false);
+      return getPool().getResource();
+    } catch (JedisConnectionException e) {
+      if (e.getCause() instanceof JedisDataException) {
+        // This is always an authentication error
+        Log.e(LOG_TAG, "in getJedis()", e);
+        CloudDBError(e.getCause().getMessage() + " CloudDB disabled, restart to re-enable.");
+        dead = true;
+        return null;
       }
+      Log.e(LOG_TAG, "in getJedis()", e);
+      CloudDBError(e.getMessage());
+      return null;
+    }
+  }
+
+  private synchronized JedisPool getPool() {
+    if (pool == null) {
       if (DEBUG) {
-        Log.d(LOG_TAG, "getJedis(true): Have new connection.");
+        Log.d(LOG_TAG, "getPool(): Creating a connection pool (redisServer = " +
+          redisServer + " redisPort = " + redisPort + " useSSL = " + useSSL);
       }
+      GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+      config.setMaxTotal(POOL_SIZE);
+      config.setMaxIdle(POOL_SIZE);
       // If the first character of the token is %, we toss it away
       // it is used by MockCloudDB.java to determine if the token should
       // be kept or fetched from the server when needed
-      if (token.substring(0, 1).equals("%")) {
-        jedis.auth(token.substring(1));
+      String password = token.startsWith("%") ? token.substring(1) : token;
+      if (useSSL) {             // Need to create a TrustManager and trust the Comodo
+                                // Root certificate because it isn't present in older
+                                // Android versions
+        ensureSslSockFactory();
+        pool = new JedisPool(config, redisServer, redisPort, Protocol.DEFAULT_TIMEOUT,
+            password, true, SslSockFactory, null, null);
       } else {
-        jedis.auth(token);
+        pool = new JedisPool(config, redisServer, redisPort, Protocol.DEFAULT_TIMEOUT,
+            password, false);
       }
-      if (DEBUG) {
-        Log.d(LOG_TAG, "getJedis(true): Authentication complete.");
-      }
-    } catch (JedisConnectionException e) {
-      Log.e(LOG_TAG, "in getJedis()", e);
-      CloudDBError(e.getMessage());
-      return null;
-    } catch (JedisDataException e) {
-      // This is always an authentication error
-      Log.e(LOG_TAG, "in getJedis()", e);
-      CloudDBError(e.getMessage() + " CloudDB disabled, restart to re-enable.");
-      dead = true;
-      return null;
     }
-    return jedis;
-  }
-
-  public synchronized Jedis getJedis() {
-    if (INSTANCE == null) {
-      INSTANCE = getJedis(true);
-    }
-    return INSTANCE;
+    return pool;
   }
 
   /*
-   * flushJedis -- Flush the singleton jedis connection. This is
-   * used when we detect an error from jedis. It is possible that after
-   * an error the jedis connection is in an invalid state (or closed) so
-   * we want to make sure we get a new one the next time around!
+   * flushJedis -- Close the connection pool. This is used when we detect an
+   * error from jedis. It is possible that after an error the connections are
+   * in an invalid state (or closed) so we want to make sure we get new ones
+   * the next time around! Requests that have not been sent yet are dropped,
+   * and a CloudDBError event reports the GetValue calls among them, which
+   * will not raise GotValue.
    */
 
   private void flushJedis(boolean restartListener) {
-    if (INSTANCE == null) {
+    JedisPool oldPool;
+    synchronized (this) {
+      oldPool = pool;
+      pool = null;
+    }
+    if (oldPool == null) {
       return;                   // Nothing to do
     }
     try {
-      INSTANCE.close();         // Just in case we still have
-                                // a connection
+      oldPool.close();          // Closes the idle connections, and the others
+                                // as they are returned
     } catch (Exception e) {
       // XXX
     }
-    INSTANCE = null;
+    storeScriptLoaded = false;
+    List<Request> requests = new ArrayList<Request>();
+    Request request;
+    while ((request = pendingRequests.poll()) != null) {
+      requests.add(request);
+    }
+    dropRequests(requests);
     // We are now going to kill the executor, as it may
     // have hung tasks. We do this on the UI thread as a
     // way to synchronize things.
@@ -1167,7 +1175,13 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
           if (DEBUG) {
             Log.d(LOG_TAG, "Killing background executor, returned tasks = " + tasks);
           }
-          background = Executors.newSingleThreadExecutor();
+          background = Executors.newSingleThreadScheduledExecutor();
+          // A batch scheduled on the old executor will not run, so schedule one
+          // for any requests made since.
+          batchScheduled.set(false);
+          if (!pendingRequests.isEmpty() && batchScheduled.compareAndSet(false, true)) {
+            background.schedule(sendBatch, BATCH_WINDOW, TimeUnit.MILLISECONDS);
+          }
         }
       });
 
@@ -1177,6 +1191,336 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     }
   }
 
+  /*
+   * dropRequests -- Drops requests that cannot be sent, raising a CloudDBError
+   * event for the GetValue calls among them, which will not raise GotValue.
+   */
+
+  private void dropRequests(List<Request> requests) {
+    List<String> unfetchedTags = new ArrayList<String>();
+    for (Request request : requests) {
+      request.drop(unfetchedTags);
+    }
+    if (!unfetchedTags.isEmpty()) {
+      CloudDBError("Unable to get the values of " + unfetchedTags
+          + " because the connection to CloudDB was lost.");
+    }
+  }
+
+  private void enqueue(Request request) {
+    pendingRequests.add(request);
+    if (batchScheduled.compareAndSet(false, true)) {
+      background.schedule(sendBatch, BATCH_WINDOW, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void enqueueCommand(JedisCommand command) {
+    enqueueCommand(null, command);
+  }
+
+  /*
+   * enqueueCommand -- Queues a command that changes the value of writeTag, if
+   * it is not null. Until the command has run or been dropped, the cache does
+   * not take a value for the tag from the server.
+   */
+
+  private void enqueueCommand(final String writeTag, final JedisCommand command) {
+    if (writeTag != null) {
+      beginWrite(writeTag);
+    }
+    enqueue(new Request() {
+        void addTo(CloudDBBatch<String, JedisCommand> batch) {
+          if (writeTag == null) {
+            batch.command(command);
+            return;
+          }
+          batch.command(new JedisCommand() {
+              public void run(Jedis jedis) {
+                try {
+                  command.run(jedis);
+                } finally {
+                  endWrite(writeTag);
+                }
+              }
+            });
+        }
+
+        @Override
+        void drop(List<String> unfetchedTags) {
+          if (writeTag != null) {
+            endWrite(writeTag);
+          }
+        }
+      });
+  }
+
+  /*
+   * sendPendingRequests -- Runs on the background thread to send all of the
+   * queued requests in one batch.
+   */
+
+  private void sendPendingRequests() {
+    // Clear the flag first, so that a request added while we are draining the
+    // queue either is drained here or schedules another batch.
+    batchScheduled.set(false);
+    List<Request> requests = new ArrayList<Request>();
+    Request request;
+    while ((request = pendingRequests.poll()) != null) {
+      requests.add(request);
+    }
+    if (requests.isEmpty()) {
+      return;
+    }
+    long start = SystemClock.uptimeMillis();
+    Jedis jedis = getJedis();
+    if (jedis == null) {
+      dropRequests(requests);   // getJedis() has reported the error
+      return;
+    }
+    CloudDBBatch<String, JedisCommand> batch = new CloudDBBatch<String, JedisCommand>();
+    for (Request queued : requests) {
+      queued.addTo(batch);
+    }
+    boolean failed = false;
+    try {
+      runBatch(jedis, batch);
+    } catch (JedisException e) {
+      Log.e(LOG_TAG, "Exception sending requests", e);
+      CloudDBError(e.getMessage());
+      failed = true;
+    } catch (RuntimeException e) {
+      Log.e(LOG_TAG, "Exception in request worker!", e);
+      failed = true;
+    } finally {
+      jedis.close();
+    }
+    if (failed) {
+      flushJedis(true);
+      return;
+    }
+    long latency = SystemClock.uptimeMillis() - start;
+    batchCount++;
+    requestCount += batch.size();
+    totalLatency += latency;
+    if (batch.size() > maxBatchSize) {
+      maxBatchSize = batch.size();
+    }
+    if (latency > maxLatency) {
+      maxLatency = latency;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void runBatch(Jedis jedis, CloudDBBatch<String, JedisCommand> batch) {
+    if (!storeScriptLoaded) {
+      for (CloudDBBatch.Step step : batch.getSteps()) {
+        if (step instanceof CloudDBBatch.Store) {
+          // Load the script before pipelining, so that we can use evalsha.
+          jedis.scriptLoad(SET_SUB_SCRIPT);
+          storeScriptLoaded = true;
+          break;
+        }
+      }
+    }
+    List<CloudDBBatch.Step> sent = new ArrayList<CloudDBBatch.Step>();
+    List<Response<?>> responses = new ArrayList<Response<?>>();
+    Pipeline pipeline = jedis.pipelined();
+    for (CloudDBBatch.Step step : batch.getSteps()) {
+      if (step instanceof CloudDBBatch.Store) {
+        CloudDBBatch.Store store = (CloudDBBatch.Store) step;
+        responses.add(pipeline.evalsha(SET_SUB_SCRIPT_SHA1, 1, store.getTag(),
+            store.getValue(), new JSONArray(store.getValues()).toString(), projectID));
+        sent.add(step);
+      } else if (step instanceof CloudDBBatch.Fetch) {
+        responses.add(pipeline.mget(getKeys(((CloudDBBatch.Fetch<String>) step).getTags())));
+        sent.add(step);
+      } else {
+        // Commands run on their own, after everything before them.
+        pipeline.sync();
+        handleResponses(jedis, sent, responses);
+        sent.clear();
+        responses.clear();
+        try {
+          ((CloudDBBatch.Command<JedisCommand>) step).getCommand().run(jedis);
+        } catch (JedisDataException e) {
+          // The server rejected the command, but the connection is still good.
+          CloudDBError(e.getMessage());
+        }
+        pipeline = jedis.pipelined();
+      }
+    }
+    pipeline.sync();
+    handleResponses(jedis, sent, responses);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void handleResponses(Jedis jedis, List<CloudDBBatch.Step> steps,
+      List<Response<?>> responses) {
+    // Set once a store has been sent again because the server had lost the
+    // script. Fetches pipelined after it read the old values, so they are
+    // sent again as well.
+    boolean resent = false;
+    for (int i = 0; i < steps.size(); i++) {
+      CloudDBBatch.Step step = steps.get(i);
+      if (step instanceof CloudDBBatch.Store) {
+        CloudDBBatch.Store store = (CloudDBBatch.Store) step;
+        try {
+          responses.get(i).get();
+        } catch (JedisDataException e) {
+          if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT")) {
+            CloudDBError(e.getMessage());
+            continue;
+          }
+          // The server has lost the script since we loaded it, so send
+          // this value again with the script.
+          jEval(jedis, SET_SUB_SCRIPT, SET_SUB_SCRIPT_SHA1, 1, store.getTag(),
+              store.getValue(), new JSONArray(store.getValues()).toString(), projectID);
+          resent = true;
+        } finally {
+          for (int j = 0; j < store.getValues().size(); j++) {
+            endWrite(store.getTag());
+          }
+        }
+      } else {
+        CloudDBBatch.Fetch<String> fetch = (CloudDBBatch.Fetch<String>) step;
+        List<String> tags = fetch.getTags();
+        List<String> values = resent ? jedis.mget(getKeys(tags))
+            : (List<String>) responses.get(i).get();
+        final List<String> gotTags = new ArrayList<String>();
+        final List<String> gotValues = new ArrayList<String>();
+        for (int j = 0; j < tags.size(); j++) {
+          String returnValue = values.get(j);
+          if (returnValue != null) {
+            returnValue = fromStoredValue(returnValue);
+            RemoteValueCache cache = this.cache;
+            if (cache != null) {
+              cache.offer(tags.get(j), returnValue);
+            }
+          } else if (DEBUG) {
+            Log.d(CloudDB.LOG_TAG,"Value retrieved is null");
+          }
+          for (String valueIfTagNotThere : fetch.getRequests(tags.get(j))) {
+            gotTags.add(tags.get(j));
+            gotValues.add(returnValue != null ? returnValue : valueIfTagNotThere);
+          }
+        }
+        androidUIHandler.post(new Runnable() {
+            public void run() {
+              // Signal an event to indicate that each value was
+              // received.  We post this to run in the Application's main
+              // UI thread.
+              for (int k = 0; k < gotTags.size(); k++) {
+                GotValue(gotTags.get(k), gotValues.get(k));
+              }
+            }
+          });
+      }
+    }
+  }
+
+  private String[] getKeys(List<String> tags) {
+    String[] keys = new String[tags.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = projectID + ":" + tags.get(i);
+    }
+    return keys;
+  }
+
+  /*
+   * fromStoredValue -- Returns the JSON for a value stored on the server,
+   * after saving any file that it contains to the device.
+   */
+
+  private static String fromStoredValue(String storedValue) {
+    String val = JsonUtil.getJsonRepresentationIfValueFileName(storedValue);
+    return val == null ? storedValue : val;
+  }
+
+  private synchronized void resetCache() {
+    RemoteValueCache oldCache = cache;
+    cache = null;
+    if (oldCache != null) {
+      oldCache.saveAccessTimes();
+    }
+    if (cacheSize > 0 && !projectID.equals("")) {
+      cache = new RemoteValueCache(form, redisServer + ":" + redisPort + "/" + projectID,
+          cacheSize);
+      CloudDBJedisListener listener = currentListener;
+      if (listener != null && listener.isSubscribed()) {
+        listenerSubscribed();
+      }
+    }
+  }
+
+  /**
+   * Returns the values of tags kept on the device, or null if CacheSize is 0.
+   */
+  public RemoteValueCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Called by the listener once it is subscribed to changes to the project.
+   * From then on the cache is told about changes, so the tags in it that may
+   * be out of date are fetched again.
+   */
+  public void listenerSubscribed() {
+    final RemoteValueCache cache = this.cache;
+    if (cache == null) {
+      return;
+    }
+    cache.setListening(true);
+    final List<String> tags = cache.getStaleTags();
+    if (tags.isEmpty()) {
+      return;
+    }
+    enqueueCommand(new JedisCommand() {
+        public void run(Jedis jedis) {
+          List<String> values = jedis.mget(getKeys(tags));
+          for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == null) {
+              cache.remove(tags.get(i));
+            } else {
+              cache.offer(tags.get(i), fromStoredValue(values.get(i)));
+            }
+          }
+        }
+      });
+  }
+
+  private void setCacheListening(boolean listening) {
+    RemoteValueCache cache = this.cache;
+    if (cache != null) {
+      cache.setListening(listening);
+    }
+  }
+
+  private void beginWrite(String tag) {
+    RemoteValueCache cache = this.cache;
+    if (cache != null) {
+      cache.beginWrite(tag);
+    }
+  }
+
+  private void endWrite(String tag) {
+    RemoteValueCache cache = this.cache;
+    if (cache != null) {
+      cache.endWrite(tag);
+    }
+  }
+
+  /**
+   * Returns a summary of the batches of requests sent to the server, which is
+   * logged when the form is cleared if DEBUG is set. Apps see the same numbers
+   * in the AverageBatchSize, MaximumBatchSize, AverageLatency and MaximumLatency
+   * properties.
+   */
+  String getStats() {
+    return String.format("CloudDB[batches=%d,requests=%d,maxBatchSize=%d,averageLatency=%dms," +
+        "maxLatency=%dms]", batchCount, requestCount, MaximumBatchSize(), AverageLatency(),
+        MaximumLatency());
+  }
+
  /**
    * Accepts a file name and returns a Yail List with two
    * elements. the first element is the file's extension (example:
@@ -1227,8 +1571,8 @@ public final class CloudDB extends AndroidNonvisibleComponent implements Compone
     return background;
   }
 
-  public Object jEval(String script, String scriptsha1, int argcount, String... args) throws JedisException {
-    Jedis jedis = getJedis();
+  public Object jEval(Jedis jedis, String script, String scriptsha1, int argcount, String... args)
+      throws JedisException {
     try {
       return jedis.evalsha(scriptsha1, argcount, args);
     } catch (JedisNoScriptException e) {
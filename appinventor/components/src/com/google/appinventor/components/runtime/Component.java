@@ -40,6 +40,14 @@ public interface Component {
   static final int ACCELEROMETER_SENSITIVITY_MODERATE = 2;
   static final int ACCELEROMETER_SENSITIVITY_STRONG = 3;
 
+  /*
+   * Sensor sampling modes.
+   */
+  static final int SENSOR_SAMPLING_ALL = ComponentConstants.SENSOR_SAMPLING_ALL;
+  static final int SENSOR_SAMPLING_LATEST = ComponentConstants.SENSOR_SAMPLING_LATEST;
+  static final int SENSOR_SAMPLING_LOW_PASS = ComponentConstants.SENSOR_SAMPLING_LOW_PASS;
+  static final int SENSOR_SAMPLING_DECIMATE = ComponentConstants.SENSOR_SAMPLING_DECIMATE;
+
   /*
    * Button Styles.
    */
@@ -16,7 +16,6 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
-import android.os.Handler;
 
 /**
  * A component that provides a high-level interface to a color sensor on a
@@ -43,12 +42,9 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   private static final int DEFAULT_BOTTOM_OF_RANGE = 30;
   private static final int DEFAULT_TOP_OF_RANGE = 60;
   private static final String DEFAULT_SENSOR_MODE_STRING = SENSOR_MODE_REFLECTED_STRING;
-  private static final int DELAY_MILLISECONDS = 50;
 
   private int mode = 0;
   private String modeString = SENSOR_MODE_REFLECTED_STRING;
-  private Handler eventHandler;
-  private final Runnable sensorValueChecker;
   private int bottomOfRange;
   private int topOfRange;
   private int previousLightLevel = 0;
@@ -65,54 +61,6 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   public Ev3ColorSensor(ComponentContainer container) {
     super(container, "Ev3ColorSensor");
 
-    eventHandler = new Handler();
-    sensorValueChecker = new Runnable() {
-      public void run() {
-        String functionName = "";
-
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          if (mode == SENSOR_MODE_COLOR) {
-            int currentColor = getSensorValue(functionName);
-
-            if (previousColor < 0) {
-              previousColor = currentColor;
-              eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-              return;
-            }
-
-            if (currentColor != previousColor && colorChangedEventEnabled)
-              ColorChanged(currentColor, toColorName(functionName, currentColor));
-
-            previousColor = currentColor;
-          } else {                // mode == SENSOR_MODE_REFLECTED or mode == SENSOR_MODE_AMBIENT
-            int currentLightLevel = getSensorValue(functionName);
-            if (previousLightLevel < 0) {
-              previousLightLevel = currentLightLevel;
-              eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-              return;
-            }
-
-            // trigger events according to the conditions
-            if (currentLightLevel < bottomOfRange) {
-              if (belowRangeEventEnabled && previousLightLevel >= bottomOfRange)
-                BelowRange();
-            } else if (currentLightLevel > topOfRange) {
-              if (aboveRangeEventEnabled && previousLightLevel <= topOfRange)
-                AboveRange();
-            } else {
-              if (withinRangeEventEnabled && (previousLightLevel < bottomOfRange || previousLightLevel > topOfRange))
-                WithinRange();
-            }
-
-            previousLightLevel = currentLightLevel;
-          }
-        }
-
-        eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-      }
-    };
-    eventHandler.post(sensorValueChecker);
-
     TopOfRange(DEFAULT_TOP_OF_RANGE);
     BottomOfRange(DEFAULT_BOTTOM_OF_RANGE);
     BelowRangeEventEnabled(false);
@@ -224,6 +172,7 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   @SimpleProperty
   public void BelowRangeEventEnabled(boolean enabled) {
     belowRangeEventEnabled = enabled;
+    updatePolling();
   }
 
   @SimpleEvent(description = "Light level has gone below the range.")
@@ -251,6 +200,7 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   @SimpleProperty
   public void WithinRangeEventEnabled(boolean enabled) {
     withinRangeEventEnabled = enabled;
+    updatePolling();
   }
 
   @SimpleEvent(description = "Light level has gone within the range.")
@@ -278,6 +228,7 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   @SimpleProperty
   public void AboveRangeEventEnabled(boolean enabled) {
     aboveRangeEventEnabled = enabled;
+    updatePolling();
   }
 
   @SimpleEvent(description = "Light level has gone above the range.")
@@ -305,6 +256,7 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   @SimpleProperty
   public void ColorChangedEventEnabled(boolean enabled) {
     colorChangedEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -317,13 +269,82 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
     EventDispatcher.dispatchEvent(this, "ColorChanged", colorCode, colorName);
   }
 
+  @Override
+  public void onPolledValue(Object value) {
+    String functionName = "";
+
+    if (mode == SENSOR_MODE_COLOR) {
+      int currentColor = toSensorValue((Integer) value);
+
+      if (previousColor < 0) {
+        previousColor = currentColor;
+        return;
+      }
+
+      if (currentColor != previousColor && colorChangedEventEnabled)
+        ColorChanged(currentColor, toColorName(functionName, currentColor));
+
+      previousColor = currentColor;
+    } else {                // mode == SENSOR_MODE_REFLECTED or mode == SENSOR_MODE_AMBIENT
+      int currentLightLevel = toSensorValue((Integer) value);
+      if (previousLightLevel < 0) {
+        previousLightLevel = currentLightLevel;
+        return;
+      }
+
+      // trigger events according to the conditions
+      if (currentLightLevel < bottomOfRange) {
+        if (belowRangeEventEnabled && previousLightLevel >= bottomOfRange)
+          BelowRange();
+      } else if (currentLightLevel > topOfRange) {
+        if (aboveRangeEventEnabled && previousLightLevel <= topOfRange)
+          AboveRange();
+      } else {
+        if (withinRangeEventEnabled && (previousLightLevel < bottomOfRange || previousLightLevel > topOfRange))
+          WithinRange();
+      }
+
+      previousLightLevel = currentLightLevel;
+    }
+  }
+
+  @Override
+  protected int getSensorType() {
+    return SENSOR_TYPE;
+  }
+
+  @Override
+  protected int getSensorMode() {
+    return mode;
+  }
+
+  @Override
+  protected boolean isReadInSI() {
+    return false;
+  }
+
+  @Override
+  protected boolean isPollingNeeded() {
+    if (mode == SENSOR_MODE_COLOR)
+      return colorChangedEventEnabled;
+    return belowRangeEventEnabled || withinRangeEventEnabled || aboveRangeEventEnabled;
+  }
+
+  @Override
+  protected void resetPreviousValue() {
+    previousColor = -1;
+    previousLightLevel = -1;
+  }
+
   private int getSensorValue(String functionName) {
-    int level = readInputPercentage(functionName,
-                                    0, // assume layer = 0
-                                    sensorPortNumber,
-                                    SENSOR_TYPE,
-                                    mode);
+    return toSensorValue(readInputPercentage(functionName,
+                                             0, // assume layer = 0
+                                             sensorPortNumber,
+                                             SENSOR_TYPE,
+                                             mode));
+  }
 
+  private int toSensorValue(int level) {
     // map values according to LEGO's convention
     if (mode == SENSOR_MODE_COLOR) {
       switch (level) {
@@ -441,9 +462,6 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   }
 
   private void setMode(String newModeString) {
-    previousColor = -1;
-    previousLightLevel = -1;
-
     if (SENSOR_MODE_REFLECTED_STRING.equals(newModeString))
       mode = SENSOR_MODE_REFLECTED;
     else if (SENSOR_MODE_AMBIENT_STRING.equals(newModeString))
@@ -454,12 +472,6 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
       throw new IllegalArgumentException();
 
     this.modeString = newModeString;
-  }
-
-  // interface Deleteable implementation
-  @Override
-  public void onDelete() {
-    eventHandler.removeCallbacks(sensorValueChecker);
-    super.onDelete();
+    updatePolling();
   }
 }
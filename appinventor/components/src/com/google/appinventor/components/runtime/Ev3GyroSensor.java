@@ -16,7 +16,6 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
-import android.os.Handler;
 
 /**
  * A component that provides a high-level interface to a gyro sensor on a LEGO
@@ -33,7 +32,6 @@ import android.os.Handler;
                    iconName = "images/legoMindstormsEv3.png")
 @SimpleObject
 public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable {
-  private static final int DELAY_MILLISECONDS = 50;
   private static final int SENSOR_TYPE = 32;
   private static final int SENSOR_MODE_ANGLE = 0;
   private static final int SENSOR_MODE_RATE = 1;
@@ -41,11 +39,9 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
   private static final String SENSOR_MODE_RATE_STRING = "rate";
   private static final String DEFAULT_SENSOR_MODE_STRING = SENSOR_MODE_ANGLE_STRING;
 
-  private Handler eventHandler;
-  private final Runnable sensorValueChecker;
   private int mode = SENSOR_MODE_ANGLE;
   private String modeString = SENSOR_MODE_ANGLE_STRING;
-  private double previousValue = -1.0;
+  private double previousValue = Double.NaN;
   private boolean sensorValueChangedEventEnabled = false;
 
   /**
@@ -54,34 +50,6 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
   public Ev3GyroSensor(ComponentContainer container) {
     super(container, "Ev3GyroSensor");
 
-    eventHandler = new Handler();
-    sensorValueChecker = new Runnable() {
-      public void run() {
-        String functionName = "";
-
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          double currentValue = getSensorValue(functionName);
-
-          if (previousValue < 0.0) {
-            previousValue = currentValue;
-            eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-            return;
-          }
-
-          // trigger events according to the conditions
-          if (mode == SENSOR_MODE_RATE && Math.abs(currentValue) >= 1.0)
-            SensorValueChanged(currentValue);
-          else if (mode == SENSOR_MODE_ANGLE && Math.abs(currentValue - previousValue) >= 1.0)
-            SensorValueChanged(currentValue);
-
-          previousValue = currentValue;
-        }
-
-        eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-      }
-    };
-    eventHandler.post(sensorValueChecker);
-
     Mode(DEFAULT_SENSOR_MODE_STRING);
     SensorValueChangedEventEnabled(false);
   }
@@ -155,6 +123,7 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
   @SimpleProperty
   public void SensorValueChangedEventEnabled(boolean enabled) {
     sensorValueChangedEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -165,6 +134,49 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
     EventDispatcher.dispatchEvent(this, "SensorValueChanged", sensorValue);
   }
 
+  @Override
+  public void onPolledValue(Object value) {
+    double currentValue = (Double) value;
+
+    if (Double.isNaN(previousValue)) {
+      previousValue = currentValue;
+      return;
+    }
+
+    // trigger events according to the conditions
+    if (mode == SENSOR_MODE_RATE && Math.abs(currentValue) >= 1.0)
+      SensorValueChanged(currentValue);
+    else if (mode == SENSOR_MODE_ANGLE && Math.abs(currentValue - previousValue) >= 1.0)
+      SensorValueChanged(currentValue);
+
+    previousValue = currentValue;
+  }
+
+  @Override
+  protected int getSensorType() {
+    return SENSOR_TYPE;
+  }
+
+  @Override
+  protected int getSensorMode() {
+    return mode;
+  }
+
+  @Override
+  protected boolean isReadInSI() {
+    return true;
+  }
+
+  @Override
+  protected boolean isPollingNeeded() {
+    return sensorValueChangedEventEnabled;
+  }
+
+  @Override
+  protected void resetPreviousValue() {
+    previousValue = Double.NaN;
+  }
+
   private double getSensorValue(String functionName) {
     return readInputSI(functionName,
                        0,
@@ -182,11 +194,6 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
       throw new IllegalArgumentException();
 
     this.modeString = newModeString;
-  }
-
-  // Deleteable implementation
-  @Override
-  public void onDelete() {
-    super.onDelete();
+    updatePolling();
   }
 }
@@ -0,0 +1,130 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.runtime.util.Ev3BinaryParser;
+import com.google.appinventor.components.runtime.util.Ev3Constants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the sensors attached to one LEGO MINDSTORMS EV3 robot.
+ *
+ * <p>All of the sensors that are due are read by a single direct command
+ * holding one INPUT_DEVICE instruction per sensor. Each instruction stores
+ * its reading at its own offset in the command's global variables, which the
+ * EV3 returns together in the reply. Readings in SI units are 4 byte floats
+ * and come first, so that they are aligned, followed by the 1 byte
+ * percentages.</p>
+ *
+ */
+final class Ev3SensorPoller extends LegoMindstormsSensorPoller<LegoMindstormsEv3Sensor> {
+  private static final int LAYER = 0;
+
+  private static final Map<BluetoothClient, Ev3SensorPoller> POLLERS =
+      new HashMap<BluetoothClient, Ev3SensorPoller>();
+
+  private Ev3SensorPoller(BluetoothClient bluetooth) {
+    super("Ev3SensorPoller", bluetooth);
+  }
+
+  /**
+   * Returns the poller for the robot on the other end of the given
+   * connection. Must be called on the UI thread.
+   */
+  static Ev3SensorPoller forBluetooth(BluetoothClient bluetooth) {
+    Ev3SensorPoller poller = POLLERS.get(bluetooth);
+    if (poller == null) {
+      poller = new Ev3SensorPoller(bluetooth);
+      POLLERS.put(bluetooth, poller);
+    }
+    return poller;
+  }
+
+  @Override
+  protected void onIdle() {
+    POLLERS.remove(getBluetooth());
+  }
+
+  @Override
+  protected Object[] readValues(List<LegoMindstormsEv3Sensor> sensors) {
+    int count = sensors.size();
+    Object[] values = new Object[count];
+    int[] ports = new int[count];
+    int[] types = new int[count];
+    int[] modes = new int[count];
+    boolean[] si = new boolean[count];
+    int[] offsets = new int[count];
+    List<byte[]> instructions = new ArrayList<byte[]>(count);
+    LegoMindstormsEv3Sensor sender = null;
+
+    int globalAllocation = 0;
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < count; i++) {
+        LegoMindstormsEv3Sensor sensor = sensors.get(i);
+        if (pass == 0) {
+          if (sensor.bluetooth != getBluetooth()) {
+            // The sensor has moved to another robot and will be removed shortly.
+            ports[i] = -1;
+            continue;
+          }
+          ports[i] = sensor.sensorPortNumber;
+          types[i] = sensor.getSensorType();
+          modes[i] = sensor.getSensorMode();
+          si[i] = sensor.isReadInSI();
+        }
+        // SI readings in the first pass, percentages in the second.
+        if (ports[i] < 0 || si[i] != (pass == 0)) {
+          continue;
+        }
+        offsets[i] = globalAllocation;
+        globalAllocation += si[i] ? 4 : 1;
+        instructions.add(Ev3BinaryParser.encodeInstruction(Ev3Constants.Opcode.INPUT_DEVICE,
+            "ccccccg",
+            si[i] ? Ev3Constants.InputDeviceSubcode.READY_SI
+                  : Ev3Constants.InputDeviceSubcode.READY_PCT,
+            (byte) LAYER,
+            (byte) ports[i],
+            (byte) types[i],
+            (byte) modes[i],
+            (byte) 1,
+            (byte) offsets[i]));
+        if (sender == null) {
+          sender = sensor;
+        }
+      }
+    }
+    if (sender == null) {
+      return values;
+    }
+
+    byte[] command = Ev3BinaryParser.encodeDirectCommand(true, globalAllocation, 0,
+        instructions.toArray(new byte[instructions.size()][]));
+    byte[] reply = sender.sendCommand("", command, true);
+    if (reply == null || reply.length != globalAllocation + 1
+        || reply[0] != Ev3Constants.DirectReplyType.DIRECT_REPLY) {
+      return values;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(reply).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < count; i++) {
+      if (ports[i] < 0) {
+        continue;
+      }
+      if (si[i]) {
+        values[i] = (double) buffer.getFloat(1 + offsets[i]);
+      } else {
+        values[i] = (int) reply[1 + offsets[i]];
+      }
+    }
+    return values;
+  }
+}
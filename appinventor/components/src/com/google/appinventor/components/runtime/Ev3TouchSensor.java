@@ -15,7 +15,6 @@ import com.google.appinventor.components.annotations.SimpleProperty;
 import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
-import android.os.Handler;
 
 /**
  * A component that provides a high-level interface to a touch sensor on a LEGO
@@ -36,12 +35,9 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   private static final int SENSOR_TYPE = 16;
   private static final int SENSOR_MODE_TOUCH = 0;
   private static final String SENSOR_MODE_TOUCH_STRING = "touch";
-  private static final int DELAY_MILLISECONDS = 50;
 
   private String modeString = SENSOR_MODE_TOUCH_STRING;
   private int mode = SENSOR_MODE_TOUCH;
-  private Handler eventHandler;
-  private final Runnable sensorValueChecker;
   private int savedPressedValue = -1;
   private boolean pressedEventEnabled;
   private boolean releasedEventEnabled;
@@ -52,36 +48,6 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   public Ev3TouchSensor(ComponentContainer container) {
     super(container, "Ev3TouchSensor");
 
-    eventHandler = new Handler();
-    sensorValueChecker = new Runnable() {
-      public void run() {
-        String functionName = "";
-
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          int currentPressedValue = getPressedValue(functionName);
-
-          if (savedPressedValue < 0) {
-            savedPressedValue = currentPressedValue;
-            eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-            return;
-          }
-
-          if (savedPressedValue < SENSOR_VALUE_THRESHOLD) {
-            if (releasedEventEnabled && currentPressedValue >= SENSOR_VALUE_THRESHOLD)
-              Pressed();
-          } else {
-            if (pressedEventEnabled && currentPressedValue < SENSOR_VALUE_THRESHOLD)
-              Released();
-          }
-
-          savedPressedValue = currentPressedValue;
-        }
-
-        eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-      }
-    };
-    eventHandler.post(sensorValueChecker);
-
     PressedEventEnabled(false);
     ReleasedEventEnabled(false);
   }
@@ -104,6 +70,7 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   @SimpleProperty
   public void PressedEventEnabled(boolean enabled) {
     pressedEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -145,6 +112,7 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
   @SimpleProperty
   public void ReleasedEventEnabled(boolean enabled) {
     releasedEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -155,6 +123,51 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
     EventDispatcher.dispatchEvent(this, "Released");
   }
 
+  @Override
+  public void onPolledValue(Object value) {
+    int currentPressedValue = (Integer) value;
+
+    if (savedPressedValue < 0) {
+      savedPressedValue = currentPressedValue;
+      return;
+    }
+
+    if (savedPressedValue < SENSOR_VALUE_THRESHOLD) {
+      if (releasedEventEnabled && currentPressedValue >= SENSOR_VALUE_THRESHOLD)
+        Pressed();
+    } else {
+      if (pressedEventEnabled && currentPressedValue < SENSOR_VALUE_THRESHOLD)
+        Released();
+    }
+
+    savedPressedValue = currentPressedValue;
+  }
+
+  @Override
+  protected int getSensorType() {
+    return SENSOR_TYPE;
+  }
+
+  @Override
+  protected int getSensorMode() {
+    return mode;
+  }
+
+  @Override
+  protected boolean isReadInSI() {
+    return false;
+  }
+
+  @Override
+  protected boolean isPollingNeeded() {
+    return pressedEventEnabled || releasedEventEnabled;
+  }
+
+  @Override
+  protected void resetPreviousValue() {
+    savedPressedValue = -1;
+  }
+
   private int getPressedValue(String functionName) {
     int value =  readInputPercentage(functionName,
                                      0, // assume layer = 0
@@ -163,11 +176,4 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
                                      mode);
     return value;
   }
-
-  // Deleteable implementation
-  @Override
-  public void onDelete() {
-    eventHandler.removeCallbacks(sensorValueChecker);
-    super.onDelete();
-  }
 }
@@ -16,7 +16,6 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
-import android.os.Handler;
 
 /**
  * A component that provides a high-level interface to an ultrasonic sensor on a LEGO
@@ -42,12 +41,9 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   private static final int DEFAULT_BOTTOM_OF_RANGE = 30;
   private static final int DEFAULT_TOP_OF_RANGE = 90;
   private static final String DEFAULT_SENSOR_MODE_STRING = SENSOR_MODE_CM_STRING;
-  private static final int DELAY_MILLISECONDS = 50;
 
   private String modeString = SENSOR_MODE_CM_STRING;
   private int mode = SENSOR_MODE_CM;
-  private Handler eventHandler;
-  private final Runnable sensorValueChecker;
   private double previousDistance = -1.0;
   private int bottomOfRange;
   private int topOfRange;
@@ -61,40 +57,6 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   public Ev3UltrasonicSensor(ComponentContainer container) {
     super(container, "Ev3UltrasonicSensor");
 
-    eventHandler = new Handler();
-    sensorValueChecker = new Runnable() {
-      public void run() {
-        String functionName = "";
-
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          double currentDistance = getDistance(functionName);
-
-          if (previousDistance < 0.0) {
-            previousDistance = currentDistance;
-            eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-            return;
-          }
-
-          if (currentDistance < bottomOfRange) {
-            if (belowRangeEventEnabled && previousDistance >= bottomOfRange)
-              BelowRange();
-          } else if (currentDistance > topOfRange) {
-            if (aboveRangeEventEnabled && previousDistance <= topOfRange)
-              AboveRange();
-          } else {
-            if (withinRangeEventEnabled && (previousDistance < bottomOfRange || previousDistance > topOfRange))
-              WithinRange();
-          }
-
-          previousDistance = currentDistance;
-        }
-
-        eventHandler.postDelayed(this, DELAY_MILLISECONDS);
-      }
-    };
-
-    eventHandler.post(sensorValueChecker);
-
     TopOfRange(DEFAULT_TOP_OF_RANGE);
     BottomOfRange(DEFAULT_BOTTOM_OF_RANGE);
     BelowRangeEventEnabled(false);
@@ -111,8 +73,59 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   }
 
   private double getDistance(String functionName) {
-    double distance = readInputSI(functionName, 0, sensorPortNumber, SENSOR_TYPE, mode);
-    return distance == 255 ? -1.0 : distance;
+    return toDistance(readInputSI(functionName, 0, sensorPortNumber, SENSOR_TYPE, mode));
+  }
+
+  private static double toDistance(double value) {
+    return value == 255 ? -1.0 : value;
+  }
+
+  @Override
+  public void onPolledValue(Object value) {
+    double currentDistance = toDistance((Double) value);
+
+    if (previousDistance < 0.0) {
+      previousDistance = currentDistance;
+      return;
+    }
+
+    if (currentDistance < bottomOfRange) {
+      if (belowRangeEventEnabled && previousDistance >= bottomOfRange)
+        BelowRange();
+    } else if (currentDistance > topOfRange) {
+      if (aboveRangeEventEnabled && previousDistance <= topOfRange)
+        AboveRange();
+    } else {
+      if (withinRangeEventEnabled && (previousDistance < bottomOfRange || previousDistance > topOfRange))
+        WithinRange();
+    }
+
+    previousDistance = currentDistance;
+  }
+
+  @Override
+  protected int getSensorType() {
+    return SENSOR_TYPE;
+  }
+
+  @Override
+  protected int getSensorMode() {
+    return mode;
+  }
+
+  @Override
+  protected boolean isReadInSI() {
+    return true;
+  }
+
+  @Override
+  protected boolean isPollingNeeded() {
+    return belowRangeEventEnabled || withinRangeEventEnabled || aboveRangeEventEnabled;
+  }
+
+  @Override
+  protected void resetPreviousValue() {
+    previousDistance = -1.0;
   }
 
   /**
@@ -179,6 +192,7 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   @SimpleProperty
   public void BelowRangeEventEnabled(boolean enabled) {
     belowRangeEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -209,6 +223,7 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   @SimpleProperty
   public void WithinRangeEventEnabled(boolean enabled) {
     withinRangeEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -239,6 +254,7 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   @SimpleProperty
   public void AboveRangeEventEnabled(boolean enabled) {
     aboveRangeEventEnabled = enabled;
+    updatePolling();
   }
 
   /**
@@ -300,8 +316,6 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
   }
 
   private void setMode(String newModeString) {
-    previousDistance = -1.0;
-
     if (SENSOR_MODE_CM_STRING.equals(newModeString)) {
       mode = SENSOR_MODE_CM;
     }
@@ -312,12 +326,6 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
       throw new IllegalArgumentException();
 
     this.modeString = newModeString;
-  }
-
-  // Deleteable implementation
-  @Override
-  public void onDelete() {
-    eventHandler.removeCallbacks(sensorValueChecker);
-    super.onDelete();
+    updatePolling();
   }
 }
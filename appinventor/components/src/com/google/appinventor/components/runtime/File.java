@@ -15,9 +15,11 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.errors.PermissionException;
 import com.google.appinventor.components.runtime.util.AsynchUtil;
+import com.google.appinventor.components.runtime.util.CsvUtil;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.FileUtil;
 import com.google.appinventor.components.runtime.util.MediaUtil;
+import com.google.appinventor.components.runtime.util.YailList;
 
 import android.Manifest;
 import android.app.Activity;
@@ -31,6 +33,7 @@ import java.io.InputStreamReader;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * A Component for working with files and directories on the device.
@@ -127,16 +130,7 @@ public class File extends AndroidNonvisibleComponent implements Component {
       public void HandlePermissionResponse(String permission, boolean granted) {
         if (granted) {
           try {
-            InputStream inputStream;
-            if (fileName.startsWith("//")) {
-              inputStream = form.openAsset(fileName.substring(2));
-            } else {
-              String filepath = AbsoluteFileName(fileName);
-              Log.d(LOG_TAG, "filepath = " + filepath);
-              inputStream = FileUtil.openFile(filepath);
-            }
-
-            final InputStream asyncInputStream = inputStream;
+            final InputStream asyncInputStream = openForReading(fileName);
             AsynchUtil.runAsynchronously(new Runnable() {
               @Override
               public void run() {
@@ -161,6 +155,69 @@ public class File extends AndroidNonvisibleComponent implements Component {
     });
   }
 
+  /**
+   * Reads a CSV table from a file a batch of rows at a time.
+   *
+   * @param fileName the file from which the table is read
+   * @param batchSize the number of rows passed to each GotCsvRows event
+   * @param columns the 1-based indices of the columns to keep, or an empty
+   *     list to keep every column
+   * @param maxRows the maximum number of rows to read, or 0 to read them all
+   */
+  @SimpleFunction(description = "Reads a CSV table from a file in storage, a batch of rows " +
+      "at a time. Each batch is delivered as a list of rows by the GotCsvRows event, so large " +
+      "files can be processed without reading the whole table into memory. Columns is a list " +
+      "of the column numbers to keep, starting at 1, or an empty list to keep every column. " +
+      "Reading stops after MaxRows rows, or at the end of the file if MaxRows is 0. " +
+      "See the help text under ReadFrom for information about where files are read from.")
+  public void ReadCsvRows(final String fileName, final int batchSize, YailList columns,
+      final int maxRows) {
+    final int[] columnIndices;
+    if (columns.size() == 0) {
+      columnIndices = null;
+    } else {
+      columnIndices = new int[columns.size()];
+      for (int i = 0; i < columnIndices.length; i++) {
+        String column = columns.getString(i);
+        try {
+          columnIndices[i] = Integer.parseInt(column.trim()) - 1;
+        } catch (NumberFormatException e) {
+          columnIndices[i] = -1;
+        }
+        if (columnIndices[i] < 0) {
+          form.dispatchErrorOccurredEvent(this, "ReadCsvRows",
+              ErrorMessages.ERROR_INVALID_CSV_COLUMN, column);
+          return;
+        }
+      }
+    }
+    form.askPermission(Manifest.permission.READ_EXTERNAL_STORAGE, new PermissionResultHandler() {
+      @Override
+      public void HandlePermissionResponse(String permission, boolean granted) {
+        if (granted) {
+          try {
+            final InputStream asyncInputStream = openForReading(fileName);
+            AsynchUtil.runAsynchronously(new Runnable() {
+              @Override
+              public void run() {
+                AsyncReadCsvRows(asyncInputStream, fileName, Math.max(1, batchSize),
+                    columnIndices, Math.max(0, maxRows));
+              }
+            });
+          } catch (PermissionException e) {
+            form.dispatchPermissionDeniedEvent(File.this, "ReadCsvRows", e);
+          } catch (IOException e) {
+            Log.e(LOG_TAG, "IOException", e);
+            form.dispatchErrorOccurredEvent(File.this, "ReadCsvRows",
+                ErrorMessages.ERROR_CANNOT_FIND_FILE, fileName);
+          }
+        } else {
+          form.dispatchPermissionDeniedEvent(File.this, "ReadCsvRows", permission);
+        }
+      }
+    });
+  }
+
 
   /**
    * Delete the specified file.
@@ -345,6 +402,71 @@ public class File extends AndroidNonvisibleComponent implements Component {
     }
   }
 
+  /**
+   * Opens the named file for reading, following the same naming rules as
+   * {@link #ReadFrom(String)}.
+   */
+  private InputStream openForReading(String fileName) throws IOException {
+    if (fileName.startsWith("//")) {
+      return form.openAsset(fileName.substring(2));
+    }
+    String filepath = AbsoluteFileName(fileName);
+    Log.d(LOG_TAG, "filepath = " + filepath);
+    return FileUtil.openFile(filepath);
+  }
+
+  /**
+   * Parses a CSV table from the given stream on a background thread, raising
+   * GotCsvRows on the main event thread for each batch. The next batch is not
+   * parsed until the handler for the previous one has run, so at most one
+   * batch is held in memory at a time.
+   * @param fileInput the stream to read from
+   * @param fileName the file to read
+   * @param batchSize the number of rows in each batch
+   * @param columns the zero-based column indices to keep, or null for all
+   * @param maxRows the maximum number of rows to read, or 0 for no limit
+   */
+  private void AsyncReadCsvRows(InputStream fileInput, final String fileName, int batchSize,
+      int[] columns, int maxRows) {
+    CsvUtil.RowReader reader =
+        new CsvUtil.RowReader(new InputStreamReader(fileInput), columns, maxRows);
+    try {
+      boolean done = false;
+      while (!done) {
+        final YailList rows = reader.nextBatch(batchSize);
+        final boolean finished = done = !reader.hasNext();
+        final CountDownLatch delivered = new CountDownLatch(1);
+        activity.runOnUiThread(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              GotCsvRows(rows, finished);
+            } finally {
+              delivered.countDown();
+            }
+          }
+        });
+        delivered.await();
+      }
+    } catch (InterruptedException e) {
+      Log.w(LOG_TAG, "Reading CSV rows from " + fileName + " was interrupted");
+    } catch (IOException e) {
+      Log.e(LOG_TAG, "IOException", e);
+      form.dispatchErrorOccurredEvent(File.this, "ReadCsvRows",
+          ErrorMessages.ERROR_CANNOT_READ_FILE, fileName);
+    } catch (Exception e) {
+      Log.e(LOG_TAG, "Unable to parse CSV", e);
+      form.dispatchErrorOccurredEvent(File.this, "ReadCsvRows",
+          ErrorMessages.ERROR_CANNOT_PARSE_CSV, fileName, e.getMessage());
+    } finally {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        // do nothing...
+      }
+    }
+  }
+
   /**
    * Event indicating that a request has finished.
    *
@@ -367,6 +489,18 @@ public class File extends AndroidNonvisibleComponent implements Component {
     EventDispatcher.dispatchEvent(this, "AfterFileSaved", fileName);
   }
 
+  /**
+   * Event delivering a batch of rows read by ReadCsvRows.
+   *
+   * @param rows the rows in this batch, each a list of fields
+   * @param finished true if this is the last batch
+   */
+  @SimpleEvent (description = "Event delivering the next batch of rows read by ReadCsvRows. " +
+      "Finished is true for the last batch.")
+  public void GotCsvRows(YailList rows, boolean finished) {
+    EventDispatcher.dispatchEvent(this, "GotCsvRows", rows, finished);
+  }
+
   /**
    * Returns absolute file path.
    *
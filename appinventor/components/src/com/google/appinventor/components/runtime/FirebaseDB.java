@@ -34,6 +34,7 @@ import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
 import com.google.appinventor.components.runtime.util.JsonUtil;
+import com.google.appinventor.components.runtime.util.RemoteValueCache;
 import com.google.appinventor.components.runtime.util.SdkLevel;
 import com.google.appinventor.components.runtime.util.YailList;
 
@@ -69,7 +70,8 @@ import org.json.JSONException;
 @SimpleObject
 @UsesPermissions(permissionNames = "android.permission.INTERNET")
 @UsesLibraries(libraries = "firebase.jar")
-public class FirebaseDB extends AndroidNonvisibleComponent implements Component {
+public class FirebaseDB extends AndroidNonvisibleComponent implements Component,
+    OnDestroyListener {
 
   private static final String LOG_TAG = "Firebase";
   private String firebaseURL = null;
@@ -91,6 +93,11 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
   private ChildEventListener childListener;
   private Firebase.AuthStateListener authListener;
 
+  // Values of tags kept on the device, so that reading them again need not go to
+  // Firebase. Null unless CacheSize is set.
+  private int cacheSize = 0;
+  private RemoteValueCache cache;
+
   // ReturnVal -- Holder which can be used as a final value but whose content
   //              remains mutable.
   private static class ReturnVal {
@@ -145,6 +152,7 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
       // Retrieve new posts as they are added to the Firebase.
       @Override
       public void onChildAdded(final DataSnapshot snapshot, String previousChildKey) {
+        updateCache(snapshot);
         androidUIHandler.post(new Runnable() {
           public void run() {
             // Signal an event to indicate that the child data was changed.
@@ -156,6 +164,9 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
 
       @Override
       public void onCancelled(final FirebaseError error) {
+        if (cache != null) {
+          cache.setListening(false);  // We will not be told about changes
+        }
         androidUIHandler.post(new Runnable() {
           public void run() {
             // Signal an event to indicate that an error occurred.
@@ -167,6 +178,7 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
 
       @Override
       public void onChildChanged(final DataSnapshot snapshot, String previousChildKey) {
+        updateCache(snapshot);
         androidUIHandler.post(new Runnable() {
           public void run() {
             // Signal an event to indicate that the child data was changed.
@@ -183,6 +195,9 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
       @Override
       public void onChildRemoved(final DataSnapshot snapshot) {
         Log.i(LOG_TAG, "onChildRemoved: " + snapshot.getKey() + " removed.");
+        if (cache != null) {
+          cache.remove(snapshot.getKey());
+        }
         // We do *NOT* run the code below because triggering an event
         // with a null argument causes problems in App Inventor programs
         // If people need to know when a child is removed, we should add
@@ -234,6 +249,15 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
     Log.i(LOG_TAG, "Initalize called!");
     isInitialized = true;
     resetListener();
+    form.registerForOnDestroy(this);
+  }
+
+  @Override
+  public void onDestroy() {
+    if (cache != null) {
+      cache.saveAccessTimes();
+      Log.d(LOG_TAG, cache.getStats());
+    }
   }
 
   /**
@@ -363,6 +387,38 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
     resetListener();
   }
 
+  /**
+   * Specifies the number of tags whose values are kept on the device.
+   *
+   * @param size the number of tags, or 0 to read every value from Firebase
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+    defaultValue = "0")
+  @SimpleProperty
+  public void CacheSize(int size) {
+    if (size < 0) {
+      size = 0;
+    }
+    if (size != cacheSize) {
+      boolean reconnect = (size == 0) != (cacheSize == 0);
+      cacheSize = size;
+      if (reconnect) {
+        resetListener();
+      } else if (cache != null) {
+        cache.setCapacity(size);
+      }
+    }
+  }
+
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+    description = "The number of tags whose values are kept on the device, so that " +
+    "getting them again does not go to Firebase. Values are kept up to date with the " +
+    "changes that this FirebaseDB is told about, and are kept when the app exits. A " +
+    "setting of 0 means that every value is fetched from Firebase.")
+  public int CacheSize() {
+    return cacheSize;
+  }
+
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN,
     defaultValue = "False")
   @SimpleProperty(userVisible = false,
@@ -403,6 +459,10 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
       myFirebase.removeEventListener(childListener);
       myFirebase.removeAuthStateListener(authListener);
     }
+    if (cache != null) {
+      cache.saveAccessTimes();
+      cache = null;
+    }
 
     myFirebase = null;
     connectFirebase();          // Reconnect to Firebase with new parameters
@@ -442,6 +502,9 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
 
   @SimpleFunction(description = "Remove the tag from Firebase")
   public void ClearTag(final String tag) {
+    if (cache != null) {
+      cache.remove(tag);
+    }
     this.myFirebase.child(tag).removeValue();
   }
 
@@ -462,7 +525,11 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
       throw new YailRuntimeError("Value failed to convert to JSON.", "JSON Creation Error.");
     }
 
-    // perform the store operation
+    // perform the store operation. Firebase tells the child listener
+    // about the new value, which puts it in the cache.
+    if (cache != null) {
+      cache.remove(tag);
+    }
     this.myFirebase.child(tag).setValue(valueToStore);
   }
 
@@ -477,6 +544,15 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
    */
   @SimpleFunction
   public void GetValue(final String tag, final Object valueIfTagNotThere) {
+    final String cachedValue = cache == null ? null : cache.get(tag);
+    if (cachedValue != null) {
+      androidUIHandler.post(new Runnable() {
+        public void run() {
+          GotValue(tag, cachedValue);
+        }
+      });
+      return;
+    }
     this.myFirebase.child(tag).addListenerForSingleValueEvent(new ValueEventListener() {
       @Override
       public void onDataChange(final DataSnapshot snapshot) {
@@ -487,6 +563,9 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
         try {
           if (snapshot.exists()) {
             value.set(snapshot.getValue());
+            if (cache != null && value.get() instanceof String) {
+              cache.offer(tag, (String) value.get());
+            }
           } else {
             value.set(JsonUtil.getJsonRepresentation(valueIfTagNotThere));
           }
@@ -588,11 +667,34 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
     } else {
       myFirebase = new Firebase(firebaseURL + projectBucket);
     }
+    if (cacheSize > 0) {
+      // The child listener is told about every tag when it is added, and about
+      // every change after that which Firebase knows about, so the cache agrees
+      // with what GetValue would get from Firebase, even when off-line.
+      cache = new RemoteValueCache(activity, myFirebase.toString(), cacheSize);
+      cache.setListening(true);
+    }
     // add listeners to the new Firebase path
     myFirebase.addChildEventListener(childListener);
     myFirebase.addAuthStateListener(authListener);
   }
 
+  /*
+   * updateCache -- Keeps the value of a tag that has changed, if we keep
+   * values.
+   */
+
+  private void updateCache(DataSnapshot snapshot) {
+    Object value = snapshot.getValue();
+    if (cache != null) {
+      if (value instanceof String) {
+        cache.put(snapshot.getKey(), (String) value);
+      } else {
+        cache.remove(snapshot.getKey());
+      }
+    }
+  }
+
   /**
    * Unauthenticate from Firebase.
    *
@@ -648,6 +750,9 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
     "the other will get the second element, or an error if there is no available element. " +
     "When the element is available, the \"FirstRemoved\" event will be triggered.")
   public void RemoveFirst(final String tag) {
+    if (cache != null) {
+      cache.remove(tag);
+    }
     final ReturnVal result = new ReturnVal();
     Firebase firebaseChild = myFirebase.child(tag);
     Transactional toRun = new Transactional(null, null, result) {
@@ -741,6 +846,9 @@ public class FirebaseDB extends AndroidNonvisibleComponent implements Component
     "If two devices use this function simultaneously, both will be appended and no " +
     "data lost.")
   public void AppendValue(final String tag, final Object valueToAdd) {
+    if (cache != null) {
+      cache.remove(tag);
+    }
     final ReturnVal result = new ReturnVal();
     Firebase firebaseChild = myFirebase.child(tag);
     Transactional toRun = new Transactional(null, null, result) {
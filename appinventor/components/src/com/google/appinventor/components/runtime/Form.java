@@ -301,6 +301,7 @@ public class Form extends AppInventorCompatActivity
 
     deviceDensity = this.getResources().getDisplayMetrics().density;
     Log.d(LOG_TAG, "deviceDensity = " + deviceDensity);
+    MediaUtil.loadAssetIndex(this);
     compatScalingFactor = ScreenDensityUtil.computeCompatibleScaling(this);
     Log.i(LOG_TAG, "compatScalingFactor = " + compatScalingFactor);
     viewLayout = new LinearLayout(this, ComponentConstants.LAYOUT_ORIENTATION_VERTICAL);
@@ -808,6 +809,14 @@ public class Form extends AppInventorCompatActivity
     }
   }
 
+  @Override
+  public void onLowMemory() {
+    super.onLowMemory();
+    Log.i(LOG_TAG, "Form " + formName + " got onLowMemory, " + MediaUtil.getBitmapCacheStats());
+    // Cached images are decoded again when they are next needed.
+    MediaUtil.clearBitmapCache();
+  }
+
   public void registerForOnDestroy(OnDestroyListener component) {
     onDestroyListeners.add(component);
   }
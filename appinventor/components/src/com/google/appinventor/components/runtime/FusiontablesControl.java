@@ -28,10 +28,12 @@ import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.ClientLoginHelper;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
+import com.google.appinventor.components.runtime.util.HttpUtil;
 import com.google.appinventor.components.runtime.util.IClientLoginHelper;
 import com.google.appinventor.components.runtime.util.MediaUtil;
 import com.google.appinventor.components.runtime.util.OAuth2Helper;
 import com.google.appinventor.components.runtime.util.SdkLevel;
+import com.google.appinventor.components.runtime.util.WebServiceUtil;
 
 import android.app.Activity;
 import android.app.AlertDialog;
@@ -40,6 +42,7 @@ import android.content.DialogInterface;
 import android.os.AsyncTask;
 import android.util.Log;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
@@ -156,6 +159,10 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
   private static final String DEFAULT_QUERY = "show tables";
   private static final String FUSIONTABLE_SERVICE = "fusiontables";
   private static final int SERVER_TIMEOUT_MS = 30000;
+
+  // Shared by all queries so that their connections can be reused. Created lazily since
+  // AndroidHttp needs the Android runtime.
+  private static HttpTransport sharedTransport;
   public static final String AUTHORIZATION_HEADER_PREFIX = "Bearer ";
 
   public static final String AUTH_TOKEN_TYPE_FUSIONTABLES = "oauth2:https://www.googleapis.com/auth/fusiontables";
@@ -229,6 +236,7 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
     super(componentContainer.$form());
     this.container = componentContainer;
     this.activity = componentContainer.$context();
+    HttpUtil.installResponseCache(activity);
     requestHelper = createClientLoginHelper(DIALOG_TEXT, FUSIONTABLE_SERVICE);
     query = DEFAULT_QUERY;
 
@@ -574,7 +582,7 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
 
     // Create a Fusiontables service object (from Google API client lib)
     Fusiontables service = new Fusiontables.Builder(
-          AndroidHttp.newCompatibleTransport(),
+          getTransport(),
           new GsonFactory(),
           new GoogleCredential())
     .setApplicationName("App Inventor Fusiontables/v2.0")
@@ -632,6 +640,16 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
     return resultStr;
   }
 
+  /**
+   * Returns the HTTP transport shared by all Fusion Tables queries.
+   */
+  private static synchronized HttpTransport getTransport() {
+    if (sharedTransport == null) {
+      sharedTransport = AndroidHttp.newCompatibleTransport();
+    }
+    return sharedTransport;
+  }
+
   /**
    * Handles Apache Http Response.  Uses Apache's HttpResponse object, which is different
    * from Google's.
@@ -760,7 +778,7 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
 
     // Execute the request
 
-    HttpClient client = new DefaultHttpClient();
+    HttpClient client = WebServiceUtil.getInstance().getHttpClient();
     try {
       response = client.execute(request);
     } catch (ClientProtocolException e) {
@@ -774,33 +792,50 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
     // Process the response
     // A valid response will have code=200 and contain a tableId value plus other stuff.
     // We just return the table id.
-    int statusCode = response.getStatusLine().getStatusCode();
-    if (response != null && statusCode == 200) {
-      try {
-        String jsonResult =  FusiontablesControl.httpApacheResponseToString(response);
-        JSONObject jsonObj = new JSONObject(jsonResult);
-        if (jsonObj.has("tableId")) {
-          queryResultStr = "tableId," + jsonObj.get("tableId");
-        } else {
-          queryResultStr = jsonResult;
-        }
+    try {
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode == 200) {
+        try {
+          String jsonResult =  FusiontablesControl.httpApacheResponseToString(response);
+          JSONObject jsonObj = new JSONObject(jsonResult);
+          if (jsonObj.has("tableId")) {
+            queryResultStr = "tableId," + jsonObj.get("tableId");
+          } else {
+            queryResultStr = jsonResult;
+          }
 
-      } catch (IllegalStateException e) {
-        e.printStackTrace();
-        return "Error: " + e.getMessage();
-      } catch (JSONException e) {
-        e.printStackTrace();
-        return "Error: " + e.getMessage();
+        } catch (IllegalStateException e) {
+          e.printStackTrace();
+          return "Error: " + e.getMessage();
+        } catch (JSONException e) {
+          e.printStackTrace();
+          return "Error: " + e.getMessage();
+        }
+        Log.i(LOG_TAG, "Response code = " + response.getStatusLine());
+        Log.i(LOG_TAG, "Query = " + query + "\nResultStr = " + queryResultStr);
+        // queryResultStr = response.getStatusLine().toString();
+      } else {
+        Log.i(LOG_TAG, "Error: " + response.getStatusLine().toString());
+        queryResultStr = response.getStatusLine().toString();
       }
-      Log.i(LOG_TAG, "Response code = " + response.getStatusLine());
-      Log.i(LOG_TAG, "Query = " + query + "\nResultStr = " + queryResultStr);
-      // queryResultStr = response.getStatusLine().toString();
-    } else {
-      Log.i(LOG_TAG, "Error: " + response.getStatusLine().toString());
-      queryResultStr = response.getStatusLine().toString();
+
+      return queryResultStr;
+    } finally {
+      // The client is shared, so the connection has to be given back to its pool
+      // whether or not the response was read.
+      releaseConnection(response);
     }
+  }
 
-    return queryResultStr;
+  private static void releaseConnection(org.apache.http.HttpResponse response) {
+    HttpEntity entity = response.getEntity();
+    if (entity != null) {
+      try {
+        entity.consumeContent();
+      } catch (IOException e) {
+        Log.w(LOG_TAG, "Unable to release connection", e);
+      }
+    }
   }
 
 
@@ -890,7 +925,7 @@ public class FusiontablesControl extends AndroidNonvisibleComponent implements C
       queryResultStr = "";
       errorMessage = standardErrorMessage;
 
-      final HttpTransport TRANSPORT = AndroidHttp.newCompatibleTransport();
+      final HttpTransport TRANSPORT = getTransport();
       final JsonFactory JSON_FACTORY = new GsonFactory();
 
       Log.i(STAG, "keyPath " + keyPath);
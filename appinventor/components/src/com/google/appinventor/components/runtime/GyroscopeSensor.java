@@ -15,11 +15,11 @@ import com.google.appinventor.components.annotations.SimpleProperty;
 import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
+import com.google.appinventor.components.runtime.util.SensorPipeline;
+import com.google.appinventor.components.runtime.util.YailList;
 
 import android.content.Context;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 
 /**
@@ -35,8 +35,8 @@ import android.hardware.SensorManager;
     iconName = "images/gyroscopesensor.png")
 
 @SimpleObject
-public class GyroscopeSensor extends AndroidNonvisibleComponent
-    implements SensorEventListener, Deleteable, OnPauseListener, OnResumeListener {
+public class GyroscopeSensor extends SampledSensorBase
+    implements Deleteable, OnPauseListener, OnResumeListener {
 
   // Properties
   private boolean enabled;
@@ -47,7 +47,6 @@ public class GyroscopeSensor extends AndroidNonvisibleComponent
   // Sensor information
   private final SensorManager sensorManager;
   private final Sensor gyroSensor;
-  private boolean listening;
 
   /**
    * Creates a new GyroscopeSensor component.
@@ -58,6 +57,8 @@ public class GyroscopeSensor extends AndroidNonvisibleComponent
     // Get sensors, and start listening.
     sensorManager = (SensorManager) form.getSystemService(Context.SENSOR_SERVICE);
     gyroSensor = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+    pipeline = new SensorPipeline("GyroscopeSensor", sensorManager,
+        SensorManager.SENSOR_DELAY_FASTEST, this, gyroSensor);
 
     // Begin listening in onResume() and stop listening in onPause().
     form.registerForOnResume(this);
@@ -68,16 +69,12 @@ public class GyroscopeSensor extends AndroidNonvisibleComponent
   }
 
   private void startListening() {
-    if (!listening) {
-      sensorManager.registerListener(this, gyroSensor, SensorManager.SENSOR_DELAY_FASTEST);
-      listening = true;
-    }
+    pipeline.start();
   }
 
   private void stopListening() {
-    if (listening) {
-      sensorManager.unregisterListener(this);
-      listening = false;
+    if (pipeline.isListening()) {
+      pipeline.stop();
 
       // Throw out sensor information that will go stale.
       xAngularVelocity = 0;
@@ -185,29 +182,45 @@ public class GyroscopeSensor extends AndroidNonvisibleComponent
     return zAngularVelocity;
   }
 
-  // SensorListener implementation
+  /**
+   * Indicates that samples were delivered while BatchSamples is true.
+   *
+   * @param samples  a list of samples, each a list of the timestamp in
+   *                 nanoseconds and the X, Y, and Z angular velocity
+   */
+  @SimpleEvent(description = "Indicates that gyroscope samples were received. " +
+      "Each item of samples is a list of a timestamp in nanoseconds and the X, Y, and Z " +
+      "angular velocity. Only raised when BatchSamples is true.")
+  public void SamplesReceived(YailList samples) {
+    EventDispatcher.dispatchEvent(this, "SamplesReceived", samples);
+  }
+
+  // SensorPipeline.Listener implementation
 
   /**
    * Responds to changes in the gyroscope sensors.
    *
-   * @param sensorEvent an event from the gyroscope sensor
+   * @param channel ignored (because there is only one sensor)
+   * @param values the angular velocity, in radians per second
+   * @param timestamp the time of the sample, in nanoseconds
    */
   @Override
-  public void onSensorChanged(SensorEvent sensorEvent) {
+  public void onSample(int channel, float[] values, long timestamp) {
     if (enabled) {
 
-      xAngularVelocity = (float) Math.toDegrees(sensorEvent.values[0]);
-      yAngularVelocity = (float) Math.toDegrees(sensorEvent.values[1]);
-      zAngularVelocity = (float) Math.toDegrees(sensorEvent.values[2]);
+      xAngularVelocity = (float) Math.toDegrees(values[0]);
+      yAngularVelocity = (float) Math.toDegrees(values[1]);
+      zAngularVelocity = (float) Math.toDegrees(values[2]);
+      pipeline.recordBatchSample(timestamp, xAngularVelocity, yAngularVelocity, zAngularVelocity);
 
       // Raise event.
-      GyroscopeChanged(xAngularVelocity, yAngularVelocity, zAngularVelocity,
-          sensorEvent.timestamp);
+      GyroscopeChanged(xAngularVelocity, yAngularVelocity, zAngularVelocity, timestamp);
     }
   }
 
   @Override
-  public void onAccuracyChanged(Sensor sensor, int accuracy) {
+  public void onBatch(YailList samples) {
+    SamplesReceived(samples);
   }
 
   // Deleteable implementation
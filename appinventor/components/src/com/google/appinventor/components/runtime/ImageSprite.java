@@ -9,7 +9,9 @@ package com.google.appinventor.components.runtime;
 import java.io.IOException;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.graphics.drawable.BitmapDrawable;
+import android.support.annotation.VisibleForTesting;
 import android.util.Log;
 
 import com.google.appinventor.components.annotations.DesignerComponent;
@@ -55,6 +57,9 @@ public class ImageSprite extends Sprite {
   private BitmapDrawable drawable;
   private int widthHint = LENGTH_PREFERRED;
   private int heightHint = LENGTH_PREFERRED;
+  // The size in pixels the picture was loaded for, or 0 if it was loaded at its full size.
+  private int loadedWidth;
+  private int loadedHeight;
   private String picturePath = "";  // Picture property
   private boolean rotates;
 
@@ -70,6 +75,19 @@ public class ImageSprite extends Sprite {
     rotates = true;
   }
 
+  @Override
+  protected void getDrawnBounds(Rect outRect) {
+    super.getDrawnBounds(outRect);
+    if (rotates && Heading() % 360 != 0) {
+      // A rotated image can reach anywhere within the circle circumscribing
+      // its bounding box.
+      int radius = (int) Math.ceil(Math.hypot(outRect.width(), outRect.height()) / 2);
+      int centerX = outRect.centerX();
+      int centerY = outRect.centerY();
+      outRect.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+    }
+  }
+
   /**
    * This method uses getWidth and getHeight directly from the bitmap,
    * so we apply corrections for density for coordinates and size.
@@ -125,14 +143,71 @@ public class ImageSprite extends Sprite {
   @SimpleProperty
   public void Picture(String path) {
     picturePath = (path == null) ? "" : path;
+    loadPicture();
+    // note: drawable can be null!
+    registerChange();
+  }
+
+  /**
+   * Loads the picture. If the sprite's width and height are both set in
+   * pixels, the picture is loaded at no more than the resolution needed to
+   * fill them.
+   */
+  private void loadPicture() {
+    loadedWidth = desiredPixels(widthHint);
+    loadedHeight = desiredPixels(heightHint);
+    if (loadedWidth == 0 || loadedHeight == 0) {
+      loadedWidth = loadedHeight = 0;
+    }
     try {
-      drawable = MediaUtil.getBitmapDrawable(form, picturePath);
+      drawable = MediaUtil.getBitmapDrawable(form, picturePath, loadedWidth, loadedHeight);
     } catch (IOException ioe) {
       Log.e("ImageSprite", "Unable to load " + picturePath);
       drawable = null;
     }
-    // note: drawable can be null!
-    registerChange();
+  }
+
+  private int desiredPixels(int hint) {
+    // Automatic, Fill parent and percent sizes depend on the size of the picture itself.
+    return hint > 0 ? (int) (hint * form.deviceDensity()) : 0;
+  }
+
+  /**
+   * Loads the picture again after the sprite's size changes, if the loaded
+   * picture no longer fits it. This is the case when the sprite grows beyond
+   * the size the picture was loaded for, when its size stops being set in
+   * pixels, and when a picture loaded at full size is larger than a size
+   * set after it. The designer sets Picture before Width and Height, so the
+   * last case is how a downsampled picture is normally loaded.
+   */
+  private void reloadPictureForSize() {
+    if (drawable == null) {
+      return;
+    }
+    int width = desiredPixels(widthHint);
+    int height = desiredPixels(heightHint);
+    if (width == 0 || height == 0) {
+      if (loadedWidth != 0) {
+        loadPicture();
+      }
+    } else if (loadedWidth == 0) {
+      Bitmap bitmap = drawable.getBitmap();
+      if (bitmap.getWidth() > width || bitmap.getHeight() > height) {
+        loadPicture();
+      }
+    } else if (width > loadedWidth || height > loadedHeight) {
+      loadPicture();
+    }
+  }
+
+  @VisibleForTesting
+  int getLoadedWidth() {
+    return loadedWidth;
+  }
+
+  @VisibleForTesting
+  int getLoadedHeight() {
+    return loadedHeight;
   }
 
   // The actual width/height of an ImageSprite whose Width/Height property is set to Automatic or
@@ -152,6 +227,7 @@ public class ImageSprite extends Sprite {
   @SimpleProperty
   public void Height(int height) {
     heightHint = height;
+    reloadPictureForSize();
     registerChange();
   }
 
@@ -174,6 +250,7 @@ public class ImageSprite extends Sprite {
   @SimpleProperty
   public void Width(int width) {
     widthHint = width;
+    reloadPictureForSize();
     registerChange();
   }
 
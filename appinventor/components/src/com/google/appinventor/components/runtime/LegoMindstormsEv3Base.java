@@ -64,6 +64,14 @@ public class LegoMindstormsEv3Base extends AndroidNonvisibleComponent
         afterConnect(bluetooth);
       }
     }
+    bluetoothClientChanged();
+  }
+
+  /**
+   * Called after the BluetoothClient property has been set.
+   */
+  protected void bluetoothClientChanged() {
+    // Subclasses may wish to do something.
   }
 
   protected final boolean isBluetoothConnected(String functionName) {
@@ -85,37 +93,44 @@ public class LegoMindstormsEv3Base extends AndroidNonvisibleComponent
     if (!isBluetoothConnected(functionName))
       return null;
 
-    // prepend header and send payload
-    byte[] header = Ev3BinaryParser.pack("hh", (short) (command.length + 2), (short) commandCount);
-    commandCount++;
-
-    bluetooth.write(functionName, header);
-    bluetooth.write(functionName, command);
-
-    // receive reply if required
-    if (doReceiveReply) {
-      header = bluetooth.read(functionName, 4);
-
-      if (header.length == 4) {
-        Object[] decodedHeader = Ev3BinaryParser.unpack("hh", header);
-        int replySize = (int) ((Short) decodedHeader[0]) - 2;
-        int replyCount = (int) ((Short) decodedHeader[1]);
-        byte[] reply = bluetooth.read(functionName, replySize);
-
-        if (reply.length == replySize)
-          return reply;
-        else
-        {
-          form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_INVALID_REPLY);
-          return null;
+    // Sensors are also read on a background thread by Ev3SensorPoller, so
+    // hold the connection until the reply to this command has been read.
+    BluetoothClient bluetooth = this.bluetooth;
+    synchronized (bluetooth) {
+      // prepend header and send payload
+      byte[] header = Ev3BinaryParser.pack("hh", (short) (command.length + 2),
+                                           (short) commandCount);
+      commandCount++;
+
+      bluetooth.write(functionName, header);
+      bluetooth.write(functionName, command);
+
+      // receive reply if required
+      if (doReceiveReply) {
+        header = bluetooth.read(functionName, 4);
+
+        if (header.length == 4) {
+          Object[] decodedHeader = Ev3BinaryParser.unpack("hh", header);
+          int replySize = (int) ((Short) decodedHeader[0]) - 2;
+          int replyCount = (int) ((Short) decodedHeader[1]);
+          byte[] reply = bluetooth.read(functionName, replySize);
+
+          if (reply.length == replySize)
+            return reply;
+          else
+          {
+            form.dispatchErrorOccurredEvent(this, functionName,
+                                            ErrorMessages.ERROR_EV3_INVALID_REPLY);
+            return null;
+          }
         }
-      }
 
-      // handle errors
-      form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_INVALID_REPLY);
-      return null;
-    } else {
-      return null;
+        // handle errors
+        form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_INVALID_REPLY);
+        return null;
+      } else {
+        return null;
+      }
     }
   }
 
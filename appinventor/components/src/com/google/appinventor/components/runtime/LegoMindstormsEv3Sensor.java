@@ -21,9 +21,13 @@ import com.google.appinventor.components.runtime.util.Ev3BinaryParser;
  * @author spaded06543@gmail.com (Alvin Chang)
  */
 @SimpleObject
-public class LegoMindstormsEv3Sensor extends LegoMindstormsEv3Base {
+public abstract class LegoMindstormsEv3Sensor extends LegoMindstormsEv3Base
+    implements LegoMindstormsSensorPoller.PolledSensor {
   protected static final String DEFAULT_SENSOR_PORT = "1";
+  protected static final int DEFAULT_POLLING_INTERVAL = 50;
   protected int sensorPortNumber;
+  private int pollingInterval = DEFAULT_POLLING_INTERVAL;
+  private Ev3SensorPoller poller;
 
   protected LegoMindstormsEv3Sensor(ComponentContainer container, String logTag) {
     super(container, logTag);
@@ -55,6 +59,86 @@ public class LegoMindstormsEv3Sensor extends LegoMindstormsEv3Base {
       form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_ILLEGAL_SENSOR_PORT, sensorPortLetter);
       return;
     }
+    updatePolling();
+  }
+
+  @SimpleProperty(description = "The minimum time in milliseconds between readings of the sensor " +
+                                "made to check for events.",
+                  category = PropertyCategory.BEHAVIOR)
+  public int PollingInterval() {
+    return pollingInterval;
+  }
+
+  /**
+   * Specifies the minimum time in milliseconds between readings of the
+   * sensor made to check for events.
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+                    defaultValue = "" + DEFAULT_POLLING_INTERVAL)
+  @SimpleProperty
+  public void PollingInterval(int interval) {
+    pollingInterval = Math.max(0, interval);
+    updatePolling();
+  }
+
+  /**
+   * Returns the sensor type used to read the sensor.
+   */
+  protected abstract int getSensorType();
+
+  /**
+   * Returns the sensor mode used to read the sensor.
+   */
+  protected abstract int getSensorMode();
+
+  /**
+   * Returns whether the sensor is read in SI units, rather than as a
+   * percentage.
+   */
+  protected abstract boolean isReadInSI();
+
+  /**
+   * Returns whether the sensor needs to be read in the background, that is,
+   * whether any of its events are enabled.
+   */
+  protected abstract boolean isPollingNeeded();
+
+  /**
+   * Forgets the previous reading of the sensor, so that the next reading
+   * does not trigger an event.
+   */
+  protected abstract void resetPreviousValue();
+
+  /**
+   * Starts, stops or restarts reading the sensor in the background. Must be
+   * called whenever the result of {@link #isPollingNeeded()} or the way the
+   * sensor is read changes.
+   */
+  protected final void updatePolling() {
+    Ev3SensorPoller newPoller = (bluetooth != null && isPollingNeeded())
+        ? Ev3SensorPoller.forBluetooth(bluetooth) : null;
+    if (poller != null && poller != newPoller) {
+      poller.remove(this);
+    }
+    poller = newPoller;
+    resetPreviousValue();
+    if (poller != null) {
+      poller.add(this, pollingInterval);
+    }
+  }
+
+  @Override
+  protected void bluetoothClientChanged() {
+    updatePolling();
+  }
+
+  @Override
+  public void onDelete() {
+    if (poller != null) {
+      poller.remove(this);
+      poller = null;
+    }
+    super.onDelete();
   }
 
   protected final int readInputPercentage(String functionName,
@@ -131,6 +131,14 @@ public class LegoMindstormsNxtBase extends AndroidNonvisibleComponent
         afterConnect(bluetooth);
       }
     }
+    bluetoothClientChanged();
+  }
+
+  /**
+   * Called after the BluetoothClient property has been set.
+   */
+  protected void bluetoothClientChanged() {
+    // Subclasses may wish to do something.
   }
 
   protected final void setOutputState(String functionName, int port, int power, int mode,
@@ -261,15 +269,21 @@ public class LegoMindstormsNxtBase extends AndroidNonvisibleComponent
   }
 
   protected final byte[] sendCommandAndReceiveReturnPackage(String functionName, byte[] command) {
-    sendCommand(functionName, command);
-    return receiveReturnPackage(functionName);
+    // Sensors are also read on a background thread by NxtSensorPoller, so
+    // hold the connection until the return package has been read.
+    synchronized (bluetooth) {
+      sendCommand(functionName, command);
+      return receiveReturnPackage(functionName);
+    }
   }
 
   protected final void sendCommand(String functionName, byte[] command) {
     byte[] header = new byte[2];
     copyUWORDValueToBytes(command.length, header, 0);
-    bluetooth.write(functionName, header);
-    bluetooth.write(functionName, command);
+    synchronized (bluetooth) {
+      bluetooth.write(functionName, header);
+      bluetooth.write(functionName, command);
+    }
   }
 
   private byte[] receiveReturnPackage(String functionName) {
@@ -6,9 +6,11 @@
 
 package com.google.appinventor.components.runtime;
 
+import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
 import com.google.appinventor.components.annotations.SimpleObject;
 import com.google.appinventor.components.annotations.SimpleProperty;
+import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 
 /**
@@ -18,7 +20,8 @@ import com.google.appinventor.components.runtime.util.ErrorMessages;
  * @author lizlooney@google.com (Liz Looney)
  */
 @SimpleObject
-public abstract class LegoMindstormsNxtSensor extends LegoMindstormsNxtBase {
+public abstract class LegoMindstormsNxtSensor extends LegoMindstormsNxtBase
+    implements LegoMindstormsSensorPoller.PolledSensor {
   static class SensorValue<T> {
     final boolean valid;
     final T value;
@@ -52,8 +55,12 @@ public abstract class LegoMindstormsNxtSensor extends LegoMindstormsNxtBase {
   static final int SENSOR_MODE_MASK_SLOPE = 0x1F;
   static final int SENSOR_MODE_MASK_MODE = 0xE0;
 
+  static final int DEFAULT_POLLING_INTERVAL = 50;
+
   private String sensorPortLetter; // "1" - "4"
   protected int port;
+  private int pollingInterval = DEFAULT_POLLING_INTERVAL;
+  private NxtSensorPoller poller;
 
   /**
    * Creates a new LegoMindstormsNxtSensor.
@@ -93,10 +100,92 @@ public abstract class LegoMindstormsNxtSensor extends LegoMindstormsNxtBase {
     }
   }
 
+  /**
+   * Returns the minimum time in milliseconds between readings of the sensor
+   * made to check for events.
+   */
+  @SimpleProperty(description = "The minimum time in milliseconds between readings of the sensor " +
+      "made to check for events.",
+      category = PropertyCategory.BEHAVIOR)
+  public int PollingInterval() {
+    return pollingInterval;
+  }
+
+  /**
+   * Specifies the minimum time in milliseconds between readings of the
+   * sensor made to check for events.
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+      defaultValue = "" + DEFAULT_POLLING_INTERVAL)
+  @SimpleProperty
+  public void PollingInterval(int interval) {
+    pollingInterval = Math.max(0, interval);
+    restartPolling();
+  }
+
   @Override
   public void afterConnect(BluetoothConnectionBase bluetoothConnection) {
     initializeSensor("Connect");
   }
 
+  @Override
+  protected void bluetoothClientChanged() {
+    updatePolling();
+  }
+
   protected abstract void initializeSensor(String functionName);
+
+  /*
+   * Returns whether the sensor needs to be read in the background, that is,
+   * whether any of its events are enabled.
+   */
+  protected abstract boolean isPollingNeeded();
+
+  /*
+   * Reads the sensor. Called on the NxtSensorPoller's background thread.
+   *
+   * Returns the value to pass to onPolledValue, or null if the sensor could
+   * not be read.
+   */
+  protected abstract Object readPolledValue();
+
+  /*
+   * Starts or stops reading the sensor in the background. Must be called
+   * whenever the result of isPollingNeeded() may have changed.
+   */
+  protected final void updatePolling() {
+    NxtSensorPoller newPoller = (bluetooth != null && isPollingNeeded())
+        ? NxtSensorPoller.forBluetooth(bluetooth) : null;
+    if (newPoller != poller) {
+      if (poller != null) {
+        poller.remove(this);
+      }
+      poller = newPoller;
+      if (poller != null) {
+        poller.add(this, pollingInterval);
+      }
+    }
+  }
+
+  /*
+   * Like updatePolling, but also discards any reading made before the call.
+   */
+  protected final void restartPolling() {
+    if (poller != null) {
+      poller.remove(this);
+      poller = null;
+    }
+    updatePolling();
+  }
+
+  // Deleteable implementation
+
+  @Override
+  public void onDelete() {
+    if (poller != null) {
+      poller.remove(this);
+      poller = null;
+    }
+    super.onDelete();
+  }
 }
@@ -0,0 +1,237 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the sensors attached to one LEGO MINDSTORMS robot on a background
+ * thread, and hands the values to the sensor components on the UI thread.
+ *
+ * <p>Each sensor is read no more often than its polling interval. Sensors
+ * that are due at the same time are read together by {@link #readValues},
+ * so that subclasses can combine the reads into as few round trips over the
+ * Bluetooth connection as the robot's protocol allows.</p>
+ *
+ * @param <S> the type of sensor component read by the poller
+ */
+abstract class LegoMindstormsSensorPoller<S extends LegoMindstormsSensorPoller.PolledSensor> {
+
+  /**
+   * A sensor component whose value is read by a poller.
+   */
+  interface PolledSensor {
+    /**
+     * Called on the UI thread with each value read by the poller.
+     *
+     * @param value the value returned for the sensor by
+     *        {@link LegoMindstormsSensorPoller#readValues}
+     */
+    void onPolledValue(Object value);
+  }
+
+  private static final class Entry {
+    int interval;
+    long nextPoll;
+    // Changed each time the sensor is (re)added, so that values read with
+    // the sensor's old settings are not delivered.
+    int generation;
+  }
+
+  private final String name;
+  private final BluetoothClient bluetooth;
+  private final Handler androidUIHandler;
+
+  // Guarded by entries.
+  private final Map<S, Entry> entries = new LinkedHashMap<S, Entry>();
+  private int generationCount;
+
+  // Written on the UI thread.
+  private HandlerThread pollThread;
+  private volatile Handler pollHandler;
+
+  // Latency statistics, written on the poll thread.
+  private volatile long pollCount;
+  private volatile long sensorReadCount;
+  private volatile long totalLatency;
+  private volatile long maxLatency;
+
+  private final Runnable poll = new Runnable() {
+    @Override
+    public void run() {
+      pollDueSensors();
+    }
+  };
+
+  /**
+   * Creates a new poller. Must be called on the UI thread.
+   *
+   * @param name a name for the poll thread
+   * @param bluetooth the connection to the robot
+   */
+  protected LegoMindstormsSensorPoller(String name, BluetoothClient bluetooth) {
+    this.name = name;
+    this.bluetooth = bluetooth;
+    this.androidUIHandler = new Handler();
+  }
+
+  /**
+   * Returns the connection to the robot.
+   */
+  protected final BluetoothClient getBluetooth() {
+    return bluetooth;
+  }
+
+  /**
+   * Reads the current values of the given sensors. Called on the poll thread
+   * while the robot is connected.
+   *
+   * @param sensors the sensors to read
+   * @return the value of each sensor, in the same order, with {@code null}
+   *         for any sensor that could not be read
+   */
+  protected abstract Object[] readValues(List<S> sensors);
+
+  /**
+   * Called on the UI thread after the last sensor has been removed. The
+   * poller is not used again afterwards.
+   */
+  protected abstract void onIdle();
+
+  /**
+   * Starts reading the given sensor every {@code interval} milliseconds, or
+   * restarts it with a new interval if it is already being read. Values read
+   * before the call are not delivered. Must be called on the UI thread.
+   *
+   * @param sensor the sensor
+   * @param interval the minimum time between reads, in milliseconds
+   */
+  void add(S sensor, int interval) {
+    synchronized (entries) {
+      Entry entry = entries.get(sensor);
+      if (entry == null) {
+        entry = new Entry();
+        entries.put(sensor, entry);
+      }
+      entry.interval = Math.max(0, interval);
+      entry.nextPoll = SystemClock.uptimeMillis();
+      entry.generation = ++generationCount;
+    }
+    if (pollThread == null) {
+      pollThread = new HandlerThread(name, Process.THREAD_PRIORITY_BACKGROUND);
+      pollThread.start();
+      pollHandler = new Handler(pollThread.getLooper());
+    }
+    pollHandler.removeCallbacks(poll);
+    pollHandler.post(poll);
+  }
+
+  /**
+   * Stops reading the given sensor. The poll thread exits once no sensors
+   * remain. Must be called on the UI thread, and only for a sensor that has
+   * been added.
+   *
+   * @param sensor the sensor
+   */
+  void remove(S sensor) {
+    boolean empty;
+    synchronized (entries) {
+      entries.remove(sensor);
+      empty = entries.isEmpty();
+    }
+    if (empty) {
+      if (pollThread != null) {
+        pollHandler.removeCallbacks(poll);
+        pollThread.quit();
+        pollThread = null;
+        pollHandler = null;
+      }
+      if (pollCount > 0) {
+        Log.d(name, getStats());
+      }
+      onIdle();
+    }
+  }
+
+  /**
+   * Returns a summary of the time taken to read the sensors, for debugging.
+   */
+  String getStats() {
+    long polls = pollCount;
+    return String.format("%s[polls=%d,sensorReads=%d,averageLatency=%dms,maxLatency=%dms]",
+        name, polls, sensorReadCount, polls == 0 ? 0 : totalLatency / polls, maxLatency);
+  }
+
+  private void pollDueSensors() {
+    long now = SystemClock.uptimeMillis();
+    final List<S> due = new ArrayList<S>();
+    final List<Integer> generations = new ArrayList<Integer>();
+    long nextPoll = Long.MAX_VALUE;
+    synchronized (entries) {
+      for (Map.Entry<S, Entry> e : entries.entrySet()) {
+        Entry entry = e.getValue();
+        if (entry.nextPoll <= now) {
+          due.add(e.getKey());
+          generations.add(entry.generation);
+          entry.nextPoll = now + entry.interval;
+        }
+        nextPoll = Math.min(nextPoll, entry.nextPoll);
+      }
+    }
+
+    if (!due.isEmpty() && bluetooth.IsConnected()) {
+      final Object[] values = readValues(due);
+      long latency = SystemClock.uptimeMillis() - now;
+      pollCount++;
+      sensorReadCount += due.size();
+      totalLatency += latency;
+      if (latency > maxLatency) {
+        maxLatency = latency;
+      }
+      androidUIHandler.post(new Runnable() {
+        @Override
+        public void run() {
+          deliver(due, generations, values);
+        }
+      });
+    }
+
+    if (nextPoll != Long.MAX_VALUE) {
+      // A slow read may have used up the interval, but the UI thread should
+      // still get a chance to handle the values before the next read.
+      long delay = Math.max(1, nextPoll - SystemClock.uptimeMillis());
+      Handler handler = pollHandler;
+      // Only continue if this thread has not been replaced by a new one.
+      if (handler != null && handler.getLooper() == Looper.myLooper()) {
+        handler.postDelayed(poll, delay);
+      }
+    }
+  }
+
+  private void deliver(List<S> sensors, List<Integer> generations, Object[] values) {
+    for (int i = 0; i < sensors.size(); i++) {
+      S sensor = sensors.get(i);
+      boolean current;
+      synchronized (entries) {
+        Entry entry = entries.get(sensor);
+        current = entry != null && entry.generation == generations.get(i);
+      }
+      if (current && values[i] != null) {
+        sensor.onPolledValue(values[i]);
+      }
+    }
+  }
+}
@@ -116,6 +116,7 @@ public class Map extends MapFeatureContainerBase implements MapEventListener {
     ShowZoom(false);
     EnableRotation(false);
     ShowScale(false);
+    TileCacheSize(100);
   }
 
   @Override
@@ -416,11 +417,7 @@ public class Map extends MapFeatureContainerBase implements MapEventListener {
 
   @SimpleProperty
   public void BoundingBox(YailList boundingbox) {
-    double latNorth = GeometryUtil.coerceToDouble(((YailList) boundingbox.get(1)).get(1));
-    double longWest = GeometryUtil.coerceToDouble(((YailList)boundingbox.get(1)).get(2));
-    double latSouth = GeometryUtil.coerceToDouble(((YailList)boundingbox.get(2)).get(1));
-    double longEast = GeometryUtil.coerceToDouble(((YailList)boundingbox.get(2)).get(2));
-    mapController.setBoundingBox(new BoundingBox(latNorth, longEast, latSouth, longWest));
+    mapController.setBoundingBox(toBoundingBox(boundingbox));
   }
 
   @SimpleProperty(category = PropertyCategory.APPEARANCE,
@@ -487,6 +484,56 @@ public class Map extends MapFeatureContainerBase implements MapEventListener {
     }
   }
 
+  /**
+   * Enable or disable clustering of markers. When enabled, markers that are too close together
+   * to tell apart at the current zoom level are shown as one circle labeled with their number.
+   *
+   * @param cluster True if nearby markers should be clustered, otherwise false.
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN,
+      defaultValue = "False")
+  @SimpleProperty
+  public void ClusterMarkers(boolean cluster) {
+    mapController.setMarkerClusteringEnabled(cluster);
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE,
+      description = "Show markers that are too close together to tell apart at the current " +
+          "zoom level as a single circle labeled with the number of markers. Tapping the " +
+          "circle runs the ClusterClick event. Markers with Draggable set are never clustered.")
+  public boolean ClusterMarkers() {
+    return mapController.isMarkerClusteringEnabled();
+  }
+
+  /**
+   * Set the size of the cache that map tiles are kept in, so that they can be shown again
+   * without being downloaded. The cache is shared by all of the Maps in the app.
+   *
+   * @param megabytes The size of the cache in megabytes.
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+      defaultValue = "100")
+  @SimpleProperty
+  public void TileCacheSize(int megabytes) {
+    mapController.setTileCacheSize(megabytes);
+  }
+
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The size in megabytes of the cache that map tiles are kept in, including " +
+          "those downloaded with DownloadTiles. When the cache is full, the tiles that have " +
+          "gone unused the longest are removed. The cache is shared by all of the Maps in the " +
+          "app.")
+  public int TileCacheSize() {
+    return mapController.getTileCacheSize();
+  }
+
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR,
+      description = "The average time in milliseconds taken to download the map tiles that " +
+          "were not in the tile cache, or 0 if none have been downloaded.")
+  public int TileLatency() {
+    return mapController.getTileLatency();
+  }
+
   @SimpleProperty(category = PropertyCategory.BEHAVIOR,
       description = "Returns the user's latitude if ShowUser is enabled.")
   public double UserLatitude() {
@@ -513,6 +560,29 @@ public class Map extends MapFeatureContainerBase implements MapEventListener {
     return marker;
   }
 
+  @SimpleFunction(description = "Download the map tiles covering the given bounding box, " +
+      "stored as [[North, West], [South, East]], at the zoom levels from minZoom to maxZoom " +
+      "into the tile cache in the background, so that they can be shown without a network " +
+      "connection. The DownloadProgress event reports the tiles downloaded so far and the " +
+      "DownloadFinished event runs when all have been downloaded. Each zoom level has four " +
+      "times as many tiles as the one before it, so keep the range small and the TileCacheSize " +
+      "large enough to hold them.")
+  public void DownloadTiles(YailList boundingBox, int minZoom, int maxZoom) {
+    if (minZoom < 0 || maxZoom < minZoom) {
+      $form().dispatchErrorOccurredEvent(this, "DownloadTiles",
+          ErrorMessages.ERROR_INVALID_ZOOM_RANGE, minZoom, maxZoom);
+    } else if (!mapController.downloadTiles(toBoundingBox(boundingBox), minZoom, maxZoom)) {
+      $form().dispatchErrorOccurredEvent(this, "DownloadTiles",
+          ErrorMessages.ERROR_UNABLE_TO_CREATE_TILE_CACHE);
+    }
+  }
+
+  @SimpleFunction(description = "Stop downloading the tiles requested with DownloadTiles. " +
+      "Tiles that have already been downloaded are kept.")
+  public void CancelDownloads() {
+    mapController.cancelDownloads();
+  }
+
   @SimpleFunction(description = "Save the contents of the Map to the specified path.")
   public void Save(final String path) {
     final List<MapFeature> featuresToSave = new ArrayList<MapFeature>(features);
@@ -574,6 +644,29 @@ public class Map extends MapFeatureContainerBase implements MapEventListener {
     EventDispatcher.dispatchEvent(this, "LongPressAtPoint", latitude, longitude);
   }
 
+  @SimpleEvent(description = "The user tapped a cluster of markers shown when ClusterMarkers " +
+      "is enabled. The latitude and longitude give the center of the cluster and markers is " +
+      "the list of markers in it. If this event is not handled, the map zooms in on the " +
+      "cluster.")
+  public void ClusterClick(double latitude, double longitude, YailList markers) {
+    if (!EventDispatcher.dispatchEvent(this, "ClusterClick", latitude, longitude, markers)) {
+      PanTo(latitude, longitude, ZoomLevel() + 2);
+    }
+  }
+
+  @SimpleEvent(description = "Reports the progress of DownloadTiles. downloaded is the number " +
+      "of tiles downloaded or found in the tile cache so far, and total is the number of tiles " +
+      "requested.")
+  public void DownloadProgress(int downloaded, int total) {
+    EventDispatcher.dispatchEvent(this, "DownloadProgress", downloaded, total);
+  }
+
+  @SimpleEvent(description = "All of the tiles requested with DownloadTiles have been " +
+      "downloaded, except for the number given by failed, which could not be.")
+  public void DownloadFinished(int failed) {
+    EventDispatcher.dispatchEvent(this, "DownloadFinished", failed);
+  }
+
   public MapController getController() {
     return mapController;
   }
@@ -689,11 +782,50 @@ public class Map extends MapFeatureContainerBase implements MapEventListener {
     });
   }
 
+  @Override
+  public void onClusterClick(final double latitude, final double longitude,
+      final List<MapMarker> markers) {
+    container.$form().runOnUiThread(new Runnable() {
+      @Override
+      public void run() {
+        Map.this.ClusterClick(latitude, longitude, YailList.makeList(markers));
+      }
+    });
+  }
+
+  @Override
+  public void onDownloadProgress(final int downloaded, final int total) {
+    container.$form().runOnUiThread(new Runnable() {
+      @Override
+      public void run() {
+        Map.this.DownloadProgress(downloaded, total);
+      }
+    });
+  }
+
+  @Override
+  public void onDownloadFinished(final int failed) {
+    container.$form().runOnUiThread(new Runnable() {
+      @Override
+      public void run() {
+        Map.this.DownloadFinished(failed);
+      }
+    });
+  }
+
   @Override
   public Map getMap() {
     return this;
   }
 
+  private static BoundingBox toBoundingBox(YailList boundingbox) {
+    double latNorth = GeometryUtil.coerceToDouble(((YailList) boundingbox.get(1)).get(1));
+    double longWest = GeometryUtil.coerceToDouble(((YailList)boundingbox.get(1)).get(2));
+    double latSouth = GeometryUtil.coerceToDouble(((YailList)boundingbox.get(2)).get(1));
+    double longEast = GeometryUtil.coerceToDouble(((YailList)boundingbox.get(2)).get(2));
+    return new BoundingBox(latNorth, longEast, latSouth, longWest);
+  }
+
 
   // MapFeatureContainerBase optimizations
   @Override
@@ -6,6 +6,7 @@
 package com.google.appinventor.components.runtime;
 
 import android.app.Activity;
+import android.os.Handler;
 import android.util.Log;
 import com.google.appinventor.components.annotations.PropertyCategory;
 import com.google.appinventor.components.annotations.SimpleEvent;
@@ -53,12 +54,23 @@ public abstract class MapFeatureContainerBase extends AndroidViewComponent imple
   private static final String GEOJSON_GEOMETRYCOLLECTION = "GeometryCollection";
   private static final String GEOJSON_FEATURES = "features";
 
+  /**
+   * The number of features created from a loaded document before the map is redrawn and the
+   * rest are left for a later pass of the UI thread.
+   */
+  private static final int FEATURE_BATCH_SIZE = 50;
+
   /**
    * <p>List of {@link MapFactory.MapFeature features} associated with this map, including those that are
    * invisible.</p>
    */
   protected List<MapFeature> features = new CopyOnWriteArrayList<MapFeature>();
 
+  private final Handler androidUIHandler = new Handler();
+
+  // Changed whenever the features are replaced, so that a load still in progress stops.
+  private int loadGeneration = 0;
+
   private final MapFactory.MapFeatureVisitor<Void> featureAdder = new MapFactory.MapFeatureVisitor<Void>() {
     @Override
     public Void visit(MapFactory.MapMarker marker, Object... arguments) {
@@ -103,16 +115,23 @@ public abstract class MapFeatureContainerBase extends AndroidViewComponent imple
    */
   @SimpleProperty
   public void Features(YailList features) {
-    for (MapFactory.MapFeature feature : this.features) {
-      feature.removeFromMap();
-    }
-    this.features.clear();
-    ListIterator<?> it = features.listIterator(1);
-    while (it.hasNext()) {
-      Object o = it.next();
-      if (o instanceof MapFactory.MapFeature) {
-        this.addFeature((MapFactory.MapFeature) o);
+    loadGeneration++;
+    MapFactory.MapController controller = getMap().getController();
+    controller.beginFeatureBatch();
+    try {
+      for (MapFactory.MapFeature feature : this.features) {
+        feature.removeFromMap();
       }
+      this.features.clear();
+      ListIterator<?> it = features.listIterator(1);
+      while (it.hasNext()) {
+        Object o = it.next();
+        if (o instanceof MapFactory.MapFeature) {
+          this.addFeature((MapFactory.MapFeature) o);
+        }
+      }
+    } finally {
+      controller.endFeatureBatch();
     }
     getMap().getView().invalidate();
   }
@@ -224,16 +243,29 @@ public abstract class MapFeatureContainerBase extends AndroidViewComponent imple
   @SimpleEvent(description = "A GeoJSON document was successfully read from url. The features " +
       "specified in the document are provided as a list in features.")
   public void GotFeatures(String url, YailList features) {
-    if (!EventDispatcher.dispatchEvent(this, "GotFeatures", url, features)) {
+    boolean handled;
+    // Features created by the event handler are drawn together once it returns.
+    MapFactory.MapController controller = getMap().getController();
+    controller.beginFeatureBatch();
+    try {
+      handled = EventDispatcher.dispatchEvent(this, "GotFeatures", url, features);
+    } finally {
+      controller.endFeatureBatch();
+    }
+    if (!handled) {
       // If the app inventor hasn't defined GotFeatures, we by default create the features for them
-      Iterator it = features.iterator();
-      it.next();  // skip *list* symbol
-      while (it.hasNext()) {
-        FeatureFromDescription((YailList) it.next());
-      }
+      createFeatures(url, features);
     }
   }
 
+  @SimpleEvent(description = "Features from the GeoJSON document at url are being added to the " +
+      "map. This event runs after each group of features is added, when GotFeatures is not " +
+      "handled. The loaded parameter is the number of features added so far and total is the " +
+      "number of features in the document, so loading is complete when they are equal.")
+  public void LoadProgress(String url, int loaded, int total) {
+    EventDispatcher.dispatchEvent(this, "LoadProgress", url, loaded, total);
+  }
+
   @SimpleEvent(description = "An error was encountered while processing a GeoJSON document at " +
       "the given url. The responseCode parameter will contain an HTTP status code and the " +
       "errorMessage parameter will contain a detailed error message.")
@@ -251,6 +283,43 @@ public abstract class MapFeatureContainerBase extends AndroidViewComponent imple
     }
   }
 
+  /**
+   * Creates the features described in a loaded document. Features are created in batches of
+   * {@link #FEATURE_BATCH_SIZE}, and each batch is drawn at once, so that a large document does
+   * not keep the UI thread busy until all of its features exist.
+   *
+   * @param url the url of the document
+   * @param descriptions the descriptions of the features, as given to GotFeatures
+   */
+  private void createFeatures(final String url, final YailList descriptions) {
+    final int generation = ++loadGeneration;
+    final int total = descriptions.size();
+    new Runnable() {
+      private int loaded = 0;
+
+      @Override
+      public void run() {
+        if (generation != loadGeneration) {
+          return;  // The features have been replaced since the load started.
+        }
+        int end = Math.min(total, loaded + FEATURE_BATCH_SIZE);
+        MapFactory.MapController controller = getMap().getController();
+        controller.beginFeatureBatch();
+        try {
+          while (loaded < end) {
+            FeatureFromDescription((YailList) descriptions.getObject(loaded++));
+          }
+        } finally {
+          controller.endFeatureBatch();
+        }
+        LoadProgress(url, loaded, total);
+        if (loaded < total && generation == loadGeneration) {
+          androidUIHandler.post(this);
+        }
+      }
+    }.run();
+  }
+
   @Override
   public Activity $context() {
     return container.$context();
@@ -18,8 +18,6 @@ import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 
-import android.os.Handler;
-
 import java.util.HashMap;
 import java.util.Map;
 
@@ -68,8 +66,6 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
   }
 
   private boolean detectColor;
-  private Handler handler;
-  private final Runnable sensorReader;
 
   // Fields related to detecting color
   private int previousColor;
@@ -89,59 +85,8 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
    */
   public NxtColorSensor(ComponentContainer container) {
     super(container, "NxtColorSensor");
-    handler = new Handler();
     previousState = State.UNKNOWN;
     previousColor = Component.COLOR_NONE;
-    sensorReader = new Runnable() {
-      public void run() {
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          if (detectColor) {
-            // Detecting color
-            SensorValue<Integer> sensorValue = getColorValue("");
-            if (sensorValue.valid) {
-              int currentColor = sensorValue.value;
-
-              if (currentColor != previousColor) {
-                ColorChanged(currentColor);
-              }
-
-              previousColor = currentColor;
-            }
-
-          } else {
-            // Detecting light
-            SensorValue<Integer> sensorValue = getLightValue("");
-            if (sensorValue.valid) {
-              State currentState;
-              if (sensorValue.value < bottomOfRange) {
-                currentState = State.BELOW_RANGE;
-              } else if (sensorValue.value > topOfRange) {
-                currentState = State.ABOVE_RANGE;
-              } else {
-                currentState = State.WITHIN_RANGE;
-              }
-
-              if (currentState != previousState) {
-                if (currentState == State.BELOW_RANGE && belowRangeEventEnabled) {
-                  BelowRange();
-                }
-                if (currentState == State.WITHIN_RANGE && withinRangeEventEnabled) {
-                  WithinRange();
-                }
-                if (currentState == State.ABOVE_RANGE && aboveRangeEventEnabled) {
-                  AboveRange();
-                }
-              }
-
-              previousState = currentState;
-            }
-          }
-        }
-        if (isHandlerNeeded()) {
-          handler.post(sensorReader);
-        }
-      }
-    };
 
     SensorPort(DEFAULT_SENSOR_PORT);
 
@@ -207,22 +152,15 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
       defaultValue = "True")
   @SimpleProperty
   public void DetectColor(boolean detectColor) {
-    boolean handlerWasNeeded = isHandlerNeeded();
-
     this.detectColor = detectColor;
     if (bluetooth != null && bluetooth.IsConnected()) {
       initializeSensor("DetectColor");
     }
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
     previousColor = Component.COLOR_NONE;
     previousState = State.UNKNOWN;
-    if (!handlerWasNeeded && handlerIsNeeded) {
-      handler.post(sensorReader);
-    }
+    // Readings made before the change are of the wrong kind.
+    restartPolling();
   }
 
   // Methods for detecting color
@@ -284,18 +222,14 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void ColorChangedEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     colorChangedEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousColor = Component.COLOR_NONE;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Detected color has changed. " +
@@ -407,18 +341,14 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void BelowRangeEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     belowRangeEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Light level has gone below the range. " +
@@ -449,18 +379,14 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void WithinRangeEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     withinRangeEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Light level has gone within the range. " +
@@ -488,18 +414,14 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void AboveRangeEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     aboveRangeEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Light level has gone above the range. " +
@@ -545,19 +467,58 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     }
   }
 
-  private boolean isHandlerNeeded() {
+  @Override
+  protected Object readPolledValue() {
+    SensorValue<Integer> sensorValue = detectColor ? getColorValue("") : getLightValue("");
+    return sensorValue.valid ? sensorValue.value : null;
+  }
+
+  @Override
+  public void onPolledValue(Object value) {
     if (detectColor) {
-      return colorChangedEventEnabled;
+      // Detecting color
+      int currentColor = (Integer) value;
+
+      if (currentColor != previousColor) {
+        ColorChanged(currentColor);
+      }
+
+      previousColor = currentColor;
+
     } else {
-      return belowRangeEventEnabled || withinRangeEventEnabled || aboveRangeEventEnabled;
+      // Detecting light
+      int currentValue = (Integer) value;
+      State currentState;
+      if (currentValue < bottomOfRange) {
+        currentState = State.BELOW_RANGE;
+      } else if (currentValue > topOfRange) {
+        currentState = State.ABOVE_RANGE;
+      } else {
+        currentState = State.WITHIN_RANGE;
+      }
+
+      if (currentState != previousState) {
+        if (currentState == State.BELOW_RANGE && belowRangeEventEnabled) {
+          BelowRange();
+        }
+        if (currentState == State.WITHIN_RANGE && withinRangeEventEnabled) {
+          WithinRange();
+        }
+        if (currentState == State.ABOVE_RANGE && aboveRangeEventEnabled) {
+          AboveRange();
+        }
+      }
+
+      previousState = currentState;
     }
   }
 
-  // Deleteable implementation
-
   @Override
-  public void onDelete() {
-    handler.removeCallbacks(sensorReader);
-    super.onDelete();
+  protected boolean isPollingNeeded() {
+    if (detectColor) {
+      return colorChangedEventEnabled;
+    } else {
+      return belowRangeEventEnabled || withinRangeEventEnabled || aboveRangeEventEnabled;
+    }
   }
 }
@@ -0,0 +1,64 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the sensors attached to one LEGO MINDSTORMS NXT robot.
+ *
+ * <p>The NXT answers one direct command per telegram, so the sensors that
+ * are due are read one after another, but all on the poll thread and with
+ * their values handed to the UI thread together.</p>
+ *
+ */
+final class NxtSensorPoller extends LegoMindstormsSensorPoller<LegoMindstormsNxtSensor> {
+  private static final Map<BluetoothClient, NxtSensorPoller> POLLERS =
+      new HashMap<BluetoothClient, NxtSensorPoller>();
+
+  private NxtSensorPoller(BluetoothClient bluetooth) {
+    super("NxtSensorPoller", bluetooth);
+  }
+
+  /**
+   * Returns the poller for the robot on the other end of the given
+   * connection. Must be called on the UI thread.
+   */
+  static NxtSensorPoller forBluetooth(BluetoothClient bluetooth) {
+    NxtSensorPoller poller = POLLERS.get(bluetooth);
+    if (poller == null) {
+      poller = new NxtSensorPoller(bluetooth);
+      POLLERS.put(bluetooth, poller);
+    }
+    return poller;
+  }
+
+  @Override
+  protected void onIdle() {
+    POLLERS.remove(getBluetooth());
+  }
+
+  @Override
+  protected Object[] readValues(List<LegoMindstormsNxtSensor> sensors) {
+    BluetoothClient bluetooth = getBluetooth();
+    Object[] values = new Object[sensors.size()];
+    for (int i = 0; i < values.length; i++) {
+      LegoMindstormsNxtSensor sensor = sensors.get(i);
+      // A sensor that has moved to another robot will be removed shortly.
+      if (sensor.bluetooth == bluetooth && bluetooth.IsConnected()) {
+        // Some sensors, such as the ultrasonic sensor, take several commands
+        // to read, which must not be interleaved with commands sent by the
+        // UI thread.
+        synchronized (bluetooth) {
+          values[i] = sensor.readPolledValue();
+        }
+      }
+    }
+    return values;
+  }
+}
@@ -17,8 +17,6 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 
-import android.os.Handler;
-
 /**
  * A component that provides a high-level interface to a sound sensor on a LEGO
  * MINDSTORMS NXT robot.
@@ -38,8 +36,6 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
   private static final int DEFAULT_BOTTOM_OF_RANGE = 256;
   private static final int DEFAULT_TOP_OF_RANGE = 767;
 
-  private Handler handler;
-  private final Runnable sensorReader;
   private State previousState;
   private int bottomOfRange;
   private int topOfRange;
@@ -52,42 +48,7 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
    */
   public NxtSoundSensor(ComponentContainer container) {
     super(container, "NxtSoundSensor");
-    handler = new Handler();
     previousState = State.UNKNOWN;
-    sensorReader = new Runnable() {
-      public void run() {
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          SensorValue<Integer> sensorValue = getSoundValue("");
-          if (sensorValue.valid) {
-            State currentState;
-            if (sensorValue.value < bottomOfRange) {
-              currentState = State.BELOW_RANGE;
-            } else if (sensorValue.value > topOfRange) {
-              currentState = State.ABOVE_RANGE;
-            } else {
-              currentState = State.WITHIN_RANGE;
-            }
-
-            if (currentState != previousState) {
-              if (currentState == State.BELOW_RANGE && belowRangeEventEnabled) {
-                BelowRange();
-              }
-              if (currentState == State.WITHIN_RANGE && withinRangeEventEnabled) {
-                WithinRange();
-              }
-              if (currentState == State.ABOVE_RANGE && aboveRangeEventEnabled) {
-                AboveRange();
-              }
-            }
-
-            previousState = currentState;
-          }
-        }
-        if (isHandlerNeeded()) {
-          handler.post(sensorReader);
-        }
-      }
-    };
 
     SensorPort(DEFAULT_SENSOR_PORT);
     BottomOfRange(DEFAULT_BOTTOM_OF_RANGE);
@@ -208,18 +169,14 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void BelowRangeEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     belowRangeEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Sound level has gone below the range.")
@@ -245,18 +202,14 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void WithinRangeEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     withinRangeEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Sound level has gone within the range.")
@@ -282,18 +235,14 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void AboveRangeEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     aboveRangeEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Sound level has gone above the range.")
@@ -301,15 +250,41 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
     EventDispatcher.dispatchEvent(this, "AboveRange");
   }
 
-  private boolean isHandlerNeeded() {
-    return belowRangeEventEnabled || withinRangeEventEnabled || aboveRangeEventEnabled;
+  @Override
+  protected Object readPolledValue() {
+    SensorValue<Integer> sensorValue = getSoundValue("");
+    return sensorValue.valid ? sensorValue.value : null;
   }
 
-  // Deleteable implementation
+  @Override
+  public void onPolledValue(Object value) {
+    int currentValue = (Integer) value;
+    State currentState;
+    if (currentValue < bottomOfRange) {
+      currentState = State.BELOW_RANGE;
+    } else if (currentValue > topOfRange) {
+      currentState = State.ABOVE_RANGE;
+    } else {
+      currentState = State.WITHIN_RANGE;
+    }
+
+    if (currentState != previousState) {
+      if (currentState == State.BELOW_RANGE && belowRangeEventEnabled) {
+        BelowRange();
+      }
+      if (currentState == State.WITHIN_RANGE && withinRangeEventEnabled) {
+        WithinRange();
+      }
+      if (currentState == State.ABOVE_RANGE && aboveRangeEventEnabled) {
+        AboveRange();
+      }
+    }
+
+    previousState = currentState;
+  }
 
   @Override
-  public void onDelete() {
-    handler.removeCallbacks(sensorReader);
-    super.onDelete();
+  protected boolean isPollingNeeded() {
+    return belowRangeEventEnabled || withinRangeEventEnabled || aboveRangeEventEnabled;
   }
 }
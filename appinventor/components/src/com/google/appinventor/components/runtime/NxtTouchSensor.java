@@ -17,8 +17,6 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 
-import android.os.Handler;
-
 /**
  * A component that provides a high-level interface to a touch sensor on a LEGO
  * MINDSTORMS NXT robot.
@@ -37,9 +35,7 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
   private enum State { UNKNOWN, PRESSED, RELEASED }
   private static final String DEFAULT_SENSOR_PORT = "1";
 
-  private Handler handler;
   private State previousState;
-  private final Runnable sensorReader;
   private boolean pressedEventEnabled;
   private boolean releasedEventEnabled;
 
@@ -48,32 +44,7 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
    */
   public NxtTouchSensor(ComponentContainer container) {
     super(container, "NxtTouchSensor");
-    handler = new Handler();
     previousState = State.UNKNOWN;
-    sensorReader = new Runnable() {
-      public void run() {
-        if (bluetooth != null && bluetooth.IsConnected()) {
-          SensorValue<Boolean> sensorValue = getPressedValue("");
-          if (sensorValue.valid) {
-            State currentState = sensorValue.value ? State.PRESSED : State.RELEASED;
-
-            if (currentState != previousState) {
-              if (currentState == State.PRESSED && pressedEventEnabled) {
-                Pressed();
-              }
-              if (currentState == State.RELEASED && releasedEventEnabled) {
-                Released();
-              }
-            }
-
-            previousState = currentState;
-          }
-        }
-        if (isHandlerNeeded()) {
-          handler.post(sensorReader);
-        }
-      }
-    };
 
     SensorPort(DEFAULT_SENSOR_PORT);
     PressedEventEnabled(false);
@@ -143,18 +114,14 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void PressedEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     pressedEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Touch sensor has been pressed.")
@@ -180,18 +147,14 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
   @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN, defaultValue = "False")
   @SimpleProperty
   public void ReleasedEventEnabled(boolean enabled) {
-    boolean handlerWasNeeded = isHandlerNeeded();
+    boolean pollingWasNeeded = isPollingNeeded();
 
     releasedEventEnabled = enabled;
 
-    boolean handlerIsNeeded = isHandlerNeeded();
-    if (handlerWasNeeded && !handlerIsNeeded) {
-      handler.removeCallbacks(sensorReader);
-    }
-    if (!handlerWasNeeded && handlerIsNeeded) {
+    if (!pollingWasNeeded && isPollingNeeded()) {
       previousState = State.UNKNOWN;
-      handler.post(sensorReader);
     }
+    updatePolling();
   }
 
   @SimpleEvent(description = "Touch sensor has been released.")
@@ -199,15 +162,31 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
     EventDispatcher.dispatchEvent(this, "Released");
   }
 
-  private boolean isHandlerNeeded() {
-    return pressedEventEnabled || releasedEventEnabled;
+  @Override
+  protected Object readPolledValue() {
+    SensorValue<Boolean> sensorValue = getPressedValue("");
+    return sensorValue.valid ? sensorValue.value : null;
   }
 
-  // Deleteable implementation
+  @Override
+  public void onPolledValue(Object value) {
+    boolean pressed = (Boolean) value;
+    State currentState = pressed ? State.PRESSED : State.RELEASED;
+
+    if (currentState != previousState) {
+      if (currentState == State.PRESSED && pressedEventEnabled) {
+        Pressed();
+      }
+      if (currentState == State.RELEASED && releasedEventEnabled) {
+        Released();
+      }
+    }
+
+    previousState = currentState;
+  }
 
   @Override
-  public void onDelete() {
-    handler.removeCallbacks(sensorReader);
-    super.onDelete();
+  protected boolean isPollingNeeded() {
+    return pressedEventEnabled || releasedEventEnabled;
   }
 }
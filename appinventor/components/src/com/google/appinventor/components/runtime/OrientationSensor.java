@@ -18,11 +18,11 @@ import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.util.FroyoUtil;
 import com.google.appinventor.components.runtime.util.OrientationSensorUtil;
 import com.google.appinventor.components.runtime.util.SdkLevel;
+import com.google.appinventor.components.runtime.util.SensorPipeline;
+import com.google.appinventor.components.runtime.util.YailList;
 
 import android.content.Context;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 import android.util.Log;
 import android.view.Display;
@@ -56,8 +56,8 @@ import android.view.WindowManager;
     iconName = "images/orientationsensor.png")
 
 @SimpleObject
-public class OrientationSensor extends AndroidNonvisibleComponent
-    implements SensorEventListener, Deleteable, OnPauseListener, OnResumeListener {
+public class OrientationSensor extends SampledSensorBase
+    implements Deleteable, OnPauseListener, OnResumeListener {
   // Constants
   private static final String LOG_TAG = "OrientationSensor";
   // offsets in array returned by SensorManager.getOrientation()
@@ -65,26 +65,27 @@ public class OrientationSensor extends AndroidNonvisibleComponent
   private static final int PITCH = 1;
   private static final int ROLL = 2;
   private static final int DIMENSIONS = 3;  // Warning: specific to our universe
+  // channels of the sensor pipeline
+  private static final int ACCELEROMETER_CHANNEL = 0;
+  private static final int MAGNETIC_FIELD_CHANNEL = 1;
 
   // Properties
   private boolean enabled;
   private float azimuth;    // degrees
   private float pitch;  // degrees
   private float roll;   // degrees
-  private int accuracy;
 
   // Sensor information
   private final SensorManager sensorManager;
   private final Sensor accelerometerSensor;
   private final Sensor magneticFieldSensor;
-  private boolean listening;
 
   // Pre-allocated arrays to hold sensor data so that we don't cause so many garbage collections
-  // while processing sensor events. All are used only in onSensorChanged.
+  // while processing sensor events. All are used only in onSample.
   private final float[] accels = new float[DIMENSIONS];  // acceleration vector
   private final float[] mags = new float[DIMENSIONS];    // magnetic field vector
 
-  // Flags to tell whether the above arrays are filled. They are set in onSensorChanged and cleared
+  // Flags to tell whether the above arrays are filled. They are set in onSample and cleared
   // in stopListening.
   private boolean accelsFilled;
   private boolean magsFilled;
@@ -108,6 +109,9 @@ public class OrientationSensor extends AndroidNonvisibleComponent
       (SensorManager) container.$context().getSystemService(Context.SENSOR_SERVICE);
     accelerometerSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
     magneticFieldSensor = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+    // The order of the sensors must match ACCELEROMETER_CHANNEL and MAGNETIC_FIELD_CHANNEL.
+    pipeline = new SensorPipeline(LOG_TAG, sensorManager, SensorManager.SENSOR_DELAY_NORMAL, this,
+        accelerometerSensor, magneticFieldSensor);
 
     // Begin listening in onResume() and stop listening in onPause().
     form.registerForOnResume(this);
@@ -118,19 +122,12 @@ public class OrientationSensor extends AndroidNonvisibleComponent
   }
 
   private void startListening() {
-    if (!listening) {
-      sensorManager.registerListener(this, accelerometerSensor,
-                                     SensorManager.SENSOR_DELAY_NORMAL);
-      sensorManager.registerListener(this, magneticFieldSensor,
-                                     SensorManager.SENSOR_DELAY_NORMAL);
-      listening = true;
-    }
+    pipeline.start();
   }
 
   private void stopListening() {
-    if (listening) {
-      sensorManager.unregisterListener(this);
-      listening = false;
+    if (pipeline.isListening()) {
+      pipeline.stop();
 
       // Throw out sensor information that will go stale.
       accelsFilled = false;
@@ -298,7 +295,20 @@ public class OrientationSensor extends AndroidNonvisibleComponent
     return (float) (1.0 - Math.cos(npitch) * Math.cos(nroll));
   }
 
-  // SensorListener implementation
+  /**
+   * Indicates that samples were delivered while BatchSamples is true.
+   *
+   * @param samples  a list of samples, each a list of the timestamp in
+   *                 nanoseconds and the azimuth, pitch, and roll
+   */
+  @SimpleEvent(description = "Indicates that orientation samples were received. " +
+      "Each item of samples is a list of a timestamp in nanoseconds and the azimuth, pitch, " +
+      "and roll. Only raised when BatchSamples is true.")
+  public void SamplesReceived(YailList samples) {
+    EventDispatcher.dispatchEvent(this, "SamplesReceived", samples);
+  }
+
+  // SensorPipeline.Listener implementation
 
   /*
    * Returns the rotation of the screen from its "natural" orientation.
@@ -326,31 +336,30 @@ public class OrientationSensor extends AndroidNonvisibleComponent
    * raises the OrientationChanged event if both sensors have reported in
    * at least once.
    *
-   * @param sensorEvent an event from the accelerometer or magnetic field sensor
+   * @param channel whether the sample came from the accelerometer or the
+   *        magnetic field sensor
+   * @param sample the sensor values
+   * @param timestamp the time of the sample, in nanoseconds
    */
   @Override
-  public void onSensorChanged(SensorEvent sensorEvent) {
+  public void onSample(int channel, float[] sample, long timestamp) {
     if (enabled) {
-      int eventType = sensorEvent.sensor.getType();
-
       // Save the new sensor information about acceleration or the magnetic field.
-      switch (eventType) {
-        case Sensor.TYPE_ACCELEROMETER:
+      switch (channel) {
+        case ACCELEROMETER_CHANNEL:
           // Update acceleration array.
-          System.arraycopy(sensorEvent.values, 0, accels, 0, DIMENSIONS);
+          System.arraycopy(sample, 0, accels, 0, DIMENSIONS);
           accelsFilled = true;
-          // Only update the accuracy property for the accelerometer.
-          accuracy = sensorEvent.accuracy;
           break;
 
-        case Sensor.TYPE_MAGNETIC_FIELD:
+        case MAGNETIC_FIELD_CHANNEL:
           // Update magnetic field array.
-          System.arraycopy(sensorEvent.values, 0, mags, 0, DIMENSIONS);
+          System.arraycopy(sample, 0, mags, 0, DIMENSIONS);
           magsFilled = true;
           break;
 
         default:
-          Log.e(LOG_TAG, "Unexpected sensor type: " + eventType);
+          Log.e(LOG_TAG, "Unexpected sensor channel: " + channel);
           return;
       }
 
@@ -397,14 +406,15 @@ public class OrientationSensor extends AndroidNonvisibleComponent
         }
 
         // Raise event.
+        pipeline.recordBatchSample(timestamp, azimuth, pitch, roll);
         OrientationChanged(azimuth, pitch, roll);
       }
     }
   }
 
   @Override
-  public void onAccuracyChanged(Sensor sensor, int accuracy) {
-    // TODO(markf): Figure out if we actually need to do something here.
+  public void onBatch(YailList samples) {
+    SamplesReceived(samples);
   }
 
   // Deleteable implementation
@@ -384,6 +384,21 @@ public class ReplForm extends Form {
     form.sendToCompanion(retvals);
   }
 
+  public static void returnCompressedRetvals(final byte[] retvals) {
+    final ReplForm form = (ReplForm)activeForm;
+    Log.d(LOG_TAG, "returnCompressedRetvals: " + retvals.length + " bytes");
+    form.sendToCompanion(retvals);
+  }
+
+  /**
+   * Returns the number of bytes of return values sent to the blocks editor that are still
+   * waiting to go out over the network.
+   */
+  public static long getRetvalBacklog() {
+    final ReplForm form = (ReplForm)activeForm;
+    return form.webRTCNativeMgr == null ? 0 : form.webRTCNativeMgr.getBufferedAmount();
+  }
+
   public void sendToCompanion(String data) {
     if (webRTCNativeMgr == null) {
       Log.i(LOG_TAG, "No WebRTCNativeMgr!");
@@ -392,6 +407,14 @@ public class ReplForm extends Form {
     webRTCNativeMgr.send(data);
   }
 
+  public void sendToCompanion(byte[] data) {
+    if (webRTCNativeMgr == null) {
+      Log.i(LOG_TAG, "No WebRTCNativeMgr!");
+      return;
+    }
+    webRTCNativeMgr.send(data);
+  }
+
   public void setWebRTCMgr(WebRTCNativeMgr mgr) {
     webRTCNativeMgr = mgr;
   }
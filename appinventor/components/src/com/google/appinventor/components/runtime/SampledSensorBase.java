@@ -0,0 +1,141 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.annotations.DesignerProperty;
+import com.google.appinventor.components.annotations.PropertyCategory;
+import com.google.appinventor.components.annotations.SimpleObject;
+import com.google.appinventor.components.annotations.SimpleProperty;
+import com.google.appinventor.components.common.PropertyTypeConstants;
+import com.google.appinventor.components.runtime.util.ErrorMessages;
+import com.google.appinventor.components.runtime.util.SensorPipeline;
+
+/**
+ * A base class for sensor components that sample their sensors through a
+ * {@link SensorPipeline}, providing the properties that control how samples
+ * are turned into events.
+ *
+ */
+@SimpleObject
+public abstract class SampledSensorBase extends AndroidNonvisibleComponent
+    implements SensorPipeline.Listener {
+
+  /**
+   * Samples the sensors on a background thread.  Subclasses must create it
+   * in their constructor, with themselves as the listener.
+   */
+  protected SensorPipeline pipeline;
+
+  /**
+   * Creates a new SampledSensorBase.
+   *
+   * @param form  the container that this component will be placed in
+   */
+  protected SampledSensorBase(Form form) {
+    super(form);
+  }
+
+  /**
+   * Returns the maximum number of times per second that samples are handed
+   * to the sensor's events.
+   *
+   * @return  the maximum delivery rate, or 0 if every sample raises an event
+   *          as soon as it arrives
+   */
+  @SimpleProperty(
+      category = PropertyCategory.BEHAVIOR,
+      description = "The maximum number of times per second that sensor samples are " +
+      "delivered. In SamplingMode 0 every sample received since the previous delivery " +
+      "still raises its own event, so events are grouped rather than limited; the other " +
+      "modes raise at most about one event per delivery. " +
+      "0 means samples are delivered as fast as the sensor reports them.")
+  public int MaximumEventRate() {
+    return pipeline.getMaximumRate();
+  }
+
+  /**
+   * Specifies the maximum number of times per second that samples are handed
+   * to the sensor's events.
+   *
+   * @param rate  the maximum delivery rate, or 0 for no limit
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER,
+      defaultValue = "0")
+  @SimpleProperty
+  public void MaximumEventRate(int rate) {
+    pipeline.setMaximumRate(rate);
+  }
+
+  /**
+   * Returns how samples arriving between deliveries are handled.
+   *
+   * @return  one of {@link Component#SENSOR_SAMPLING_ALL},
+   *          {@link Component#SENSOR_SAMPLING_LATEST},
+   *          {@link Component#SENSOR_SAMPLING_LOW_PASS} or
+   *          {@link Component#SENSOR_SAMPLING_DECIMATE}
+   */
+  @SimpleProperty(
+      category = PropertyCategory.BEHAVIOR,
+      description = "How samples are turned into events: 0 = every sample, " +
+      "1 = only the latest sample, 2 = low-pass filtered latest sample, " +
+      "3 = samples spaced at least one event period apart.")
+  public int SamplingMode() {
+    return pipeline.getMode();
+  }
+
+  /**
+   * Specifies how samples arriving between deliveries are handled.
+   *
+   * @param mode  one of {@link Component#SENSOR_SAMPLING_ALL},
+   *          {@link Component#SENSOR_SAMPLING_LATEST},
+   *          {@link Component#SENSOR_SAMPLING_LOW_PASS} or
+   *          {@link Component#SENSOR_SAMPLING_DECIMATE}
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_SENSOR_SAMPLING_MODE,
+      defaultValue = Component.SENSOR_SAMPLING_ALL + "")
+  @SimpleProperty
+  public void SamplingMode(int mode) {
+    try {
+      pipeline.setMode(mode);
+    } catch (IllegalArgumentException e) {
+      form.dispatchErrorOccurredEvent(this, "SamplingMode",
+          ErrorMessages.ERROR_BAD_VALUE_FOR_SENSOR_SAMPLING_MODE, mode);
+    }
+  }
+
+  /**
+   * Returns whether the SamplesReceived event is raised.
+   */
+  @SimpleProperty(
+      category = PropertyCategory.BEHAVIOR,
+      description = "If true, the SamplesReceived event is raised with every " +
+      "sample delivered since the previous event.")
+  public boolean BatchSamples() {
+    return pipeline.isBatching();
+  }
+
+  /**
+   * Specifies whether the SamplesReceived event is raised.
+   */
+  @DesignerProperty(editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN,
+      defaultValue = "False")
+  @SimpleProperty
+  public void BatchSamples(boolean batch) {
+    pipeline.setBatching(batch);
+  }
+
+  /**
+   * Returns the number of samples that were discarded because events could
+   * not keep up with the sensor.
+   */
+  @SimpleProperty(
+      category = PropertyCategory.BEHAVIOR,
+      description = "The number of sensor samples discarded because the app " +
+      "could not handle events as fast as the sensor produced them.")
+  public long DroppedSamples() {
+    return pipeline.getDroppedCount();
+  }
+}
@@ -18,6 +18,7 @@ import com.google.appinventor.components.runtime.errors.IllegalArgumentError;
 import com.google.appinventor.components.runtime.util.BoundingBox;
 import com.google.appinventor.components.runtime.util.TimerInternal;
 
+import android.graphics.Rect;
 import android.os.Handler;
 import android.util.Log;
 
@@ -73,6 +74,12 @@ public abstract class Sprite extends VisibleComponent
 
   protected Form form;
 
+  // The area of the canvas, in device pixels, that this sprite covered the
+  // last time the Canvas was told about a change, or null if it has not
+  // been told yet.  The Canvas uses it to invalidate only the region the
+  // sprite is leaving.
+  Rect lastDrawnBounds;
+
   /**
    * The angle, in degrees above the positive x-axis, specified by the user.
    * This is private in order to enforce that changing it also changes
@@ -836,6 +843,23 @@ public abstract class Sprite extends VisibleComponent
         X() + Width() - 1 + border, Y() + Height() - 1 + border);
   }
 
+  /**
+   * Computes the area of the canvas, in device pixels, that this sprite
+   * covers when drawn.  This is used by the {@link Canvas} to limit
+   * invalidation and redrawing to the parts of the view that changed.
+   * Subclasses that draw outside of their bounding box must override this.
+   *
+   * @param outRect the rectangle to fill in
+   */
+  protected void getDrawnBounds(Rect outRect) {
+    float density = form.deviceDensity();
+    // Pad by a pixel on each side to account for rounding and anti-aliasing.
+    outRect.set((int) Math.floor(xLeft * density) - 1,
+        (int) Math.floor(yTop * density) - 1,
+        (int) Math.ceil((xLeft + Width()) * density) + 1,
+        (int) Math.ceil((yTop + Height()) * density) + 1);
+  }
+
   /**
    * Determines whether two sprites are in collision.  Note that we cannot
    * merely see whether the rectangular regions around each intersect, since
@@ -15,12 +15,18 @@ import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
 import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+import com.google.appinventor.components.runtime.util.GingerbreadUtil;
 import com.google.appinventor.components.runtime.util.JsonUtil;
+import com.google.appinventor.components.runtime.util.SdkLevel;
+import com.google.appinventor.components.runtime.util.YailList;
 
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import android.content.Context;
 import android.content.SharedPreferences;
@@ -63,8 +69,14 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
 
   public static final String DEFAULT_NAMESPACE="TinyDB1";
 
+  // The parsed values read from each namespace's SharedPreferences, shared by all TinyDB
+  // components. Each cache is kept up to date by a listener on its SharedPreferences.
+  private static final Map<SharedPreferences, ValueCache> valueCaches =
+      new WeakHashMap<SharedPreferences, ValueCache>();
+
   private SharedPreferences sharedPreferences;
   private String namespace;
+  private ValueCache valueCache;
 
   private Context context;  // this was a local in constructor and final not private
 
@@ -85,6 +97,7 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
   public void Namespace(String namespace) {
     this.namespace = namespace;
     sharedPreferences = context.getSharedPreferences(namespace, Context.MODE_PRIVATE);
+    valueCache = getValueCache(sharedPreferences);
   }
 
   @SimpleProperty(description = "Namespace for storing data.")
@@ -105,12 +118,49 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
     final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     try {
       sharedPrefsEditor.putString(tag, JsonUtil.getJsonRepresentation(valueToStore));
-      sharedPrefsEditor.commit();
+      save(sharedPrefsEditor);
+      valueCache.remove(tag);
     } catch (JSONException e) {
       throw new YailRuntimeError("Value failed to convert to JSON.", "JSON Creation Error.");
     }
   }
 
+  /**
+   * Store several values at once. Either all of the values are stored, or,
+   * if any of them cannot be stored, none of them are.
+   *
+   * @param tagsAndValues A list of pairs, each a list of a tag and the value
+   * to store under it
+   */
+  @SimpleFunction(description = "Store several values at once. The argument is a list of pairs, "
+      + "each a list of a tag and the value to store under it. Either all of the values are "
+      + "stored or, if any of them cannot be stored, none of them are. This is faster than "
+      + "storing the values one at a time.")
+  public void StoreValues(final YailList tagsAndValues) {
+    // Convert every value before changing anything, so that a failure leaves the store as it was.
+    Map<String, String> entries = new LinkedHashMap<String, String>();
+    for (Object item : tagsAndValues.toArray()) {
+      if (!(item instanceof YailList) || ((YailList) item).size() != 2) {
+        throw new YailRuntimeError("StoreValues expects a list of pairs, but found " + item,
+            "Invalid Argument.");
+      }
+      YailList pair = (YailList) item;
+      try {
+        entries.put(pair.getString(0), JsonUtil.getJsonRepresentation(pair.getObject(1)));
+      } catch (JSONException e) {
+        throw new YailRuntimeError("Value failed to convert to JSON.", "JSON Creation Error.");
+      }
+    }
+    final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
+    for (Map.Entry<String, String> entry : entries.entrySet()) {
+      sharedPrefsEditor.putString(entry.getKey(), entry.getValue());
+    }
+    save(sharedPrefsEditor);
+    for (String tag : entries.keySet()) {
+      valueCache.remove(tag);
+    }
+  }
+
   /**
    * Retrieve the value stored under the given tag.  If there's no such tag, then return valueIfTagNotThere.
    *
@@ -121,11 +171,20 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
    */
   @SimpleFunction
   public Object GetValue(final String tag, final Object valueIfTagNotThere) {
+    Object cached = valueCache.get(tag);
+    if (cached != null) {
+      return cached;
+    }
     try {
       String value = sharedPreferences.getString(tag, "");
       // If there's no entry with tag as a key then return the empty string.
       //    was  return (value.length() == 0) ? "" : JsonUtil.getObjectFromJson(value);
-      return (value.length() == 0) ? valueIfTagNotThere : JsonUtil.getObjectFromJson(value);
+      if (value.length() == 0) {
+        return valueIfTagNotThere;
+      }
+      Object result = JsonUtil.getObjectFromJson(value);
+      valueCache.put(tag, result);
+      return result;
     } catch (JSONException e) {
       throw new YailRuntimeError("Value failed to convert from JSON.", "JSON Creation Error.");
     }
@@ -155,7 +214,8 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
   public void ClearAll() {
     final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     sharedPrefsEditor.clear();
-    sharedPrefsEditor.commit();
+    save(sharedPrefsEditor);
+    valueCache.clear();
   }
 
   /**
@@ -167,7 +227,8 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
   public void ClearTag(final String tag) {
     final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     sharedPrefsEditor.remove(tag);
-    sharedPrefsEditor.commit();
+    save(sharedPrefsEditor);
+    valueCache.remove(tag);
   }
 
   @Override
@@ -175,5 +236,70 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
     final SharedPreferences.Editor sharedPrefsEditor = sharedPreferences.edit();
     sharedPrefsEditor.clear();
     sharedPrefsEditor.commit();
+    valueCache.clear();
+  }
+
+  /**
+   * Saves the changes in the given editor. The changes take effect in memory
+   * at once and are written to disk in the background, so storing values
+   * does not wait for the disk. Android finishes any pending writes before
+   * the app is paused or stopped.
+   */
+  private static void save(SharedPreferences.Editor editor) {
+    if (SdkLevel.getLevel() >= SdkLevel.LEVEL_GINGERBREAD) {
+      GingerbreadUtil.applyPreferences(editor);
+    } else {
+      editor.commit();
+    }
+  }
+
+  private static ValueCache getValueCache(SharedPreferences sharedPreferences) {
+    synchronized (valueCaches) {
+      ValueCache cache = valueCaches.get(sharedPreferences);
+      if (cache == null) {
+        cache = new ValueCache();
+        // SharedPreferences holds its listeners weakly, and valueCaches keeps this one alive.
+        sharedPreferences.registerOnSharedPreferenceChangeListener(cache);
+        valueCaches.put(sharedPreferences, cache);
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * The values parsed from the JSON stored in one namespace, so that reading
+   * a tag again does not parse it again. TinyDB drops a tag's value when it
+   * changes the tag, and the listener does so when other code using the
+   * namespace changes it.
+   */
+  private static class ValueCache implements SharedPreferences.OnSharedPreferenceChangeListener {
+    private final Map<String, Object> values = new HashMap<String, Object>();
+
+    synchronized Object get(String tag) {
+      return values.get(tag);
+    }
+
+    synchronized void put(String tag, Object value) {
+      values.put(tag, value);
+    }
+
+    synchronized void remove(String tag) {
+      values.remove(tag);
+    }
+
+    synchronized void clear() {
+      values.clear();
+    }
+
+    @Override
+    public synchronized void onSharedPreferenceChanged(SharedPreferences sharedPreferences,
+        String tag) {
+      if (tag == null) {
+        // Android 11 and later report clearing with a null tag.
+        values.clear();
+      } else {
+        values.remove(tag);
+      }
+    }
   }
 }
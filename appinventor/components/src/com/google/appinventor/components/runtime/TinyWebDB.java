@@ -20,7 +20,7 @@ import com.google.appinventor.components.common.YaVersion;
 import com.google.appinventor.components.runtime.collect.Lists;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
 import com.google.appinventor.components.runtime.util.AsyncCallbackPair;
-import com.google.appinventor.components.runtime.util.AsynchUtil;
+import com.google.appinventor.components.runtime.util.HttpUtil;
 import com.google.appinventor.components.runtime.util.JsonUtil;
 import com.google.appinventor.components.runtime.util.WebServiceUtil;
 
@@ -153,7 +153,7 @@ public class TinyWebDB extends AndroidNonvisibleComponent implements Component {
   public void StoreValue(final String tag, final Object valueToStore) {
     final Runnable call = new Runnable() {
       public void run() { postStoreValue(tag, valueToStore); }};
-      AsynchUtil.runAsynchronously(call);
+      HttpUtil.execute(call);
   }
 
   // Here's part (b): The actual communication, which runs
@@ -259,7 +259,7 @@ public class TinyWebDB extends AndroidNonvisibleComponent implements Component {
   @SimpleFunction
   public void GetValue(final String tag) {
     final Runnable call = new Runnable() { public void run() { postGetValue(tag); }};
-    AsynchUtil.runAsynchronously(call);
+    HttpUtil.execute(call);
   }
 
   private void postGetValue(final String tag) {
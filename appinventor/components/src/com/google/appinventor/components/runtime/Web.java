@@ -26,6 +26,7 @@ import com.google.appinventor.components.runtime.util.AsynchUtil;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.FileUtil;
 import com.google.appinventor.components.runtime.util.GingerbreadUtil;
+import com.google.appinventor.components.runtime.util.HttpUtil;
 import com.google.appinventor.components.runtime.util.JsonUtil;
 import com.google.appinventor.components.runtime.util.MediaUtil;
 import com.google.appinventor.components.runtime.util.SdkLevel;
@@ -42,10 +43,7 @@ import org.json.XML;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.CookieHandler;
 import java.net.HttpURLConnection;
@@ -195,6 +193,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
   public Web(ComponentContainer container) {
     super(container.$form());
     activity = container.$context();
+    HttpUtil.installResponseCache(activity);
 
     cookieHandler = (SdkLevel.getLevel() >= SdkLevel.LEVEL_GINGERBREAD)
         ? GingerbreadUtil.newCookieManager()
@@ -354,7 +353,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
       return;
     }
 
-    AsynchUtil.runAsynchronously(new Runnable() {
+    HttpUtil.execute(new Runnable() {
       @Override
       public void run() {
         try {
@@ -428,7 +427,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
       return;
     }
 
-    AsynchUtil.runAsynchronously(new Runnable() {
+    HttpUtil.execute(new Runnable() {
       @Override
       public void run() {
         try {
@@ -501,7 +500,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
       return;
     }
 
-    AsynchUtil.runAsynchronously(new Runnable() {
+    HttpUtil.execute(new Runnable() {
       @Override
       public void run() {
         try {
@@ -538,7 +537,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
       return;
     }
 
-    AsynchUtil.runAsynchronously(new Runnable() {
+    HttpUtil.execute(new Runnable() {
       @Override
       public void run() {
         try {
@@ -581,7 +580,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
       return;
     }
 
-    AsynchUtil.runAsynchronously(new Runnable() {
+    HttpUtil.execute(new Runnable() {
       @Override
       public void run() {
         // Convert text to bytes using the encoding.
@@ -763,6 +762,47 @@ public class Web extends AndroidNonvisibleComponent implements Component {
     }
   }
 
+  /**
+   * Decodes the given JSON encoded value on a background thread, delivering
+   * the result with the JsonTextDecoded event. This keeps the user interface
+   * responsive while large responses are decoded.
+   *
+   * @param jsonText the JSON text to decode
+   */
+  @SimpleFunction(description = "Decodes the given JSON encoded value in the background " +
+      "and delivers the result with the JsonTextDecoded event. The result is the same as " +
+      "JsonTextDecode, but the app stays responsive while large JSON text is decoded.")
+  public void JsonTextDecodeInBackground(final String jsonText) {
+    AsynchUtil.runAsynchronously(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          final Object result = decodeJsonText(jsonText);
+          activity.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+              JsonTextDecoded(result);
+            }
+          });
+        } catch (IllegalArgumentException e) {
+          form.dispatchErrorOccurredEvent(Web.this, "JsonTextDecodeInBackground",
+              ErrorMessages.ERROR_WEB_JSON_TEXT_DECODE_FAILED, jsonText);
+        }
+      }
+    });
+  }
+
+  /**
+   * Event indicating that JsonTextDecodeInBackground has finished.
+   *
+   * @param result the decoded value
+   */
+  @SimpleEvent(description = "Event indicating that JsonTextDecodeInBackground has finished " +
+      "decoding its JSON text.")
+  public void JsonTextDecoded(Object result) {
+    EventDispatcher.dispatchEvent(this, "JsonTextDecoded", result);
+  }
+
   /**
    * Decodes the given JSON encoded value.
    *
@@ -875,6 +915,9 @@ public class Web extends AndroidNonvisibleComponent implements Component {
     // Open the connection.
     HttpURLConnection connection = openConnection(webProps, httpVerb);
     if (connection != null) {
+      // The connection is only disconnected if the request fails. After a response has been read
+      // to the end, leaving it connected lets the keep-alive connection be reused.
+      boolean completed = false;
       try {
         if (postData != null) {
           writeRequestData(connection, postData);
@@ -887,7 +930,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
         final String responseType = getResponseType(connection);
         processResponseCookies(connection);
 
-        if (saveResponse) {
+        if (webProps.saveResponse) {
           final String path = saveResponseContent(connection, webProps.responseFileName,
               responseType);
 
@@ -899,7 +942,7 @@ public class Web extends AndroidNonvisibleComponent implements Component {
             }
           });
         } else {
-          final String responseContent = getResponseContent(connection);
+          final String responseContent = HttpUtil.readResponseText(connection);
 
           // Dispatch the event.
           activity.runOnUiThread(new Runnable() {
@@ -909,9 +952,11 @@ public class Web extends AndroidNonvisibleComponent implements Component {
             }
           });
         }
-
+        completed = true;
       } finally {
-        connection.disconnect();
+        if (!completed) {
+          connection.disconnect();
+        }
       }
     }
   }
@@ -991,12 +1036,10 @@ public class Web extends AndroidNonvisibleComponent implements Component {
       connection.setChunkedStreamingMode(0);
       BufferedOutputStream out = new BufferedOutputStream(connection.getOutputStream());
       try {
-        while (true) {
-          int b = in.read();
-          if (b == -1) {
-            break;
-          }
-          out.write(b);
+        byte[] buf = new byte[0x1000];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+          out.write(buf, 0, read);
         }
         out.flush();
       } finally {
@@ -1025,68 +1068,15 @@ public class Web extends AndroidNonvisibleComponent implements Component {
     }
   }
 
-  private static String getResponseContent(HttpURLConnection connection) throws IOException {
-    // Use the content encoding to convert bytes to characters.
-    String encoding = connection.getContentEncoding();
-    if (encoding == null) {
-      encoding = "UTF-8";
-    }
-    InputStreamReader reader = new InputStreamReader(getConnectionStream(connection), encoding);
-    try {
-      int contentLength = connection.getContentLength();
-      StringBuilder sb = (contentLength != -1)
-          ? new StringBuilder(contentLength)
-          : new StringBuilder();
-      char[] buf = new char[1024];
-      int read;
-      while ((read = reader.read(buf)) != -1) {
-        sb.append(buf, 0, read);
-      }
-      return sb.toString();
-    } finally {
-      reader.close();
-    }
-  }
-
   private static String saveResponseContent(HttpURLConnection connection,
       String responseFileName, String responseType) throws IOException {
     File file = createFile(responseFileName, responseType);
-
-    BufferedInputStream in = new BufferedInputStream(getConnectionStream(connection), 0x1000);
-    try {
-      BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(file), 0x1000);
-      try {
-        // Copy the contents from the input stream to the output stream.
-        while (true) {
-          int b = in.read();
-          if (b == -1) {
-            break;
-          }
-          out.write(b);
-        }
-        out.flush();
-      } finally {
-        out.close();
-      }
-    } finally {
-      in.close();
-    }
-
+    // The response is streamed straight to the file so that large downloads are never held in
+    // memory.
+    HttpUtil.copyResponseToFile(connection, file);
     return file.getAbsolutePath();
   }
 
-  private static InputStream getConnectionStream(HttpURLConnection connection) {
-    // According to the Android reference documentation for HttpURLConnection: If the HTTP response
-    // indicates that an error occurred, getInputStream() will throw an IOException. Use
-    // getErrorStream() to read the error response.
-    try {
-      return connection.getInputStream();
-    } catch (IOException e1) {
-      // Use the error response.
-      return connection.getErrorStream();
-    }
-  }
-
   private static File createFile(String fileName, String responseType)
       throws IOException, FileUtil.FileException {
     // If a fileName was specified, use it.
@@ -187,7 +187,10 @@ public class AppInvHTTPD extends NanoHTTPD {
         if (input_code.equals("#f")) {
           Log.e(LOG_TAG, "Skipping evaluation of #f");
         } else {
+          long start = System.currentTimeMillis();
           scheme.eval(code);
+          Log.d(LOG_TAG, "Compiled block " + blockid + " in "
+              + (System.currentTimeMillis() - start) + " ms");
         }
         res = new Response(HTTP_OK, MIME_JSON, RetValManager.fetch(false));
       } catch (Throwable ex) {
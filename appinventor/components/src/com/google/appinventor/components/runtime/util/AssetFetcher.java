@@ -20,10 +20,15 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import java.net.HttpURLConnection;
 import java.net.URL;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -31,6 +36,7 @@ import java.util.concurrent.Executors;
 
 import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 
 
 /**
@@ -50,6 +56,12 @@ import org.json.JSONException;
  *               This code is part of the implementation of webRTC
  *               communication between the Companion and the App
  *               Inventor client.
+ *
+ *               We remember the SHA-1 hash of each asset we fetch,
+ *               and send it with the next request for the asset. The
+ *               server only sends the asset again if its hash is
+ *               different, so reconnecting to a project whose assets
+ *               have not changed transfers almost nothing.
  */
 
 public class AssetFetcher {
@@ -60,8 +72,19 @@ public class AssetFetcher {
     Environment.getExternalStorageDirectory().getAbsolutePath() +
     "/AppInventor/";
 
-  // We use a single threaded executor so we only load one asset at a time!
-  private static ExecutorService background = Executors.newSingleThreadExecutor();
+  // The index of the hashes of the assets we have, kept next to them.
+  private static final String HASH_INDEX = REPL_ASSET_DIR + ".assethashes";
+
+  // We fetch a few assets at a time, so that one large asset does not hold
+  // up the others.
+  private static final int PARALLEL_FETCHES = 4;
+  private static ExecutorService background = Executors.newFixedThreadPool(PARALLEL_FETCHES);
+
+  // The shortest time between progress reports for an asset, in milliseconds.
+  private static final long PROGRESS_INTERVAL = 250;
+
+  private static JSONObject hashIndex = null; // Guarded by hashIndexLock
+  private static final Object hashIndexLock = new Object();
 
   private static volatile boolean inError = false; // true means we are displaying the "End Application" Error dialog already
   private static final Object semaphore = new Object();
@@ -162,28 +185,51 @@ public class AssetFetcher {
     }
     try {
       boolean error = false;
-      File outFile = null;
+      File outFile = new File(REPL_ASSET_DIR + asset);
+      String knownHash = getKnownHash(asset, outFile);
       URL url = new URL(fileName);
       HttpURLConnection connection = (HttpURLConnection) url.openConnection();
       if (connection != null) {
         connection.setRequestMethod("GET");
         connection.addRequestProperty("Cookie",  "AppInventor = " + cookieValue);
+        if (knownHash != null) {
+          connection.addRequestProperty("If-None-Match", "\"" + knownHash + "\"");
+        }
         int responseCode = connection.getResponseCode();
         Log.d(LOG_TAG, "asset = " + asset + " responseCode = " + responseCode);
-        outFile = new File(REPL_ASSET_DIR + asset);
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+          connection.disconnect();
+          return outFile;       // We already have it
+        }
         File parentOutFile = outFile.getParentFile();
         if (!parentOutFile.exists()) {
           parentOutFile.mkdirs();
         }
-        BufferedInputStream in = new BufferedInputStream(connection.getInputStream(), 0x1000);
-        BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(outFile), 0x1000);
+        MessageDigest digest = newDigest();
+        long total = connection.getContentLength();
+        InputStream in = new BufferedInputStream(connection.getInputStream(), 0x1000);
+        // Write to a temporary file, so that an interrupted transfer never
+        // leaves a partial asset that looks complete. Each fetch gets its own
+        // file, because the same asset may be fetched twice at once.
+        File partFile = File.createTempFile(outFile.getName(), ".part", parentOutFile);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(partFile), 0x1000);
         try {
+          byte[] buffer = new byte[0x1000];
+          long received = 0;
+          long lastReport = 0;
           while (true) {
-            int b = in.read();
-            if (b == -1) {
+            int count = in.read(buffer);
+            if (count == -1) {
               break;
             }
-            out.write(b);
+            out.write(buffer, 0, count);
+            digest.update(buffer, 0, count);
+            received += count;
+            long now = System.currentTimeMillis();
+            if (now - lastReport >= PROGRESS_INTERVAL) {
+              RetValManager.assetProgress(asset, received, total);
+              lastReport = now;
+            }
           }
           out.flush();
         } catch (IOException e) {
@@ -191,8 +237,16 @@ public class AssetFetcher {
           error = true;
         } finally {
           out.close();
+          in.close();
         }
         connection.disconnect();
+        if (!error && !replaceAsset(asset, outFile, partFile, toHex(digest.digest()))) {
+          Log.e(LOG_TAG, "Unable to replace " + outFile);
+          error = true;
+        }
+        if (error) {
+          partFile.delete();
+        }
       } else {
         error = true;           // Connection was null, failed to open?
       }
@@ -206,4 +260,88 @@ public class AssetFetcher {
       return getFile(fileName, cookieValue, asset, depth + 1);
     }
   }
+
+  /*
+   * getKnownHash -- Returns the hash of the asset we fetched last, or null if
+   * we do not have it, or it has been changed since.
+   */
+
+  private static String getKnownHash(String asset, File file) {
+    synchronized (hashIndexLock) {
+      JSONObject entry = getHashIndex().optJSONObject(asset);
+      if (entry == null || !file.exists() || file.length() != entry.optLong("length", -1)
+          || file.lastModified() != entry.optLong("modified", -1)) {
+        return null;
+      }
+      return entry.optString("hash", null);
+    }
+  }
+
+  /*
+   * replaceAsset -- Moves a fetched asset into place and records its hash.
+   * Both happen under hashIndexLock, so that when two fetches of the same
+   * asset finish together, the recorded hash is that of the file left in
+   * place.
+   */
+
+  private static boolean replaceAsset(String asset, File file, File newFile, String hash) {
+    synchronized (hashIndexLock) {
+      if ((file.exists() && !file.delete()) || !newFile.renameTo(file)) {
+        return false;
+      }
+      setKnownHash(asset, file, hash);
+      return true;
+    }
+  }
+
+  private static void setKnownHash(String asset, File file, String hash) {
+    synchronized (hashIndexLock) {
+      try {
+        JSONObject entry = new JSONObject();
+        entry.put("hash", hash);
+        entry.put("length", file.length());
+        entry.put("modified", file.lastModified());
+        getHashIndex().put(asset, entry);
+        FileUtil.writeFile(getHashIndex().toString().getBytes("UTF-8"), HASH_INDEX);
+      } catch (JSONException e) {
+        Log.e(LOG_TAG, "Unable to record the hash of " + asset, e);
+      } catch (IOException e) {
+        Log.e(LOG_TAG, "Unable to save the asset hashes", e);
+      }
+    }
+  }
+
+  // Our caller holds hashIndexLock
+  private static JSONObject getHashIndex() {
+    if (hashIndex == null) {
+      hashIndex = new JSONObject();
+      File file = new File(HASH_INDEX);
+      if (file.exists()) {
+        try {
+          hashIndex = new JSONObject(new String(FileUtil.readFile(file.getPath()), "UTF-8"));
+        } catch (JSONException e) {
+          Log.e(LOG_TAG, "Ignoring unreadable asset hashes", e);
+        } catch (IOException e) {
+          Log.e(LOG_TAG, "Unable to read the asset hashes", e);
+        }
+      }
+    }
+    return hashIndex;
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e); // Every Android has SHA-1
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : bytes) {
+      sb.append(String.format("%02x", b & 0xff));
+    }
+    return sb.toString();
+  }
 }
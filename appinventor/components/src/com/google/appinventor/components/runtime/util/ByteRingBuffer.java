@@ -0,0 +1,137 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+/**
+ * A fixed size buffer of bytes passed from one producer thread to one
+ * consumer thread without locking.
+ *
+ * <p>Only the producer may call {@link #write}, and only the consumer may
+ * call {@link #read}, {@link #skip}, {@link #indexOf} and {@link #clear}.
+ * {@link #available} and {@link #getDroppedCount} may be called from either
+ * thread. When the buffer is full, bytes that do not fit are dropped and
+ * counted, so that a slow consumer never blocks the producer.</p>
+ *
+ */
+public final class ByteRingBuffer {
+  private final byte[] buffer;
+  private final int mask;
+
+  // head and tail count the bytes ever written and read. head is only changed by the producer
+  // and tail only by the consumer; each publishes the bytes it has handed over by the volatile
+  // write.
+  private volatile long head;
+  private volatile long tail;
+  private volatile long dropped;
+
+  /**
+   * Creates a new buffer.
+   *
+   * @param capacity the number of bytes the buffer holds, rounded up to a
+   *     power of two
+   */
+  public ByteRingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(1, capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+    buffer = new byte[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Returns the number of bytes the buffer holds.
+   */
+  public int capacity() {
+    return buffer.length;
+  }
+
+  /**
+   * Returns the number of bytes that can be read.
+   */
+  public int available() {
+    return (int) (head - tail);
+  }
+
+  /**
+   * Returns the number of bytes dropped because the buffer was full.
+   */
+  public long getDroppedCount() {
+    return dropped;
+  }
+
+  /**
+   * Adds bytes to the buffer. Called by the producer.
+   *
+   * @return the number of bytes added, which is less than {@code length} if
+   *     the buffer became full
+   */
+  public int write(byte[] src, int offset, int length) {
+    long h = head;
+    int count = Math.min(length, buffer.length - (int) (h - tail));
+    int start = (int) (h & mask);
+    int first = Math.min(count, buffer.length - start);
+    System.arraycopy(src, offset, buffer, start, first);
+    System.arraycopy(src, offset + first, buffer, 0, count - first);
+    head = h + count;
+    if (count < length) {
+      dropped += length - count;
+    }
+    return count;
+  }
+
+  /**
+   * Removes bytes from the buffer. Called by the consumer.
+   *
+   * @return the number of bytes removed, which is less than {@code length}
+   *     if fewer are available
+   */
+  public int read(byte[] dst, int offset, int length) {
+    long t = tail;
+    int count = Math.min(length, (int) (head - t));
+    int start = (int) (t & mask);
+    int first = Math.min(count, buffer.length - start);
+    System.arraycopy(buffer, start, dst, offset, first);
+    System.arraycopy(buffer, 0, dst, offset + first, count - first);
+    tail = t + count;
+    return count;
+  }
+
+  /**
+   * Removes up to {@code length} bytes without returning them. Called by the
+   * consumer.
+   *
+   * @return the number of bytes removed
+   */
+  public int skip(int length) {
+    long t = tail;
+    int count = Math.min(length, (int) (head - t));
+    tail = t + count;
+    return count;
+  }
+
+  /**
+   * Returns the offset from the next byte to be read of the first byte with
+   * the given value, or -1 if there is none. Called by the consumer.
+   */
+  public int indexOf(byte value) {
+    long t = tail;
+    int count = (int) (head - t);
+    for (int i = 0; i < count; i++) {
+      if (buffer[(int) ((t + i) & mask)] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Removes all bytes from the buffer. Called by the consumer.
+   */
+  public void clear() {
+    tail = head;
+  }
+}
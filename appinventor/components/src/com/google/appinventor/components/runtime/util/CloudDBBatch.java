@@ -0,0 +1,184 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The requests made to a CloudDB component in a short time, grouped into as few Redis commands
+ * as keep them in order, so that they can be sent to the server together in one pipeline.
+ *
+ * <p>Requests are grouped into steps as they are added:</p>
+ * <ul>
+ *   <li>Consecutive stores to the same tag become one {@link Store}, which sets the last value
+ *   and publishes all of them.</li>
+ *   <li>Consecutive fetches become one {@link Fetch}, which gets each of their tags once with a
+ *   multi-key GET.</li>
+ *   <li>Other commands are {@link Command} steps of their own.</li>
+ * </ul>
+ *
+ * @param <F> the type of the fetch requests, which are handed back with the tag they fetch
+ * @param <C> the type of the other commands
+ */
+public final class CloudDBBatch<F, C> {
+
+  /**
+   * One step of a batch.
+   */
+  public abstract static class Step {
+    private Step() {
+    }
+  }
+
+  /**
+   * Stores one or more values at a tag, in order.
+   */
+  public static final class Store extends Step {
+    private final String tag;
+    private final List<String> values = new ArrayList<String>();
+
+    private Store(String tag) {
+      this.tag = tag;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+
+    /**
+     * Returns the value that the tag ends up with.
+     */
+    public String getValue() {
+      return values.get(values.size() - 1);
+    }
+
+    /**
+     * Returns all of the values stored, in order.
+     */
+    public List<String> getValues() {
+      return Collections.unmodifiableList(values);
+    }
+  }
+
+  /**
+   * Fetches the values of one or more tags.
+   *
+   * @param <F> the type of the fetch requests
+   */
+  public static final class Fetch<F> extends Step {
+    private final Map<String, List<F>> requests = new LinkedHashMap<String, List<F>>();
+
+    private Fetch() {
+    }
+
+    /**
+     * Returns the tags to fetch, each once, in the order they were first requested.
+     */
+    public List<String> getTags() {
+      return new ArrayList<String>(requests.keySet());
+    }
+
+    /**
+     * Returns the requests for a tag, in the order they were made.
+     */
+    public List<F> getRequests(String tag) {
+      List<F> list = requests.get(tag);
+      return list == null ? Collections.<F>emptyList() : Collections.unmodifiableList(list);
+    }
+  }
+
+  /**
+   * Runs a command that is not grouped with any other.
+   *
+   * @param <C> the type of the command
+   */
+  public static final class Command<C> extends Step {
+    private final C command;
+
+    private Command(C command) {
+      this.command = command;
+    }
+
+    public C getCommand() {
+      return command;
+    }
+  }
+
+  private final List<Step> steps = new ArrayList<Step>();
+  private int size = 0;
+
+  /**
+   * Adds a request to store a value at a tag.
+   */
+  public void store(String tag, String value) {
+    Step last = getLastStep();
+    Store store;
+    if (last instanceof Store && ((Store) last).tag.equals(tag)) {
+      store = (Store) last;
+    } else {
+      store = new Store(tag);
+      steps.add(store);
+    }
+    store.values.add(value);
+    size++;
+  }
+
+  /**
+   * Adds a request to fetch the value of a tag.
+   */
+  @SuppressWarnings("unchecked")
+  public void fetch(String tag, F request) {
+    Step last = getLastStep();
+    Fetch<F> fetch;
+    if (last instanceof Fetch) {
+      fetch = (Fetch<F>) last;
+    } else {
+      fetch = new Fetch<F>();
+      steps.add(fetch);
+    }
+    List<F> list = fetch.requests.get(tag);
+    if (list == null) {
+      list = new ArrayList<F>();
+      fetch.requests.put(tag, list);
+    }
+    list.add(request);
+    size++;
+  }
+
+  /**
+   * Adds a command that runs after the requests added before it and before those added after it.
+   */
+  public void command(C command) {
+    steps.add(new Command<C>(command));
+    size++;
+  }
+
+  /**
+   * Returns the steps of the batch, in the order they must be run.
+   */
+  public List<Step> getSteps() {
+    return Collections.unmodifiableList(steps);
+  }
+
+  /**
+   * Returns the number of requests added to the batch.
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private Step getLastStep() {
+    return steps.isEmpty() ? null : steps.get(steps.size() - 1);
+  }
+}
@@ -38,6 +38,7 @@ public class CloudDBJedisListener extends JedisPubSub {
     if (DEBUG) {
       Log.d(LOG_TAG, "onSubscribe " + channel + " " + subscribedChannels);
     }
+    cloudDB.listenerSubscribed();
   }
 
   @Override
@@ -54,15 +55,25 @@ public class CloudDBJedisListener extends JedisPubSub {
       }
       String tag = (String) data.get(0);   // The variable that was changed
       List<Object> valueList = (List<Object>) data.get(1);
+      RemoteValueCache cache = cloudDB.getCache();
+      if (cache != null && valueList.isEmpty()) {
+        cache.remove(tag);      // The tag was cleared
+      }
       for (Object value : valueList) {
         // Note: DataChanged will arrange to dispatch the event
         // on the UI thread.
         String retValue = JsonUtil.getJsonRepresentationIfValueFileName(value);
-        if (retValue == null) {
-          cloudDB.DataChanged(tag, value);
-        } else {
-          cloudDB.DataChanged(tag, retValue);
+        if (retValue != null) {
+          value = retValue;
+        }
+        if (cache != null) {
+          if (value instanceof String) {
+            cache.put(tag, (String) value);
+          } else {
+            cache.remove(tag);  // Only strings are cached; drop the old value
+          }
         }
+        cloudDB.DataChanged(tag, value);
       }
     } catch (JSONException e) {
       Log.e(LOG_TAG, "onMessage: JSONException", e);
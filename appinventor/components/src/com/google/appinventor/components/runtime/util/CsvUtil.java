@@ -8,6 +8,7 @@ package com.google.appinventor.components.runtime.util;
 
 import com.google.appinventor.components.runtime.collect.Lists;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
@@ -82,6 +83,81 @@ public final class CsvUtil {
     }
   }
 
+  /**
+   * Reads the rows of a CSV table one at a time, so that large tables can be
+   * processed in pieces rather than being held in memory as a whole.
+   *
+   * <p>Rows may be narrowed to a subset of their columns, and reading stops
+   * after a given number of rows. A column that is missing from a short row
+   * is returned as the empty string.</p>
+   */
+  public static final class RowReader implements Closeable {
+    private final Reader in;
+    private final CsvParser parser;
+    private final int[] columns;
+    private final int maxRows;
+    private int rowCount;
+
+    /**
+     * Creates a new row reader.
+     *
+     * @param in the source of the CSV text
+     * @param columns the zero-based indices of the columns to return, in
+     *        order, or null to return every column
+     * @param maxRows the maximum number of rows to return, or 0 for no limit
+     */
+    public RowReader(Reader in, int[] columns, int maxRows) {
+      this.in = in;
+      this.parser = new CsvParser(in);
+      this.columns = columns;
+      this.maxRows = maxRows;
+    }
+
+    public boolean hasNext() {
+      return (maxRows <= 0 || rowCount < maxRows) && parser.hasNext();
+    }
+
+    public YailList next() {
+      List<String> row = parser.next();
+      rowCount++;
+      if (columns == null) {
+        return YailList.makeList(row);
+      }
+      List<String> projected = new ArrayList<String>(columns.length);
+      for (int column : columns) {
+        projected.add(column < row.size() ? row.get(column) : "");
+      }
+      return YailList.makeList(projected);
+    }
+
+    /**
+     * Reads up to {@code batchSize} rows.
+     *
+     * @return a list of rows, which is empty once the table is exhausted
+     * @throws Exception if the CSV text cannot be read or parsed
+     */
+    public YailList nextBatch(int batchSize) throws Exception {
+      List<YailList> batch = new ArrayList<YailList>(batchSize);
+      while (batch.size() < batchSize && hasNext()) {
+        batch.add(next());
+      }
+      parser.throwAnyProblem();
+      return YailList.makeList(batch);
+    }
+
+    /**
+     * Returns the number of rows read so far.
+     */
+    public int getRowCount() {
+      return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
   /*
    * Note: The CsvParser class was adapted from
    * java/com/google/devtools/ode/server/util/CsvParser.java, which in turn was
@@ -73,6 +73,41 @@ class DummyMapController implements MapController {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void setMarkerClusteringEnabled(boolean enabled) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean isMarkerClusteringEnabled() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setTileCacheSize(int megabytes) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getTileCacheSize() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getTileLatency() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean downloadTiles(BoundingBox bbox, int minZoom, int maxZoom) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void cancelDownloads() {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void setZoomEnabled(boolean enabled) {
     throw new UnsupportedOperationException();
@@ -189,6 +224,16 @@ class DummyMapController implements MapController {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void beginFeatureBatch() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void endFeatureBatch() {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void showFeature(MapFeature feature) {
     throw new UnsupportedOperationException();
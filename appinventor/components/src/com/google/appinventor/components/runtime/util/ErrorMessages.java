@@ -86,6 +86,7 @@ public final class ErrorMessages {
   public static final int ERROR_BLUETOOTH_UNABLE_TO_READ = 517;
   public static final int ERROR_BLUETOOTH_END_OF_STREAM = 518;
   public static final int ERROR_BLUETOOTH_UNSUPPORTED_ENCODING = 519;
+  public static final int ERROR_BLUETOOTH_RECEIVING_IN_BACKGROUND = 520;
   // ActivityStarter errors
   public static final int ERROR_ACTIVITY_STARTER_NO_CORRESPONDING_ACTIVITY = 601;
   public static final int ERROR_ACTIVITY_STARTER_NO_ACTION_INFO = 602;
@@ -166,6 +167,7 @@ public final class ErrorMessages {
   public static final int ERROR_REPL_SECURITY_ERROR = 1801;
   // AccelerometerSensor Errors
   public static final int ERROR_BAD_VALUE_FOR_ACCELEROMETER_SENSITIVITY = 1901;
+  public static final int ERROR_BAD_VALUE_FOR_SENSOR_SAMPLING_MODE = 1902;
 
   //Sharing Errors
   public static final int ERROR_FILE_NOT_FOUND_FOR_SHARING = 2001;
@@ -177,6 +179,8 @@ public final class ErrorMessages {
   public static final int ERROR_CANNOT_WRITE_TO_FILE = 2104;
   public static final int ERROR_CANNOT_DELETE_ASSET = 2105;
   public static final int ERROR_CANNOT_WRITE_ASSET = 2106;
+  public static final int ERROR_INVALID_CSV_COLUMN = 2107;
+  public static final int ERROR_CANNOT_PARSE_CSV = 2108;
 
   // Yandex.Translate errors
   public static final int ERROR_TRANSLATE_NO_KEY_FOUND = 2201;
@@ -243,6 +247,7 @@ public final class ErrorMessages {
   public static final int ERROR_INVALID_LONGITUDE_IN_POINT_AT_INDEX = 3419;
   public static final int ERROR_EXPECTED_ARRAY_AT_INDEX = 3420;
   public static final int ERROR_INVALID_UNIT_SYSTEM = 3421;
+  public static final int ERROR_INVALID_ZOOM_RANGE = 3422;
 
   // Phone Call Errors
   public static final int ERROR_NO_CALL_PERMISSION = 3501;
@@ -421,6 +426,8 @@ public final class ErrorMessages {
         "End of stream has been reached.");
     errorMessages.put(ERROR_BLUETOOTH_UNSUPPORTED_ENCODING,
         "The encoding %s is not supported.");
+    errorMessages.put(ERROR_BLUETOOTH_RECEIVING_IN_BACKGROUND,
+        "Data is being received in the background. Call StopReceiving first.");
     // ActivityStarter errors
     errorMessages.put(ERROR_ACTIVITY_STARTER_NO_CORRESPONDING_ACTIVITY,
         "No corresponding activity was found.");
@@ -547,6 +554,9 @@ public final class ErrorMessages {
     errorMessages.put(ERROR_BAD_VALUE_FOR_ACCELEROMETER_SENSITIVITY,
        "The value -- %s -- provided for AccelerometerSensor's sensitivity was bad. " +
        "The only legal values are 1, 2, or 3.");
+    errorMessages.put(ERROR_BAD_VALUE_FOR_SENSOR_SAMPLING_MODE,
+       "The value -- %s -- provided for SamplingMode was bad. " +
+       "The only legal values are 0, 1, 2, or 3.");
     //Sharing errors
     errorMessages.put(ERROR_FILE_NOT_FOUND_FOR_SHARING,
         "The File %s could not be found on your device.");
@@ -557,6 +567,9 @@ public final class ErrorMessages {
     errorMessages.put(ERROR_CANNOT_WRITE_TO_FILE, "Cannot write to file %s");
     errorMessages.put(ERROR_CANNOT_DELETE_ASSET, "Cannot delete asset file at %s");
     errorMessages.put(ERROR_CANNOT_WRITE_ASSET, "Cannot write asset file at %s");
+    errorMessages.put(ERROR_INVALID_CSV_COLUMN,
+        "The column %s is not valid. Columns are numbered starting at 1.");
+    errorMessages.put(ERROR_CANNOT_PARSE_CSV, "The file %s could not be parsed as CSV: %s");
     //Yandex.Translate translate Errors
     errorMessages.put(ERROR_TRANSLATE_NO_KEY_FOUND, "Missing API key for the Yandex.Translate " +
         "service.");
@@ -631,6 +644,8 @@ public final class ErrorMessages {
         "Expected an array of values at index %1$d, but got %2$s.");
     errorMessages.put(ERROR_INVALID_UNIT_SYSTEM,
         "Invalid unit system %1$d given to ScaleUnits. Expected either 1 or 2.");
+    errorMessages.put(ERROR_INVALID_ZOOM_RANGE,
+        "Invalid zoom levels %1$d to %2$d given to DownloadTiles.");
 
     // Phone Call errors
     errorMessages.put(ERROR_NO_CALL_PERMISSION,
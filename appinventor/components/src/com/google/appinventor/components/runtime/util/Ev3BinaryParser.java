@@ -504,7 +504,48 @@ public class Ev3BinaryParser {
   }
 
   public static byte[] encodeDirectCommand(byte opcode, boolean needReply, int globalAllocation, int localAllocation, String paramFormat, Object... parameters) {
-    if (globalAllocation < 0 || globalAllocation > 0x3ff || localAllocation < 0 || localAllocation > 0x3f || paramFormat.length() != parameters.length)
+    return encodeDirectCommand(needReply, globalAllocation, localAllocation,
+                               encodeInstruction(opcode, paramFormat, parameters));
+  }
+
+  /**
+   * Encodes a direct command made of several instructions, such as the
+   * INPUT_DEVICE reads of several sensors, so that they are carried out by a
+   * single round trip to the brick. Each instruction writes its result to
+   * its own offset in the global variables, which are returned together in
+   * the reply.
+   */
+  public static byte[] encodeDirectCommand(boolean needReply, int globalAllocation,
+                                           int localAllocation, byte[]... instructions) {
+    if (globalAllocation < 0 || globalAllocation > 0x3ff ||
+        localAllocation < 0 || localAllocation > 0x3f)
+      throw new IllegalArgumentException();
+
+    // calculate buffer size
+    int bufferCapacity = 3;
+    for (byte[] array : instructions)
+      bufferCapacity += array.length;
+
+    // generate byte buffer
+    ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(needReply ? Ev3Constants.DirectCommandType.DIRECT_COMMAND_REPLY :
+                           Ev3Constants.DirectCommandType.DIRECT_COMMAND_NO_REPLY);
+    buffer.put(new byte[] {(byte) (globalAllocation & 0xff),
+                           (byte) (((globalAllocation >>> 8) & 0x3) | (localAllocation << 2))});
+
+    for (byte[] array : instructions)
+      buffer.put(array);
+
+    return buffer.array();
+  }
+
+  /**
+   * Encodes an opcode and its parameters, for use with
+   * {@link #encodeDirectCommand(boolean, int, int, byte[]...)}.
+   */
+  public static byte[] encodeInstruction(byte opcode, String paramFormat, Object... parameters) {
+    if (paramFormat.length() != parameters.length)
       throw new IllegalArgumentException();
 
 
@@ -578,17 +619,12 @@ public class Ev3BinaryParser {
     }
 
     // calculate buffer size
-    int bufferCapacity = 4;
+    int bufferCapacity = 1;
     for (byte[] array : payloads)
       bufferCapacity += array.length;
 
     // generate byte buffer
     ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
-    buffer.order(ByteOrder.LITTLE_ENDIAN);
-    buffer.put(needReply ? Ev3Constants.DirectCommandType.DIRECT_COMMAND_REPLY :
-                           Ev3Constants.DirectCommandType.DIRECT_COMMAND_NO_REPLY);
-    buffer.put(new byte[] {(byte) (globalAllocation & 0xff),
-                           (byte) (((globalAllocation >>> 8) & 0x3) | (localAllocation << 2))});
     buffer.put(opcode);
 
     for (byte[] array : payloads)
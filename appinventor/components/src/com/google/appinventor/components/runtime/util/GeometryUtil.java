@@ -17,6 +17,7 @@ import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
 import org.osmdroid.api.IGeoPoint;
 
 import com.google.appinventor.components.runtime.util.MapFactory.MapCircle;
@@ -43,6 +44,9 @@ public final class GeometryUtil {
   public static final double EARTH_RADIUS = 6378137.0;
   public static final double ONE_DEG_IN_METERS = EARTH_RADIUS * Math.PI / 180.0;
   public static final int WEB_MERCATOR_SRID = 4326;
+  private static final int TILE_SIZE = 256;
+  // The latitude beyond which Web Mercator maps are cut off.
+  private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
   private static final GeometryFactory FACTORY =
       new GeometryFactory(new PrecisionModel(), WEB_MERCATOR_SRID);
 
@@ -226,6 +230,70 @@ public final class GeometryUtil {
     return new Coordinate(p.getLongitude(), p.getLatitude());
   }
 
+  /**
+   * Returns the width of half a pixel at the given zoom level, in degrees of longitude. Points of a
+   * line that lie closer than this to the simplified line on the map cannot be told apart on
+   * screen.
+   *
+   * @param zoom the zoom level of the map
+   * @return the tolerance to use with {@link #simplifyPoints(List, double, int)}
+   */
+  public static double getSimplificationTolerance(int zoom) {
+    return 180.0 / (TILE_SIZE * Math.pow(2, Math.max(0, zoom)));
+  }
+
+  /**
+   * Simplifies a line or polygon ring using the Douglas-Peucker algorithm, so that it can be drawn
+   * with fewer points.
+   *
+   * <p>Distances are measured on the Web Mercator projection used by the map, in which a degree of
+   * latitude is drawn taller than a degree of longitude the further it is from the equator.</p>
+   *
+   * @param points the points of the line or ring
+   * @param tolerance the largest distance, in degrees of longitude, that a removed point may lie
+   *                  from the simplified line on the map
+   * @param minimum the fewest points the result may have. If simplification would remove more
+   *                points than this allows, the original points are returned.
+   * @return the simplified points, or <code>points</code> itself if no points could be removed
+   */
+  public static List<GeoPoint> simplifyPoints(List<GeoPoint> points, double tolerance,
+      int minimum) {
+    if (points.size() <= minimum || tolerance <= 0) {
+      return points;
+    }
+    Coordinate[] coordinates = new Coordinate[points.size()];
+    int i = 0;
+    for (GeoPoint p : points) {
+      coordinates[i++] = new Coordinate(p.getLongitude(), mercatorY(p.getLatitude()));
+    }
+    Coordinate[] simplified = DouglasPeuckerSimplifier.simplify(
+        FACTORY.createLineString(coordinates), tolerance).getCoordinates();
+    if (simplified.length == coordinates.length || simplified.length < minimum) {
+      return points;
+    }
+    List<GeoPoint> result = new ArrayList<GeoPoint>(simplified.length);
+    for (Coordinate c : simplified) {
+      result.add(new GeoPoint(mercatorLatitude(c.y), c.x));
+    }
+    return result;
+  }
+
+  /*
+   * Returns the position of a latitude on the Web Mercator y axis, in units that are as long as a
+   * degree of longitude.
+   */
+  private static double mercatorY(double latitude) {
+    latitude = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+    return Math.toDegrees(Math.log(Math.tan(Math.PI / 4 + Math.toRadians(latitude) / 2)));
+  }
+
+  /*
+   * Returns the latitude at a position on the Web Mercator y axis given by mercatorY.
+   */
+  private static double mercatorLatitude(double y) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.toRadians(y))));
+  }
+
   public static double distanceBetween(IGeoPoint a, IGeoPoint b) {
     double lat1 = Math.toRadians(a.getLatitude());
     double lng1 = Math.toRadians(a.getLongitude());
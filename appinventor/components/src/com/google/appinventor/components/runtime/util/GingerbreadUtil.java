@@ -9,6 +9,7 @@ package com.google.appinventor.components.runtime.util;
 import android.app.Activity;
 import android.content.Intent;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.nfc.NdefMessage;
 import android.nfc.NdefRecord;
 import android.nfc.NfcAdapter;
@@ -63,6 +64,14 @@ public class GingerbreadUtil {
     return false;
   }
 
+  /**
+   * Saves the changes in the given editor to disk in the background. The
+   * changes are visible to readers as soon as this returns.
+   */
+  public static void applyPreferences(SharedPreferences.Editor editor) {
+    editor.apply();
+  }
+
   /**
    * Creates a new NfcAdapter instance.
    */
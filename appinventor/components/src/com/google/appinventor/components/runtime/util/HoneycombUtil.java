@@ -6,6 +6,8 @@
 package com.google.appinventor.components.runtime.util;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Spinner;
@@ -41,4 +43,13 @@ public class HoneycombUtil {
   public static Spinner makeSpinner(Context activity) {
     return new Spinner(activity, Spinner.MODE_DIALOG);
   }
+
+  /**
+   * Makes a decode with the given options produce a mutable bitmap, stored in
+   * {@code reuse} if it is not null.
+   */
+  public static void setInBitmap(BitmapFactory.Options options, Bitmap reuse) {
+    options.inMutable = true;
+    options.inBitmap = reuse;
+  }
 }
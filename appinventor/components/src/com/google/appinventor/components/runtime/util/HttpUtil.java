@@ -0,0 +1,234 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Process-wide support for the HTTP requests made by components such as Web,
+ * TinyWebDB and FusiontablesControl.
+ *
+ * <p>Requests run on a small shared pool of worker threads rather than on a
+ * new thread each, so many components polling at once cannot flood the
+ * device with threads. Responses to GET requests are kept in an on-disk
+ * cache that honors the Cache-Control, Expires, ETag and Last-Modified
+ * headers, and response bodies are always read to the end and closed so
+ * that the underlying keep-alive connection can be reused.</p>
+ *
+ */
+public final class HttpUtil {
+
+  /**
+   * The largest number of requests that run at the same time. Further
+   * requests wait in a queue.
+   */
+  public static final int MAX_CONCURRENT_REQUESTS = 4;
+
+  private static final String LOG_TAG = "HttpUtil";
+  private static final String CACHE_DIR = "http";
+  private static final long CACHE_SIZE = 10 * 1024 * 1024;
+  private static final int KEEP_ALIVE_SECONDS = 30;
+  private static final int BUFFER_SIZE = 8192;
+
+  private static ExecutorService executor;
+  private static boolean cacheInstalled;
+
+  private HttpUtil() {
+  }
+
+  /**
+   * Runs the given request on the shared pool of HTTP worker threads.
+   *
+   * @param request the request to run
+   */
+  public static void execute(Runnable request) {
+    getExecutor().execute(request);
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    // Created lazily since the component descriptor generator loads
+    // component classes without the Android runtime.
+    if (executor == null) {
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_CONCURRENT_REQUESTS,
+          MAX_CONCURRENT_REQUESTS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "HttpUtil #" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      if (SdkLevel.getLevel() >= SdkLevel.LEVEL_GINGERBREAD) {
+        // Let idle workers exit so an app that stops making requests holds no threads.
+        pool.allowCoreThreadTimeOut(true);
+      }
+      executor = pool;
+    }
+    return executor;
+  }
+
+  /**
+   * Installs the process-wide HTTP response cache used by
+   * {@link HttpURLConnection}, if the device supports one and it has not
+   * already been installed.
+   *
+   * @param context the context whose cache directory holds the responses
+   */
+  public static synchronized void installResponseCache(Context context) {
+    if (cacheInstalled || context == null) {
+      return;
+    }
+    cacheInstalled = true;
+    if (SdkLevel.getLevel() >= SdkLevel.LEVEL_ICE_CREAM_SANDWICH) {
+      File dir = new File(context.getCacheDir(), CACHE_DIR);
+      try {
+        IceCreamSandwichUtil.installHttpResponseCache(dir, CACHE_SIZE);
+      } catch (IOException e) {
+        Log.w(LOG_TAG, "Unable to install the HTTP response cache", e);
+      }
+    }
+  }
+
+  /**
+   * Returns the response body of the given connection. HttpURLConnection
+   * asks for and decodes gzip itself; a gzip body is only decoded here if the
+   * app asked for it with its own Accept-Encoding header. If the response
+   * indicates an error, the error body is returned instead. The caller must
+   * close the returned stream.
+   *
+   * @param connection a connection whose request has been sent
+   * @return the response body, which is empty if there is none
+   * @throws IOException if the response cannot be read
+   */
+  public static InputStream getResponseStream(HttpURLConnection connection) throws IOException {
+    // According to the Android reference documentation for HttpURLConnection: If the HTTP response
+    // indicates that an error occurred, getInputStream() will throw an IOException. Use
+    // getErrorStream() to read the error response.
+    InputStream in;
+    try {
+      in = connection.getInputStream();
+    } catch (IOException e) {
+      in = connection.getErrorStream();
+      if (in == null) {
+        return new ByteArrayInputStream(new byte[0]);
+      }
+    }
+    if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+      in = new GZIPInputStream(in, BUFFER_SIZE);
+    }
+    return in;
+  }
+
+  /**
+   * Returns the character set named by the response's Content-Type header,
+   * or UTF-8 if it does not name one that is supported.
+   *
+   * @param connection a connection whose request has been sent
+   */
+  public static String getResponseCharset(HttpURLConnection connection) {
+    String contentType = connection.getContentType();
+    if (contentType != null) {
+      for (String parameter : contentType.split(";")) {
+        parameter = parameter.trim();
+        if (parameter.regionMatches(true, 0, "charset=", 0, 8)) {
+          String charset = parameter.substring(8).trim();
+          if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\"")) {
+            charset = charset.substring(1, charset.length() - 1);
+          }
+          try {
+            if (Charset.isSupported(charset)) {
+              return charset;
+            }
+          } catch (IllegalArgumentException e) {
+            // Not a legal charset name, so fall back to UTF-8.
+          }
+        }
+      }
+    }
+    return "UTF-8";
+  }
+
+  /**
+   * Reads the whole response body of the given connection as text.
+   *
+   * @param connection a connection whose request has been sent
+   * @return the response body
+   * @throws IOException if the response cannot be read
+   */
+  public static String readResponseText(HttpURLConnection connection) throws IOException {
+    Reader reader = new InputStreamReader(getResponseStream(connection),
+        getResponseCharset(connection));
+    try {
+      int contentLength = connection.getContentLength();
+      StringBuilder sb = (contentLength > 0 && connection.getContentEncoding() == null)
+          ? new StringBuilder(contentLength)
+          : new StringBuilder();
+      char[] buf = new char[BUFFER_SIZE / 2];
+      int read;
+      while ((read = reader.read(buf)) != -1) {
+        sb.append(buf, 0, read);
+      }
+      return sb.toString();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Streams the response body of the given connection into a file, without
+   * holding the body in memory.
+   *
+   * @param connection a connection whose request has been sent
+   * @param file the file to write
+   * @return the number of bytes written
+   * @throws IOException if the response cannot be read or the file written
+   */
+  public static long copyResponseToFile(HttpURLConnection connection, File file)
+      throws IOException {
+    InputStream in = new BufferedInputStream(getResponseStream(connection), BUFFER_SIZE);
+    try {
+      OutputStream out = new FileOutputStream(file);
+      try {
+        long total = 0;
+        byte[] buf = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+          out.write(buf, 0, read);
+          total += read;
+        }
+        out.flush();
+        return total;
+      } finally {
+        out.close();
+      }
+    } finally {
+      in.close();
+    }
+  }
+}
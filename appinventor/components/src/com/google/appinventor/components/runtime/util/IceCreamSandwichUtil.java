@@ -5,10 +5,14 @@
 
 package com.google.appinventor.components.runtime.util;
 
+import android.net.http.HttpResponseCache;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.widget.TextView;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * IceCreamSandwichUtil provides implementation of functionality that was added in Android Ice Cream
  * Sandwich 4.0 (API 14).
@@ -29,4 +33,17 @@ public final class IceCreamSandwichUtil {
       view.setAllCaps(allCaps);
     }
   }
+
+  /**
+   * Installs a process-wide HTTP response cache for {@code HttpURLConnection}
+   * in the given directory, unless one is already installed.
+   * @param directory the directory in which to store cached responses
+   * @param maxSize the maximum size of the cache, in bytes
+   * @throws IOException if the cache cannot be created
+   */
+  public static void installHttpResponseCache(File directory, long maxSize) throws IOException {
+    if (HttpResponseCache.getInstalled() == null) {
+      HttpResponseCache.install(directory, maxSize);
+    }
+  }
 }
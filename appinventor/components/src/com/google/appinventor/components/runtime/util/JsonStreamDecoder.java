@@ -0,0 +1,434 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.JSONException;
+
+/**
+ * Decodes JSON text directly into the list representation used by
+ * {@link JsonUtil#getObjectFromJson(String)}, reading the text in a single
+ * pass without building an intermediate {@code JSONObject}/{@code JSONArray}
+ * tree.
+ *
+ * <p>The accepted syntax and the resulting values match the
+ * {@code org.json.JSONTokener} based decoder it replaces, as it runs on
+ * Android: JSON arrays become lists, JSON objects become lists of (key value)
+ * pairs sorted by key, unquoted text ends at whitespace and is read as a
+ * number where Android's {@code JSONTokener} would, and otherwise as a
+ * string, and within arrays and objects
+ * {@code null} becomes the string "null" and the strings "true" and "false"
+ * become booleans. Any text after the first complete value is ignored and
+ * is not read.</p>
+ *
+ */
+public final class JsonStreamDecoder {
+
+  /**
+   * The default limit on the nesting of arrays and objects.
+   */
+  public static final int DEFAULT_MAX_DEPTH = 512;
+
+  // Stands in for the JSON null literal while decoding.
+  private static final Object NULL = new Object();
+
+  private final Reader in;
+  private final int maxDepth;
+  private final long maxLength;
+  private final char[] buf = new char[4096];
+  private final StringBuilder sb = new StringBuilder();
+  private int pos;
+  private int limit;
+  private long consumed;
+  private boolean eof;
+  private int depth;
+
+  /**
+   * Creates a new decoder.
+   *
+   * @param in the source of the JSON text
+   * @param maxDepth the maximum nesting of arrays and objects
+   * @param maxLength the maximum number of characters to read, or 0 for no
+   *     limit
+   */
+  public JsonStreamDecoder(Reader in, int maxDepth, long maxLength) {
+    this.in = in;
+    this.maxDepth = maxDepth;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Decodes the first JSON value in the text.
+   *
+   * @return a list, String, Boolean or Number, or null for the JSON null
+   *     literal
+   * @throws JSONException if the text is not valid JSON, or exceeds the depth
+   *     or length limit
+   */
+  public Object decode() throws JSONException {
+    Object value = nextValue();
+    return value == NULL ? null : value;
+  }
+
+  private Object nextValue() throws JSONException {
+    char c = nextClean();
+    switch (c) {
+      case '"':
+      case '\'':
+        return nextString(c);
+      case '[':
+        return nextArray();
+      case '{':
+        return nextObject();
+      default:
+        back();
+        return nextLiteral();
+    }
+  }
+
+  private List<Object> nextArray() throws JSONException {
+    enter();
+    List<Object> list = new ArrayList<Object>();
+    if (nextClean() == ']') {
+      depth--;
+      return list;
+    }
+    back();
+    while (true) {
+      if (nextClean() == ',') {
+        back();
+        list.add("null");
+      } else {
+        back();
+        list.add(convertItem(nextValue()));
+      }
+      switch (nextClean()) {
+        case ';':
+        case ',':
+          if (nextClean() == ']') {
+            depth--;
+            return list;
+          }
+          back();
+          break;
+        case ']':
+          depth--;
+          return list;
+        default:
+          throw syntaxError("Expected a ',' or ']'");
+      }
+    }
+  }
+
+  private List<Object> nextObject() throws JSONException {
+    enter();
+    // A later value for a repeated key replaces the earlier one.
+    Map<String, Object> members = new TreeMap<String, Object>();
+    while (true) {
+      char c = nextClean();
+      switch (c) {
+        case 0:
+          throw syntaxError("A JSONObject text must end with '}'");
+        case '}':
+          depth--;
+          return toPairs(members);
+        default:
+          back();
+          Object key = nextValue();
+          if (key instanceof List) {
+            throw syntaxError("Expected a key");
+          }
+          String name = key == NULL ? "null" : key.toString();
+          c = nextClean();
+          if (c == '=') {
+            if (next() != '>') {
+              back();
+            }
+          } else if (c != ':') {
+            throw syntaxError("Expected a ':' after a key");
+          }
+          Object value = nextValue();
+          if (value instanceof Double
+              && (((Double) value).isInfinite() || ((Double) value).isNaN())) {
+            // Android's JSONObject does not allow these as values.
+            throw new JSONException("Forbidden numeric value: " + value);
+          }
+          members.put(name, convertItem(value));
+      }
+      switch (nextClean()) {
+        case ';':
+        case ',':
+          if (nextClean() == '}') {
+            depth--;
+            return toPairs(members);
+          }
+          back();
+          break;
+        case '}':
+          depth--;
+          return toPairs(members);
+        default:
+          throw syntaxError("Expected a ',' or '}'");
+      }
+    }
+  }
+
+  private static List<Object> toPairs(Map<String, Object> members) {
+    List<Object> pairs = new ArrayList<Object>(members.size());
+    for (Map.Entry<String, Object> member : members.entrySet()) {
+      List<Object> pair = new ArrayList<Object>(2);
+      pair.add(member.getKey());
+      pair.add(member.getValue());
+      pairs.add(pair);
+    }
+    return pairs;
+  }
+
+  /**
+   * Converts a value found inside an array or object, following
+   * {@link JsonUtil#convertJsonItem(Object)}.
+   */
+  private static Object convertItem(Object value) {
+    if (value == NULL) {
+      return "null";
+    }
+    if (value instanceof String) {
+      String s = (String) value;
+      if (s.equalsIgnoreCase("true")) {
+        return true;
+      } else if (s.equalsIgnoreCase("false")) {
+        return false;
+      }
+    }
+    return value;
+  }
+
+  private String nextString(char quote) throws JSONException {
+    sb.setLength(0);
+    while (true) {
+      // Copy runs of ordinary characters straight from the buffer.
+      int start = pos;
+      while (pos < limit) {
+        char c = buf[pos];
+        if (c == quote || c == '\\' || c == '\n' || c == '\r') {
+          break;
+        }
+        pos++;
+      }
+      sb.append(buf, start, pos - start);
+      char c = next();
+      switch (c) {
+        case 0:
+        case '\n':
+        case '\r':
+          throw syntaxError("Unterminated string");
+        case '\\':
+          c = next();
+          switch (c) {
+            case 'b':
+              sb.append('\b');
+              break;
+            case 't':
+              sb.append('\t');
+              break;
+            case 'n':
+              sb.append('\n');
+              break;
+            case 'f':
+              sb.append('\f');
+              break;
+            case 'r':
+              sb.append('\r');
+              break;
+            case 'u':
+              sb.append(nextUnicodeEscape());
+              break;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+              sb.append(c);
+              break;
+            default:
+              throw syntaxError("Illegal escape.");
+          }
+          break;
+        default:
+          if (c == quote) {
+            return sb.toString();
+          }
+          sb.append(c);
+      }
+    }
+  }
+
+  private char nextUnicodeEscape() throws JSONException {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = Character.digit(next(), 16);
+      if (digit < 0) {
+        throw syntaxError("Illegal escape.");
+      }
+      value = (value << 4) | digit;
+    }
+    return (char) value;
+  }
+
+  /**
+   * Reads unquoted text, which like Android's {@code JSONTokener} ends at
+   * whitespace and at the characters that delimit values.
+   */
+  private Object nextLiteral() throws JSONException {
+    sb.setLength(0);
+    char c = next();
+    while (c != 0 && "{}[]/\\:,=;# \t\f\r\n".indexOf(c) < 0) {
+      sb.append(c);
+      c = next();
+    }
+    back();
+    if (sb.length() == 0) {
+      throw syntaxError("Missing value");
+    }
+    return literalToValue(sb.toString());
+  }
+
+  /**
+   * Converts unquoted text to a value following the rules of Android's
+   * {@code JSONTokener}: integers may be written in hexadecimal with a 0x
+   * prefix or in octal with a leading 0, and anything else that
+   * {@link Double#valueOf(String)} accepts, including integers too large for
+   * a long, is a Double.
+   */
+  private static Object literalToValue(String literal) {
+    if (literal.equalsIgnoreCase("null")) {
+      return NULL;
+    }
+    if (literal.equalsIgnoreCase("true")) {
+      return Boolean.TRUE;
+    }
+    if (literal.equalsIgnoreCase("false")) {
+      return Boolean.FALSE;
+    }
+    if (literal.indexOf('.') < 0) {
+      int base = 10;
+      String number = literal;
+      if (number.startsWith("0x") || number.startsWith("0X")) {
+        number = number.substring(2);
+        base = 16;
+      } else if (number.startsWith("0") && number.length() > 1) {
+        number = number.substring(1);
+        base = 8;
+      }
+      try {
+        long l = Long.parseLong(number, base);
+        if (l == (int) l) {
+          return (int) l;
+        }
+        return l;
+      } catch (NumberFormatException e) {
+        // Too large for a long, an exponent or not a number, so try a Double.
+      }
+    }
+    try {
+      return Double.valueOf(literal);
+    } catch (NumberFormatException e) {
+      // Not a number, so it is returned as a string.
+    }
+    return literal;
+  }
+
+  private void enter() throws JSONException {
+    if (++depth > maxDepth) {
+      throw syntaxError("JSON text is nested more than " + maxDepth + " levels deep");
+    }
+  }
+
+  /**
+   * Returns the next character that is not whitespace, or 0 at the end of the
+   * text.
+   */
+  private char nextClean() throws JSONException {
+    while (true) {
+      char c = next();
+      if (c == 0 || c > ' ') {
+        return c;
+      }
+    }
+  }
+
+  /**
+   * Returns the next character, or 0 at the end of the text.
+   */
+  private char next() throws JSONException {
+    if (pos >= limit && (pos > limit || !fill())) {
+      // Stay one past the end so that back() leaves us at the end.
+      pos = limit + 1;
+      return 0;
+    }
+    return buf[pos++];
+  }
+
+  /**
+   * Steps back one character. Only a single character returned by
+   * {@link #next()} may be pushed back.
+   */
+  private void back() {
+    pos--;
+  }
+
+  private boolean fill() throws JSONException {
+    if (eof) {
+      return false;
+    }
+    consumed += limit;
+    pos = limit = 0;
+    int toRead = buf.length;
+    if (maxLength > 0) {
+      long remaining = maxLength - consumed;
+      if (remaining <= 0) {
+        // Only an error if there is more text to read.
+        if (readOne()) {
+          throw syntaxError("JSON text is longer than " + maxLength + " characters");
+        }
+        return false;
+      }
+      toRead = (int) Math.min(toRead, remaining);
+    }
+    try {
+      int n;
+      do {
+        n = in.read(buf, 0, toRead);
+      } while (n == 0);
+      if (n < 0) {
+        eof = true;
+        return false;
+      }
+      limit = n;
+      return true;
+    } catch (IOException e) {
+      throw new JSONException("Unable to read JSON text: " + e.getMessage());
+    }
+  }
+
+  private boolean readOne() throws JSONException {
+    try {
+      eof = in.read() < 0;
+      return !eof;
+    } catch (IOException e) {
+      throw new JSONException("Unable to read JSON text: " + e.getMessage());
+    }
+  }
+
+  private JSONException syntaxError(String message) {
+    return new JSONException(message + " at character " + (consumed + pos));
+  }
+}
@@ -18,6 +18,8 @@ import gnu.math.IntFraction;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,7 +31,6 @@ import java.util.List;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 /**
  * Provides utility functions to convert between Java object and JSON.
@@ -176,7 +177,7 @@ public class JsonUtil {
     if (value instanceof YailList) {
       return ((YailList) value).toJSONString();
     }
-    // The Json tokener used in getObjectFromJson cannot handle
+    // The JSON decoder used in getObjectFromJson cannot handle
     // fractions.  So we Json encode fractions by first converting
     // them to doubles. This is an example of value with Kawa type any
     // being exposed to the rest of App Inventor by the value being
@@ -210,30 +211,34 @@ public class JsonUtil {
   }
 
   public static Object getObjectFromJson(String jsonString) throws JSONException {
-      if ((jsonString == null) || jsonString.equals("")) {
+    if ((jsonString == null) || jsonString.equals("")) {
       // We'd like the empty string to decode to the empty string.  Form.java
       // relies on this for the case where there's an activity result with no intent data.
-      // We handle this case explicitly since nextValue() appears to throw an error
+      // We handle this case explicitly since the decoder throws an error
       // when given the empty string.
       return "";
     } else {
-      final Object value = (new JSONTokener(jsonString)).nextValue();
-      // Note that the JSONTokener may return a value equals() to null.
-      if (value == null || value.equals(null)) {
-        return null;
-      } else if ((value instanceof String) ||
-          (value instanceof Number) ||
-          (value instanceof Boolean)) {
-        return value;
-      } else if (value instanceof JSONArray) {
-        return getListFromJsonArray((JSONArray)value);
-      } else if (value instanceof JSONObject) {
-        return getListFromJsonObject((JSONObject)value);
-      }
-      throw new JSONException("Invalid JSON string.");
+      return getObjectFromJson(new StringReader(jsonString),
+          JsonStreamDecoder.DEFAULT_MAX_DEPTH, 0);
     }
   }
 
+  /**
+   * Decodes the first JSON value read from a character stream, producing the
+   * same representation as {@link #getObjectFromJson(String)}. The value is
+   * built as the text is read, without an intermediate org.json tree.
+   *
+   * @param in the source of the JSON text
+   * @param maxDepth the maximum nesting of JSON arrays and objects
+   * @param maxLength the maximum number of characters to read, or 0 for no limit
+   * @return the decoded value, or null if the text is the JSON null literal
+   * @throws JSONException if the text cannot be decoded or exceeds a limit
+   */
+  public static Object getObjectFromJson(Reader in, int maxDepth, long maxLength)
+      throws JSONException {
+    return new JsonStreamDecoder(in, maxDepth, maxLength).decode();
+  }
+
   /**
    * Written by joymitro@gmail.com (Joydeep Mitra)
    * This method converts a file path to a JSON representation.
@@ -10,6 +10,7 @@ import java.util.Collections;
 import java.util.List;
 
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.os.Build;
 import android.provider.Telephony.Sms.Intents;
 import android.telephony.SmsMessage;
@@ -69,4 +70,12 @@ public final class KitkatUtil {
       return view.getHeight();
     }
   }
+
+  /**
+   * Returns the number of bytes of memory that back the given bitmap, which
+   * may be more than it uses if it was reused for a smaller image.
+   */
+  public static int getAllocationByteCount(Bitmap bitmap) {
+    return bitmap.getAllocationByteCount();
+  }
 }
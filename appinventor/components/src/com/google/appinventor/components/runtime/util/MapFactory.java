@@ -120,6 +120,35 @@ public final class MapFactory {
      * @param feature The map feature the user has released from dragging.
      */
     void onFeatureStopDrag(MapFeature feature);
+
+    /**
+     * onClusterClick is raised when the user single-taps on a cluster of markers shown in place
+     * of markers that are too close together to tell apart at the current zoom level.
+     *
+     * @param latitude Latitude of the center of the cluster
+     * @param longitude Longitude of the center of the cluster
+     * @param markers The markers in the cluster
+     */
+    void onClusterClick(double latitude, double longitude, List<MapMarker> markers);
+
+    // Tile events
+    /**
+     * onDownloadProgress is raised as tiles requested by
+     * {@link MapController#downloadTiles(BoundingBox, int, int)} are downloaded.
+     *
+     * @param downloaded The number of tiles downloaded or found in the cache so far
+     * @param total The number of tiles in the requested area
+     */
+    void onDownloadProgress(int downloaded, int total);
+
+    /**
+     * onDownloadFinished is raised when all of the tiles requested by
+     * {@link MapController#downloadTiles(BoundingBox, int, int)} have been downloaded or have
+     * failed to download.
+     *
+     * @param failed The number of tiles that could not be downloaded
+     */
+    void onDownloadFinished(int failed);
   }
 
   /**
@@ -205,6 +234,62 @@ public final class MapFactory {
      */
     boolean isCompassEnabled();
 
+    /**
+     * Set whether markers that are too close together to tell apart at the current zoom level
+     * are shown as a single cluster.
+     *
+     * @param enable true if nearby markers should be clustered, otherwise false.
+     */
+    void setMarkerClusteringEnabled(boolean enable);
+
+    /**
+     * Get whether nearby markers are shown as clusters.
+     *
+     * @return true if nearby markers are clustered, otherwise false.
+     */
+    boolean isMarkerClusteringEnabled();
+
+    /**
+     * Set the size of the tile cache shared by all maps in the app. When the cached tiles grow
+     * larger than this, the least recently used tiles are removed.
+     *
+     * @param megabytes the size of the cache in megabytes
+     */
+    void setTileCacheSize(int megabytes);
+
+    /**
+     * Get the size of the tile cache shared by all maps in the app.
+     *
+     * @return the size of the cache in megabytes
+     */
+    int getTileCacheSize();
+
+    /**
+     * Get the average time taken to download the tiles that were missing from the tile cache.
+     *
+     * @return the average time in milliseconds, or 0 if no tiles have been downloaded
+     */
+    int getTileLatency();
+
+    /**
+     * Download the tiles covering an area at a range of zoom levels into the tile cache in the
+     * background, so that they can be shown without a network connection. Progress is reported
+     * to the event listeners.
+     *
+     * @param bbox the area to download
+     * @param minZoom the lowest zoom level to download
+     * @param maxZoom the highest zoom level to download
+     * @return true if the download was started, or false if there is no tile cache to download
+     *     the tiles into
+     */
+    boolean downloadTiles(BoundingBox bbox, int minZoom, int maxZoom);
+
+    /**
+     * Cancel all downloads started by {@link #downloadTiles(BoundingBox, int, int)}. Tiles that
+     * have already been downloaded remain in the cache.
+     */
+    void cancelDownloads();
+
     /**
      * Set whether zooming is enabled on the map.
      *
@@ -355,6 +440,18 @@ public final class MapFactory {
      */
     void removeFeature(MapFeature feature);
 
+    /**
+     * Start a batch of feature additions and removals. The map is not redrawn for the changes
+     * until the matching call to {@link #endFeatureBatch()}. Batches may be nested.
+     */
+    void beginFeatureBatch();
+
+    /**
+     * End a batch of feature additions and removals started by {@link #beginFeatureBatch()}. When
+     * the outermost batch ends, the changes are applied and the map is redrawn once.
+     */
+    void endFeatureBatch();
+
     /**
      * Show a feature on the map. The feature must have been previously added
      * via one of the addFeature calls. Features will be shown by default if the
@@ -6,11 +6,13 @@
 
 package com.google.appinventor.components.runtime.util;
 
+import com.google.appinventor.components.common.ComponentConstants;
 import com.google.appinventor.components.runtime.Form;
 import com.google.appinventor.components.runtime.ReplForm;
 import com.google.appinventor.components.runtime.errors.PermissionException;
 
 import android.Manifest;
+import android.app.ActivityManager;
 import android.content.Context;
 import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
@@ -22,11 +24,13 @@ import android.media.SoundPool;
 import android.net.Uri;
 import android.os.Environment;
 import android.provider.Contacts;
+import android.support.v4.util.LruCache;
 import android.util.Log;
 import android.view.Display;
 import android.view.WindowManager;
 import android.widget.VideoView;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -35,10 +39,17 @@ import java.io.FileInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Array;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -57,6 +68,24 @@ public class MediaUtil {
   // tempFileMap maps cached media (assets, etc) to their respective temp files.
   private static final Map<String, File> tempFileMap = new HashMap<String, File>();
 
+  // The bitmap cache holds up to this fraction of the memory available to the app.
+  private static final int BITMAP_CACHE_FRACTION = 8;
+  private static final int IMAGE_SIZE_CACHE_ENTRIES = 256;
+  private static final int MAX_REUSABLE_BITMAPS = 2;
+
+  // bitmapCache maps images, at the resolution they were decoded at, to their decoded bitmaps.
+  private static LruCache<String, Bitmap> bitmapCache;
+
+  // imageSizeCache maps images to their width and height, so that a cached bitmap can be found
+  // without reading the image.
+  private static final LruCache<String, int[]> imageSizeCache =
+      new LruCache<String, int[]>(IMAGE_SIZE_CACHE_ENTRIES);
+
+  // reusableBitmaps holds full size images that were decoded only to be scaled. Their memory
+  // can be reused to decode later images.
+  private static final List<SoftReference<Bitmap>> reusableBitmaps =
+      new ArrayList<SoftReference<Bitmap>>();
+
   // this class is used by getBitmapDrawable so it can call the asynchronous version
   // (getBitMapDrawableAsync) and await the result (blocking the UI Thread :-()
   private static class Synchronizer<T> {
@@ -187,6 +216,75 @@ public class MediaUtil {
         isExternalFileUrl(mediaPath);
   }
 
+  // assetIndex maps the path of each of the app's assets, and the path in lower case, to the path
+  // as stored. It is null if the app has no asset manifest, in which case pathCache is used.
+  private static volatile Map<String, String> assetIndex;
+  private static boolean assetIndexLoaded;
+
+  /**
+   * Loads the asset manifest written by the build server, so that asset
+   * paths can be resolved regardless of case with a single lookup. Only the
+   * first call has any effect.
+   *
+   * @param context the context whose assets to index
+   */
+  public static void loadAssetIndex(Context context) {
+    synchronized (MediaUtil.class) {
+      if (assetIndexLoaded) {
+        return;
+      }
+      assetIndexLoaded = true;
+    }
+    List<String> paths = new ArrayList<String>();
+    try {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(
+          context.getAssets().open(ComponentConstants.ASSET_MANIFEST), "UTF-8"));
+      try {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.length() > 0) {
+            paths.add(line);
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (IOException e) {
+      // Apps built before the manifest existed list their assets when needed.
+      Log.i(LOG_TAG, "No asset manifest found");
+      return;
+    }
+    assetIndex = buildAssetIndex(paths);
+    Log.d(LOG_TAG, "Indexed " + paths.size() + " assets");
+  }
+
+  static Map<String, String> buildAssetIndex(Collection<String> paths) {
+    Map<String, String> index = new HashMap<String, String>(paths.size() * 4);
+    for (String path : paths) {
+      String folded = path.toLowerCase(Locale.ENGLISH);
+      if (!index.containsKey(folded)) {
+        index.put(folded, path);
+      }
+    }
+    // An exact match takes precedence over one that differs in case.
+    for (String path : paths) {
+      index.put(path, path);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the stored path of the asset named by mediaPath, ignoring case,
+   * or mediaPath itself if there is no such asset.
+   */
+  static String resolveAssetPath(Map<String, String> index, String mediaPath) {
+    String path = index.get(mediaPath);
+    if (path == null) {
+      path = index.get(mediaPath.toLowerCase(Locale.ENGLISH));
+    }
+    return (path == null) ? mediaPath : path;
+  }
+
   private static ConcurrentHashMap<String, String> pathCache = new ConcurrentHashMap<String, String>(2);
 
   private static String findCaseinsensitivePath(Form form, String mediaPath)
@@ -231,6 +329,10 @@ public class MediaUtil {
    */
   private static InputStream getAssetsIgnoreCaseInputStream(Form form, String mediaPath)
       throws IOException{
+    Map<String, String> index = assetIndex;
+    if (index != null) {
+      return form.getAssets().open(resolveAssetPath(index, mediaPath));
+    }
     try {
       return form.getAssets().open(mediaPath);
 
@@ -367,6 +469,16 @@ public class MediaUtil {
    */
   public static BitmapDrawable getBitmapDrawable(Form form, String mediaPath)
     throws IOException {
+    return getBitmapDrawable(form, mediaPath, 0, 0);
+  }
+
+  /**
+   * Synchronous version of {@link #getBitmapDrawableAsync(Form, String, int,
+   * int, AsyncCallbackPair)}. See {@link #getBitmapDrawable(Form, String)}.
+   *
+   */
+  public static BitmapDrawable getBitmapDrawable(Form form, String mediaPath, int desiredWidth,
+      int desiredHeight) throws IOException {
     if (mediaPath == null || mediaPath.length() == 0) {
       return null;
     }
@@ -381,7 +493,7 @@ public class MediaUtil {
           syncer.wakeup(result);
         }
       };
-    getBitmapDrawableAsync(form, mediaPath, continuation);
+    getBitmapDrawableAsync(form, mediaPath, desiredWidth, desiredHeight, continuation);
     syncer.waitfor();
     BitmapDrawable result = (BitmapDrawable) syncer.getResult();
     if (result == null) {
@@ -408,6 +520,33 @@ public class MediaUtil {
    * handler will be triggered.
    */
   public static void getBitmapDrawableAsync(final Form form, final String mediaPath, final AsyncCallbackPair<BitmapDrawable> continuation) {
+    getBitmapDrawableAsync(form, mediaPath, 0, 0, continuation);
+  }
+
+  /**
+   * Loads the image specified by mediaPath and returns a Drawable. If the
+   * size the image will be displayed at is known, the image is decoded at a
+   * lower resolution when that still covers the displayed size.
+   *
+   * <p/>Images from assets and files are kept in a memory cache, so loading
+   * the same image again is cheap. The returned drawables share the cached
+   * bitmap, which must not be modified.
+   *
+   * <p/>If mediaPath is null or empty, null is returned.
+   *
+   * @param form the Form
+   * @param mediaPath the path to the media
+   * @param desiredWidth the width in pixels the image will be displayed at,
+   * or 0 if it is not known
+   * @param desiredHeight the height in pixels the image will be displayed at,
+   * or 0 if it is not known
+   * @param continuation An AsyncCallbackPair that will receive a
+   * BitmapDrawable on success. On exception or failure the appropriate
+   * handler will be triggered.
+   */
+  public static void getBitmapDrawableAsync(final Form form, final String mediaPath,
+      final int desiredWidth, final int desiredHeight,
+      final AsyncCallbackPair<BitmapDrawable> continuation) {
     if (mediaPath == null || mediaPath.length() == 0) {
       continuation.onSuccess(null);
       return;
@@ -418,23 +557,10 @@ public class MediaUtil {
     Runnable loadImage = new Runnable() {
       @Override
       public void run() {
-        // Unlike other types of media, we don't cache image files from the internet to temp files.
-        // The image at a particular URL, such as an image from a web cam, may change over time.
-        // When the app says to fetch the image, we need to get the latest image, not one that we
-        // cached previously.
-
         Log.d(LOG_TAG, "mediaPath = " + mediaPath);
-        InputStream is = null;
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] buf = new byte[4096];
-        int read;
+        Bitmap bitmap;
         try {
-          // copy the input stream to an in-memory buffer
-          is = openMedia(form, mediaPath, mediaSource);
-          while ((read = is.read(buf)) > 0) {
-            bos.write(buf, 0, read);
-          }
-          buf = bos.toByteArray();
+          bitmap = loadBitmap(form, mediaPath, mediaSource, desiredWidth, desiredHeight);
         } catch (PermissionException e) {
           continuation.onFailure("PERMISSION_DENIED:" + e.getPermissionNeeded());
           return;
@@ -450,79 +576,286 @@ public class MediaUtil {
           Log.d(LOG_TAG, "IOException reading file.", e);
           continuation.onFailure(e.getMessage());
           return;
-        } finally {
-          if (is != null) {
-            try {
-              is.close();
-            } catch(IOException e) {
-              // suppress error on close
-              Log.w(LOG_TAG, "Unexpected error on close", e);
-            }
-          }
-          is = null;
-          try {
-            bos.close();
-          } catch(IOException e) {
-            // Should never fail to close a ByteArrayOutputStream
-          }
-          bos = null;
-        }
-        ByteArrayInputStream bis = new ByteArrayInputStream(buf);
-        read = buf.length;
-        buf = null;
-        try {
-          bis.mark(read);
-          BitmapFactory.Options options = getBitmapOptions(form, bis, mediaPath);
-          bis.reset();
-          BitmapDrawable originalBitmapDrawable = new BitmapDrawable(form.getResources(), decodeStream(bis, null, options));
-          // If options.inSampleSize == 1, then the image was not unreasonably large and may represent
-          // the actual size the user intended for the image. However we still have to scale it by
-          // the device density.
-          // However if we *did* sample the image to make it smaller, then that means that the image
-          // was not sized specifically for the application. In that case it makes no sense to
-          // scale it, so we don't.
-          // When we scale the image we do the following steps:
-          //   1. set the density in the returned bitmap drawable.
-          //   2. calculate scaled width and height
-          //   3. create a scaled bitmap with the scaled measures
-          //   4. create a new bitmap drawable with the scaled bitmap
-          //   5. set the density in the scaled bitmap.
-
-          originalBitmapDrawable.setTargetDensity(form.getResources().getDisplayMetrics());
-          if ((options.inSampleSize != 1) || (form.deviceDensity() == 1.0f)) {
-            continuation.onSuccess(originalBitmapDrawable);
-            return;
-          }
-          int scaledWidth = (int) (form.deviceDensity() * originalBitmapDrawable.getIntrinsicWidth());
-          int scaledHeight = (int) (form.deviceDensity() * originalBitmapDrawable.getIntrinsicHeight());
-          Log.d(LOG_TAG, "form.deviceDensity() = " + form.deviceDensity());
-          Log.d(LOG_TAG, "originalBitmapDrawable.getIntrinsicWidth() = " + originalBitmapDrawable.getIntrinsicWidth());
-          Log.d(LOG_TAG, "originalBitmapDrawable.getIntrinsicHeight() = " + originalBitmapDrawable.getIntrinsicHeight());
-          Bitmap scaledBitmap = Bitmap.createScaledBitmap(originalBitmapDrawable.getBitmap(),
-              scaledWidth, scaledHeight, false);
-          BitmapDrawable scaledBitmapDrawable = new BitmapDrawable(form.getResources(), scaledBitmap);
-          scaledBitmapDrawable.setTargetDensity(form.getResources().getDisplayMetrics());
-          originalBitmapDrawable = null; // So it will get GC'd on the next line
-          System.gc();                   // We likely used a lot of memory, so gc now.
-          continuation.onSuccess(scaledBitmapDrawable);
         } catch(Exception e) {
           Log.w(LOG_TAG, "Exception while loading media.", e);
           continuation.onFailure(e.getMessage());
-        } finally {
-          if (bis != null) {
-            try {
-              bis.close();
-            } catch(IOException e) {
-              // suppress error on close
-              Log.w(LOG_TAG, "Unexpected error on close", e);
-            }
-          }
+          return;
         }
+        BitmapDrawable drawable = new BitmapDrawable(form.getResources(), bitmap);
+        drawable.setTargetDensity(form.getResources().getDisplayMetrics());
+        continuation.onSuccess(drawable);
       }
     };
     AsynchUtil.runAsynchronously(loadImage);
   }
 
+  /**
+   * Returns the bitmap for an image, decoding it only if it is not in the
+   * bitmap cache.
+   */
+  private static Bitmap loadBitmap(Form form, String mediaPath, MediaSource mediaSource,
+      int desiredWidth, int desiredHeight) throws IOException {
+    // Unlike other types of media, we don't cache image files from the internet to temp files.
+    // The image at a particular URL, such as an image from a web cam, may change over time.
+    // When the app says to fetch the image, we need to get the latest image, not one that we
+    // cached previously. The image is fetched once into memory, since it is read twice below.
+    byte[] data = (mediaSource == MediaSource.URL) ? readMedia(form, mediaPath, mediaSource) : null;
+
+    String sourceKey = getBitmapSourceKey(mediaPath, mediaSource);
+    int[] imageSize = (sourceKey == null) ? null : imageSizeCache.get(sourceKey);
+    if (imageSize == null) {
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inJustDecodeBounds = true;
+      decodeMedia(form, mediaPath, mediaSource, data, options);
+      imageSize = new int[] { options.outWidth, options.outHeight };
+      if (sourceKey != null) {
+        imageSizeCache.put(sourceKey, imageSize);
+      }
+    }
+    int sampleSize = getSampleSize(form, imageSize[0], imageSize[1], desiredWidth, desiredHeight,
+        mediaPath);
+
+    // The sample size stands in for the desired size, so that sizes that decode to the same
+    // bitmap share a cache entry.
+    LruCache<String, Bitmap> cache = getBitmapCache(form);
+    String key = (sourceKey == null) ? null
+        : sourceKey + '|' + sampleSize + '|' + form.deviceDensity();
+    if (key != null) {
+      Bitmap bitmap = cache.get(key);
+      if (bitmap != null) {
+        Log.d(LOG_TAG, "Bitmap cache hit for " + mediaPath);
+        return bitmap;
+      }
+    }
+
+    Bitmap bitmap;
+    try {
+      bitmap = decodeBitmap(form, mediaPath, mediaSource, data, imageSize, sampleSize);
+    } catch (OutOfMemoryError e) {
+      Log.w(LOG_TAG, "Out of memory loading " + mediaPath + ", clearing the bitmap cache");
+      cache.evictAll();
+      bitmap = decodeBitmap(form, mediaPath, mediaSource, data, imageSize, sampleSize);
+    }
+    if (key != null) {
+      cache.put(key, bitmap);
+    }
+    return bitmap;
+  }
+
+  private static Bitmap decodeBitmap(Form form, String mediaPath, MediaSource mediaSource,
+      byte[] data, int[] imageSize, int sampleSize) throws IOException {
+    // If the sample size is 1, then the image was not unreasonably large and may represent
+    // the actual size the user intended for the image. However we still have to scale it by
+    // the device density.
+    // However if we *did* sample the image to make it smaller, then that means that the image
+    // was not sized specifically for the application. In that case it makes no sense to
+    // scale it, so we don't.
+    boolean scale = sampleSize == 1 && form.deviceDensity() != 1.0f;
+
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inSampleSize = sampleSize;
+    Bitmap reuse = null;
+    if (scale && SdkLevel.getLevel() >= SdkLevel.LEVEL_HONEYCOMB) {
+      // The full size image is only needed until it has been scaled, so it can be decoded
+      // into the memory of an earlier one.
+      reuse = takeReusableBitmap(imageSize[0], imageSize[1]);
+      HoneycombUtil.setInBitmap(options, reuse);
+    }
+    Bitmap bitmap;
+    try {
+      bitmap = decodeMedia(form, mediaPath, mediaSource, data, options);
+    } catch (IllegalArgumentException e) {
+      bitmap = null;
+    }
+    if (bitmap == null && reuse != null) {
+      // The image could not be decoded into the reused bitmap, so decode it into a new one.
+      HoneycombUtil.setInBitmap(options, null);
+      bitmap = decodeMedia(form, mediaPath, mediaSource, data, options);
+    }
+    if (bitmap == null) {
+      throw new IOException("Unable to decode image " + mediaPath + ".");
+    }
+    if (!scale) {
+      return bitmap;
+    }
+
+    int scaledWidth = (int) (form.deviceDensity() * bitmap.getWidth());
+    int scaledHeight = (int) (form.deviceDensity() * bitmap.getHeight());
+    Log.d(LOG_TAG, "form.deviceDensity() = " + form.deviceDensity());
+    Log.d(LOG_TAG, "bitmap.getWidth() = " + bitmap.getWidth());
+    Log.d(LOG_TAG, "bitmap.getHeight() = " + bitmap.getHeight());
+    Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, scaledWidth, scaledHeight, false);
+    if (scaledBitmap != bitmap) {
+      offerReusableBitmap(bitmap);
+    }
+    return scaledBitmap;
+  }
+
+  /**
+   * Decodes the image, from data if it is not null and otherwise from the
+   * media itself.
+   */
+  private static Bitmap decodeMedia(Form form, String mediaPath, MediaSource mediaSource,
+      byte[] data, BitmapFactory.Options options) throws IOException {
+    InputStream is = (data != null)
+        ? new ByteArrayInputStream(data)
+        : openMedia(form, mediaPath, mediaSource);
+    try {
+      return decodeStream(is, null, options);
+    } finally {
+      try {
+        is.close();
+      } catch(IOException e) {
+        // suppress error on close
+        Log.w(LOG_TAG, "Unexpected error on close", e);
+      }
+    }
+  }
+
+  private static byte[] readMedia(Form form, String mediaPath, MediaSource mediaSource)
+      throws IOException {
+    InputStream is = openMedia(form, mediaPath, mediaSource);
+    try {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      byte[] buf = new byte[4096];
+      int read;
+      while ((read = is.read(buf)) > 0) {
+        bos.write(buf, 0, read);
+      }
+      return bos.toByteArray();
+    } finally {
+      try {
+        is.close();
+      } catch(IOException e) {
+        // suppress error on close
+        Log.w(LOG_TAG, "Unexpected error on close", e);
+      }
+    }
+  }
+
+  /**
+   * Returns a key that identifies the current contents of an image, or null
+   * if the image must not be cached. Images from the web and from content
+   * providers may change at any time, so they are always loaded again. Files
+   * are identified by their modification time and length as well as their
+   * path, so that a file that is replaced, such as an asset the companion
+   * receives again, is decoded again.
+   */
+  private static String getBitmapSourceKey(String mediaPath, MediaSource mediaSource)
+      throws IOException {
+    File file;
+    switch (mediaSource) {
+      case ASSET:
+        return "asset:" + mediaPath;
+      case REPL_ASSET:
+        file = new File(replAssetPath(mediaPath));
+        break;
+      case SDCARD:
+        file = new File(mediaPath);
+        break;
+      case FILE_URL:
+        file = new File(fileUrlToFilePath(mediaPath));
+        break;
+      default:
+        return null;
+    }
+    return "file:" + file.getAbsolutePath() + '@' + file.lastModified() + ':' + file.length();
+  }
+
+  private static synchronized LruCache<String, Bitmap> getBitmapCache(Context context) {
+    // Created lazily, since its size depends on the memory available to the app.
+    if (bitmapCache == null) {
+      int memoryClass = ((ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE))
+          .getMemoryClass();
+      bitmapCache = new LruCache<String, Bitmap>(memoryClass * 1024 / BITMAP_CACHE_FRACTION) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+          // Measured in kilobytes, rounded up.
+          return (bitmap.getRowBytes() * bitmap.getHeight() + 1023) / 1024;
+        }
+      };
+    }
+    return bitmapCache;
+  }
+
+  /**
+   * Removes all images from the bitmap cache. Drawables that are already
+   * displayed keep their bitmaps.
+   */
+  public static void clearBitmapCache() {
+    LruCache<String, Bitmap> cache;
+    synchronized (MediaUtil.class) {
+      cache = bitmapCache;
+    }
+    if (cache != null) {
+      cache.evictAll();
+    }
+    imageSizeCache.evictAll();
+    synchronized (reusableBitmaps) {
+      reusableBitmaps.clear();
+    }
+  }
+
+  /**
+   * Returns a summary of the bitmap cache's size and effectiveness, for
+   * debugging.
+   */
+  public static String getBitmapCacheStats() {
+    LruCache<String, Bitmap> cache;
+    synchronized (MediaUtil.class) {
+      cache = bitmapCache;
+    }
+    if (cache == null) {
+      return "BitmapCache[unused]";
+    }
+    synchronized (cache) {
+      int accesses = cache.hitCount() + cache.missCount();
+      int hitPercent = (accesses == 0) ? 0 : 100 * cache.hitCount() / accesses;
+      return String.format("BitmapCache[size=%dKB,maxSize=%dKB,hits=%d,misses=%d,hitRate=%d%%,"
+          + "evictions=%d]", cache.size(), cache.maxSize(), cache.hitCount(), cache.missCount(),
+          hitPercent, cache.evictionCount());
+    }
+  }
+
+  /**
+   * Returns a bitmap that an image of the given size can be decoded into,
+   * or null if there is none.
+   */
+  private static Bitmap takeReusableBitmap(int width, int height) {
+    synchronized (reusableBitmaps) {
+      Iterator<SoftReference<Bitmap>> it = reusableBitmaps.iterator();
+      while (it.hasNext()) {
+        Bitmap candidate = it.next().get();
+        if (candidate == null) {
+          it.remove();
+        } else if (SdkLevel.getLevel() >= SdkLevel.LEVEL_KITKAT
+            ? KitkatUtil.getAllocationByteCount(candidate) >= width * height * 4
+            : candidate.getWidth() == width && candidate.getHeight() == height) {
+          // Before KitKat, a bitmap can only be reused for an image of exactly the same size.
+          it.remove();
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Keeps a bitmap that is no longer used, so that a later image can be
+   * decoded into it. Only bitmaps that were never displayed may be offered.
+   */
+  private static void offerReusableBitmap(Bitmap bitmap) {
+    if (!bitmap.isMutable()) {
+      return;
+    }
+    synchronized (reusableBitmaps) {
+      if (reusableBitmaps.size() >= MAX_REUSABLE_BITMAPS) {
+        reusableBitmaps.remove(0);
+      }
+      reusableBitmaps.add(new SoftReference<Bitmap>(bitmap));
+    }
+  }
+
   private static Bitmap decodeStream(InputStream is, Rect outPadding, BitmapFactory.Options opts) {
     // We wrap a FlushedInputStream around the given InputStream. This works around a problem in
     // BitmapFactory.decodeStream where it fails to load the image if the InputStream's skip method
@@ -556,14 +889,8 @@ public class MediaUtil {
     }
   }
 
-  private static BitmapFactory.Options getBitmapOptions(Form form, InputStream is, String mediaPath) {
-    // Get the size of the image.
-    BitmapFactory.Options options = new BitmapFactory.Options();
-    options.inJustDecodeBounds = true;
-    decodeStream(is, null, options);
-    int imageWidth = options.outWidth;
-    int imageHeight = options.outHeight;
-
+  private static int getSampleSize(Form form, int imageWidth, int imageHeight, int desiredWidth,
+      int desiredHeight, String mediaPath) {
     // Get the screen size.
     Display display = ((WindowManager) form.getSystemService(Context.WINDOW_SERVICE)).
         getDefaultDisplay();
@@ -588,12 +915,18 @@ public class MediaUtil {
     while ((imageWidth / sampleSize > maxWidth) && (imageHeight / sampleSize > maxHeight)) {
       sampleSize *= 2;
     }
-    options = new BitmapFactory.Options();
-    Log.d(LOG_TAG, "getBitmapOptions: sampleSize = " + sampleSize + " mediaPath = " + mediaPath
+    if (desiredWidth > 0 && desiredHeight > 0) {
+      // Sample the image further, as long as it still covers the size it is displayed at.
+      while ((imageWidth / (sampleSize * 2) >= desiredWidth)
+          && (imageHeight / (sampleSize * 2) >= desiredHeight)) {
+        sampleSize *= 2;
+      }
+    }
+    Log.d(LOG_TAG, "getSampleSize: sampleSize = " + sampleSize + " mediaPath = " + mediaPath
       + " maxWidth = " + maxWidth + " maxHeight = " + maxHeight +
-      " display width = " + display.getWidth() + " display height = " + display.getHeight());
-    options.inSampleSize = sampleSize;
-    return options;
+      " display width = " + display.getWidth() + " display height = " + display.getHeight() +
+      " desiredWidth = " + desiredWidth + " desiredHeight = " + desiredHeight);
+    return sampleSize;
   }
 
   // SoundPool related methods
@@ -607,6 +940,10 @@ public class MediaUtil {
    */
   private static AssetFileDescriptor getAssetsIgnoreCaseAfd(Form form, String mediaPath)
       throws IOException{
+    Map<String, String> index = assetIndex;
+    if (index != null) {
+      return form.getAssets().openFd(resolveAssetPath(index, mediaPath));
+    }
     try {
       return form.getAssets().openFd(mediaPath);
 
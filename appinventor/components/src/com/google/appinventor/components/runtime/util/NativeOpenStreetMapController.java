@@ -6,13 +6,16 @@
 package com.google.appinventor.components.runtime.util;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Picture;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.PictureDrawable;
 import android.location.Location;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
@@ -43,14 +46,24 @@ import com.google.appinventor.components.runtime.util.MapFactory.MapRectangle;
 import com.google.appinventor.components.runtime.util.MapFactory.MapScaleUnits;
 import com.google.appinventor.components.runtime.util.MapFactory.MapType;
 import com.google.appinventor.components.runtime.view.ZoomControlView;
+import org.locationtech.jts.geom.Envelope;
 import org.osmdroid.api.IGeoPoint;
 import org.osmdroid.config.Configuration;
 import org.osmdroid.events.MapListener;
 import org.osmdroid.events.ScrollEvent;
 import org.osmdroid.events.ZoomEvent;
 import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.tileprovider.cachemanager.CacheManager;
 import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.tileprovider.modules.MapTileApproximater;
+import org.osmdroid.tileprovider.modules.MapTileDownloader;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.modules.NetworkAvailabliltyCheck;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.tileprovider.util.SimpleRegisterReceiver;
 import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
@@ -81,6 +94,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -114,6 +128,52 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   private ZoomControlView zoomControls = null;
   private float lastAzimuth = Float.NaN;
   private ScaleBarOverlay scaleBar;
+  private int featureBatchDepth = 0;
+  private boolean redrawPending = false;
+  // Overlays attached during a feature batch, added to the map together when the batch ends.
+  private final Set<Overlay> pendingOverlays = new LinkedHashSet<Overlay>();
+  // The features whose overlays are shown, by the bounds of the overlays.
+  private final SpatialIndex<MapFeature> shownFeatures = new SpatialIndex<MapFeature>();
+  // The feature and cluster overlays in the map view's overlay list. When culling, these are only
+  // the overlays of the shown features that intersect attachedBounds.
+  private final Set<Overlay> attachedOverlays = new LinkedHashSet<Overlay>();
+  private Envelope attachedBounds = null;
+  private int attachedZoom = -1;
+  private boolean refreshPending = false;
+  private boolean markerClustering = false;
+  private final Map<Integer, Drawable> clusterIcons = new HashMap<Integer, Drawable>();
+  // The zoom level that lines and polygons have been simplified for, or -1 if none have been.
+  // This only ever increases, so zooming out keeps the more detailed geometry.
+  private int simplificationZoom = -1;
+  // The tile cache, or null if osmdroid's default tile provider is used.
+  private TileCache tileCache = null;
+  // The tile downloads started by downloadTiles() that have not finished.
+  private final Set<CacheManager> downloads = new HashSet<CacheManager>();
+
+  /**
+   * The number of shown features above which only those near the visible part of the map are
+   * attached to the map view, since osmdroid draws and hit tests every attached overlay.
+   */
+  private static final int CULLING_THRESHOLD = 200;
+
+  /**
+   * How far beyond the visible part of the map features are attached, as a fraction of its
+   * width and height, so that small pans do not change the attached overlays.
+   */
+  private static final double CULLING_MARGIN = 0.5;
+
+  /**
+   * The size of the cells that markers are clustered in, in pixels of a 256 pixel map tile.
+   */
+  private static final int CLUSTER_CELL_SIZE = 64;
+  private static final int CLUSTER_ICON_SIZE = 40;  // dp
+  private static final int CLUSTER_COLOR = 0xCC3F51B5;
+
+  /**
+   * The size the tile cache is trimmed to when it grows past its maximum size, as a fraction of
+   * the maximum size.
+   */
+  private static final double TILE_CACHE_TRIM_FRACTION = 0.8;
 
   private static final float[] ANCHOR_HORIZONTAL = { Float.NaN, 0.0f, 1.0f, 0.5f };
   private static final float[] ANCHOR_VERTICAL = { Float.NaN, 0.0f, 0.5f, 1.0f };
@@ -248,8 +308,8 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   }
 
   private class CustomMapView extends MapView {
-    public CustomMapView(Context context) {
-      super(context, null, new MapReadyHandler());
+    public CustomMapView(Context context, MapTileProviderBase tileProvider) {
+      super(context, tileProvider, new MapReadyHandler());
     }
 
     @Override
@@ -279,7 +339,8 @@ class NativeOpenStreetMapController implements MapController, MapListener {
     }
     this.form = form;
     this.touch = new TouchOverlay();
-    view = new CustomMapView(form.getApplicationContext());
+    view = new CustomMapView(form.getApplicationContext(),
+        createTileProvider(form.getApplicationContext()));
     locationProvider = new AppInventorLocationSensorAdapter();
     defaultInfoWindow = new OverlayInfoWindow(view);
     view.setTilesScaledToDpi(true);
@@ -418,6 +479,108 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   public boolean isCompassEnabled() {
     return compass != null && compass.isCompassEnabled();
   }
+  @Override
+  public void setMarkerClusteringEnabled(boolean enable) {
+    if (markerClustering != enable) {
+      markerClustering = enable;
+      requestRefresh();
+    }
+  }
+
+  @Override
+  public boolean isMarkerClusteringEnabled() {
+    return markerClustering;
+  }
+
+  @Override
+  public void setTileCacheSize(int megabytes) {
+    long bytes = Math.max(0, megabytes) * 1024L * 1024L;
+    Configuration.getInstance().setTileFileSystemCacheMaxBytes(bytes);
+    Configuration.getInstance().setTileFileSystemCacheTrimBytes(
+        (long) (bytes * TILE_CACHE_TRIM_FRACTION));
+    if (tileCache != null) {
+      final TileCache cache = tileCache;
+      AsynchUtil.runAsynchronously(new Runnable() {
+        @Override
+        public void run() {
+          cache.runCleanupOperation();
+        }
+      });
+    }
+  }
+
+  @Override
+  public int getTileCacheSize() {
+    return (int) (Configuration.getInstance().getTileFileSystemCacheMaxBytes() / (1024L * 1024L));
+  }
+
+  @Override
+  public int getTileLatency() {
+    return tileCache == null ? 0 : tileCache.getTileLatency();
+  }
+
+  @Override
+  public boolean downloadTiles(BoundingBox bbox, int minZoom, int maxZoom) {
+    if (tileCache == null) {
+      return false;
+    }
+    ITileSource source = view.getTileProvider().getTileSource();
+    minZoom = Math.max(minZoom, source.getMinimumZoomLevel());
+    maxZoom = Math.min(maxZoom, source.getMaximumZoomLevel());
+    final CacheManager manager = new CacheManager(source, tileCache, minZoom, maxZoom);
+    downloads.add(manager);
+    manager.downloadAreaAsyncNoUI(form, bbox, minZoom, maxZoom, new TileCache.DownloadCallback() {
+      @Override
+      void onProgress(int downloaded, int total) {
+        for (MapEventListener listener : eventListeners) {
+          listener.onDownloadProgress(downloaded, total);
+        }
+      }
+
+      @Override
+      void onFinished(int failed) {
+        downloads.remove(manager);
+        // Show the tiles that have just arrived in place of any that could not be loaded before.
+        view.invalidate();
+        for (MapEventListener listener : eventListeners) {
+          listener.onDownloadFinished(failed);
+        }
+      }
+    });
+    return true;
+  }
+
+  @Override
+  public void cancelDownloads() {
+    for (CacheManager manager : downloads) {
+      manager.cancelAllJobs();
+    }
+    downloads.clear();
+  }
+
+  /**
+   * Creates a tile provider that reads tiles from the tile cache before downloading them, or
+   * returns null so that the map view uses osmdroid's default tile provider if the cache cannot
+   * be used.
+   */
+  private MapTileProviderBase createTileProvider(Context context) {
+    // osmdroid only uses its SQLite tile store from Gingerbread MR1 on.
+    if (!caches || Build.VERSION.SDK_INT < Build.VERSION_CODES.GINGERBREAD_MR1) {
+      return null;
+    }
+    tileCache = new TileCache();
+    ITileSource source = TileSourceFactory.DEFAULT_TILE_SOURCE;
+    TileCache.Provider cacheProvider = new TileCache.Provider(tileCache, source);
+    MapTileApproximater approximater = new MapTileApproximater();
+    approximater.addProvider(cacheProvider);
+    return new MapTileProviderArray(source, new SimpleRegisterReceiver(context),
+        new MapTileModuleProviderBase[] {
+            cacheProvider,
+            new MapTileDownloader(source, tileCache, new NetworkAvailabliltyCheck(context)),
+            approximater
+        });
+  }
+
 
   @Override
   public void setZoomControlEnabled(boolean enabled) {
@@ -541,6 +704,7 @@ class NativeOpenStreetMapController implements MapController, MapListener {
           public void onMarkerDragEnd(Marker marker) {
             IGeoPoint point = marker.getPosition();
             aiMarker.updateLocation(point.getLatitude(), point.getLongitude());
+            reindexFeature(aiMarker, marker);
             for (MapEventListener listener : eventListeners) {
               listener.onFeatureStopDrag(aiMarker);
             }
@@ -554,9 +718,9 @@ class NativeOpenStreetMapController implements MapController, MapListener {
           }
         });
         if (aiMarker.Visible()) {
-          showOverlay(overlay);
+          showOverlay(aiMarker, overlay);
         } else {
-          hideOverlay(overlay);
+          hideOverlay(aiMarker, overlay);
         }
       }
 
@@ -605,15 +769,16 @@ class NativeOpenStreetMapController implements MapController, MapListener {
       @Override
       public void onDragEnd(Polyline polyline) {
         aiPolyline.updatePoints(polyline.getPoints());
+        reindexFeature(aiPolyline, polyline);
         for (MapEventListener listener : eventListeners) {
           listener.onFeatureStopDrag(aiPolyline);
         }
       }
     });
     if (aiPolyline.Visible()) {
-      showOverlay(polyline);
+      showOverlay(aiPolyline, polyline);
     } else {
-      hideOverlay(polyline);
+      hideOverlay(aiPolyline, polyline);
     }
   }
 
@@ -686,15 +851,16 @@ class NativeOpenStreetMapController implements MapController, MapListener {
           holes.addAll(polygon.getHoles());
           ((MapPolygon) component).updateHolePoints(Collections.singletonList(holes));
         }
+        reindexFeature(component, polygon);
         for (MapEventListener listener : eventListeners) {
           listener.onFeatureStopDrag(component);
         }
       }
     });
     if (component.Visible()) {
-      showOverlay(polygon);
+      showOverlay(component, polygon);
     } else {
-      hideOverlay(polygon);
+      hideOverlay(component, polygon);
     }
   }
 
@@ -715,8 +881,35 @@ class NativeOpenStreetMapController implements MapController, MapListener {
 
   @Override
   public void removeFeature(MapFeature aiFeature) {
-    view.getOverlayManager().remove(featureOverlays.get(aiFeature));
-    featureOverlays.remove(aiFeature);
+    OverlayWithIW overlay = featureOverlays.remove(aiFeature);
+    shownFeatures.remove(aiFeature);
+    detach(overlay);
+    if (isCulling()) {
+      requestRefresh();
+    }
+  }
+
+  @Override
+  public void beginFeatureBatch() {
+    featureBatchDepth++;
+  }
+
+  @Override
+  public void endFeatureBatch() {
+    if (featureBatchDepth == 0 || --featureBatchDepth > 0) {
+      return;
+    }
+    if (!pendingOverlays.isEmpty()) {
+      // The overlay list is copied on each change, so add the overlays in one go.
+      view.getOverlayManager().overlays().addAll(pendingOverlays);
+      pendingOverlays.clear();
+    }
+    if (refreshPending) {
+      refreshFeatureOverlays();
+    } else if (redrawPending) {
+      redrawPending = false;
+      view.invalidate();
+    }
   }
 
   @Override
@@ -726,6 +919,7 @@ class NativeOpenStreetMapController implements MapController, MapListener {
       marker.setAnchor(ANCHOR_HORIZONTAL[aiMarker.AnchorHorizontal()],
           ANCHOR_VERTICAL[aiMarker.AnchorVertical()]);
       marker.setPosition(new GeoPoint(aiMarker.Latitude(), aiMarker.Longitude()));
+      reindexFeature(aiMarker, marker);
       view.invalidate();
     }
   }
@@ -734,8 +928,9 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   public void updateFeaturePosition(MapLineString aiPolyline) {
     Polyline overlay = (Polyline) featureOverlays.get(aiPolyline);
     if (overlay != null) {
-      overlay.setPoints(aiPolyline.getPoints());
-      view.invalidate();
+      overlay.setPoints(simplify(aiPolyline, aiPolyline.getPoints(), 2));
+      reindexFeature(aiPolyline, overlay);
+      redraw();
     }
   }
 
@@ -743,8 +938,9 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   public void updateFeaturePosition(MapPolygon aiPolygon) {
     MultiPolygon polygon = (MultiPolygon) featureOverlays.get(aiPolygon);
     if (polygon != null) {
-      polygon.setMultiPoints(aiPolygon.getPoints());
-      view.invalidate();
+      polygon.setMultiPoints(simplifyRings(aiPolygon, aiPolygon.getPoints()));
+      reindexFeature(aiPolygon, polygon);
+      redraw();
     }
   }
 
@@ -752,8 +948,8 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   public void updateFeatureHoles(MapPolygon aiPolygon) {
     MultiPolygon polygon = (MultiPolygon) featureOverlays.get(aiPolygon);
     if (polygon != null) {
-      polygon.setMultiHoles(aiPolygon.getHolePoints());
-      view.invalidate();
+      polygon.setMultiHoles(simplifyHoles(aiPolygon, aiPolygon.getHolePoints()));
+      redraw();
     }
   }
 
@@ -764,6 +960,7 @@ class NativeOpenStreetMapController implements MapController, MapListener {
     if (polygon != null) {
       List<GeoPoint> geopoints = Polygon.pointsAsCircle(center, aiCircle.Radius());
       polygon.setPoints(geopoints);
+      reindexFeature(aiCircle, polygon);
       view.invalidate();
     }
   }
@@ -776,6 +973,7 @@ class NativeOpenStreetMapController implements MapController, MapListener {
       List<GeoPoint> geopoints = (List) Polygon.pointsAsRect(new BoundingBox(aiRectangle.NorthLatitude(),
           aiRectangle.EastLongitude(), aiRectangle.SouthLatitude(), aiRectangle.WestLongitude()));
       polygon.setPoints(geopoints);
+      reindexFeature(aiRectangle, polygon);
       view.invalidate();
     }
   }
@@ -874,6 +1072,13 @@ class NativeOpenStreetMapController implements MapController, MapListener {
     OverlayWithIW overlay = featureOverlays.get(aiFeature);
     if (overlay != null) {
       overlay.setDraggable(aiFeature.Draggable());
+      // Draggable features show their full geometry, since dragging writes it back.
+      if (aiFeature instanceof MapLineString) {
+        updateFeaturePosition((MapLineString) aiFeature);
+      } else if (aiFeature instanceof MapPolygon) {
+        updateFeaturePosition((MapPolygon) aiFeature);
+        updateFeatureHoles((MapPolygon) aiFeature);
+      }
     }
   }
 
@@ -1104,7 +1309,7 @@ class NativeOpenStreetMapController implements MapController, MapListener {
     osmLine.setDraggable(aiLineString.Draggable());
     osmLine.setTitle(aiLineString.Title());
     osmLine.setSnippet(aiLineString.Description());
-    osmLine.setPoints(aiLineString.getPoints());
+    osmLine.setPoints(simplify(aiLineString, aiLineString.getPoints(), 2));
     osmLine.setColor(aiLineString.StrokeColor());
     osmLine.setWidth(aiLineString.StrokeWidth());
     osmLine.setInfoWindow(defaultInfoWindow);
@@ -1124,8 +1329,8 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   private MultiPolygon createNativePolygon(final MapPolygon aiPolygon) {
     final MultiPolygon osmPolygon = new MultiPolygon();
     createPolygon(osmPolygon, aiPolygon);
-    osmPolygon.setMultiPoints(aiPolygon.getPoints());
-    osmPolygon.setMultiHoles(aiPolygon.getHolePoints());
+    osmPolygon.setMultiPoints(simplifyRings(aiPolygon, aiPolygon.getPoints()));
+    osmPolygon.setMultiHoles(simplifyHoles(aiPolygon, aiPolygon.getHolePoints()));
     return osmPolygon;
   }
 
@@ -1147,28 +1352,47 @@ class NativeOpenStreetMapController implements MapController, MapListener {
 
   @Override
   public void showFeature(MapFeature feature) {
-    showOverlay(featureOverlays.get(feature));
+    showOverlay(feature, featureOverlays.get(feature));
   }
 
-  protected void showOverlay(OverlayWithIW overlay) {
-    view.getOverlayManager().add(overlay);
-    view.invalidate();
+  protected void showOverlay(MapFeature feature, OverlayWithIW overlay) {
+    shownFeatures.put(feature, getBounds(overlay));
+    if (isCulling()) {
+      requestRefresh();
+    } else {
+      attach(overlay);
+      redraw();
+    }
   }
 
   @Override
   public void hideFeature(MapFeature feature) {
-    hideOverlay(featureOverlays.get(feature));
+    hideOverlay(feature, featureOverlays.get(feature));
   }
 
-  protected void hideOverlay(OverlayWithIW overlay) {
-    view.getOverlayManager().remove(overlay);
-    view.invalidate();
+  protected void hideOverlay(MapFeature feature, OverlayWithIW overlay) {
+    shownFeatures.remove(feature);
+    detach(overlay);
+    if (isCulling()) {
+      requestRefresh();
+    }
+    redraw();
+  }
+
+  /**
+   * Redraws the map, or does so when the current feature batch ends.
+   */
+  private void redraw() {
+    if (featureBatchDepth > 0) {
+      redrawPending = true;
+    } else {
+      view.invalidate();
+    }
   }
 
   @Override
   public boolean isFeatureVisible(MapFeature feature) {
-    OverlayWithIW overlay = featureOverlays.get(feature);
-    return overlay != null && view.getOverlayManager().contains(overlay);
+    return featureOverlays.containsKey(feature) && shownFeatures.contains(feature);
   }
 
   @Override
@@ -1202,6 +1426,7 @@ class NativeOpenStreetMapController implements MapController, MapListener {
 
   @Override
   public boolean onScroll(ScrollEvent event) {
+    updateAttachedOverlays();
     for (MapEventListener listener : eventListeners) {
       listener.onBoundsChanged();
     }
@@ -1211,6 +1436,10 @@ class NativeOpenStreetMapController implements MapController, MapListener {
   @Override
   public boolean onZoom(ZoomEvent event) {
     zoomControls.updateButtons();
+    if (simplificationZoom >= 0 && getZoom() > simplificationZoom) {
+      resimplifyFeatures();
+    }
+    updateAttachedOverlays();
     for (MapEventListener listener : eventListeners) {
       listener.onZoom();
     }
@@ -1276,6 +1505,322 @@ class NativeOpenStreetMapController implements MapController, MapListener {
     }
   }
 
+  /**
+   * Returns whether only some of the shown features are attached to the map view, so that
+   * changes to the shown features or the viewport may need {@link #refreshFeatureOverlays()}.
+   */
+  private boolean isCulling() {
+    return markerClustering || attachedBounds != null
+        || shownFeatures.size() > CULLING_THRESHOLD;
+  }
+
+  private void attach(Overlay overlay) {
+    if (overlay != null && attachedOverlays.add(overlay)) {
+      if (featureBatchDepth > 0) {
+        pendingOverlays.add(overlay);
+      } else {
+        view.getOverlayManager().add(overlay);
+      }
+    }
+  }
+
+  private void detach(Overlay overlay) {
+    if (overlay != null && attachedOverlays.remove(overlay)) {
+      pendingOverlays.remove(overlay);
+      view.getOverlayManager().remove(overlay);
+    }
+  }
+
+  private void reindexFeature(MapFeature feature, OverlayWithIW overlay) {
+    if (shownFeatures.contains(feature)) {
+      shownFeatures.put(feature, getBounds(overlay));
+      if (isCulling()) {
+        requestRefresh();
+      }
+    }
+  }
+
+  private final Runnable refreshFeatureOverlaysRunnable = new Runnable() {
+    @Override
+    public void run() {
+      if (refreshPending && featureBatchDepth == 0) {
+        refreshFeatureOverlays();
+      }
+    }
+  };
+
+  /**
+   * Refreshes the attached overlays once the current feature batch ends or, outside of a batch,
+   * once the UI thread has finished its current work, so that many changes need one refresh.
+   */
+  private void requestRefresh() {
+    if (!refreshPending) {
+      refreshPending = true;
+      if (featureBatchDepth == 0) {
+        view.post(refreshFeatureOverlaysRunnable);
+      }
+    }
+  }
+
+  /**
+   * Refreshes the attached overlays if the map has been zoomed or has panned far enough that
+   * features outside of the attached region may have become visible.
+   */
+  private void updateAttachedOverlays() {
+    if (!isCulling() || refreshPending) {
+      return;
+    }
+    Envelope visible = getVisibleBounds(0);
+    if (attachedBounds == null || visible == null || getZoom() != attachedZoom
+        || !attachedBounds.contains(visible)) {
+      requestRefresh();
+    }
+  }
+
+  /**
+   * Returns the visible part of the map, extended on each side by the given fraction of its size,
+   * or null if it is not known or crosses the antimeridian.
+   */
+  private Envelope getVisibleBounds(double margin) {
+    if (view.getWidth() == 0 || view.getHeight() == 0) {
+      return null;
+    }
+    BoundingBox box = view.getBoundingBox();
+    if (box.getLonWest() > box.getLonEast()) {
+      return null;
+    }
+    double lonMargin = box.getLongitudeSpan() * margin;
+    double latMargin = box.getLatitudeSpan() * margin;
+    return new Envelope(box.getLonWest() - lonMargin, box.getLonEast() + lonMargin,
+        box.getLatSouth() - latMargin, box.getLatNorth() + latMargin);
+  }
+
+  /**
+   * Replaces the attached feature overlays with those of the shown features near the visible
+   * part of the map, clustering markers if enabled. Below {@link #CULLING_THRESHOLD} shown
+   * features, and without clustering, every shown feature is attached.
+   */
+  private void refreshFeatureOverlays() {
+    refreshPending = false;
+    int zoom = getZoom();
+    Envelope bounds = null;
+    if (markerClustering || shownFeatures.size() > CULLING_THRESHOLD) {
+      bounds = getVisibleBounds(CULLING_MARGIN);
+    }
+    List<MapFeature> features = bounds == null ? shownFeatures.getAll()
+        : shownFeatures.query(bounds);
+    List<Overlay> overlays = markerClustering ? clusterMarkers(features, zoom)
+        : getOverlays(features);
+
+    // Both changes copy the overlay list once, however many overlays change.
+    List<Overlay> list = view.getOverlayManager().overlays();
+    list.removeAll(attachedOverlays);
+    list.addAll(overlays);
+    attachedOverlays.clear();
+    attachedOverlays.addAll(overlays);
+    attachedBounds = bounds;
+    attachedZoom = zoom;
+    redrawPending = false;
+    view.invalidate();
+  }
+
+  private List<Overlay> getOverlays(List<MapFeature> features) {
+    List<Overlay> overlays = new ArrayList<Overlay>(features.size());
+    for (MapFeature feature : features) {
+      overlays.add(featureOverlays.get(feature));
+    }
+    return overlays;
+  }
+
+  /**
+   * Returns the overlays for the given features, replacing markers that fall in the same cell of
+   * a grid over the map at the given zoom level with one cluster overlay per cell. Draggable
+   * markers are never clustered.
+   */
+  private List<Overlay> clusterMarkers(List<MapFeature> features, int zoom) {
+    double scale = 256.0 * Math.pow(2, zoom) / CLUSTER_CELL_SIZE;
+    // Each entry is either an overlay or the markers of a cell, in drawing order.
+    List<Object> slots = new ArrayList<Object>(features.size());
+    Map<Long, List<MapMarker>> cells = new HashMap<Long, List<MapMarker>>();
+    for (MapFeature feature : features) {
+      if (!(feature instanceof MapMarker) || feature.Draggable()) {
+        slots.add(featureOverlays.get(feature));
+        continue;
+      }
+      MapMarker marker = (MapMarker) feature;
+      double sinLatitude = Math.max(-0.9999, Math.min(0.9999,
+          Math.sin(Math.toRadians(marker.Latitude()))));
+      long x = (long) Math.floor((marker.Longitude() + 180.0) / 360.0 * scale);
+      long y = (long) Math.floor((0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude))
+          / (4 * Math.PI)) * scale);
+      Long cell = (x << 32) ^ (y & 0xFFFFFFFFL);
+      List<MapMarker> markers = cells.get(cell);
+      if (markers == null) {
+        markers = new ArrayList<MapMarker>();
+        cells.put(cell, markers);
+        slots.add(markers);
+      }
+      markers.add(marker);
+    }
+    List<Overlay> overlays = new ArrayList<Overlay>(slots.size());
+    for (Object slot : slots) {
+      if (slot instanceof Overlay) {
+        overlays.add((Overlay) slot);
+      } else {
+        @SuppressWarnings("unchecked")
+        List<MapMarker> markers = (List<MapMarker>) slot;
+        overlays.add(markers.size() == 1 ? featureOverlays.get(markers.get(0))
+            : createClusterOverlay(markers));
+      }
+    }
+    return overlays;
+  }
+
+  private Marker createClusterOverlay(final List<MapMarker> markers) {
+    double latitude = 0, longitude = 0;
+    for (MapMarker marker : markers) {
+      latitude += marker.Latitude();
+      longitude += marker.Longitude();
+    }
+    final double centerLatitude = latitude / markers.size();
+    final double centerLongitude = longitude / markers.size();
+    Marker cluster = new Marker(view);
+    cluster.setPosition(new GeoPoint(centerLatitude, centerLongitude));
+    cluster.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_CENTER);
+    cluster.setIcon(getClusterIcon(markers.size()));
+    cluster.setOnMarkerClickListener(new OnMarkerClickListener() {
+      @Override
+      public boolean onMarkerClick(Marker marker, MapView mapView) {
+        for (MapEventListener listener : eventListeners) {
+          listener.onClusterClick(centerLatitude, centerLongitude, markers);
+        }
+        return true;
+      }
+
+      @Override
+      public boolean onMarkerLongPress(Marker marker, MapView mapView) {
+        return false;
+      }
+    });
+    return cluster;
+  }
+
+  private Drawable getClusterIcon(int count) {
+    Drawable icon = clusterIcons.get(count);
+    if (icon == null) {
+      float density = form.getResources().getDisplayMetrics().density;
+      int size = (int) (CLUSTER_ICON_SIZE * density);
+      Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+      Canvas canvas = new Canvas(bitmap);
+      Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+      paint.setColor(CLUSTER_COLOR);
+      canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+      paint.setColor(Color.WHITE);
+      paint.setStyle(Paint.Style.STROKE);
+      paint.setStrokeWidth(2 * density);
+      canvas.drawCircle(size / 2f, size / 2f, size / 2f - density, paint);
+      paint.setStyle(Paint.Style.FILL);
+      paint.setTextAlign(Paint.Align.CENTER);
+      paint.setTextSize(14 * density);
+      canvas.drawText(Integer.toString(count), size / 2f,
+          size / 2f - (paint.ascent() + paint.descent()) / 2, paint);
+      icon = new BitmapDrawable(form.getResources(), bitmap);
+      clusterIcons.put(count, icon);
+    }
+    return icon;
+  }
+
+  private static Envelope getBounds(OverlayWithIW overlay) {
+    Envelope bounds = new Envelope();
+    if (overlay instanceof Marker) {
+      GeoPoint position = ((Marker) overlay).getPosition();
+      bounds.expandToInclude(position.getLongitude(), position.getLatitude());
+    } else if (overlay instanceof MultiPolygon) {
+      for (Polygon child : ((MultiPolygon) overlay).children) {
+        expandToInclude(bounds, child.getPoints());
+      }
+    } else if (overlay instanceof Polygon) {
+      expandToInclude(bounds, ((Polygon) overlay).getPoints());
+    } else if (overlay instanceof Polyline) {
+      expandToInclude(bounds, ((Polyline) overlay).getPoints());
+    }
+    if (bounds.isNull()) {
+      // A feature without points is still indexed so that it counts as shown.
+      bounds.expandToInclude(0, 0);
+    }
+    return bounds;
+  }
+
+  private static void expandToInclude(Envelope bounds, List<GeoPoint> points) {
+    for (GeoPoint point : points) {
+      bounds.expandToInclude(point.getLongitude(), point.getLatitude());
+    }
+  }
+
+  /**
+   * Returns the tolerance for simplifying geometry so that it looks the same at the current zoom
+   * level, or at any lower level the map has been shown at.
+   */
+  private double getSimplificationTolerance() {
+    simplificationZoom = Math.max(simplificationZoom, getZoom());
+    return GeometryUtil.getSimplificationTolerance(simplificationZoom);
+  }
+
+  private List<GeoPoint> simplify(MapFeature aiFeature, List<GeoPoint> points, int minimum) {
+    if (aiFeature.Draggable()) {
+      // Dragging replaces the feature's points with the overlay's, so they must not be simplified.
+      return points;
+    }
+    return GeometryUtil.simplifyPoints(points, getSimplificationTolerance(), minimum);
+  }
+
+  private List<List<GeoPoint>> simplifyRings(MapFeature aiFeature, List<List<GeoPoint>> rings) {
+    if (aiFeature.Draggable() || rings == null) {
+      return rings;
+    }
+    List<List<GeoPoint>> result = new ArrayList<List<GeoPoint>>(rings.size());
+    for (List<GeoPoint> ring : rings) {
+      result.add(simplify(aiFeature, ring, 4));
+    }
+    return result;
+  }
+
+  private List<List<List<GeoPoint>>> simplifyHoles(MapFeature aiFeature,
+      List<List<List<GeoPoint>>> holes) {
+    if (aiFeature.Draggable() || holes == null) {
+      return holes;
+    }
+    List<List<List<GeoPoint>>> result = new ArrayList<List<List<GeoPoint>>>(holes.size());
+    for (List<List<GeoPoint>> polygonHoles : holes) {
+      result.add(simplifyRings(aiFeature, polygonHoles));
+    }
+    return result;
+  }
+
+  /**
+   * Simplifies the lines and polygons on the map again for a higher zoom level, so that they show
+   * the detail that has become visible.
+   */
+  private void resimplifyFeatures() {
+    beginFeatureBatch();
+    try {
+      simplificationZoom = getZoom();
+      for (MapFeature aiFeature : new ArrayList<MapFeature>(featureOverlays.keySet())) {
+        if (aiFeature.Draggable()) {
+          continue;
+        }
+        if (aiFeature instanceof MapLineString) {
+          updateFeaturePosition((MapLineString) aiFeature);
+        } else if (aiFeature instanceof MapPolygon) {
+          updateFeaturePosition((MapPolygon) aiFeature);
+          updateFeatureHoles((MapPolygon) aiFeature);
+        }
+      }
+    } finally {
+      endFeatureBatch();
+    }
+  }
+
   static class MultiPolygon extends Polygon {
 
     private List<Polygon> children = new ArrayList<Polygon>();
@@ -0,0 +1,280 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * The values of the tags of a cloud database that a component has read or been told about,
+ * kept on the device so that reading a tag again need not go to the network.
+ *
+ * <p>An entry is only served while the component is listening for changes to the database,
+ * because only then is the component told when the entry goes out of date. Entries are
+ * updated from change notifications with {@link #put}, and from values read from the
+ * network with {@link #offer}, which never replaces a value that is newer. While the
+ * component is writing to a tag its entry is not used, so that reads made after the write
+ * see it.</p>
+ *
+ * <p>Entries are saved in a SharedPreferences file named for the database, so they outlive
+ * the app, but entries read back from the file are stale until they are offered again,
+ * because the database may have changed in the meantime. Once there are more entries than
+ * the capacity, the least recently used are removed.</p>
+ */
+public final class RemoteValueCache {
+  private static final String LOG_TAG = "RemoteValueCache";
+  private static final String PREFS_PREFIX = "RemoteValueCache.";
+
+  private static final class Entry {
+    final String value;
+    boolean stale;
+    long accessed;
+
+    Entry(String value, boolean stale, long accessed) {
+      this.value = value;
+      this.stale = stale;
+      this.accessed = accessed;
+    }
+  }
+
+  private final SharedPreferences preferences;
+  private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+  private final Map<String, Integer> pendingWrites = new HashMap<String, Integer>();
+  private int capacity;
+  private boolean listening = false;
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * Creates a cache for a database, reading any entries saved by an earlier run.
+   *
+   * @param context the context used to open the file
+   * @param namespace the name of the database, such as its URL
+   * @param capacity the number of tags kept
+   */
+  public RemoteValueCache(Context context, String namespace, int capacity) {
+    this.preferences = context.getSharedPreferences(getFileName(namespace), Context.MODE_PRIVATE);
+    this.capacity = capacity;
+    load();
+  }
+
+  /**
+   * Returns the value of a tag, or null if it is not in the cache or may be out of date.
+   */
+  public synchronized String get(String tag) {
+    Entry entry = entries.get(tag);
+    if (!listening || entry == null || entry.stale || pendingWrites.containsKey(tag)) {
+      misses++;
+      return null;
+    }
+    entry.accessed = System.currentTimeMillis();
+    hits++;
+    return entry.value;
+  }
+
+  /**
+   * Sets the value of a tag from a notification that the tag has changed.
+   */
+  public synchronized void put(String tag, String value) {
+    if (listening && !pendingWrites.containsKey(tag)) {
+      store(tag, value);
+    }
+  }
+
+  /**
+   * Sets the value of a tag read from the database, unless the cache already has a value
+   * that is at least as new.
+   */
+  public synchronized void offer(String tag, String value) {
+    Entry entry = entries.get(tag);
+    if (listening && (entry == null || entry.stale) && !pendingWrites.containsKey(tag)) {
+      store(tag, value);
+    }
+  }
+
+  /**
+   * Removes a tag that is no longer in the database.
+   */
+  public synchronized void remove(String tag) {
+    if (entries.remove(tag) != null) {
+      save(preferences.edit().remove(tag));
+    }
+  }
+
+  /**
+   * Stops using the value of a tag until {@link #endWrite} is called for each call to this,
+   * as the component is about to change it.
+   */
+  public synchronized void beginWrite(String tag) {
+    Integer count = pendingWrites.get(tag);
+    pendingWrites.put(tag, count == null ? 1 : count + 1);
+    remove(tag);
+  }
+
+  /**
+   * Records that a change begun with {@link #beginWrite} has been made, or has failed.
+   */
+  public synchronized void endWrite(String tag) {
+    Integer count = pendingWrites.get(tag);
+    if (count == null || count <= 1) {
+      pendingWrites.remove(tag);
+    } else {
+      pendingWrites.put(tag, count - 1);
+    }
+  }
+
+  /**
+   * Sets whether the component is told about changes to the database. When it stops
+   * listening all of the entries become stale, as changes may be missed, and writes that
+   * have not finished are forgotten.
+   */
+  public synchronized void setListening(boolean listening) {
+    this.listening = listening;
+    if (!listening) {
+      for (Entry entry : entries.values()) {
+        entry.stale = true;
+      }
+      pendingWrites.clear();
+    }
+  }
+
+  /**
+   * Returns the tags whose entries are stale, most recently used first.
+   */
+  public synchronized List<String> getStaleTags() {
+    List<String> tags = new ArrayList<String>();
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      if (entry.getValue().stale) {
+        tags.add(entry.getKey());
+      }
+    }
+    Collections.reverse(tags);
+    return tags;
+  }
+
+  /**
+   * Sets the number of tags kept, removing the least recently used if there are more.
+   */
+  public synchronized void setCapacity(int capacity) {
+    this.capacity = capacity;
+    SharedPreferences.Editor editor = preferences.edit();
+    if (trim(editor)) {
+      save(editor);
+    }
+  }
+
+  /**
+   * Removes all of the entries.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    save(preferences.edit().clear());
+  }
+
+  /**
+   * Saves when each entry was last used, so that the least recently used are still removed
+   * first after the app restarts.
+   */
+  public synchronized void saveAccessTimes() {
+    SharedPreferences.Editor editor = preferences.edit();
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      editor.putString(entry.getKey(), encode(entry.getValue()));
+    }
+    save(editor);
+  }
+
+  /**
+   * Returns the number of reads served from the cache and from the network, for debugging.
+   */
+  public synchronized String getStats() {
+    return String.format("RemoteValueCache[entries=%d,hits=%d,misses=%d]", entries.size(), hits,
+        misses);
+  }
+
+  private void store(String tag, String value) {
+    Entry entry = new Entry(value, false, System.currentTimeMillis());
+    entries.put(tag, entry);
+    SharedPreferences.Editor editor = preferences.edit().putString(tag, encode(entry));
+    trim(editor);
+    save(editor);
+  }
+
+  private boolean trim(SharedPreferences.Editor editor) {
+    boolean trimmed = false;
+    Iterator<String> it = entries.keySet().iterator();
+    while (entries.size() > capacity && it.hasNext()) {
+      editor.remove(it.next());
+      it.remove();
+      trimmed = true;
+    }
+    return trimmed;
+  }
+
+  private void load() {
+    final Map<String, Entry> saved = new HashMap<String, Entry>();
+    for (Map.Entry<String, ?> pref : preferences.getAll().entrySet()) {
+      try {
+        JSONArray array = new JSONArray((String) pref.getValue());
+        saved.put(pref.getKey(), new Entry(array.getString(1), true, array.getLong(0)));
+      } catch (JSONException e) {
+        Log.w(LOG_TAG, "Ignoring unreadable entry for " + pref.getKey(), e);
+      } catch (ClassCastException e) {
+        Log.w(LOG_TAG, "Ignoring unreadable entry for " + pref.getKey(), e);
+      }
+    }
+    List<String> tags = new ArrayList<String>(saved.keySet());
+    Collections.sort(tags, new Comparator<String>() {
+      @Override
+      public int compare(String a, String b) {
+        long x = saved.get(a).accessed;
+        long y = saved.get(b).accessed;
+        return x < y ? -1 : (x == y ? 0 : 1);
+      }
+    });
+    for (String tag : tags) {
+      entries.put(tag, saved.get(tag));
+    }
+    SharedPreferences.Editor editor = preferences.edit();
+    if (trim(editor)) {
+      save(editor);
+    }
+  }
+
+  private static String encode(Entry entry) {
+    JSONArray array = new JSONArray();
+    array.put(entry.accessed);
+    array.put(entry.value);
+    return array.toString();
+  }
+
+  private static String getFileName(String namespace) {
+    // The name must be usable as a file name, so keep the readable part of the namespace and
+    // tell apart namespaces that differ only in the other characters by their hash.
+    return PREFS_PREFIX + namespace.replaceAll("[^A-Za-z0-9_.-]", "_") + "."
+        + Integer.toHexString(namespace.hashCode());
+  }
+
+  private static void save(SharedPreferences.Editor editor) {
+    if (SdkLevel.getLevel() >= SdkLevel.LEVEL_GINGERBREAD) {
+      GingerbreadUtil.applyPreferences(editor);
+    } else {
+      editor.commit();
+    }
+  }
+}
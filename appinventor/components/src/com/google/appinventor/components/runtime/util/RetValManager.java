@@ -11,7 +11,13 @@ import android.util.Log;
 import com.google.appinventor.components.runtime.PhoneStatus;
 import com.google.appinventor.components.runtime.ReplForm;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -22,6 +28,14 @@ import org.json.JSONObject;
  * A Class for managing return values from evaluating Repl Forms and
  * stashing them in a JSON Array for return to the Blocks Editor from the
  * Companion.
+ *
+ * When using WebRTC, return values are gathered for BATCH_WINDOW
+ * milliseconds and sent together as one frame from a background
+ * thread, so that the UI thread never waits on the data channel. Large
+ * frames are sent gzipped if the Blocks Editor has asked for that. If
+ * the data channel falls behind, sending waits, and once MAX_PENDING
+ * values are waiting, return values and errors are dropped rather than
+ * queued. The number dropped is sent with the next frame.
  */
 
 public class RetValManager {
@@ -29,10 +43,23 @@ public class RetValManager {
   private static final String LOG_TAG = "RetValManager";
   private static final Object semaphore = new Object();
   private static final long TENSECONDS = 10000; // Ten Seconds (in milliseconds)
+  private static final long BATCH_WINDOW = 50;  // Time to gather values into one frame (ms)
+  private static final int MAX_PENDING = 256;   // Values kept waiting before some are dropped
+  private static final int COMPRESS_THRESHOLD = 2048; // Frames longer than this are compressed
+  private static final long MAX_BACKLOG = 64 * 1024;  // Bytes queued on the channel before we wait
+  private static final long BACKLOG_RETRY = 100;      // Time to wait for the channel to drain (ms)
 
   // There can be only one!
   private static ArrayList<JSONObject> currentArray = new ArrayList<JSONObject>(10);
 
+  private static ScheduledExecutorService sender = null;
+  private static boolean sendScheduled = false;
+  private static boolean compressFrames = false;
+  private static int dropped = 0;               // Values dropped since the last frame
+  private static long totalDropped = 0;
+  private static long framesSent = 0;
+  private static long framesCompressed = 0;
+
   // Need a better place for this version string, but for various reasons, this is how we
   // are going to do this for now...
 
@@ -49,46 +76,47 @@ public class RetValManager {
    * @param item The item to append
    */
   public static void appendReturnValue(String blockid, String ok, String item) {
-    synchronized (semaphore) {
-      JSONObject retval = new JSONObject();
-      try {
-        retval.put("status", ok);
-        retval.put("type", "return");
-        retval.put("value", item);
-        retval.put("blockid", blockid);
-      } catch (JSONException e) {
-        Log.e(LOG_TAG, "Error building retval", e);
-        return;
-      }
-      boolean sendNotify = currentArray.isEmpty();
-      currentArray.add(retval);
-      if (PhoneStatus.getUseWebRTC()) {
-        webRTCsendCurrent();
-      } else if (sendNotify) {
-        semaphore.notifyAll();
+    appendReturnValue(blockid, ok, item, -1);
+  }
+
+  /*
+   * appendReturnValue -- Add a result, already encoded as a String to
+   * the array of pending values, along with how long it took to
+   * evaluate the form that produced it.
+   *
+   * @param blockid The block id of the block this is for (-1 for no particular block)
+   * @param ok Indication of success or failure
+   * @param item The item to append
+   * @param evalTime The time taken to evaluate the form in milliseconds, or -1 if not known
+   */
+  public static void appendReturnValue(String blockid, String ok, String item, long evalTime) {
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", ok);
+      retval.put("type", "return");
+      retval.put("value", item);
+      retval.put("blockid", blockid);
+      if (evalTime >= 0) {
+        retval.put("evalTime", evalTime);
       }
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
     }
+    enqueue(retval, true);
   }
 
   public static void sendError(String error) {
-    synchronized (semaphore) {
-      JSONObject retval = new JSONObject();
-      try {
-        retval.put("status", "OK");
-        retval.put("type", "error");
-        retval.put("value", error);
-      } catch (JSONException e) {
-        Log.e(LOG_TAG, "Error building retval", e);
-        return;
-      }
-      boolean sendNotify = currentArray.isEmpty();
-      currentArray.add(retval);
-      if (PhoneStatus.getUseWebRTC()) {
-        webRTCsendCurrent();
-      } else if (sendNotify) {
-        semaphore.notifyAll();
-      }
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", "OK");
+      retval.put("type", "error");
+      retval.put("value", error);
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
     }
+    enqueue(retval, true);
   }
 
   /*
@@ -98,26 +126,18 @@ public class RetValManager {
    * @param value The value to hand it
    */
   public static void pushScreen(String screenName, Object value) {
-    synchronized (semaphore) {
-      JSONObject retval = new JSONObject();
-      try {
-        retval.put("status", "OK");
-        retval.put("type", "pushScreen");
-        retval.put("screen", screenName);
-        if (value != null)
-          retval.put("value", value.toString());
-      } catch (JSONException e) {
-        Log.e(LOG_TAG, "Error building retval", e);
-        return;
-      }
-      boolean sendNotify = currentArray.isEmpty();
-      currentArray.add(retval);
-      if (PhoneStatus.getUseWebRTC()) {
-        webRTCsendCurrent();
-      } else if (sendNotify) {
-        semaphore.notifyAll();
-      }
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", "OK");
+      retval.put("type", "pushScreen");
+      retval.put("screen", screenName);
+      if (value != null)
+        retval.put("value", value.toString());
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
     }
+    enqueue(retval, false);
   }
 
   /*
@@ -127,25 +147,17 @@ public class RetValManager {
    * @param value The value to hand it
    */
   public static void popScreen(String value) {
-    synchronized (semaphore) {
-      JSONObject retval = new JSONObject();
-      try {
-        retval.put("status", "OK");
-        retval.put("type", "popScreen");
-        if (value != null)
-          retval.put("value", value.toString());
-      } catch (JSONException e) {
-        Log.e(LOG_TAG, "Error building retval", e);
-        return;
-      }
-      boolean sendNotify = currentArray.isEmpty();
-      currentArray.add(retval);
-      if (PhoneStatus.getUseWebRTC()) {
-        webRTCsendCurrent();
-      } else if (sendNotify) {
-        semaphore.notifyAll();
-      }
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", "OK");
+      retval.put("type", "popScreen");
+      if (value != null)
+        retval.put("value", value.toString());
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
     }
+    enqueue(retval, false);
   }
 
   /*
@@ -154,24 +166,49 @@ public class RetValManager {
    * @param name name of the asset transferred
    */
   public static void assetTransferred(String name) {
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", "OK");
+      retval.put("type", "assetTransferred");
+      if (name != null)
+        retval.put("value", name.toString());
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
+    }
+    enqueue(retval, false);
+  }
+
+  /*
+   * assetProgress
+   *
+   * @param name name of the asset being transferred
+   * @param received the number of bytes received so far
+   * @param total the size of the asset, or -1 if it is not known
+   */
+  public static void assetProgress(String name, long received, long total) {
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", "OK");
+      retval.put("type", "assetProgress");
+      retval.put("value", name);
+      retval.put("received", received);
+      retval.put("total", total);
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
+    }
     synchronized (semaphore) {
-      JSONObject retval = new JSONObject();
-      try {
-        retval.put("status", "OK");
-        retval.put("type", "assetTransferred");
-        if (name != null)
-          retval.put("value", name.toString());
-      } catch (JSONException e) {
-        Log.e(LOG_TAG, "Error building retval", e);
-        return;
-      }
-      boolean sendNotify = currentArray.isEmpty();
-      currentArray.add(retval);
-      if (PhoneStatus.getUseWebRTC()) {
-        webRTCsendCurrent();
-      } else if (sendNotify) {
-        semaphore.notifyAll();
+      // Only the latest progress of an asset matters, so replace any that has not been sent
+      for (int i = 0; i < currentArray.size(); i++) {
+        JSONObject pending = currentArray.get(i);
+        if ("assetProgress".equals(pending.optString("type"))
+            && name.equals(pending.optString("value"))) {
+          currentArray.set(i, retval);
+          return;
+        }
       }
+      enqueue(retval, true);
     }
   }
 
@@ -180,23 +217,15 @@ public class RetValManager {
    *
    */
   public static void extensionsLoaded() {
-    synchronized (semaphore) {
-      JSONObject retval = new JSONObject();
-      try {
-        retval.put("status", "OK");
-        retval.put("type", "extensionsLoaded");
-      } catch (JSONException e) {
-        Log.e(LOG_TAG, "Error building retval", e);
-        return;
-      }
-      boolean sendNotify = currentArray.isEmpty();
-      currentArray.add(retval);
-      if (PhoneStatus.getUseWebRTC()) {
-        webRTCsendCurrent();
-      } else if (sendNotify) {
-        semaphore.notifyAll();
-      }
+    JSONObject retval = new JSONObject();
+    try {
+      retval.put("status", "OK");
+      retval.put("type", "extensionsLoaded");
+    } catch (JSONException e) {
+      Log.e(LOG_TAG, "Error building retval", e);
+      return;
     }
+    enqueue(retval, false);
   }
 
   /*
@@ -224,6 +253,10 @@ public class RetValManager {
       try {
         output.put("status", "OK");
         output.put("values", arrayoutput);
+        if (dropped > 0) {
+          output.put("dropped", dropped);
+          dropped = 0;
+        }
       } catch (JSONException e) {
         Log.e(LOG_TAG, "Error fetching retvals", e);
         return("{\"status\" : \"BAD\", \"message\" : \"Failure in RetValManager\"}");
@@ -233,19 +266,119 @@ public class RetValManager {
     }
   }
 
-  // Only used for webrtc. Note: Our caller is holding "semphore" so we don't
-  // need to worry about multi-thread synchonization here
+  /*
+   * setCompressFrames -- Called by the Blocks Editor when it can read
+   * gzipped frames over WebRTC.
+   *
+   * @param compress true if large frames should be compressed
+   */
+  public static void setCompressFrames(boolean compress) {
+    synchronized (semaphore) {
+      compressFrames = compress;
+    }
+  }
+
+  /*
+   * getStats -- Returns how many frames have been sent and values
+   * dropped, for debugging.
+   */
+  public static String getStats() {
+    synchronized (semaphore) {
+      return String.format("RetValManager[pending=%d,frames=%d,compressed=%d,dropped=%d]",
+          currentArray.size(), framesSent, framesCompressed, totalDropped);
+    }
+  }
+
+  // Adds a value to the pending values, dropping it if it is droppable and
+  // too many values are waiting already.
+  private static void enqueue(JSONObject retval, boolean droppable) {
+    synchronized (semaphore) {
+      if (droppable && currentArray.size() >= MAX_PENDING) {
+        dropped++;
+        totalDropped++;
+        return;
+      }
+      boolean sendNotify = currentArray.isEmpty();
+      currentArray.add(retval);
+      if (PhoneStatus.getUseWebRTC()) {
+        scheduleSend(BATCH_WINDOW);
+      } else if (sendNotify) {
+        semaphore.notifyAll();
+      }
+    }
+  }
+
+  // Only used for webrtc. Note: Our caller is holding "semaphore"
+  private static void scheduleSend(long delay) {
+    if (sendScheduled) {
+      return;
+    }
+    sendScheduled = true;
+    if (sender == null) {
+      sender = Executors.newSingleThreadScheduledExecutor();
+    }
+    sender.schedule(new Runnable() {
+        @Override
+        public void run() {
+          webRTCsendCurrent();
+        }
+      }, delay, TimeUnit.MILLISECONDS);
+  }
+
+  // Only used for webrtc. Runs on the sender thread, so the work of
+  // building and compressing the frame is not done while holding
+  // "semaphore".
   private static void webRTCsendCurrent() {
+    JSONArray values;
+    int droppedValues;
+    boolean compress;
+    synchronized (semaphore) {
+      sendScheduled = false;
+      if (currentArray.isEmpty()) {
+        return;
+      }
+      if (ReplForm.getRetvalBacklog() > MAX_BACKLOG) {
+        scheduleSend(BACKLOG_RETRY);  // Wait for the data channel to catch up
+        return;
+      }
+      values = new JSONArray(currentArray);
+      currentArray.clear();
+      droppedValues = dropped;
+      dropped = 0;
+      compress = compressFrames;
+    }
     try {
       JSONObject output = new JSONObject();
       output.put("status", "OK");
-      output.put("values", new JSONArray(currentArray));
-      ReplForm.returnRetvals(output.toString());
+      output.put("values", values);
+      if (droppedValues > 0) {
+        Log.w(LOG_TAG, "Dropped " + droppedValues + " return values");
+        output.put("dropped", droppedValues);
+      }
+      String frame = output.toString();
+      if (compress && frame.length() > COMPRESS_THRESHOLD) {
+        ReplForm.returnCompressedRetvals(gzip(frame));
+        framesCompressed++;
+      } else {
+        ReplForm.returnRetvals(frame);
+      }
+      framesSent++;
     } catch (JSONException e) {
       Log.e(LOG_TAG, "Error building retval", e);
-      return;
+    } catch (IOException e) {
+      Log.e(LOG_TAG, "Error compressing retvals", e);
+    }
+  }
+
+  private static byte[] gzip(String frame) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(frame.length() / 4);
+    GZIPOutputStream out = new GZIPOutputStream(bytes);
+    try {
+      out.write(frame.getBytes("UTF-8"));
+    } finally {
+      out.close();
     }
-    currentArray.clear();
+    return bytes.toByteArray();
   }
 
 }
@@ -0,0 +1,411 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.google.appinventor.components.common.ComponentConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Helper class for sensor components, such as AccelerometerSensor and
+ * GyroscopeSensor, that moves sensor sampling off of the UI thread.
+ *
+ * <p>Sensor callbacks arrive on a dedicated background thread and are written
+ * into a {@link SensorSampleBuffer}.  Samples are handed to the component on
+ * the UI thread no more often than the configured maximum event rate, and the
+ * sampling mode controls which samples are handed over:</p>
+ * <ul>
+ * <li>{@link ComponentConstants#SENSOR_SAMPLING_ALL}: every sample.  The
+ *     maximum event rate only groups the samples into fewer deliveries; the
+ *     listener still receives each one.
+ * <li>{@link ComponentConstants#SENSOR_SAMPLING_LATEST}: only the most recent
+ *     sample for each sensor at the time of delivery.
+ * <li>{@link ComponentConstants#SENSOR_SAMPLING_LOW_PASS}: the most recent
+ *     value of each sensor after low-pass filtering with a cutoff of half the
+ *     maximum event rate.
+ * <li>{@link ComponentConstants#SENSOR_SAMPLING_DECIMATE}: samples spaced at
+ *     least one event period apart, in sensor time.
+ * </ul>
+ *
+ */
+public final class SensorPipeline implements SensorEventListener {
+
+  /**
+   * Receives samples from a {@link SensorPipeline}.  All methods are called on
+   * the UI thread.
+   */
+  public interface Listener {
+    /**
+     * Called for each sample selected by the sampling mode.  The
+     * {@code values} array is reused between calls and must not be retained.
+     *
+     * @param channel the index of the sensor in the array passed to the
+     *        pipeline's constructor
+     * @param values the sample values
+     * @param timestamp the sample timestamp, in nanoseconds
+     */
+    void onSample(int channel, float[] values, long timestamp);
+
+    /**
+     * Called after each delivery if batching is enabled and any samples were
+     * recorded with {@link SensorPipeline#recordBatchSample}.
+     *
+     * @param samples a list of samples, each a list of the timestamp followed
+     *        by the recorded values
+     */
+    void onBatch(YailList samples);
+  }
+
+  // Enough for a bit more than a second of samples at SENSOR_DELAY_FASTEST on
+  // most devices.
+  private static final int BUFFER_CAPACITY = 256;
+  private static final int DIMENSIONS = 3;
+
+  // Smoothing factor used for low-pass filtering when no event rate is set.
+  private static final float DEFAULT_LOW_PASS_ALPHA = 0.2f;
+
+  private static final long NANOS_PER_SECOND = 1000000000L;
+
+  private final String name;
+  private final SensorManager sensorManager;
+  private final Sensor[] sensors;
+  private final int samplingPeriod;
+  private final Listener listener;
+  private final Handler androidUIHandler;
+  private final SensorSampleBuffer buffer;
+
+  // Settings.  Written on the UI thread and read on the sensor thread.
+  private volatile int mode = ComponentConstants.SENSOR_SAMPLING_ALL;
+  private volatile int maximumRate;
+
+  // State owned by the sensor thread.
+  private final float[][] filtered;
+  private final boolean[] filterPrimed;
+  private final long[] lastTimestamp;
+
+  // State owned by the UI thread.
+  private HandlerThread sensorThread;
+  private boolean listening;
+  private boolean batching;
+  private List<YailList> batch = new ArrayList<YailList>();
+  private final float[] drainScratch = new float[DIMENSIONS];
+  private final float[][] latest;
+  private final long[] latestTimestamp;
+  private final boolean[] latestValid;
+  private long deliveredCount;
+
+  // Shared between the threads.
+  private final AtomicBoolean deliveryPending = new AtomicBoolean();
+  private volatile long lastDeliveryTime;
+
+  private final SensorSampleBuffer.SampleHandler emitter = new SensorSampleBuffer.SampleHandler() {
+    @Override
+    public void onSample(int channel, float[] values, long timestamp) {
+      deliveredCount++;
+      listener.onSample(channel, values, timestamp);
+    }
+  };
+
+  private final SensorSampleBuffer.SampleHandler latestCollector =
+      new SensorSampleBuffer.SampleHandler() {
+    @Override
+    public void onSample(int channel, float[] values, long timestamp) {
+      System.arraycopy(values, 0, latest[channel], 0, DIMENSIONS);
+      latestTimestamp[channel] = timestamp;
+      latestValid[channel] = true;
+    }
+  };
+
+  private final Runnable deliverSamples = new Runnable() {
+    @Override
+    public void run() {
+      deliver();
+    }
+  };
+
+  /**
+   * Creates a new pipeline.  Sampling does not begin until {@link #start()}
+   * is called.
+   *
+   * @param name a name for the sensor thread
+   * @param sensorManager the system sensor manager
+   * @param samplingPeriod the rate at which to sample, one of the
+   *        {@code SensorManager.SENSOR_DELAY_*} constants
+   * @param listener the listener to receive samples
+   * @param sensors the sensors to sample; {@code null} entries are ignored
+   */
+  public SensorPipeline(String name, SensorManager sensorManager, int samplingPeriod,
+      Listener listener, Sensor... sensors) {
+    this.name = name;
+    this.sensorManager = sensorManager;
+    this.samplingPeriod = samplingPeriod;
+    this.listener = listener;
+    this.sensors = sensors;
+    this.androidUIHandler = new Handler();
+    this.buffer = new SensorSampleBuffer(BUFFER_CAPACITY, DIMENSIONS);
+    filtered = new float[sensors.length][DIMENSIONS];
+    filterPrimed = new boolean[sensors.length];
+    lastTimestamp = new long[sensors.length];
+    latest = new float[sensors.length][DIMENSIONS];
+    latestTimestamp = new long[sensors.length];
+    latestValid = new boolean[sensors.length];
+  }
+
+  /**
+   * Registers for sensor updates on a background thread.  Does nothing if
+   * the pipeline is already started.
+   */
+  public void start() {
+    if (listening) {
+      return;
+    }
+    Arrays.fill(filterPrimed, false);
+    Arrays.fill(lastTimestamp, 0);
+    sensorThread = new HandlerThread(name, Process.THREAD_PRIORITY_DISPLAY);
+    sensorThread.start();
+    Handler sensorHandler = new Handler(sensorThread.getLooper());
+    for (Sensor sensor : sensors) {
+      if (sensor != null) {
+        sensorManager.registerListener(this, sensor, samplingPeriod, sensorHandler);
+      }
+    }
+    listening = true;
+  }
+
+  /**
+   * Unregisters from sensor updates and discards any undelivered samples.
+   * Does nothing if the pipeline is not started.
+   */
+  public void stop() {
+    if (!listening) {
+      return;
+    }
+    listening = false;
+    sensorManager.unregisterListener(this);
+    sensorThread.quit();
+    sensorThread = null;
+    androidUIHandler.removeCallbacks(deliverSamples);
+    deliveryPending.set(false);
+    buffer.clear();
+    batch.clear();
+  }
+
+  /**
+   * Returns whether the pipeline is registered for sensor updates.
+   */
+  public boolean isListening() {
+    return listening;
+  }
+
+  /**
+   * Returns the sampling mode.
+   */
+  public int getMode() {
+    return mode;
+  }
+
+  /**
+   * Sets the sampling mode.
+   *
+   * @param mode one of the {@code ComponentConstants.SENSOR_SAMPLING_*}
+   *        constants
+   * @throws IllegalArgumentException if {@code mode} is not a known mode
+   */
+  public void setMode(int mode) {
+    if (mode < ComponentConstants.SENSOR_SAMPLING_ALL
+        || mode > ComponentConstants.SENSOR_SAMPLING_DECIMATE) {
+      throw new IllegalArgumentException("Unknown sampling mode " + mode);
+    }
+    this.mode = mode;
+  }
+
+  /**
+   * Returns the maximum number of deliveries per second, or 0 if unlimited.
+   */
+  public int getMaximumRate() {
+    return maximumRate;
+  }
+
+  /**
+   * Sets the maximum number of deliveries per second.
+   *
+   * @param rate the number of deliveries per second, or 0 for no limit
+   */
+  public void setMaximumRate(int rate) {
+    maximumRate = Math.max(0, rate);
+  }
+
+  /**
+   * Returns whether batches are reported to the listener.
+   */
+  public boolean isBatching() {
+    return batching;
+  }
+
+  /**
+   * Sets whether batches are reported to the listener.
+   */
+  public void setBatching(boolean batching) {
+    this.batching = batching;
+    if (!batching) {
+      batch.clear();
+    }
+  }
+
+  /**
+   * Adds a sample to the batch reported after the current delivery.  Listeners
+   * call this from {@link Listener#onSample} with the values they derived from
+   * the sample.  Does nothing unless batching is enabled.
+   */
+  public void recordBatchSample(long timestamp, float value1, float value2, float value3) {
+    if (batching) {
+      batch.add(YailList.makeList(new Object[] { timestamp, value1, value2, value3 }));
+    }
+  }
+
+  /**
+   * Returns the number of samples discarded because they could not be
+   * delivered to the UI thread before the buffer filled up.
+   */
+  public long getDroppedCount() {
+    return buffer.getDroppedCount();
+  }
+
+  /**
+   * Returns the number of samples delivered to the listener.
+   */
+  public long getDeliveredCount() {
+    return deliveredCount;
+  }
+
+  /**
+   * Resets the dropped and delivered sample counters.
+   */
+  public void resetCounts() {
+    buffer.resetDroppedCount();
+    deliveredCount = 0;
+  }
+
+  // SensorEventListener implementation.  These are called on the sensor thread.
+
+  @Override
+  public void onSensorChanged(SensorEvent sensorEvent) {
+    int channel = channelOf(sensorEvent.sensor);
+    if (channel < 0) {
+      return;
+    }
+    float[] sample = sensorEvent.values;
+    long timestamp = sensorEvent.timestamp;
+    long previous = lastTimestamp[channel];
+    switch (mode) {
+      case ComponentConstants.SENSOR_SAMPLING_LOW_PASS:
+        float[] state = filtered[channel];
+        if (!filterPrimed[channel]) {
+          System.arraycopy(sample, 0, state, 0, Math.min(DIMENSIONS, sample.length));
+          filterPrimed[channel] = true;
+        } else {
+          float alpha = lowPassAlpha(timestamp - previous);
+          for (int i = 0; i < DIMENSIONS && i < sample.length; i++) {
+            state[i] += alpha * (sample[i] - state[i]);
+          }
+        }
+        sample = state;
+        lastTimestamp[channel] = timestamp;
+        break;
+
+      case ComponentConstants.SENSOR_SAMPLING_DECIMATE:
+        int rate = maximumRate;
+        if (rate > 0 && previous != 0 && timestamp - previous < NANOS_PER_SECOND / rate) {
+          return;
+        }
+        lastTimestamp[channel] = timestamp;
+        break;
+
+      default:
+        break;
+    }
+    buffer.offer(channel, sample, timestamp);
+    scheduleDelivery();
+  }
+
+  @Override
+  public void onAccuracyChanged(Sensor sensor, int accuracy) {
+  }
+
+  private int channelOf(Sensor sensor) {
+    for (int i = 0; i < sensors.length; i++) {
+      if (sensors[i] != null && sensors[i].getType() == sensor.getType()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Computes the smoothing factor of a first order low-pass filter whose
+   * cutoff is half the maximum event rate, so that the values delivered are
+   * not aliased.
+   */
+  private float lowPassAlpha(long elapsedNanos) {
+    int rate = maximumRate;
+    if (rate <= 0 || elapsedNanos <= 0) {
+      return DEFAULT_LOW_PASS_ALPHA;
+    }
+    double dt = (double) elapsedNanos / NANOS_PER_SECOND;
+    double rc = 1.0 / (Math.PI * rate);  // 1 / (2 * pi * (rate / 2))
+    return (float) (dt / (rc + dt));
+  }
+
+  private void scheduleDelivery() {
+    if (deliveryPending.compareAndSet(false, true)) {
+      long now = SystemClock.uptimeMillis();
+      int rate = maximumRate;
+      long next = rate > 0 ? lastDeliveryTime + 1000 / rate : now;
+      androidUIHandler.postAtTime(deliverSamples, Math.max(now, next));
+    }
+  }
+
+  // Called on the UI thread.
+  private void deliver() {
+    // Clear the flag before draining so that samples arriving while we drain
+    // schedule another delivery.
+    deliveryPending.set(false);
+    lastDeliveryTime = SystemClock.uptimeMillis();
+    if (!listening) {
+      return;
+    }
+    int currentMode = mode;
+    if (currentMode == ComponentConstants.SENSOR_SAMPLING_LATEST
+        || currentMode == ComponentConstants.SENSOR_SAMPLING_LOW_PASS) {
+      Arrays.fill(latestValid, false);
+      buffer.drain(latestCollector, drainScratch);
+      for (int channel = 0; channel < sensors.length; channel++) {
+        if (latestValid[channel]) {
+          emitter.onSample(channel, latest[channel], latestTimestamp[channel]);
+        }
+      }
+    } else {
+      buffer.drain(emitter, drainScratch);
+    }
+    if (batching && !batch.isEmpty()) {
+      YailList samples = YailList.makeList(batch);
+      batch = new ArrayList<YailList>();
+      listener.onBatch(samples);
+    }
+  }
+}
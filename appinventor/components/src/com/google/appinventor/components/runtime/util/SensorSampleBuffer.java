@@ -0,0 +1,180 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-capacity ring buffer of sensor samples shared between a single
+ * producer thread (the sensor callback thread) and a single consumer thread
+ * (the UI thread).  Neither side ever blocks or allocates.
+ *
+ * <p>When the consumer falls behind and the buffer is full, the producer
+ * discards the oldest sample so that the most recent readings are always
+ * available.  Discarded samples are counted and reported by
+ * {@link #getDroppedCount()}.</p>
+ *
+ */
+public final class SensorSampleBuffer {
+
+  /**
+   * Receives the samples removed from the buffer by {@link #drain}.
+   */
+  public interface SampleHandler {
+    /**
+     * Called once for each sample, in the order in which they were offered.
+     * The {@code values} array is reused between calls and must not be
+     * retained.
+     *
+     * @param channel the channel passed to {@link #offer}
+     * @param values the sample values
+     * @param timestamp the sample timestamp, in nanoseconds
+     */
+    void onSample(int channel, float[] values, long timestamp);
+  }
+
+  private final int dimensions;
+  private final int mask;
+  private final int[] channels;
+  private final long[] timestamps;
+  private final float[] values;
+
+  // Index of the next sample to be read.  Written by the consumer, and by
+  // the producer when it discards the oldest sample.
+  private final AtomicLong head = new AtomicLong();
+  // Index of the next sample to be written.  Written only by the producer.
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Creates a new buffer.
+   *
+   * @param capacity the maximum number of samples held, rounded up to a
+   *        power of two
+   * @param dimensions the number of values in each sample
+   */
+  public SensorSampleBuffer(int capacity, int dimensions) {
+    if (capacity <= 0 || dimensions <= 0) {
+      throw new IllegalArgumentException("capacity and dimensions must be positive");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.dimensions = dimensions;
+    this.mask = size - 1;
+    this.channels = new int[size];
+    this.timestamps = new long[size];
+    this.values = new float[size * dimensions];
+  }
+
+  /**
+   * Returns the number of samples this buffer can hold.
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Returns the number of values in each sample.
+   */
+  public int dimensions() {
+    return dimensions;
+  }
+
+  /**
+   * Adds a sample to the buffer, discarding the oldest sample if the buffer
+   * is full.  Must only be called from the producer thread.
+   *
+   * @param channel an identifier for the source of the sample
+   * @param sample the sample values; only the first {@link #dimensions()}
+   *        values are copied
+   * @param timestamp the sample timestamp, in nanoseconds
+   */
+  public void offer(int channel, float[] sample, long timestamp) {
+    long t = tail.get();
+    long h = head.get();
+    while (t - h >= capacity()) {
+      // Full: advance head past the oldest sample.  If the consumer got
+      // there first the CAS fails and we simply re-read head.
+      if (head.compareAndSet(h, h + 1)) {
+        dropped.incrementAndGet();
+        break;
+      }
+      h = head.get();
+    }
+    int slot = (int) (t & mask);
+    channels[slot] = channel;
+    timestamps[slot] = timestamp;
+    System.arraycopy(sample, 0, values, slot * dimensions,
+        Math.min(dimensions, sample.length));
+    tail.set(t + 1);
+  }
+
+  /**
+   * Removes all samples currently in the buffer, passing each to the given
+   * handler.  Must only be called from the consumer thread.
+   *
+   * @param handler the handler to receive the samples
+   * @param scratch an array of at least {@link #dimensions()} values used to
+   *        pass each sample to the handler
+   * @return the number of samples passed to the handler
+   */
+  public int drain(SampleHandler handler, float[] scratch) {
+    int count = 0;
+    long t = tail.get();
+    long h = head.get();
+    while (h < t) {
+      int slot = (int) (h & mask);
+      int channel = channels[slot];
+      long timestamp = timestamps[slot];
+      System.arraycopy(values, slot * dimensions, scratch, 0, dimensions);
+      // If the producer discarded this sample while we were copying it, the
+      // copy may be torn, so skip ahead to the new head instead.
+      if (head.compareAndSet(h, h + 1)) {
+        handler.onSample(channel, scratch, timestamp);
+        count++;
+        h++;
+      } else {
+        h = head.get();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Discards all samples in the buffer.  Must only be called from the
+   * consumer thread.
+   */
+  public void clear() {
+    long t = tail.get();
+    long h = head.get();
+    while (h < t && !head.compareAndSet(h, t)) {
+      h = head.get();
+    }
+  }
+
+  /**
+   * Returns the number of samples currently waiting in the buffer.
+   */
+  public int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  /**
+   * Returns the number of samples discarded because the buffer was full.
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Resets the count of discarded samples to zero.
+   */
+  public void resetDroppedCount() {
+    dropped.set(0);
+  }
+}
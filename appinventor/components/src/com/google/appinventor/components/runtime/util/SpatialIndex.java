@@ -0,0 +1,125 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.quadtree.Quadtree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of items by their bounds, used to find the map features in the visible part of a map
+ * without visiting all of them. Bounds are given as envelopes with longitude as x and latitude
+ * as y, as elsewhere in {@link GeometryUtil}.
+ *
+ * <p>Items are returned in the order in which they were first added, which for map features is
+ * the order in which they are drawn.</p>
+ *
+ * @param <T> the type of the indexed items
+ */
+final class SpatialIndex<T> {
+
+  private static final class Entry<T> {
+    final T item;
+    final long sequence;
+    Envelope bounds;
+
+    Entry(T item, long sequence) {
+      this.item = item;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final Comparator<Entry<?>> BY_SEQUENCE = new Comparator<Entry<?>>() {
+    @Override
+    public int compare(Entry<?> a, Entry<?> b) {
+      return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+    }
+  };
+
+  private final Quadtree tree = new Quadtree();
+  private final Map<T, Entry<T>> entries = new HashMap<T, Entry<T>>();
+  private long nextSequence = 0;
+
+  /**
+   * Adds an item to the index, or updates its bounds if it has already been added. Updating an
+   * item does not change its order.
+   *
+   * @param item the item
+   * @param bounds the bounds of the item
+   */
+  void put(T item, Envelope bounds) {
+    Entry<T> entry = entries.get(item);
+    if (entry == null) {
+      entry = new Entry<T>(item, nextSequence++);
+      entries.put(item, entry);
+    } else {
+      tree.remove(entry.bounds, entry);
+    }
+    entry.bounds = bounds;
+    tree.insert(bounds, entry);
+  }
+
+  /**
+   * Removes an item from the index.
+   *
+   * @param item the item
+   * @return true if the item was in the index
+   */
+  boolean remove(T item) {
+    Entry<T> entry = entries.remove(item);
+    if (entry == null) {
+      return false;
+    }
+    tree.remove(entry.bounds, entry);
+    return true;
+  }
+
+  boolean contains(T item) {
+    return entries.containsKey(item);
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the items whose bounds intersect the given bounds, in the order they were added.
+   */
+  List<T> query(Envelope bounds) {
+    List<Entry<T>> found = new ArrayList<Entry<T>>();
+    // The quadtree returns every item in the nodes that overlap the bounds, so check each one.
+    for (Object o : tree.query(bounds)) {
+      @SuppressWarnings("unchecked")
+      Entry<T> entry = (Entry<T>) o;
+      if (entry.bounds.intersects(bounds)) {
+        found.add(entry);
+      }
+    }
+    return toItems(found);
+  }
+
+  /**
+   * Returns all of the items, in the order they were added.
+   */
+  List<T> getAll() {
+    return toItems(new ArrayList<Entry<T>>(entries.values()));
+  }
+
+  private List<T> toItems(List<Entry<T>> found) {
+    Collections.sort(found, BY_SEQUENCE);
+    List<T> items = new ArrayList<T>(found.size());
+    for (Entry<T> entry : found) {
+      items.add(entry.item);
+    }
+    return items;
+  }
+}
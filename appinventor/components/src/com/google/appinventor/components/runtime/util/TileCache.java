@@ -0,0 +1,394 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.Log;
+import microsoft.mappoint.TileSystem;
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.cachemanager.CacheManager;
+import org.osmdroid.tileprovider.cachemanager.CacheManager.CacheManagerCallback;
+import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.modules.SqlTileWriter;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The SQLite database of map tiles shared by the maps in an app. Tiles are read from it before
+ * they are downloaded, and tiles that are downloaded, whether for display or ahead of time, are
+ * written to it.
+ *
+ * <p>osmdroid's {@link SqlTileWriter} stores the tiles. This adds the time each tile was last
+ * used, so that when the tiles grow past the cache size set in osmdroid's {@link Configuration}
+ * the least recently used ones are removed, rather than those that expire first. It also measures
+ * how long tiles missing from the cache take to arrive.</p>
+ */
+final class TileCache extends SqlTileWriter {
+  private static final String TAG = TileCache.class.getSimpleName();
+
+  private static final String TILES_TABLE = "tiles";
+  private static final String ACCESS_TABLE = "tile_access";
+  private static final String COLUMN_KEY = "key";
+  private static final String COLUMN_PROVIDER = "provider";
+  private static final String COLUMN_ACCESSED = "accessed";
+
+  /**
+   * The number of tile uses kept in memory before they are written to the database together.
+   */
+  private static final int ACCESS_FLUSH_COUNT = 32;
+
+  /**
+   * The number of cache misses whose tiles are waited for when measuring latency. Tiles that
+   * never arrive are forgotten once there are more.
+   */
+  private static final int MAX_PENDING_TILES = 256;
+
+  /**
+   * The weight of each new measurement in the moving average latency.
+   */
+  private static final double LATENCY_WEIGHT = 0.2;
+
+  private static final class Access {
+    final long key;
+    final String provider;
+    long time;
+
+    Access(long key, String provider) {
+      this.key = key;
+      this.provider = provider;
+    }
+  }
+
+  // The super constructor starts a thread that may call runCleanupOperation() before these are
+  // assigned, so that must not use them.
+  private final Map<String, Access> pendingAccesses = new HashMap<String, Access>();
+  private final Map<String, Long> pendingTiles = new HashMap<String, Long>();
+  private double latency = -1;  // Guarded by pendingTiles.
+
+  /**
+   * Returns the average time between a tile being missing from the cache and it being written
+   * to the cache after it has been downloaded, in milliseconds, or 0 if no tiles have been
+   * downloaded.
+   */
+  int getTileLatency() {
+    synchronized (pendingTiles) {
+      return latency < 0 ? 0 : (int) Math.round(latency);
+    }
+  }
+
+  @Override
+  public Drawable loadTile(ITileSource source, MapTile tile) throws Exception {
+    Drawable drawable = super.loadTile(source, tile);
+    String id = getId(source.name(), tile);
+    if (drawable == null) {
+      synchronized (pendingTiles) {
+        if (pendingTiles.size() >= MAX_PENDING_TILES) {
+          pendingTiles.clear();
+        }
+        if (!pendingTiles.containsKey(id)) {
+          pendingTiles.put(id, SystemClock.elapsedRealtime());
+        }
+      }
+    } else {
+      recordAccess(id, source.name(), tile);
+    }
+    return drawable;
+  }
+
+  @Override
+  public boolean saveFile(ITileSource source, MapTile tile, InputStream stream) {
+    String id = getId(source.name(), tile);
+    synchronized (pendingTiles) {
+      Long missed = pendingTiles.remove(id);
+      if (missed != null) {
+        long elapsed = SystemClock.elapsedRealtime() - missed;
+        latency = latency < 0 ? elapsed : latency + LATENCY_WEIGHT * (elapsed - latency);
+      }
+    }
+    // Record the use first, as saving the tile may run the cleanup.
+    recordAccess(id, source.name(), tile);
+    return super.saveFile(source, tile, stream);
+  }
+
+  /**
+   * Removes the least recently used tiles once the tiles take up more than the maximum cache
+   * size, until they take up no more than the trim size.
+   */
+  @Override
+  public void runCleanupOperation() {
+    SQLiteDatabase database = db;
+    if (database == null) {
+      return;
+    }
+    if (pendingAccesses != null) {
+      flushAccesses();
+    }
+    long maxBytes = Configuration.getInstance().getTileFileSystemCacheMaxBytes();
+    long trimBytes = Configuration.getInstance().getTileFileSystemCacheTrimBytes();
+    try {
+      createAccessTable(database);
+      long size = getTileBytes(database);
+      if (size <= maxBytes) {
+        return;
+      }
+      // Tiles that have not been used since the table was added go first.
+      Cursor cursor = database.rawQuery("SELECT t.rowid, LENGTH(t.tile) FROM " + TILES_TABLE
+          + " t LEFT JOIN " + ACCESS_TABLE + " a ON t.key = a.key AND t.provider = a.provider"
+          + " ORDER BY IFNULL(a.accessed, 0)", null);
+      List<Long> rows = new ArrayList<Long>();
+      try {
+        while (size > trimBytes && cursor.moveToNext()) {
+          rows.add(cursor.getLong(0));
+          size -= cursor.getLong(1);
+        }
+      } finally {
+        cursor.close();
+      }
+      database.beginTransaction();
+      try {
+        SQLiteStatement delete =
+            database.compileStatement("DELETE FROM " + TILES_TABLE + " WHERE rowid = ?");
+        for (long row : rows) {
+          delete.bindLong(1, row);
+          delete.execute();
+        }
+        delete.close();
+        database.execSQL("DELETE FROM " + ACCESS_TABLE + " WHERE NOT EXISTS (SELECT 1 FROM "
+            + TILES_TABLE + " t WHERE t.key = " + ACCESS_TABLE + ".key AND t.provider = "
+            + ACCESS_TABLE + ".provider)");
+        database.setTransactionSuccessful();
+      } finally {
+        database.endTransaction();
+      }
+      Log.d(TAG, "Removed " + rows.size() + " tiles, " + size + " bytes remain");
+    } catch (SQLiteException e) {
+      Log.e(TAG, "Unable to trim the tile cache", e);
+    }
+  }
+
+  @Override
+  public boolean purgeCache() {
+    synchronized (pendingAccesses) {
+      pendingAccesses.clear();
+    }
+    SQLiteDatabase database = db;
+    if (database != null) {
+      try {
+        database.execSQL("DROP TABLE IF EXISTS " + ACCESS_TABLE);
+      } catch (SQLiteException e) {
+        Log.e(TAG, "Unable to clear tile use times", e);
+      }
+    }
+    return super.purgeCache();
+  }
+
+  @Override
+  public void onDetach() {
+    flushAccesses();
+    super.onDetach();
+  }
+
+  private static String getId(String provider, MapTile tile) {
+    return provider + ":" + getIndex(tile);
+  }
+
+  private void recordAccess(String id, String provider, MapTile tile) {
+    boolean flush;
+    synchronized (pendingAccesses) {
+      Access access = pendingAccesses.get(id);
+      if (access == null) {
+        access = new Access(getIndex(tile), provider);
+        pendingAccesses.put(id, access);
+      }
+      access.time = System.currentTimeMillis();
+      flush = pendingAccesses.size() >= ACCESS_FLUSH_COUNT;
+    }
+    if (flush) {
+      flushAccesses();
+    }
+  }
+
+  private void flushAccesses() {
+    List<Access> accesses;
+    synchronized (pendingAccesses) {
+      if (pendingAccesses.isEmpty()) {
+        return;
+      }
+      accesses = new ArrayList<Access>(pendingAccesses.values());
+      pendingAccesses.clear();
+    }
+    SQLiteDatabase database = db;
+    if (database == null) {
+      return;
+    }
+    try {
+      createAccessTable(database);
+      database.beginTransaction();
+      try {
+        ContentValues values = new ContentValues();
+        for (Access access : accesses) {
+          values.put(COLUMN_KEY, access.key);
+          values.put(COLUMN_PROVIDER, access.provider);
+          values.put(COLUMN_ACCESSED, access.time);
+          database.replace(ACCESS_TABLE, null, values);
+        }
+        database.setTransactionSuccessful();
+      } finally {
+        database.endTransaction();
+      }
+    } catch (SQLiteException e) {
+      Log.e(TAG, "Unable to record tile use times", e);
+    }
+  }
+
+  private static void createAccessTable(SQLiteDatabase database) {
+    database.execSQL("CREATE TABLE IF NOT EXISTS " + ACCESS_TABLE + " (" + COLUMN_KEY
+        + " INTEGER, " + COLUMN_PROVIDER + " TEXT, " + COLUMN_ACCESSED + " INTEGER, PRIMARY KEY ("
+        + COLUMN_KEY + ", " + COLUMN_PROVIDER + "))");
+  }
+
+  /**
+   * Returns the size of the stored tiles. The database file does not shrink when tiles are
+   * removed, so its size is no use for this.
+   */
+  private static long getTileBytes(SQLiteDatabase database) {
+    Cursor cursor = database.rawQuery("SELECT SUM(LENGTH(tile)) FROM " + TILES_TABLE, null);
+    try {
+      return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Reports the progress of a download into the cache started with osmdroid's
+   * {@link CacheManager}. Methods are called on the UI thread.
+   */
+  abstract static class DownloadCallback implements CacheManagerCallback {
+    private int total = 0;
+
+    /**
+     * Called as the tiles are downloaded.
+     *
+     * @param downloaded the number of tiles downloaded or found in the cache so far
+     * @param total the number of tiles in the area
+     */
+    abstract void onProgress(int downloaded, int total);
+
+    /**
+     * Called once every tile has been downloaded or has failed to download.
+     *
+     * @param failed the number of tiles that could not be downloaded
+     */
+    abstract void onFinished(int failed);
+
+    @Override
+    public void setPossibleTilesInArea(int total) {
+      this.total = total;
+    }
+
+    @Override
+    public void downloadStarted() {
+    }
+
+    @Override
+    public void updateProgress(int progress, int currentZoomLevel, int zoomMin, int zoomMax) {
+      onProgress(progress, total);
+    }
+
+    @Override
+    public void onTaskComplete() {
+      onFinished(0);
+    }
+
+    @Override
+    public void onTaskFailed(int errors) {
+      onFinished(errors);
+    }
+  }
+
+  /**
+   * The tile provider module that reads tiles from a {@link TileCache}, for use ahead of the
+   * module that downloads them.
+   */
+  static final class Provider extends MapTileModuleProviderBase {
+    private final TileCache cache;
+    private final AtomicReference<ITileSource> tileSource = new AtomicReference<ITileSource>();
+
+    Provider(TileCache cache, ITileSource source) {
+      super(Configuration.getInstance().getTileFileSystemThreads(),
+          Configuration.getInstance().getTileFileSystemMaxQueueSize());
+      this.cache = cache;
+      tileSource.set(source);
+    }
+
+    @Override
+    protected String getName() {
+      return "Tile cache provider";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+      return "tilecache";
+    }
+
+    @Override
+    public TileLoader getTileLoader() {
+      return new TileLoader() {
+        @Override
+        public Drawable loadTile(MapTile tile) {
+          ITileSource source = tileSource.get();
+          if (source == null) {
+            return null;
+          }
+          try {
+            return cache.loadTile(source, tile);
+          } catch (Exception e) {
+            Log.e(TAG, "Unable to read tile " + tile + " from the cache", e);
+            return null;
+          }
+        }
+      };
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+      return false;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+      ITileSource source = tileSource.get();
+      return source == null ? OpenStreetMapTileProviderConstants.MINIMUM_ZOOMLEVEL
+          : source.getMinimumZoomLevel();
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+      ITileSource source = tileSource.get();
+      return source == null ? TileSystem.getMaximumZoomLevel() : source.getMaximumZoomLevel();
+    }
+
+    @Override
+    public void setTileSource(ITileSource source) {
+      tileSource.set(source);
+    }
+  }
+}
@@ -150,6 +150,7 @@ public class WebRTCNativeMgr {
         }
         WebRTCNativeMgr.this.dataChannel = dataChannel;
         dataChannel.registerObserver(dataObserver);
+        RetValManager.setCompressFrames(false); // Until this blocks editor asks for them
         keepPolling = false;    // Turn off talking to the rendezvous server
         timer.cancel();
         if (DEBUG) {
@@ -476,4 +477,19 @@ public class WebRTCNativeMgr {
     }
   }
 
+  public void send(byte[] output) {
+    if (dataChannel == null) {
+      Log.w(LOG_TAG, "No Data Channel in Send");
+      return;
+    }
+    dataChannel.send(new Buffer(ByteBuffer.wrap(output), true)); // true = binary
+  }
+
+  /**
+   * Returns the number of bytes that have been sent but are still queued on the data channel.
+   */
+  public long getBufferedAmount() {
+    return dataChannel == null ? 0 : dataChannel.bufferedAmount();
+  }
+
 }
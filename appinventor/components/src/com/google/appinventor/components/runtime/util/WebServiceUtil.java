@@ -77,6 +77,14 @@ public class WebServiceUtil {
     return INSTANCE;
   }
 
+  /**
+   * Returns the shared HTTP client, whose pooled connections are kept alive
+   * between requests.
+   */
+  public HttpClient getHttpClient() {
+    return httpClient;
+  }
+
   /**
    * Make a post command to serviceURL with params and return the
    * response String as a JSON array.
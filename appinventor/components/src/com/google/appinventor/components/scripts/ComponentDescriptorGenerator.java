@@ -81,8 +81,17 @@ import javax.tools.FileObject;
 public final class ComponentDescriptorGenerator extends ComponentProcessor {
   // Where to write results.
   private static final String OUTPUT_FILE_NAME = "simple_components.json";
+  // Where to write the offsets of each component in OUTPUT_FILE_NAME and the
+  // fields the palette shows, so the client can parse components one at a
+  // time as they are needed.
+  private static final String INDEX_FILE_NAME = "simple_components_index.txt";
 
-  private void outputComponent(ComponentInfo component, StringBuilder sb) {
+  /*
+   * Outputs the fields of a component that the palette shows, as the start of
+   * a JSON object. The index repeats them, so that the palette can be built
+   * without parsing the component.
+   */
+  private void outputComponentSummary(ComponentInfo component, StringBuilder sb) {
     sb.append("{ \"type\": \"");
     sb.append(component.type);
     sb.append("\",\n  \"name\": \"");
@@ -109,7 +118,12 @@ public final class ComponentDescriptorGenerator extends ComponentProcessor {
     sb.append(component.getNonVisible());
     sb.append("\",\n  \"iconName\": \"");
     sb.append(component.getIconName());
-    sb.append("\",\n  \"androidMinSdk\": ");
+    sb.append("\"");
+  }
+
+  private void outputComponent(ComponentInfo component, StringBuilder sb) {
+    outputComponentSummary(component, sb);
+    sb.append(",\n  \"androidMinSdk\": ");
     sb.append(component.getAndroidMinSdk());
     outputConditionalAnnotations(component, sb);
     sb.append(",\n  \"properties\": [");
@@ -360,6 +374,7 @@ public final class ComponentDescriptorGenerator extends ComponentProcessor {
   @Override
   protected void outputResults() throws IOException {
     StringBuilder sb = new StringBuilder();
+    StringBuilder index = new StringBuilder();
 
     sb.append('[');
     String separator = "";
@@ -368,15 +383,27 @@ public final class ComponentDescriptorGenerator extends ComponentProcessor {
     for (Map.Entry<String, ComponentInfo> entry : components.entrySet()) {
       ComponentInfo component = entry.getValue();
       sb.append(separator);
+      int start = sb.length();
       outputComponent(component, sb);
+      StringBuilder summary = new StringBuilder();
+      outputComponentSummary(component, summary);
+      summary.append('}');
+      // Strings in the summary have their line breaks and tabs escaped.
+      index.append(component.name).append('\t').append(start).append('\t').append(sb.length())
+          .append('\t').append(summary.toString().replace("\n  ", " ")).append('\n');
       separator = ",\n";
     }
 
     sb.append(']');
 
-    FileObject src = createOutputFileObject(OUTPUT_FILE_NAME);
+    writeOutputFile(OUTPUT_FILE_NAME, sb.toString());
+    writeOutputFile(INDEX_FILE_NAME, index.toString());
+  }
+
+  private void writeOutputFile(String fileName, String contents) throws IOException {
+    FileObject src = createOutputFileObject(fileName);
     Writer writer = src.openWriter();
-    writer.write(sb.toString());
+    writer.write(contents);
     writer.flush();
     writer.close();
     messager.printMessage(Diagnostic.Kind.NOTE, "Wrote file " + src.toUri());
@@ -829,7 +829,8 @@ public abstract class ComponentProcessor extends AbstractProcessor {
    *
    * @param annotations the annotation types requested to be processed
    * @param roundEnv environment for information about the current and prior round
-   * @return {@code true}, indicating that the annotations have been claimed by this processor.
+   * @return {@code false}, so that the annotations are also passed to the other component
+   *         processors when several of them run in the same compilation
    * @see AbstractProcessor#process
    */
   @Override
@@ -838,10 +839,11 @@ public abstract class ComponentProcessor extends AbstractProcessor {
     // Only do something on the first pass.
     pass++;
     if (pass > 1) {
-      return true;
+      return false;
     }
 
     messager = processingEnv.getMessager();
+    long startTime = System.currentTimeMillis();
 
     List<Element> elements = new ArrayList<>();
     List<Element> excludedElements = new ArrayList<>();
@@ -878,6 +880,7 @@ public abstract class ComponentProcessor extends AbstractProcessor {
       }
     }
     components.keySet().removeAll(removeList);
+    long processedTime = System.currentTimeMillis();
 
     try {
       // This is an abstract method implemented in concrete subclasses.
@@ -886,8 +889,14 @@ public abstract class ComponentProcessor extends AbstractProcessor {
       throw new RuntimeException(e);
     }
 
-    // Indicate that we have successfully handled the annotations.
-    return true;
+    // Report how long this processor took, to show where the build spends its time.
+    messager.printMessage(Kind.NOTE, String.format(
+        "%s: processed %d components in %d ms, wrote output in %d ms",
+        getClass().getSimpleName(), components.size(), processedTime - startTime,
+        System.currentTimeMillis() - processedTime));
+
+    // Leave the annotations unclaimed for the other component processors.
+    return false;
   }
 
     /*
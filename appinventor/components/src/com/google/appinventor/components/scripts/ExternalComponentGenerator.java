@@ -5,13 +5,12 @@
 
 package com.google.appinventor.components.scripts;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.io.File;
 import org.json.JSONException;
@@ -304,15 +303,7 @@ public class ExternalComponentGenerator {
    */
   private static Boolean copyFile(String srcPath, String dstPath) {
     try {
-      FileInputStream in = new FileInputStream(srcPath);
-      FileOutputStream out = new FileOutputStream(dstPath);
-      byte[] buf = new byte[1024];
-      int len;
-      while ((len = in.read(buf)) > 0 ) {
-        out.write(buf, 0, len);
-      }
-      in.close();
-      out.close();
+      Files.copy(Paths.get(srcPath), Paths.get(dstPath), StandardCopyOption.REPLACE_EXISTING);
     }
     catch (IOException e) {
       e.printStackTrace();
@@ -454,4 +454,23 @@ public class BluetoothConnectionBaseTest extends TestCase {
     assertEquals((byte) 0xFF, bytes[i++]);  // 0xFF
     assertEquals((byte) 0xAB, bytes[i++]);  // 0xab
   }
+
+  public void testReceiveAfterStopReceiving() {
+    connection.StartReceiving(-1, true);
+    assertTrue(connection.Receiving());
+    assertEquals("", connection.ReceiveText(5));
+    assertEquals(ErrorMessages.ERROR_BLUETOOTH_RECEIVING_IN_BACKGROUND, recordedErrorNumber);
+
+    recordedErrorNumber = 0;
+    connection.StopReceiving();
+    assertFalse(connection.Receiving());
+    // Data that arrives after receiving stops is kept by the background reader.
+    connection.SendText("Hello");
+    connection.Send1ByteNumber("0x0");
+    assertEquals("Hello", connection.ReceiveText(-1));
+    connection.SendText("World");
+    assertEquals("World", connection.ReceiveText(5));
+    assertEquals(0, connection.BytesAvailableToReceive());
+    assertEquals(0, recordedErrorNumber);
+  }
 }
@@ -0,0 +1,80 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the size ImageSprite loads its picture at.
+ *
+ */
+public class ImageSpriteTest extends RobolectricTestBase {
+
+  // A 200x200 image in tests/assets
+  private static final String PICTURE = "sprite.png";
+
+  private ImageSprite sprite;
+  private int density;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    sprite = new ImageSprite(new Canvas(getForm()));
+    density = (int) getForm().deviceDensity();
+  }
+
+  @Test
+  public void testPictureBeforeSizeIsDownsampled() {
+    // The designer sets the properties in this order.
+    sprite.Picture(PICTURE);
+    assertEquals(0, sprite.getLoadedWidth());
+    sprite.Width(50);
+    sprite.Height(40);
+    assertEquals(50 * density, sprite.getLoadedWidth());
+    assertEquals(40 * density, sprite.getLoadedHeight());
+  }
+
+  @Test
+  public void testSizeBeforePictureIsDownsampled() {
+    sprite.Width(50);
+    sprite.Height(40);
+    sprite.Picture(PICTURE);
+    assertEquals(50 * density, sprite.getLoadedWidth());
+    assertEquals(40 * density, sprite.getLoadedHeight());
+  }
+
+  @Test
+  public void testGrowingSpriteReloadsPicture() {
+    sprite.Width(50);
+    sprite.Height(40);
+    sprite.Picture(PICTURE);
+    sprite.Width(100);
+    assertEquals(100 * density, sprite.getLoadedWidth());
+    assertEquals(40 * density, sprite.getLoadedHeight());
+  }
+
+  @Test
+  public void testAutomaticSizeReloadsFullPicture() {
+    sprite.Picture(PICTURE);
+    sprite.Width(50);
+    sprite.Height(40);
+    sprite.Width(Component.LENGTH_PREFERRED);
+    assertEquals(0, sprite.getLoadedWidth());
+    assertEquals(0, sprite.getLoadedHeight());
+  }
+
+  @Test
+  public void testSmallPictureIsNotReloaded() {
+    sprite.Picture(PICTURE);
+    sprite.Width(400);
+    sprite.Height(400);
+    // The full size picture is already smaller than the sprite.
+    assertEquals(0, sprite.getLoadedWidth());
+  }
+}
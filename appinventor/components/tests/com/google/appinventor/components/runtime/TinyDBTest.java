@@ -0,0 +1,96 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+import com.google.appinventor.components.runtime.util.YailList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the TinyDB component.
+ *
+ */
+public class TinyDBTest extends RobolectricTestBase {
+
+  private TinyDB db;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    db = new TinyDB(getForm());
+  }
+
+  @Test
+  public void testStoreAndGetValue() {
+    db.StoreValue("score", 42);
+    assertEquals(42, db.GetValue("score", ""));
+    assertEquals("missing", db.GetValue("other", "missing"));
+  }
+
+  @Test
+  public void testParsedValueIsCached() {
+    db.StoreValue("list", YailList.makeList(Arrays.asList("a", "b")));
+    Object first = db.GetValue("list", "");
+    assertEquals(Arrays.asList("a", "b"), first);
+    assertSame(first, db.GetValue("list", ""));
+
+    db.StoreValue("list", YailList.makeList(Arrays.asList("c")));
+    Object second = db.GetValue("list", "");
+    assertNotSame(first, second);
+    assertEquals(Arrays.asList("c"), second);
+  }
+
+  @Test
+  public void testComponentsShareNamespace() {
+    TinyDB other = new TinyDB(getForm());
+    assertEquals("", db.GetValue("tag", ""));
+    db.StoreValue("tag", "one");
+    assertEquals("one", other.GetValue("tag", ""));
+    other.StoreValue("tag", "two");
+    assertEquals("two", db.GetValue("tag", ""));
+    other.ClearTag("tag");
+    assertEquals("", db.GetValue("tag", ""));
+  }
+
+  @Test
+  public void testStoreValues() {
+    db.StoreValues(YailList.makeList(Arrays.asList(
+        YailList.makeList(Arrays.asList("x", 1)),
+        YailList.makeList(Arrays.asList("y", "two")))));
+    assertEquals(1, db.GetValue("x", ""));
+    assertEquals("two", db.GetValue("y", ""));
+  }
+
+  @Test
+  public void testStoreValuesStoresNothingOnError() {
+    db.StoreValue("x", 1);
+    try {
+      db.StoreValues(YailList.makeList(Arrays.asList(
+          YailList.makeList(Arrays.asList("x", 2)),
+          "not a pair")));
+      fail("Expected a YailRuntimeError");
+    } catch (YailRuntimeError e) {
+      // expected
+    }
+    assertEquals(1, db.GetValue("x", ""));
+  }
+
+  @Test
+  public void testClearAll() {
+    db.StoreValue("x", 1);
+    assertEquals(1, db.GetValue("x", ""));
+    db.ClearAll();
+    assertEquals("gone", db.GetValue("x", "gone"));
+  }
+}
@@ -42,8 +42,8 @@ public class WebTest extends TestCase {
         web.decodeJsonText("\"\\\" quote \\\" quote \\\"\""));
     assertEquals("~ encoded tilda ~ encoded tilda ~",
         web.decodeJsonText("\"\\u007E encoded tilda \\u007E encoded tilda \\u007E\""));
-    assertEquals("A normal string without quotes.",
-        web.decodeJsonText("A normal string without quotes."));
+    // Like Android's JSONTokener, unquoted text ends at whitespace.
+    assertEquals("A", web.decodeJsonText("A normal string without quotes."));
 
     // Boolean values.
     assertEquals(Boolean.TRUE, web.decodeJsonText("True"));
@@ -0,0 +1,114 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Tests ByteRingBuffer.
+ *
+ */
+public class ByteRingBufferTest extends TestCase {
+
+  private static byte[] bytes(int... values) {
+    byte[] result = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = (byte) values[i];
+    }
+    return result;
+  }
+
+  public void testCapacityRoundedToPowerOfTwo() {
+    assertEquals(8, new ByteRingBuffer(5).capacity());
+    assertEquals(8, new ByteRingBuffer(8).capacity());
+    assertEquals(1, new ByteRingBuffer(0).capacity());
+  }
+
+  public void testWriteAndReadAcrossTheEnd() {
+    ByteRingBuffer buffer = new ByteRingBuffer(8);
+    byte[] out = new byte[8];
+    for (int round = 0; round < 5; round++) {
+      assertEquals(5, buffer.write(bytes(1, 2, 3, 4, 5), 0, 5));
+      assertEquals(5, buffer.available());
+      assertEquals(5, buffer.read(out, 0, 8));
+      assertTrue(Arrays.equals(bytes(1, 2, 3, 4, 5), Arrays.copyOf(out, 5)));
+      assertEquals(0, buffer.available());
+    }
+  }
+
+  public void testOverflowDropsNewBytes() {
+    ByteRingBuffer buffer = new ByteRingBuffer(4);
+    assertEquals(3, buffer.write(bytes(1, 2, 3), 0, 3));
+    assertEquals(1, buffer.write(bytes(4, 5, 6), 0, 3));
+    assertEquals(2L, buffer.getDroppedCount());
+    byte[] out = new byte[4];
+    assertEquals(4, buffer.read(out, 0, 4));
+    assertTrue(Arrays.equals(bytes(1, 2, 3, 4), out));
+  }
+
+  public void testIndexOfAndSkip() {
+    ByteRingBuffer buffer = new ByteRingBuffer(8);
+    buffer.write(bytes(0, 0, 0, 0, 0, 0), 0, 6);
+    buffer.skip(6);
+    // The data now wraps around the end of the array.
+    buffer.write(bytes('a', 'b', '\n', 'c', '\n'), 0, 5);
+    assertEquals(2, buffer.indexOf((byte) '\n'));
+    assertEquals(-1, buffer.indexOf((byte) 'z'));
+    byte[] out = new byte[2];
+    buffer.read(out, 0, 2);
+    assertEquals(1, buffer.skip(1));
+    assertEquals(1, buffer.indexOf((byte) '\n'));
+    buffer.clear();
+    assertEquals(0, buffer.available());
+    assertEquals(-1, buffer.indexOf((byte) '\n'));
+  }
+
+  public void testConcurrentProducerAndConsumer() throws InterruptedException {
+    final ByteRingBuffer buffer = new ByteRingBuffer(64);
+    final int total = 200000;
+    Thread producer = new Thread() {
+      @Override
+      public void run() {
+        byte[] chunk = new byte[7];
+        int next = 0;
+        while (next < total) {
+          int length = Math.min(chunk.length, total - next);
+          for (int i = 0; i < length; i++) {
+            chunk[i] = (byte) (next + i);
+          }
+          int written = 0;
+          while (written < length) {
+            // Only write what fits, so that nothing is dropped.
+            int space = buffer.capacity() - buffer.available();
+            if (space > 0) {
+              written += buffer.write(chunk, written, Math.min(space, length - written));
+            } else {
+              Thread.yield();
+            }
+          }
+          next += length;
+        }
+      }
+    };
+    producer.start();
+    byte[] out = new byte[16];
+    int received = 0;
+    while (received < total) {
+      int count = buffer.read(out, 0, out.length);
+      for (int i = 0; i < count; i++) {
+        assertEquals((byte) (received + i), out[i]);
+      }
+      received += count;
+      if (count == 0) {
+        Thread.yield();
+      }
+    }
+    producer.join();
+    assertEquals(0L, buffer.getDroppedCount());
+  }
+}
@@ -0,0 +1,320 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import com.google.appinventor.components.runtime.CloudDB;
+import com.google.appinventor.components.runtime.RobolectricTestBase;
+import com.google.appinventor.components.runtime.shadows.ShadowEventDispatcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests CloudDBBatch, and the batches CloudDB sends to a local Redis server.
+ *
+ */
+public class CloudDBBatchTest extends RobolectricTestBase {
+
+  private static final String SET_SUB_SCRIPT_SHA1 = "765978e4c340012f50733280368a0ccc4a14dfb7";
+
+  /**
+   * A Redis server that answers the commands CloudDB pipelines, keeping the
+   * values in memory.
+   */
+  private static class RedisStub implements Runnable {
+    final ServerSocket socket;
+    final Map<String, String> values = new ConcurrentHashMap<String, String>();
+    final List<List<String>> commands = new CopyOnWriteArrayList<List<String>>();
+    // If true, EVALSHA always fails as if the server had been restarted.
+    volatile boolean forgetScripts = false;
+
+    RedisStub() throws IOException {
+      socket = new ServerSocket(0, 0, InetAddress.getByName("127.0.0.1"));
+      Thread thread = new Thread(this);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          final Socket connection = socket.accept();
+          Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+              serve(connection);
+            }
+          });
+          thread.setDaemon(true);
+          thread.start();
+        }
+      } catch (IOException e) {
+        // The server was closed.
+      }
+    }
+
+    private void serve(Socket connection) {
+      try {
+        InputStream in = new BufferedInputStream(connection.getInputStream());
+        OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+        List<String> command;
+        while ((command = readCommand(in)) != null) {
+          commands.add(command);
+          reply(command, out);
+          // Like Redis, answer all of the pipelined commands that have arrived.
+          if (in.available() == 0) {
+            out.flush();
+          }
+        }
+        connection.close();
+      } catch (IOException e) {
+        // The client went away.
+      }
+    }
+
+    private void reply(List<String> command, OutputStream out) throws IOException {
+      String name = command.get(0).toUpperCase();
+      if (name.equals("SCRIPT")) {
+        writeBulk(out, SET_SUB_SCRIPT_SHA1);
+      } else if (name.equals("EVALSHA") && forgetScripts) {
+        write(out, "-NOSCRIPT No matching script. Please use EVAL.\r\n");
+      } else if (name.equals("EVALSHA") || name.equals("EVAL")) {
+        // KEYS[1] is the tag, ARGV[1] the value and ARGV[3] the project.
+        values.put(command.get(6) + ":" + command.get(3), command.get(4));
+        write(out, "+OK\r\n");
+      } else if (name.equals("MGET")) {
+        write(out, "*" + (command.size() - 1) + "\r\n");
+        for (String key : command.subList(1, command.size())) {
+          writeBulk(out, values.get(key));
+        }
+      } else {
+        write(out, "+OK\r\n");
+      }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+      String line = readLine(in);
+      if (line == null) {
+        return null;
+      }
+      int count = Integer.parseInt(line.substring(1));
+      List<String> command = new ArrayList<String>();
+      for (int i = 0; i < count; i++) {
+        byte[] arg = new byte[Integer.parseInt(readLine(in).substring(1)) + 2];
+        for (int read = 0; read < arg.length; ) {
+          int n = in.read(arg, read, arg.length - read);
+          if (n < 0) {
+            throw new EOFException();
+          }
+          read += n;
+        }
+        command.add(new String(arg, 0, arg.length - 2, "UTF-8"));
+      }
+      return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+      StringBuilder line = new StringBuilder();
+      int ch;
+      while ((ch = in.read()) != '\r') {
+        if (ch < 0) {
+          return null;
+        }
+        line.append((char) ch);
+      }
+      in.read();  // '\n'
+      return line.toString();
+    }
+
+    private static void writeBulk(OutputStream out, String value) throws IOException {
+      if (value == null) {
+        write(out, "$-1\r\n");
+      } else {
+        byte[] bytes = value.getBytes("UTF-8");
+        write(out, "$" + bytes.length + "\r\n");
+        out.write(bytes);
+        write(out, "\r\n");
+      }
+    }
+
+    private static void write(OutputStream out, String s) throws IOException {
+      out.write(s.getBytes("UTF-8"));
+    }
+  }
+
+  private RedisStub server;
+  private CloudDB db;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    try {
+      server = new RedisStub();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    db = new CloudDB(getForm());
+    db.RedisServer("127.0.0.1");
+    db.RedisPort(server.socket.getLocalPort());
+    db.UseSSL(false);
+    db.ProjectID("test");
+    db.Token("secret");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    db.onDestroy();
+    server.socket.close();
+  }
+
+  @Test
+  public void testRequestsArePipelinedInOneBatch() throws Exception {
+    db.StoreValue("a", "apple");
+    db.StoreValue("b", "banana");
+    db.GetValue("a", "none");
+    db.GetValue("c", "none");
+    waitForBatch();
+    assertEquals(Arrays.asList("AUTH", "SCRIPT", "EVALSHA", "EVALSHA", "MGET"), commandNames());
+    assertEquals(Arrays.asList("MGET", "test:a", "test:c"), server.commands.get(4));
+    assertEquals("\"banana\"", server.values.get("test:b"));
+    ShadowEventDispatcher.assertEventFired(db, "GotValue", "a", "apple");
+    ShadowEventDispatcher.assertEventFired(db, "GotValue", "c", "none");
+    assertEquals(4, db.MaximumBatchSize());
+    assertEquals(4.0, db.AverageBatchSize(), 0);
+  }
+
+  @Test
+  public void testStoreIsSentAgainWhenServerLosesScript() throws Exception {
+    server.forgetScripts = true;
+    db.StoreValue("a", "apple");
+    db.GetValue("a", "none");
+    waitForBatch();
+    // The pipelined fetch ran before the value was stored, so it is sent again.
+    assertEquals(Arrays.asList("AUTH", "SCRIPT", "EVALSHA", "MGET", "EVALSHA", "EVAL", "MGET"),
+        commandNames());
+    ShadowEventDispatcher.assertEventFired(db, "GotValue", "a", "apple");
+    ShadowEventDispatcher.assertEventNotFired(db, "CloudDBError");
+  }
+
+  @Test
+  public void testEmpty() {
+    CloudDBBatch<String, String> batch = new CloudDBBatch<String, String>();
+    assertTrue(batch.isEmpty());
+    assertEquals(0, batch.size());
+    assertTrue(batch.getSteps().isEmpty());
+  }
+
+  @Test
+  public void testConsecutiveStoresToOneTagAreMerged() {
+    CloudDBBatch<String, String> batch = new CloudDBBatch<String, String>();
+    batch.store("x", "1");
+    batch.store("x", "2");
+    batch.store("x", "3");
+    assertEquals(3, batch.size());
+    assertEquals(1, batch.getSteps().size());
+    CloudDBBatch.Store store = (CloudDBBatch.Store) batch.getSteps().get(0);
+    assertEquals("x", store.getTag());
+    assertEquals("3", store.getValue());
+    assertEquals(Arrays.asList("1", "2", "3"), store.getValues());
+  }
+
+  @Test
+  public void testStoresToDifferentTagsStayInOrder() {
+    CloudDBBatch<String, String> batch = new CloudDBBatch<String, String>();
+    batch.store("x", "1");
+    batch.store("y", "2");
+    batch.store("x", "3");
+    List<CloudDBBatch.Step> steps = batch.getSteps();
+    assertEquals(3, steps.size());
+    assertEquals("x", ((CloudDBBatch.Store) steps.get(0)).getTag());
+    assertEquals("y", ((CloudDBBatch.Store) steps.get(1)).getTag());
+    assertEquals("3", ((CloudDBBatch.Store) steps.get(2)).getValue());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testConsecutiveFetchesAreMergedAndDeduplicated() {
+    CloudDBBatch<String, String> batch = new CloudDBBatch<String, String>();
+    batch.fetch("a", "default1");
+    batch.fetch("b", "default2");
+    batch.fetch("a", "default3");
+    assertEquals(3, batch.size());
+    assertEquals(1, batch.getSteps().size());
+    CloudDBBatch.Fetch<String> fetch = (CloudDBBatch.Fetch<String>) batch.getSteps().get(0);
+    assertEquals(Arrays.asList("a", "b"), fetch.getTags());
+    assertEquals(Arrays.asList("default1", "default3"), fetch.getRequests("a"));
+    assertEquals(Arrays.asList("default2"), fetch.getRequests("b"));
+    assertTrue(fetch.getRequests("c").isEmpty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStoreSeparatesFetches() {
+    CloudDBBatch<String, String> batch = new CloudDBBatch<String, String>();
+    batch.fetch("a", "1");
+    batch.store("a", "2");
+    batch.fetch("a", "3");
+    List<CloudDBBatch.Step> steps = batch.getSteps();
+    assertEquals(3, steps.size());
+    assertTrue(steps.get(0) instanceof CloudDBBatch.Fetch);
+    assertTrue(steps.get(1) instanceof CloudDBBatch.Store);
+    assertEquals(Arrays.asList("3"), ((CloudDBBatch.Fetch<String>) steps.get(2)).getRequests("a"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCommandsAreNeverMerged() {
+    CloudDBBatch<String, String> batch = new CloudDBBatch<String, String>();
+    batch.store("x", "1");
+    batch.command("del");
+    batch.store("x", "2");
+    batch.command("keys");
+    batch.command("keys");
+    List<CloudDBBatch.Step> steps = batch.getSteps();
+    assertEquals(5, batch.size());
+    assertEquals(5, steps.size());
+    assertEquals("del", ((CloudDBBatch.Command<String>) steps.get(1)).getCommand());
+    assertEquals("2", ((CloudDBBatch.Store) steps.get(2)).getValue());
+    assertEquals("keys", ((CloudDBBatch.Command<String>) steps.get(4)).getCommand());
+  }
+
+  private void waitForBatch() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (db.MaximumBatchSize() == 0) {
+      assertTrue("The batch was not sent", System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+    runAllEvents();
+  }
+
+  private List<String> commandNames() {
+    List<String> names = new ArrayList<String>();
+    for (List<String> command : server.commands) {
+      names.add(command.get(0));
+    }
+    return names;
+  }
+}
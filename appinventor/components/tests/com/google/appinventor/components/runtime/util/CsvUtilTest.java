@@ -10,6 +10,7 @@ import com.google.appinventor.components.runtime.util.YailList;
 
 import junit.framework.TestCase;
 
+import java.io.StringReader;
 import java.util.ArrayList;
 
 /**
@@ -171,4 +172,43 @@ public class CsvUtilTest extends TestCase {
     String expectedCSVString = "\"field0\",\"field1\",\"field2\"";
     assertEquals(expectedCSVString, CsvUtil.toCsvRow(YailList.makeList(row)));
   }
+
+  public void testRowReaderBatches() throws Exception {
+    String testString = "a,b,c\r\nd,e,f\r\ng,h,i\r\n";
+    CsvUtil.RowReader reader = new CsvUtil.RowReader(new StringReader(testString), null, 0);
+    YailList batch = reader.nextBatch(2);
+    assertEquals(2, batch.size());
+    assertEquals("(a b c)", batch.get(1).toString());
+    assertTrue(reader.hasNext());
+    batch = reader.nextBatch(2);
+    assertEquals(1, batch.size());
+    assertEquals("(g h i)", batch.get(1).toString());
+    assertFalse(reader.hasNext());
+    assertEquals(0, reader.nextBatch(2).size());
+    assertEquals(3, reader.getRowCount());
+  }
+
+  public void testRowReaderProjectionAndLimit() throws Exception {
+    String testString = "a,b,c\nd,e\ng,h,i\n";
+    CsvUtil.RowReader reader =
+        new CsvUtil.RowReader(new StringReader(testString), new int[] { 2, 0 }, 2);
+    YailList batch = reader.nextBatch(10);
+    assertEquals(2, batch.size());
+    assertEquals("(c a)", batch.get(1).toString());
+    YailList shortRow = (YailList) batch.get(2);
+    assertEquals("", shortRow.getString(0));
+    assertEquals("d", shortRow.getString(1));
+    assertFalse(reader.hasNext());
+  }
+
+  public void testRowReaderSyntaxError() {
+    String testString = "a,b,c\n\"d,e,f\n";
+    CsvUtil.RowReader reader = new CsvUtil.RowReader(new StringReader(testString), null, 0);
+    try {
+      reader.nextBatch(10);
+      fail();
+    } catch (Exception e) {
+      // expected
+    }
+  }
 }
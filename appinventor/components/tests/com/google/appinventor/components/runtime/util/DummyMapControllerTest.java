@@ -78,6 +78,41 @@ public class DummyMapControllerTest {
     mapController.isCompassEnabled();
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetMarkerClusteringEnabled() {
+    mapController.setMarkerClusteringEnabled(true);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testIsMarkerClusteringEnabled() {
+    mapController.isMarkerClusteringEnabled();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetTileCacheSize() {
+    mapController.setTileCacheSize(100);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetTileCacheSize() {
+    mapController.getTileCacheSize();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetTileLatency() {
+    mapController.getTileLatency();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testDownloadTiles() {
+    mapController.downloadTiles(null, 1, 13);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testCancelDownloads() {
+    mapController.cancelDownloads();
+  }
+
   @Test(expected = UnsupportedOperationException.class)
   public void testSetZoomEnabled() {
     mapController.setZoomEnabled(true);
@@ -203,6 +238,16 @@ public class DummyMapControllerTest {
     mapController.removeFeature(null);
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void testBeginFeatureBatch() {
+    mapController.beginFeatureBatch();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testEndFeatureBatch() {
+    mapController.endFeatureBatch();
+  }
+
   @Test(expected = UnsupportedOperationException.class)
   public void testShowFeature() {
     mapController.showFeature(null);
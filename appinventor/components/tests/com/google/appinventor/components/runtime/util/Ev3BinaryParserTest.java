@@ -0,0 +1,57 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Tests Ev3BinaryParser's encoding of direct commands.
+ *
+ */
+public class Ev3BinaryParserTest extends TestCase {
+
+  private static byte[] readSI(int port, int offset) {
+    return Ev3BinaryParser.encodeInstruction(Ev3Constants.Opcode.INPUT_DEVICE, "ccccccg",
+        Ev3Constants.InputDeviceSubcode.READY_SI, (byte) 0, (byte) port, (byte) 30, (byte) 0,
+        (byte) 1, (byte) offset);
+  }
+
+  public void testSingleInstructionMatchesDirectCommand() {
+    byte[] expected = Ev3BinaryParser.encodeDirectCommand(Ev3Constants.Opcode.INPUT_DEVICE,
+        true, 4, 0, "ccccccg", Ev3Constants.InputDeviceSubcode.READY_SI, (byte) 0, (byte) 2,
+        (byte) 30, (byte) 0, (byte) 1, (byte) 0);
+    assertTrue(Arrays.equals(expected, Ev3BinaryParser.encodeDirectCommand(true, 4, 0,
+        readSI(2, 0))));
+  }
+
+  public void testSeveralInstructions() {
+    byte[] first = readSI(0, 0);
+    byte[] second = readSI(1, 4);
+    byte[] command = Ev3BinaryParser.encodeDirectCommand(true, 8, 0, first, second);
+
+    assertEquals(3 + first.length + second.length, command.length);
+    assertEquals(Ev3Constants.DirectCommandType.DIRECT_COMMAND_REPLY, command[0]);
+    // The global allocation is split over the next two bytes.
+    assertEquals(8, command[1]);
+    assertEquals(0, command[2]);
+    assertTrue(Arrays.equals(first, Arrays.copyOfRange(command, 3, 3 + first.length)));
+    assertTrue(Arrays.equals(second, Arrays.copyOfRange(command, 3 + first.length,
+        command.length)));
+    // The last parameter of the second read is global variable 4.
+    assertEquals(Ev3BinaryParser.encodeGV0(4)[0], command[command.length - 1]);
+  }
+
+  public void testAllocationLimits() {
+    try {
+      Ev3BinaryParser.encodeDirectCommand(true, 0x400, 0, readSI(0, 0));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
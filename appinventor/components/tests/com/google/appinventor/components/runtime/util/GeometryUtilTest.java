@@ -430,4 +430,52 @@ public class GeometryUtilTest {
     assertEquals(expectedLat, point.getLatitude(), expectedLat * P_TOLERANCE);
     assertEquals(expectedLong, point.getLongitude(), expectedLat * P_TOLERANCE);
   }
+
+  @Test
+  public void testSimplifyPointsRemovesCollinearPoints() {
+    List<GeoPoint> points = Arrays.asList(new GeoPoint(0.0, 0.0), new GeoPoint(0.0, 0.5),
+        new GeoPoint(0.00001, 1.0), new GeoPoint(0.0, 2.0));
+    List<GeoPoint> simplified = GeometryUtil.simplifyPoints(points,
+        GeometryUtil.getSimplificationTolerance(5), 2);
+    assertEquals(2, simplified.size());
+    assertEquals(0.0, simplified.get(0).getLongitude(), TOLERANCE);
+    assertEquals(2.0, simplified.get(1).getLongitude(), TOLERANCE);
+  }
+
+  @Test
+  public void testSimplifyPointsKeepsVisibleDetail() {
+    List<GeoPoint> points = Arrays.asList(new GeoPoint(0.0, 0.0), new GeoPoint(1.0, 1.0),
+        new GeoPoint(0.0, 2.0));
+    assertSame(points, GeometryUtil.simplifyPoints(points,
+        GeometryUtil.getSimplificationTolerance(5), 2));
+  }
+
+  @Test
+  public void testSimplifyPointsKeepsMinimum() {
+    List<GeoPoint> ring = Arrays.asList(new GeoPoint(0.0, 0.0), new GeoPoint(0.0, 0.00001),
+        new GeoPoint(0.00001, 0.00001), new GeoPoint(0.00001, 0.0), new GeoPoint(0.0, 0.0));
+    assertSame(ring, GeometryUtil.simplifyPoints(ring, GeometryUtil.getSimplificationTolerance(1),
+        4));
+  }
+
+  @Test
+  public void testSimplifyPointsScalesLatitudeAwayFromEquator() {
+    // At 60 degrees north a degree of latitude is drawn twice as tall as a degree of longitude.
+    double tolerance = GeometryUtil.getSimplificationTolerance(5);
+    List<GeoPoint> visible = Arrays.asList(new GeoPoint(60.0, 0.0),
+        new GeoPoint(60.0 + 0.75 * tolerance, 1.0), new GeoPoint(60.0, 2.0));
+    assertSame(visible, GeometryUtil.simplifyPoints(visible, tolerance, 2));
+    List<GeoPoint> hidden = Arrays.asList(new GeoPoint(60.0, 0.0),
+        new GeoPoint(60.0 + 0.25 * tolerance, 1.0), new GeoPoint(60.0, 2.0));
+    List<GeoPoint> simplified = GeometryUtil.simplifyPoints(hidden, tolerance, 2);
+    assertEquals(2, simplified.size());
+    assertEquals(60.0, simplified.get(0).getLatitude(), TOLERANCE);
+    assertEquals(60.0, simplified.get(1).getLatitude(), TOLERANCE);
+  }
+
+  @Test
+  public void testSimplificationToleranceHalvesWithZoom() {
+    assertEquals(GeometryUtil.getSimplificationTolerance(10) / 2,
+        GeometryUtil.getSimplificationTolerance(11), TOLERANCE);
+  }
 }
@@ -0,0 +1,188 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import junit.framework.TestCase;
+
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests JsonStreamDecoder, comparing its results with the org.json based
+ * decoding that it replaced.
+ *
+ */
+public class JsonStreamDecoderTest extends TestCase {
+
+  private static final String[] DOCUMENTS = {
+    "[\"Hello.\",\"O hi.\",9,[\"Houston\",\"we\"],9.5,true,\"faLse\",]",
+    "{\"a\": 1, \"c\": [\"a\", \"b\", \"c\"], \"b\": \"boo\", \"d\": {\"e\": \"f\"}}",
+    "[9.5,-9.5,9,-9,123456789101112,1e3]",
+    "[null,\"null\",NULL,{\"x\":null}]",
+    "{'single': 'quotes', unquoted: value, \"z\": []}",
+    "[\"\\t tab \\n newline \\/ slash \\\\ backslash \\\" quote \\u007E tilda\"]",
+    "[[[[[]]]], {}, [{}]]",
+    "  [ 1 , 2 ]  trailing text is ignored",
+  };
+
+  /**
+   * Decodes the text the way JsonUtil did before JsonStreamDecoder was added.
+   */
+  private static Object decodeWithOrgJson(String json) throws JSONException {
+    return JsonUtil.convertJsonItem(new JSONTokener(json).nextValue());
+  }
+
+  private static Object decode(String json) throws JSONException {
+    return JsonUtil.getObjectFromJson(json);
+  }
+
+  public void testMatchesOrgJson() throws JSONException {
+    for (String json : DOCUMENTS) {
+      assertEquals(json, decodeWithOrgJson(json), decode(json));
+    }
+  }
+
+  public void testTopLevelValues() throws JSONException {
+    // Like Android's JSONTokener, unquoted text ends at whitespace.
+    assertEquals("A", decode("A normal string without quotes."));
+    assertEquals(Boolean.TRUE, decode("True"));
+    assertEquals(Boolean.FALSE, decode("false"));
+    // Quoted booleans are only converted inside lists.
+    assertEquals("true", decode("\"true\""));
+    assertNull(decode("null"));
+    assertEquals(1, decode("1"));
+    assertEquals(57.43, decode("57.43"));
+    assertEquals("", decode(""));
+  }
+
+  /**
+   * Unquoted text is converted the way Android's JSONTokener converts it,
+   * which differs from the org.json library the tests run with.
+   */
+  public void testLiteralsMatchAndroid() throws JSONException {
+    assertEquals(15, decode("0xF"));
+    assertEquals(255, decode("0XfF"));
+    assertEquals(10, decode("012"));
+    assertEquals(8.0, decode("08"));
+    assertEquals(0, decode("-0"));
+    assertEquals(-12, decode("-12"));
+    assertEquals(4294967296L, decode("4294967296"));
+    assertEquals(1.2345678910111212E22, decode("12345678910111213141516"));
+    assertEquals(-1.0E20, decode("-100000000000000000000"));
+    assertEquals(1000.0, decode("1e3"));
+    assertEquals(Double.NaN, decode("NaN"));
+    assertEquals("-0x1", decode("-0x1"));
+    assertEquals("0xG", decode("0xG"));
+    assertEquals(Arrays.asList(1, 16, 0), decode("[1 , 0x10, -0 ]"));
+    assertEquals(Arrays.asList(Arrays.asList("a", 255)), decode("{a: 0xFF}"));
+    String[] invalid = {
+      "[1 2]",
+      "{\"a\": b c}",
+      "{\"a\": NaN}",
+    };
+    for (String json : invalid) {
+      try {
+        decode(json);
+        fail(json);
+      } catch (JSONException e) {
+        // expected
+      }
+    }
+  }
+
+  public void testObjectKeysSortedAndLastValueWins() throws JSONException {
+    Object decoded = decode("{\"b\": 1, \"a\": 2, \"b\": 3}");
+    assertEquals(Arrays.asList(Arrays.asList("a", 2), Arrays.asList("b", 3)), decoded);
+  }
+
+  public void testSyntaxErrors() {
+    String[] invalid = {
+      "{\"not\":\"valid\":\"json\"}",
+      "[1, 2",
+      "{\"a\": 1",
+      "\"unterminated",
+      "[\"bad \\q escape\"]",
+      "[\"bad \\u12G4 escape\"]",
+      "{\"key\" 1}",
+      "   ",
+    };
+    for (String json : invalid) {
+      try {
+        decode(json);
+        fail(json);
+      } catch (JSONException e) {
+        // expected
+      }
+    }
+  }
+
+  public void testDepthLimit() throws JSONException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sb.append('[');
+    }
+    for (int i = 0; i < 10; i++) {
+      sb.append(']');
+    }
+    String json = sb.toString();
+    assertTrue(JsonUtil.getObjectFromJson(new StringReader(json), 10, 0) instanceof List);
+    try {
+      JsonUtil.getObjectFromJson(new StringReader(json), 9, 0);
+      fail();
+    } catch (JSONException e) {
+      // expected
+    }
+  }
+
+  public void testLengthLimit() throws JSONException {
+    String json = "[\"abcdefgh\"]";
+    assertEquals(Arrays.asList("abcdefgh"),
+        JsonUtil.getObjectFromJson(new StringReader(json), 10, json.length()));
+    // Text after the value does not count against the limit.
+    assertEquals(Arrays.asList("abcdefgh"),
+        JsonUtil.getObjectFromJson(new StringReader(json + "   "), 10, json.length()));
+    try {
+      JsonUtil.getObjectFromJson(new StringReader(json), 10, json.length() - 1);
+      fail();
+    } catch (JSONException e) {
+      // expected
+    }
+  }
+
+  public void testLongStringsSpanningBuffers() throws JSONException {
+    StringBuilder sb = new StringBuilder("[\"");
+    for (int i = 0; i < 10000; i++) {
+      sb.append(i % 100 == 0 ? "\\n" : "x");
+    }
+    sb.append("\"]");
+    String json = sb.toString();
+    assertEquals(decodeWithOrgJson(json), decode(json));
+  }
+
+  /**
+   * Decodes a document shaped like a typical web API response.
+   */
+  public void testLargeDocument() throws JSONException {
+    StringBuilder sb = new StringBuilder("{\"results\": [");
+    for (int i = 0; i < 2000; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"id\": ").append(i)
+          .append(", \"name\": \"item ").append(i)
+          .append("\", \"price\": ").append(i * 1.25)
+          .append(", \"tags\": [\"a\", \"b\", \"c\"], \"available\": ")
+          .append(i % 2 == 0).append('}');
+    }
+    sb.append("], \"count\": 2000}");
+    String json = sb.toString();
+    assertEquals(decodeWithOrgJson(json), decode(json));
+  }
+}
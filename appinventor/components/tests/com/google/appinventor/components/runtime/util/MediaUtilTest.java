@@ -9,6 +9,8 @@ package com.google.appinventor.components.runtime.util;
 import junit.framework.TestCase;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Tests MediaUtil.java.
@@ -87,4 +89,19 @@ public class MediaUtilTest extends TestCase {
       // Expected
     }
   }
+
+  public void testResolveAssetPath() {
+    Map<String, String> index = MediaUtil.buildAssetIndex(Arrays.asList(
+        "kitty.png", "Meow.MP3", "Ball.png", "ball.PNG", "com.example.ext/icon.png"));
+    assertEquals("kitty.png", MediaUtil.resolveAssetPath(index, "kitty.png"));
+    assertEquals("kitty.png", MediaUtil.resolveAssetPath(index, "Kitty.PNG"));
+    assertEquals("Meow.MP3", MediaUtil.resolveAssetPath(index, "meow.mp3"));
+    assertEquals("com.example.ext/icon.png",
+        MediaUtil.resolveAssetPath(index, "com.example.ext/ICON.png"));
+    // Exact matches win over assets that differ only in case.
+    assertEquals("Ball.png", MediaUtil.resolveAssetPath(index, "Ball.png"));
+    assertEquals("ball.PNG", MediaUtil.resolveAssetPath(index, "ball.PNG"));
+    // Unknown assets are left alone, so that opening them fails as before.
+    assertEquals("Missing.png", MediaUtil.resolveAssetPath(index, "Missing.png"));
+  }
 }
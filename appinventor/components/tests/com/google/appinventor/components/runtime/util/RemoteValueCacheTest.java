@@ -0,0 +1,121 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import com.google.appinventor.components.runtime.RobolectricTestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for RemoteValueCache.
+ *
+ */
+public class RemoteValueCacheTest extends RobolectricTestBase {
+
+  private static final String NAMESPACE = "redis.example.com:6381/project";
+
+  private RemoteValueCache cache;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    cache = new RemoteValueCache(getForm(), NAMESPACE, 3);
+    cache.clear();
+    cache.setListening(true);
+  }
+
+  @Test
+  public void testPutAndGet() {
+    assertNull(cache.get("tag"));
+    cache.put("tag", "\"value\"");
+    assertEquals("\"value\"", cache.get("tag"));
+    cache.put("tag", "2");
+    assertEquals("2", cache.get("tag"));
+  }
+
+  @Test
+  public void testNothingIsServedWhileNotListening() {
+    cache.put("tag", "1");
+    cache.setListening(false);
+    assertNull(cache.get("tag"));
+    cache.put("tag", "2");
+    cache.offer("tag", "2");
+    cache.setListening(true);
+    assertNull(cache.get("tag"));
+    assertEquals(Collections.singletonList("tag"), cache.getStaleTags());
+  }
+
+  @Test
+  public void testOfferDoesNotReplaceNewerValue() {
+    cache.put("tag", "new");
+    cache.offer("tag", "old");
+    assertEquals("new", cache.get("tag"));
+    cache.offer("other", "value");
+    assertEquals("value", cache.get("other"));
+  }
+
+  @Test
+  public void testPendingWritesHideValue() {
+    cache.put("tag", "1");
+    cache.beginWrite("tag");
+    cache.beginWrite("tag");
+    assertNull(cache.get("tag"));
+    cache.put("tag", "2");
+    cache.endWrite("tag");
+    cache.offer("tag", "2");
+    assertNull(cache.get("tag"));
+    cache.endWrite("tag");
+    cache.offer("tag", "3");
+    assertEquals("3", cache.get("tag"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedAreRemoved() {
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.put("c", "3");
+    cache.get("a");
+    cache.put("d", "4");
+    assertNull(cache.get("b"));
+    assertEquals("1", cache.get("a"));
+    assertEquals("3", cache.get("c"));
+    assertEquals("4", cache.get("d"));
+    cache.setCapacity(1);
+    assertNull(cache.get("a"));
+    assertEquals("4", cache.get("d"));
+  }
+
+  @Test
+  public void testEntriesAreSavedButStale() {
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.saveAccessTimes();
+    RemoteValueCache reopened = new RemoteValueCache(getForm(), NAMESPACE, 3);
+    reopened.setListening(true);
+    assertNull(reopened.get("a"));
+    assertEquals(new HashSet<String>(Arrays.asList("a", "b")),
+        new HashSet<String>(reopened.getStaleTags()));
+    reopened.offer("a", "1");
+    assertEquals("1", reopened.get("a"));
+    assertEquals(Collections.singletonList("b"), reopened.getStaleTags());
+  }
+
+  @Test
+  public void testNamespacesAreSeparate() {
+    cache.put("a", "1");
+    RemoteValueCache other = new RemoteValueCache(getForm(), NAMESPACE + "2", 3);
+    other.setListening(true);
+    assertEquals(Collections.<String>emptyList(), other.getStaleTags());
+    assertNull(other.get("a"));
+  }
+}
@@ -0,0 +1,66 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import com.google.appinventor.components.runtime.RobolectricTestBase;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests for RetValManager.
+ *
+ */
+public class RetValManagerTest extends RobolectricTestBase {
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    RetValManager.fetch(false);  // Discard anything left by other tests
+  }
+
+  @Test
+  public void testEvalTimeIsReported() throws JSONException {
+    RetValManager.appendReturnValue("1", "OK", "a", 12);
+    RetValManager.appendReturnValue("2", "OK", "b");
+    JSONArray values = new JSONObject(RetValManager.fetch(false)).getJSONArray("values");
+    assertEquals(2, values.length());
+    assertEquals(12, values.getJSONObject(0).getLong("evalTime"));
+    assertFalse(values.getJSONObject(1).has("evalTime"));
+  }
+
+  @Test
+  public void testValuesBeyondLimitAreDropped() throws JSONException {
+    for (int i = 0; i < 300; i++) {
+      RetValManager.appendReturnValue("-1", "OK", Integer.toString(i));
+    }
+    RetValManager.pushScreen("Screen2", null);
+    JSONObject output = new JSONObject(RetValManager.fetch(false));
+    JSONArray values = output.getJSONArray("values");
+    assertEquals(257, values.length());
+    assertEquals("255", values.getJSONObject(255).getString("value"));
+    assertEquals("pushScreen", values.getJSONObject(256).getString("type"));
+    assertEquals(44, output.getInt("dropped"));
+    assertFalse(new JSONObject(RetValManager.fetch(false)).has("dropped"));
+  }
+
+  @Test
+  public void testAssetProgressIsCoalesced() throws JSONException {
+    RetValManager.assetProgress("a.png", 10, 100);
+    RetValManager.assetProgress("b.png", 20, 100);
+    RetValManager.assetProgress("a.png", 50, 100);
+    JSONArray values = new JSONObject(RetValManager.fetch(false)).getJSONArray("values");
+    assertEquals(2, values.length());
+    assertEquals("a.png", values.getJSONObject(0).getString("value"));
+    assertEquals(50, values.getJSONObject(0).getLong("received"));
+    assertEquals("b.png", values.getJSONObject(1).getString("value"));
+  }
+}
@@ -0,0 +1,84 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests SensorSampleBuffer.
+ *
+ */
+public class SensorSampleBufferTest extends TestCase {
+  private static final float DELTA = .00001f;  // floating point delta
+
+  private final List<float[]> received = new ArrayList<float[]>();
+  private final List<Long> timestamps = new ArrayList<Long>();
+
+  private final SensorSampleBuffer.SampleHandler handler = new SensorSampleBuffer.SampleHandler() {
+    @Override
+    public void onSample(int channel, float[] values, long timestamp) {
+      received.add(new float[] { channel, values[0], values[1], values[2] });
+      timestamps.add(timestamp);
+    }
+  };
+
+  public void testCapacityRoundedToPowerOfTwo() {
+    assertEquals(8, new SensorSampleBuffer(5, 3).capacity());
+    assertEquals(8, new SensorSampleBuffer(8, 3).capacity());
+    assertEquals(1, new SensorSampleBuffer(1, 3).capacity());
+  }
+
+  public void testDrainReturnsSamplesInOrder() {
+    SensorSampleBuffer buffer = new SensorSampleBuffer(4, 3);
+    buffer.offer(0, new float[] { 1f, 2f, 3f }, 10L);
+    buffer.offer(1, new float[] { 4f, 5f, 6f }, 20L);
+    assertEquals(2, buffer.size());
+
+    assertEquals(2, buffer.drain(handler, new float[3]));
+    assertEquals(0, buffer.size());
+    assertEquals(2, received.size());
+    assertEquals(0f, received.get(0)[0], DELTA);
+    assertEquals(1f, received.get(0)[1], DELTA);
+    assertEquals(3f, received.get(0)[3], DELTA);
+    assertEquals(1f, received.get(1)[0], DELTA);
+    assertEquals(4f, received.get(1)[1], DELTA);
+    assertEquals(Long.valueOf(10L), timestamps.get(0));
+    assertEquals(Long.valueOf(20L), timestamps.get(1));
+    assertEquals(0L, buffer.getDroppedCount());
+  }
+
+  public void testOverflowDropsOldest() {
+    SensorSampleBuffer buffer = new SensorSampleBuffer(4, 3);
+    for (int i = 0; i < 6; i++) {
+      buffer.offer(0, new float[] { i, i, i }, i);
+    }
+    assertEquals(4, buffer.size());
+    assertEquals(2L, buffer.getDroppedCount());
+
+    assertEquals(4, buffer.drain(handler, new float[3]));
+    assertEquals(2f, received.get(0)[1], DELTA);
+    assertEquals(5f, received.get(3)[1], DELTA);
+
+    buffer.resetDroppedCount();
+    assertEquals(0L, buffer.getDroppedCount());
+  }
+
+  public void testClear() {
+    SensorSampleBuffer buffer = new SensorSampleBuffer(4, 3);
+    buffer.offer(0, new float[] { 1f, 2f, 3f }, 1L);
+    buffer.offer(0, new float[] { 1f, 2f, 3f }, 2L);
+    buffer.clear();
+    assertEquals(0, buffer.size());
+    assertEquals(0, buffer.drain(handler, new float[3]));
+
+    buffer.offer(0, new float[] { 7f, 8f, 9f }, 3L);
+    assertEquals(1, buffer.drain(handler, new float[3]));
+    assertEquals(7f, received.get(0)[1], DELTA);
+  }
+}
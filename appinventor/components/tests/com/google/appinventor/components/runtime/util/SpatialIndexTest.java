@@ -0,0 +1,75 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SpatialIndex}.
+ */
+public class SpatialIndexTest {
+
+  private SpatialIndex<String> index;
+
+  private static Envelope point(double latitude, double longitude) {
+    return new Envelope(longitude, longitude, latitude, latitude);
+  }
+
+  @Before
+  public void setUp() {
+    index = new SpatialIndex<String>();
+  }
+
+  @Test
+  public void testQueryReturnsIntersectingItemsInOrder() {
+    index.put("c", point(1.0, 1.0));
+    index.put("a", point(5.0, 5.0));
+    index.put("b", new Envelope(-10.0, 10.0, 0.5, 0.5));
+    assertEquals(Arrays.asList("c", "b"), index.query(new Envelope(0.0, 2.0, 0.0, 2.0)));
+    assertEquals(Arrays.asList("c", "a", "b"), index.getAll());
+  }
+
+  @Test
+  public void testPutUpdatesBoundsAndKeepsOrder() {
+    index.put("a", point(1.0, 1.0));
+    index.put("b", point(1.0, 1.5));
+    index.put("a", point(40.0, 40.0));
+    assertEquals(2, index.size());
+    assertEquals(Collections.singletonList("b"), index.query(new Envelope(0.0, 2.0, 0.0, 2.0)));
+    index.put("a", point(1.0, 1.0));
+    assertEquals(Arrays.asList("a", "b"), index.query(new Envelope(0.0, 2.0, 0.0, 2.0)));
+  }
+
+  @Test
+  public void testRemove() {
+    index.put("a", point(1.0, 1.0));
+    assertTrue(index.contains("a"));
+    assertTrue(index.remove("a"));
+    assertFalse(index.remove("a"));
+    assertFalse(index.contains("a"));
+    assertEquals(0, index.size());
+    assertTrue(index.query(new Envelope(0.0, 2.0, 0.0, 2.0)).isEmpty());
+  }
+
+  @Test
+  public void testManyItems() {
+    for (int i = 0; i < 5000; i++) {
+      index.put("m" + i, point((i % 100) - 50.0, (i / 100) - 25.0));
+    }
+    // One column of longitude holds 100 markers.
+    assertEquals(100, index.query(new Envelope(-0.5, 0.5, -90.0, 90.0)).size());
+    assertEquals(1, index.query(point(0.0, 0.0)).size());
+  }
+}
@@ -0,0 +1,223 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2018 MIT, All rights reserved
+// Released under the Apache License, Version 2.0
+// http://www.apache.org/licenses/LICENSE-2.0
+
+package com.google.appinventor.components.runtime.util;
+
+import com.google.appinventor.components.runtime.RobolectricTestBase;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osmdroid.config.Configuration;
+import org.osmdroid.config.IConfigurationProvider;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.cachemanager.CacheManager;
+import org.osmdroid.tileprovider.modules.SqlTileWriter;
+import org.osmdroid.tileprovider.tilesource.XYTileSource;
+import org.osmdroid.util.BoundingBox;
+import org.robolectric.Robolectric;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for TileCache, downloading tiles from a local HTTP server.
+ *
+ */
+public class TileCacheTest extends RobolectricTestBase {
+
+  // A 1x1 white PNG image
+  private static final byte[] TILE = new byte[] {
+      (byte) 0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a, 0x00, 0x00, 0x00, 0x0d, 0x49, 0x48,
+      0x44, 0x52, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x01, 0x08, 0x02, 0x00, 0x00, 0x00,
+      (byte) 0x90, 0x77, 0x53, (byte) 0xde, 0x00, 0x00, 0x00, 0x0c, 0x49, 0x44, 0x41, 0x54, 0x78,
+      (byte) 0x9c, 0x63, (byte) 0xf8, (byte) 0xff, (byte) 0xff, 0x3f, 0x00, 0x05, (byte) 0xfe,
+      0x02, (byte) 0xfe, 0x0d, (byte) 0xef, 0x46, (byte) 0xb8, 0x00, 0x00, 0x00, 0x00, 0x49, 0x45,
+      0x4e, 0x44, (byte) 0xae, 0x42, 0x60, (byte) 0x82
+  };
+
+  // Covers all 21 tiles from zoom level 0 to 2
+  private static final BoundingBox WORLD = new BoundingBox(80, 170, -80, -170);
+
+  private final List<String> requests = new CopyOnWriteArrayList<String>();
+  private volatile String missingPath = null;
+  private HttpServer server;
+  private XYTileSource source;
+  private TileCache cache;
+
+  // The global osmdroid settings that the tests change, restored in tearDown
+  private File savedTileCache;
+  private long savedMaxBytes;
+  private long savedTrimBytes;
+  private boolean savedCleanupOnStart;
+
+  private static class RecordingCallback extends TileCache.DownloadCallback {
+    final List<int[]> progress = new ArrayList<int[]>();
+    int finished = 0;
+    int failed = -1;
+
+    @Override
+    void onProgress(int downloaded, int total) {
+      progress.add(new int[] { downloaded, total });
+    }
+
+    @Override
+    void onFinished(int failed) {
+      finished++;
+      this.failed = failed;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    IConfigurationProvider config = Configuration.getInstance();
+    savedTileCache = config.getOsmdroidTileCache();
+    savedMaxBytes = config.getTileFileSystemCacheMaxBytes();
+    savedTrimBytes = config.getTileFileSystemCacheTrimBytes();
+    savedCleanupOnStart = SqlTileWriter.CLEANUP_ON_START;
+    try {
+      File tileDir = File.createTempFile("tilecache", "");
+      assertTrue(tileDir.delete() && tileDir.mkdirs());
+      tileDir.deleteOnExit();
+      config.setOsmdroidTileCache(tileDir);
+      server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.add(path);
+        if (path.equals(missingPath)) {
+          exchange.sendResponseHeaders(404, -1);
+        } else {
+          exchange.getResponseHeaders().set("Content-Type", "image/png");
+          exchange.sendResponseHeaders(200, TILE.length);
+          OutputStream out = exchange.getResponseBody();
+          out.write(TILE);
+          out.close();
+        }
+        exchange.close();
+      }
+    });
+    server.start();
+    source = new XYTileSource("Stub", 0, 2, 256, ".png",
+        new String[] { "http://127.0.0.1:" + server.getAddress().getPort() + "/" });
+    // Run the cleanup only when the test asks for it.
+    SqlTileWriter.CLEANUP_ON_START = false;
+    config.setTileFileSystemCacheMaxBytes(Long.MAX_VALUE);
+    config.setTileFileSystemCacheTrimBytes(Long.MAX_VALUE);
+    cache = new TileCache();
+  }
+
+  @After
+  public void tearDown() {
+    cache.onDetach();
+    server.stop(0);
+    IConfigurationProvider config = Configuration.getInstance();
+    config.setOsmdroidTileCache(savedTileCache);
+    config.setTileFileSystemCacheMaxBytes(savedMaxBytes);
+    config.setTileFileSystemCacheTrimBytes(savedTrimBytes);
+    SqlTileWriter.CLEANUP_ON_START = savedCleanupOnStart;
+  }
+
+  @Test
+  public void testLeastRecentlyUsedTileIsRemovedFirst() throws Exception {
+    MapTile first = new MapTile(2, 0, 0);
+    MapTile second = new MapTile(2, 1, 0);
+    MapTile third = new MapTile(2, 2, 0);
+    save(first);
+    save(second);
+    save(third);
+    Thread.sleep(5);
+    // Reading the oldest tile makes the second one the least recently used.
+    assertNotNull(cache.loadTile(source, first));
+
+    // Leave room for two tiles.
+    Configuration.getInstance().setTileFileSystemCacheMaxBytes(2 * TILE.length + 1);
+    Configuration.getInstance().setTileFileSystemCacheTrimBytes(2 * TILE.length);
+    cache.runCleanupOperation();
+
+    assertTrue(cache.exists(source, first));
+    assertFalse(cache.exists(source, second));
+    assertTrue(cache.exists(source, third));
+  }
+
+  @Test
+  public void testCleanupKeepsTilesThatFit() throws Exception {
+    MapTile tile = new MapTile(0, 0, 0);
+    save(tile);
+    Configuration.getInstance().setTileFileSystemCacheMaxBytes(TILE.length);
+    Configuration.getInstance().setTileFileSystemCacheTrimBytes(0);
+    cache.runCleanupOperation();
+    assertTrue(cache.exists(source, tile));
+  }
+
+  @Test
+  public void testDownloadReportsProgress() {
+    RecordingCallback callback = download();
+    assertEquals(21, requests.size());
+    assertEquals(1, callback.finished);
+    assertEquals(0, callback.failed);
+    assertFalse(callback.progress.isEmpty());
+    assertEquals(0, callback.progress.get(0)[0]);
+    int previous = 0;
+    for (int[] progress : callback.progress) {
+      assertEquals(21, progress[1]);
+      assertTrue(progress[0] >= previous && progress[0] <= 21);
+      previous = progress[0];
+    }
+    assertTrue(cache.exists(source, new MapTile(0, 0, 0)));
+    assertTrue(cache.exists(source, new MapTile(2, 3, 3)));
+  }
+
+  @Test
+  public void testDownloadReportsFailedTiles() {
+    missingPath = "/1/1/0.png";
+    RecordingCallback callback = download();
+    assertEquals(1, callback.finished);
+    assertEquals(1, callback.failed);
+    assertFalse(cache.exists(source, new MapTile(1, 1, 0)));
+    assertTrue(cache.exists(source, new MapTile(1, 0, 0)));
+  }
+
+  @Test
+  public void testCachedTilesAreNotDownloadedAgain() throws Exception {
+    save(new MapTile(0, 0, 0));
+    RecordingCallback callback = download();
+    assertEquals(0, callback.failed);
+    assertEquals(20, requests.size());
+    assertFalse(requests.contains("/0/0/0.png"));
+  }
+
+  private void save(MapTile tile) throws InterruptedException {
+    assertTrue(cache.saveFile(source, tile, new ByteArrayInputStream(TILE)));
+    // Give each tile its own use time.
+    Thread.sleep(5);
+  }
+
+  private RecordingCallback download() {
+    RecordingCallback callback = new RecordingCallback();
+    new CacheManager(source, cache, 0, 2).downloadAreaAsyncNoUI(getForm(), WORLD, 0, 2, callback);
+    Robolectric.flushBackgroundThreadScheduler();
+    runAllEvents();
+    return callback;
+  }
+}